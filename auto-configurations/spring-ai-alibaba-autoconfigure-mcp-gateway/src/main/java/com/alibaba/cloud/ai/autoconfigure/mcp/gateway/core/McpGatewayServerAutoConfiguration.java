@@ -16,8 +16,11 @@
 
 package com.alibaba.cloud.ai.autoconfigure.mcp.gateway.core;
 
+import com.alibaba.cloud.ai.mcp.gateway.core.McpGatewayProperties;
 import com.alibaba.cloud.ai.mcp.gateway.core.McpGatewayToolCallbackProvider;
 import com.alibaba.cloud.ai.mcp.gateway.core.McpGatewayToolsInitializer;
+import com.alibaba.cloud.ai.mcp.gateway.core.client.McpGatewayClientPool;
+import com.alibaba.cloud.ai.mcp.gateway.core.security.McpGatewayOAuthInterceptor;
 import com.alibaba.cloud.ai.mcp.gateway.core.utils.SpringBeanUtils;
 import io.modelcontextprotocol.server.McpServer;
 import io.modelcontextprotocol.spec.McpServerTransportProvider;
@@ -26,13 +29,17 @@ import org.slf4j.LoggerFactory;
 import org.springframework.ai.mcp.server.common.autoconfigure.McpServerAutoConfiguration;
 import org.springframework.ai.tool.ToolCallbackProvider;
 import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.annotation.Bean;
 import org.springframework.lang.NonNull;
+import org.springframework.web.reactive.function.client.WebClient;
 
 /**
  * Autoconfiguration for MCP Server Bean initialization compatible with v0.11.0. This
@@ -44,6 +51,7 @@ import org.springframework.lang.NonNull;
 @AutoConfiguration(after = { McpServerAutoConfiguration.class })
 @ConditionalOnClass({ McpServer.class, McpServerTransportProvider.class })
 @ConditionalOnProperty(name = "spring.ai.alibaba.mcp.gateway.enabled", havingValue = "true", matchIfMissing = false)
+@EnableConfigurationProperties(McpGatewayProperties.class)
 public class McpGatewayServerAutoConfiguration implements ApplicationContextAware {
 
 	private static final Logger log = LoggerFactory.getLogger(McpGatewayServerAutoConfiguration.class);
@@ -60,4 +68,13 @@ public class McpGatewayServerAutoConfiguration implements ApplicationContextAwar
 			.build();
 	}
 
+	@Bean(destroyMethod = "close")
+	@ConditionalOnMissingBean
+	public McpGatewayClientPool mcpGatewayClientPool(ObjectProvider<WebClient.Builder> webClientBuilder,
+			ObjectProvider<McpGatewayOAuthInterceptor> oauthInterceptor, McpGatewayProperties properties) {
+		WebClient.Builder builder = webClientBuilder.getIfAvailable(WebClient::builder).clone();
+		oauthInterceptor.ifAvailable(builder::filter);
+		return new McpGatewayClientPool(builder, properties.getRequestTimeout());
+	}
+
 }
@@ -101,7 +101,7 @@ public class ElasticsearchChatMemoryAutoConfiguration {
 		// Create the transport and client
 		ElasticsearchTransport transport = new RestClientTransport(restClientBuilder.build(), new JacksonJsonpMapper());
 		ElasticsearchClient elasticsearchClient = new ElasticsearchClient(transport);
-		return new ElasticsearchChatMemoryRepository(elasticsearchClient);
+		return new ElasticsearchChatMemoryRepository(elasticsearchClient, properties.isReadYourWrites());
 	}
 
 }
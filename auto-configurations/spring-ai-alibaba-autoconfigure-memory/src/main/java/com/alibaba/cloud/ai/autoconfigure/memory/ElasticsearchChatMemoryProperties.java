@@ -72,6 +72,12 @@ public class ElasticsearchChatMemoryProperties {
 	 */
 	private String scheme = "http";
 
+	/**
+	 * Whether saves wait until the messages are visible to search (refresh=wait_for).
+	 * When disabled, a read right after a save may not see it until the next refresh.
+	 */
+	private boolean readYourWrites = false;
+
 	public String getHost() {
 		return host;
 	}
@@ -144,4 +150,12 @@ public class ElasticsearchChatMemoryProperties {
 		this.scheme = scheme;
 	}
 
+	public boolean isReadYourWrites() {
+		return readYourWrites;
+	}
+
+	public void setReadYourWrites(final boolean readYourWrites) {
+		this.readYourWrites = readYourWrites;
+	}
+
 }
@@ -15,14 +15,17 @@
  */
 package com.alibaba.cloud.ai.autoconfigure.memory;
 
+import com.alibaba.cloud.ai.memory.memcached.MemcachedChatMemory;
 import com.alibaba.cloud.ai.memory.memcached.MemcachedChatMemoryRepository;
 import com.alibaba.cloud.ai.toolcalling.memcached.MemcachedService;
 import net.spy.memcached.MemcachedClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.memory.ChatMemory;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 
@@ -46,7 +49,19 @@ public class MemcachedChatMemoryAutoConfiguration {
 		MemcachedClient memcachedClient = new MemcachedClient(
 				new InetSocketAddress(properties.getHost(), properties.getPort()));
 		logger.info("Configuring Memcached chat memory repository");
-		return new MemcachedChatMemoryRepository(new MemcachedService(memcachedClient));
+		return new MemcachedChatMemoryRepository(new MemcachedService(memcachedClient), properties.getMode(),
+				properties.getMaxShardBytes(), properties.getMaxRetries());
+	}
+
+	/**
+	 * With the sharded mode, a ChatMemory that passes the messages it read to the save so
+	 * that concurrent turns keep each other's messages
+	 */
+	@Bean
+	@ConditionalOnMissingBean
+	@ConditionalOnProperty(prefix = "spring.ai.memory.memcached", name = "mode", havingValue = "sharded_cas")
+	ChatMemory memcachedChatMemory(MemcachedChatMemoryRepository memcachedChatMemoryRepository) {
+		return new MemcachedChatMemory(memcachedChatMemoryRepository);
 	}
 
 }
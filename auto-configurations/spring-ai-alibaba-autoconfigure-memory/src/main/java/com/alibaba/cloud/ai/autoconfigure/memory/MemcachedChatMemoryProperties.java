@@ -15,6 +15,7 @@
  */
 package com.alibaba.cloud.ai.autoconfigure.memory;
 
+import com.alibaba.cloud.ai.memory.memcached.MemcachedChatMemoryRepository;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -27,6 +28,22 @@ public class MemcachedChatMemoryProperties {
 
 	private int port = 11211;
 
+	/**
+	 * how conversations are stored, one item per conversation or sharded items updated
+	 * with cas.
+	 */
+	private MemcachedChatMemoryRepository.Mode mode = MemcachedChatMemoryRepository.Mode.SINGLE_VALUE;
+
+	/**
+	 * most serialized message bytes per item with the sharded mode.
+	 */
+	private int maxShardBytes = MemcachedChatMemoryRepository.DEFAULT_MAX_SHARD_BYTES;
+
+	/**
+	 * retries on concurrent modification with the sharded mode.
+	 */
+	private int maxRetries = MemcachedChatMemoryRepository.DEFAULT_MAX_RETRIES;
+
 	public String getHost() {
 		return host;
 	}
@@ -43,4 +60,28 @@ public class MemcachedChatMemoryProperties {
 		this.port = port;
 	}
 
+	public MemcachedChatMemoryRepository.Mode getMode() {
+		return mode;
+	}
+
+	public void setMode(MemcachedChatMemoryRepository.Mode mode) {
+		this.mode = mode;
+	}
+
+	public int getMaxShardBytes() {
+		return maxShardBytes;
+	}
+
+	public void setMaxShardBytes(int maxShardBytes) {
+		this.maxShardBytes = maxShardBytes;
+	}
+
+	public int getMaxRetries() {
+		return maxRetries;
+	}
+
+	public void setMaxRetries(int maxRetries) {
+		this.maxRetries = maxRetries;
+	}
+
 }
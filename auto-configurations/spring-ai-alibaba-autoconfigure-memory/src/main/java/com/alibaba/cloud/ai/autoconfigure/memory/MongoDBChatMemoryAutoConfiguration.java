@@ -47,6 +47,8 @@ public class MongoDBChatMemoryAutoConfiguration {
 			.databaseName(properties.getDatabaseName())
 			.userName(properties.getUserName())
 			.password(properties.getPassword())
+			.layout(properties.getLayout())
+			.maxMessages(properties.getMaxMessages())
 			.build();
 	}
 
@@ -16,6 +16,7 @@
 
 package com.alibaba.cloud.ai.autoconfigure.memory;
 
+import com.alibaba.cloud.ai.memory.mongodb.MongoDBChatMemoryRepository;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -54,6 +55,17 @@ public class MongoDBChatMemoryProperties {
 	 */
 	private String databaseName = "spring_ai";
 
+	/**
+	 * mongodb document layout, one document per message or one per conversation.
+	 */
+	private MongoDBChatMemoryRepository.Layout layout = MongoDBChatMemoryRepository.Layout.MESSAGE_DOCUMENTS;
+
+	/**
+	 * most messages kept per conversation with the conversation document layout, 0 for
+	 * no limit.
+	 */
+	private int maxMessages;
+
 	public String getHost() {
 		return host;
 	}
@@ -102,4 +114,20 @@ public class MongoDBChatMemoryProperties {
 		this.databaseName = databaseName;
 	}
 
+	public MongoDBChatMemoryRepository.Layout getLayout() {
+		return layout;
+	}
+
+	public void setLayout(MongoDBChatMemoryRepository.Layout layout) {
+		this.layout = layout;
+	}
+
+	public int getMaxMessages() {
+		return maxMessages;
+	}
+
+	public void setMaxMessages(int maxMessages) {
+		this.maxMessages = maxMessages;
+	}
+
 }
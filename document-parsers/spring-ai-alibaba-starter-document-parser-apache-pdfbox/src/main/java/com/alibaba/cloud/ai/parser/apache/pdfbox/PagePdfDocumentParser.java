@@ -18,12 +18,22 @@ package com.alibaba.cloud.ai.parser.apache.pdfbox;
 import java.awt.Rectangle;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import com.alibaba.cloud.ai.document.DocumentParser;
-import org.apache.pdfbox.pdfparser.PDFParser;
+import com.alibaba.cloud.ai.document.OrderedTaskIterator;
+import com.alibaba.cloud.ai.document.TaskResources;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.slf4j.Logger;
@@ -32,7 +42,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.reader.pdf.config.PdfDocumentReaderConfig;
 import org.springframework.ai.reader.pdf.layout.PDFLayoutTextStripperByArea;
-import org.springframework.util.CollectionUtils;
+import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
 /**
@@ -40,6 +50,13 @@ import org.springframework.util.StringUtils;
  * into a single output document. Use {@link PdfDocumentReaderConfig} for customization
  * options. The default configuration is: - pagesPerDocument = 1 - pageTopMargin = 0 -
  * pageBottomMargin = 0
+ * <p>
+ * The PDF is spooled to a temporary file and read through file-backed documents, so it is
+ * never held in memory as a whole. With a parallelism greater than one, page ranges are
+ * extracted concurrently. {@link PDDocument} is not thread-safe, so every worker loads
+ * the file once and keeps its own document and text stripper for all of its ranges. The
+ * resulting documents are the same as in sequential mode and
+ * {@link #parseAsStream(InputStream)} emits them lazily, in page order.
  *
  * @author HeYQ
  */
@@ -51,102 +68,211 @@ public class PagePdfDocumentParser implements DocumentParser {
 
 	private static final String PDF_PAGE_REGION = "pdfPageRegion";
 
+	private static final int MAX_PAGES_PER_TASK = 8;
+
 	private final Logger logger = LoggerFactory.getLogger(getClass());
 
 	private final PdfDocumentReaderConfig config;
 
+	private final int parallelism;
+
 	public PagePdfDocumentParser() {
 		this(PdfDocumentReaderConfig.defaultConfig());
 	}
 
 	public PagePdfDocumentParser(PdfDocumentReaderConfig config) {
+		this(config, 1);
+	}
+
+	/**
+	 * @param config the reader configuration
+	 * @param parallelism the number of page ranges extracted concurrently, {@code 1}
+	 * extracts the pages on the consuming thread
+	 */
+	public PagePdfDocumentParser(PdfDocumentReaderConfig config, int parallelism) {
+		Assert.notNull(config, "config must not be null");
+		Assert.isTrue(parallelism > 0, "parallelism must be greater than 0");
 		this.config = config;
+		this.parallelism = parallelism;
 	}
 
 	@Override
 	public List<Document> parse(InputStream inputStream) {
+		try (Stream<Document> documents = parseAsStream(inputStream)) {
+			return documents.toList();
+		}
+	}
 
-		List<Document> readDocuments = new ArrayList<>();
+	@Override
+	public Stream<Document> parseAsStream(InputStream inputStream) {
+		Path file = spool(inputStream);
+		TaskResources<PageReader> readers = new TaskResources<>(() -> new PageReader(
+				Loader.loadPDF(new RandomAccessReadBufferedFile(file.toFile())), new PDFLayoutTextStripperByArea()));
 		try {
-			var pdfTextStripper = new PDFLayoutTextStripperByArea();
-
-			int pageNumber = 0;
-			int pagesPerDocument = 0;
-			int startPageNumber = pageNumber;
-
-			List<String> pageTextGroupList = new ArrayList<>();
-			PDFParser pdfParser = new PDFParser(new org.apache.pdfbox.io.RandomAccessReadBuffer(inputStream));
-			PDDocument document = pdfParser.parse();
-
-			int totalPages = document.getDocumentCatalog().getPages().getCount();
-			// if less than 10
-			int logFrequency = totalPages > 10 ? totalPages / 10 : 1;
-			// pages, print
-			// each iteration
-			int counter = 0;
-
-			PDPage lastPage = document.getDocumentCatalog().getPages().iterator().next();
-			for (PDPage page : document.getDocumentCatalog().getPages()) {
-				lastPage = page;
-				if (counter % logFrequency == 0 && counter / logFrequency < 10) {
-					logger.info("Processing PDF page: {}", (counter + 1));
-				}
-				counter++;
+			PageReader firstReader = readers.borrow();
+			int totalPages = firstReader.document().getNumberOfPages();
+			readers.release(firstReader);
+			logger.info("Processing {} pages with parallelism {}", totalPages, this.parallelism);
 
-				pagesPerDocument++;
+			int pagesPerTask = Math.max(1,
+					Math.min(MAX_PAGES_PER_TASK, (totalPages + this.parallelism - 1) / this.parallelism));
+			Iterator<Callable<List<String>>> tasks = IntStream
+				.iterate(0, from -> from < totalPages, from -> from + pagesPerTask)
+				.<Callable<List<String>>>mapToObj(
+						from -> () -> extractPages(readers, from, Math.min(from + pagesPerTask, totalPages)))
+				.iterator();
+			OrderedTaskIterator<List<String>> pageTexts = new OrderedTaskIterator<>("pdfbox-parser", this.parallelism,
+					tasks)
+				.onClose(readers::close)
+				.onClose(() -> deleteQuietly(file));
 
-				if (this.config.pagesPerDocument != PdfDocumentReaderConfig.ALL_PAGES
-						&& pagesPerDocument >= this.config.pagesPerDocument) {
-					pagesPerDocument = 0;
+			// the page texts arrive in page order and are grouped on the consuming thread
+			PageGrouper grouper = new PageGrouper();
+			Stream<Document> documents = pageTexts.stream()
+				.<Document>mapMulti((texts, sink) -> texts.forEach(pageText -> grouper.add(pageText, sink)));
+			return Stream.concat(documents, Stream.of(grouper).<Document>mapMulti(PageGrouper::finish));
+		}
+		catch (RuntimeException e) {
+			readers.close();
+			deleteQuietly(file);
+			throw e;
+		}
+		catch (Exception e) {
+			readers.close();
+			deleteQuietly(file);
+			throw new RuntimeException(e);
+		}
+	}
 
-					var aggregatedPageTextGroup = pageTextGroupList.stream().collect(Collectors.joining());
-					if (StringUtils.hasText(aggregatedPageTextGroup)) {
-						readDocuments.add(toDocument(aggregatedPageTextGroup, startPageNumber, pageNumber));
-					}
-					pageTextGroupList.clear();
+	protected Document toDocument(String docText, int startPageNumber, int endPageNumber) {
+		Document doc = new Document(docText);
+		doc.getMetadata().put(METADATA_START_PAGE_NUMBER, startPageNumber);
+		if (startPageNumber != endPageNumber) {
+			doc.getMetadata().put(METADATA_END_PAGE_NUMBER, endPageNumber);
+		}
+		return doc;
+	}
 
-					startPageNumber = pageNumber + 1;
-				}
-				int x0 = (int) page.getMediaBox().getLowerLeftX();
-				int xW = (int) page.getMediaBox().getWidth();
+	/**
+	 * Returns the formatted text of the page, or {@code null} if the page has no text.
+	 */
+	private String extractText(PDFLayoutTextStripperByArea pdfTextStripper, PDPage page, int pageNumber)
+			throws IOException {
+		int x0 = (int) page.getMediaBox().getLowerLeftX();
+		int xW = (int) page.getMediaBox().getWidth();
+
+		int y0 = (int) page.getMediaBox().getLowerLeftY() + this.config.pageTopMargin;
+		int yW = (int) page.getMediaBox().getHeight() - (this.config.pageTopMargin + this.config.pageBottomMargin);
+
+		pdfTextStripper.addRegion(PDF_PAGE_REGION, new Rectangle(x0, y0, xW, yW));
+		try {
+			pdfTextStripper.extractRegions(page);
+			var pageText = pdfTextStripper.getTextForRegion(PDF_PAGE_REGION);
+			return StringUtils.hasText(pageText) ? this.config.pageExtractedTextFormatter.format(pageText, pageNumber)
+					: null;
+		}
+		finally {
+			pdfTextStripper.removeRegion(PDF_PAGE_REGION);
+		}
+	}
+
+	/**
+	 * Extracts the pages {@code [from, to)} with a reader that no other task is using.
+	 */
+	private List<String> extractPages(TaskResources<PageReader> readers, int from, int to) throws Exception {
+		PageReader reader = readers.borrow();
+		try {
+			List<String> pageTexts = new ArrayList<>(to - from);
+			for (int pageNumber = from; pageNumber < to; pageNumber++) {
+				pageTexts.add(extractText(reader.stripper(), reader.document().getPage(pageNumber), pageNumber));
+			}
+			return pageTexts;
+		}
+		finally {
+			readers.release(reader);
+		}
+	}
+
+	private Path spool(InputStream inputStream) {
+		Path file = null;
+		try {
+			file = Files.createTempFile("pdfbox-parser-", ".pdf");
+			Files.copy(inputStream, file, StandardCopyOption.REPLACE_EXISTING);
+			return file;
+		}
+		catch (IOException e) {
+			deleteQuietly(file);
+			throw new RuntimeException(e);
+		}
+	}
+
+	private void deleteQuietly(Path file) {
+		if (file == null) {
+			return;
+		}
+		try {
+			Files.deleteIfExists(file);
+		}
+		catch (IOException e) {
+			logger.warn("Failed to delete temporary file {}", file, e);
+		}
+	}
+
+	/**
+	 * Joins consecutive page texts into documents of
+	 * {@link PdfDocumentReaderConfig#pagesPerDocument} pages.
+	 */
+	private final class PageGrouper {
+
+		private final List<String> pageTextGroupList = new ArrayList<>();
 
-				int y0 = (int) page.getMediaBox().getLowerLeftY() + this.config.pageTopMargin;
-				int yW = (int) page.getMediaBox().getHeight()
-						- (this.config.pageTopMargin + this.config.pageBottomMargin);
+		private int pageNumber;
 
-				pdfTextStripper.addRegion(PDF_PAGE_REGION, new Rectangle(x0, y0, xW, yW));
-				pdfTextStripper.extractRegions(page);
-				var pageText = pdfTextStripper.getTextForRegion(PDF_PAGE_REGION);
+		private int pagesPerDocument;
 
-				if (StringUtils.hasText(pageText)) {
+		private int startPageNumber;
 
-					pageText = this.config.pageExtractedTextFormatter.format(pageText, pageNumber);
+		void add(String pageText, Consumer<Document> documents) {
+			this.pagesPerDocument++;
 
-					pageTextGroupList.add(pageText);
+			if (config.pagesPerDocument != PdfDocumentReaderConfig.ALL_PAGES
+					&& this.pagesPerDocument >= config.pagesPerDocument) {
+				this.pagesPerDocument = 0;
+
+				var aggregatedPageTextGroup = String.join("", this.pageTextGroupList);
+				if (StringUtils.hasText(aggregatedPageTextGroup)) {
+					documents.accept(toDocument(aggregatedPageTextGroup, this.startPageNumber, this.pageNumber));
 				}
-				pageNumber++;
-				pdfTextStripper.removeRegion(PDF_PAGE_REGION);
+				this.pageTextGroupList.clear();
+
+				this.startPageNumber = this.pageNumber + 1;
 			}
-			if (!CollectionUtils.isEmpty(pageTextGroupList)) {
-				readDocuments.add(toDocument(pageTextGroupList.stream().collect(Collectors.joining()), startPageNumber,
-						pageNumber));
+			if (pageText != null) {
+				this.pageTextGroupList.add(pageText);
 			}
-			logger.info("Processing {} pages", totalPages);
-			return readDocuments;
-
+			this.pageNumber++;
 		}
-		catch (IOException e) {
-			throw new RuntimeException(e);
+
+		void finish(Consumer<Document> documents) {
+			if (!this.pageTextGroupList.isEmpty()) {
+				documents
+					.accept(toDocument(String.join("", this.pageTextGroupList), this.startPageNumber, this.pageNumber));
+				this.pageTextGroupList.clear();
+			}
 		}
+
 	}
 
-	protected Document toDocument(String docText, int startPageNumber, int endPageNumber) {
-		Document doc = new Document(docText);
-		doc.getMetadata().put(METADATA_START_PAGE_NUMBER, startPageNumber);
-		if (startPageNumber != endPageNumber) {
-			doc.getMetadata().put(METADATA_END_PAGE_NUMBER, endPageNumber);
+	/**
+	 * A file-backed document with its text stripper, used by one task at a time.
+	 */
+	private record PageReader(PDDocument document, PDFLayoutTextStripperByArea stripper) implements AutoCloseable {
+
+		@Override
+		public void close() throws IOException {
+			this.document.close();
 		}
-		return doc;
+
 	}
 
 }
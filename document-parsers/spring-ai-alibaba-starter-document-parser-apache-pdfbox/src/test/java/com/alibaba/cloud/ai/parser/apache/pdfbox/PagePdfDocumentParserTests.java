@@ -18,12 +18,15 @@ package com.alibaba.cloud.ai.parser.apache.pdfbox;
 import java.io.IOException;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.ai.document.Document;
 import org.springframework.ai.reader.ExtractedTextFormatter;
+import org.springframework.ai.reader.pdf.PagePdfDocumentReader;
 import org.springframework.ai.reader.pdf.config.PdfDocumentReaderConfig;
 import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -70,4 +73,58 @@ class PagePdfDocumentParserTests {
 		assertThat(documents).hasSize(64);
 	}
 
+	@Test
+	void parallelParsingMatchesSequentialParsing() throws IOException {
+		for (int pagesPerDocument : new int[] { 1, 3, PdfDocumentReaderConfig.ALL_PAGES }) {
+			PdfDocumentReaderConfig config = PdfDocumentReaderConfig.builder()
+				.withPageExtractedTextFormatter(ExtractedTextFormatter.builder().build())
+				.withPagesPerDocument(pagesPerDocument)
+				.build();
+
+			List<Document> expected = new PagePdfDocumentParser(config)
+				.parse(new DefaultResourceLoader().getResource("classpath:/sample2.pdf").getInputStream());
+			List<Document> actual = new PagePdfDocumentParser(config, 4)
+				.parse(new DefaultResourceLoader().getResource("classpath:/sample2.pdf").getInputStream());
+
+			assertThat(actual).extracting(Document::getText)
+				.containsExactlyElementsOf(expected.stream().map(Document::getText).toList());
+			assertThat(actual).extracting(Document::getMetadata)
+				.containsExactlyElementsOf(expected.stream().map(Document::getMetadata).toList());
+		}
+	}
+
+	@Test
+	void matchesTheSpringAiPageReader() throws IOException {
+		for (int parallelism : new int[] { 1, 3 }) {
+			PdfDocumentReaderConfig config = PdfDocumentReaderConfig.builder()
+				.withPageExtractedTextFormatter(ExtractedTextFormatter.builder().build())
+				.withPagesPerDocument(1)
+				.build();
+			Resource pdf = new DefaultResourceLoader().getResource("classpath:/sample2.pdf");
+
+			List<Document> expected = new PagePdfDocumentReader(pdf, config).get();
+			List<Document> actual = new PagePdfDocumentParser(config, parallelism).parse(pdf.getInputStream());
+
+			assertThat(actual).extracting(Document::getText)
+				.containsExactlyElementsOf(expected.stream().map(Document::getText).toList());
+			assertThat(actual)
+				.extracting(doc -> doc.getMetadata().get(PagePdfDocumentParser.METADATA_START_PAGE_NUMBER))
+				.containsExactlyElementsOf(expected.stream()
+					.map(doc -> doc.getMetadata().get(PagePdfDocumentReader.METADATA_START_PAGE_NUMBER))
+					.toList());
+		}
+	}
+
+	@Test
+	void parallelStreamCanBeClosedEarly() throws IOException {
+		PagePdfDocumentParser parser = new PagePdfDocumentParser(PdfDocumentReaderConfig.defaultConfig(), 2);
+
+		try (Stream<Document> documents = parser
+			.parseAsStream(new DefaultResourceLoader().getResource("classpath:/sample2.pdf").getInputStream())) {
+			assertThat(documents.limit(3))
+				.extracting(doc -> doc.getMetadata().get(PagePdfDocumentParser.METADATA_START_PAGE_NUMBER))
+				.containsExactly(1, 2, 3);
+		}
+	}
+
 }
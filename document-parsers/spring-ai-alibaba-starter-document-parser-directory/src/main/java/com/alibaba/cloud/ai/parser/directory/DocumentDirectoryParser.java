@@ -21,31 +21,61 @@ package com.alibaba.cloud.ai.parser.directory;
  */
 
 import com.alibaba.cloud.ai.document.DocumentParser;
+import com.alibaba.cloud.ai.document.OrderedTaskIterator;
 import org.springframework.ai.document.Document;
+import org.springframework.util.Assert;
 
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.Objects;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+/**
+ * Parses the files of a directory with a delegate {@link DocumentParser}.
+ * <p>
+ * {@link #parseAsStream()} walks the directory lazily and emits the documents of each
+ * file in walk order. With a {@link Builder#parallelism(int) parallelism} greater than
+ * one, files are parsed concurrently on a private pool, with at most two files per worker
+ * parsed ahead of the consumer. When a {@link Builder#fileStates(ConcurrentMap) file
+ * state map} is set, the size, modification time and SHA-256 hash of a file are recorded
+ * in it once the consumer has moved past the file's last document, and files whose state
+ * is unchanged are skipped on the next run. Files that no longer exist are removed from
+ * the map when the directory is parsed.
+ */
 public class DocumentDirectoryParser implements DocumentParser {
 
+	public static final String METADATA_FILE_PATH = "file_path";
+
+	public static final String METADATA_FILE_SIZE = "file_size";
+
+	public static final String METADATA_LAST_MODIFIED = "last_modified";
+
+	public static final String METADATA_CONTENT_HASH = "content_hash";
+
 	private final String path;
 
-	private final List<String> globPatterns;
+	private final List<PathMatcher> globMatchers;
 
-	private final List<String> excludePatterns;
+	private final List<PathMatcher> excludeMatchers;
 
 	private final boolean loadHidden;
 
@@ -59,19 +89,36 @@ public class DocumentDirectoryParser implements DocumentParser {
 
 	private final Integer sampleSeed;
 
+	private final int parallelism;
+
+	private final ConcurrentMap<String, FileState> fileStates;
+
 	private DocumentDirectoryParser(Builder builder) {
+		Assert.isTrue(builder.parallelism > 0, "parallelism must be greater than 0");
 		this.path = builder.path;
-		this.globPatterns = builder.globPatterns;
-		this.excludePatterns = builder.excludePatterns;
+		this.globMatchers = compile(builder.globPatterns);
+		this.excludeMatchers = compile(builder.excludePatterns);
 		this.loadHidden = builder.loadHidden;
 		this.documentParser = builder.documentParser;
 		this.recursive = builder.recursive;
 		this.sampleSize = builder.sampleSize;
 		this.randomizeSample = builder.randomizeSample;
 		this.sampleSeed = builder.sampleSeed;
+		this.parallelism = builder.parallelism;
+		this.fileStates = builder.fileStates;
 	}
 
 	public List<Document> parse() {
+		try (Stream<Document> documents = parseAsStream()) {
+			return documents.collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * Parses the directory lazily. The returned stream holds the directory walk and, with
+	 * a parallelism greater than one, a thread pool, so it should be closed after use.
+	 */
+	public Stream<Document> parseAsStream() {
 		Path dirPath = Paths.get(path);
 		if (!Files.exists(dirPath)) {
 			throw new RuntimeException("Directory not found: " + path);
@@ -80,70 +127,149 @@ public class DocumentDirectoryParser implements DocumentParser {
 			throw new RuntimeException("Expected directory, got file: " + path);
 		}
 
-		List<Path> filePaths = findFiles(dirPath);
-		if (sampleSize > 0) {
-			filePaths = sampleFiles(filePaths);
+		if (fileStates != null) {
+			removeDeletedFiles(dirPath);
 		}
 
-		Stream<Path> fileStream = filePaths.stream();
+		Stream<Path> filePaths = findFiles(dirPath);
+		if (sampleSize > 0) {
+			List<Path> files;
+			try (Stream<Path> walk = filePaths) {
+				files = walk.collect(Collectors.toList());
+			}
+			filePaths = sampleFiles(files).stream();
+		}
 
-		return fileStream.flatMap(this::loadDocumentsFromFile).filter(Objects::nonNull).collect(Collectors.toList());
+		Stream<Callable<ParsedFile>> tasks = filePaths.map(file -> () -> parseFile(file));
+		return new OrderedTaskIterator<>("directory-parser", parallelism, tasks.iterator()).onConsumed(this::record)
+			.onClose(tasks::close)
+			.stream()
+			.flatMap(parsedFile -> parsedFile.documents().stream());
 	}
 
-	private List<Path> findFiles(Path dir) {
-		try (Stream<Path> stream = recursive ? Files.walk(dir) : Files.list(dir)) {
+	/**
+	 * Forgets the recorded files below the directory that no longer exist.
+	 */
+	private void removeDeletedFiles(Path dirPath) {
+		Path dir = dirPath.toAbsolutePath().normalize();
+		fileStates.keySet().removeIf(key -> {
+			Path file = Paths.get(key);
+			return file.startsWith(dir) && !Files.isRegularFile(file);
+		});
+	}
 
-			return stream.filter(this::isValidFile).collect(Collectors.toList());
+	private Stream<Path> findFiles(Path dir) {
+		try {
+			Stream<Path> stream = recursive ? Files.walk(dir) : Files.list(dir);
+			return stream.filter(file -> isValidFile(dir, file));
 		}
 		catch (IOException e) {
 			throw new RuntimeException("Error listing files", e);
 		}
 	}
 
-	private boolean isValidFile(Path path) {
+	private boolean isValidFile(Path dir, Path path) {
 		if (!Files.isRegularFile(path)) {
 			return false;
 		}
-		if (!loadHidden && isHidden(path)) {
+		if (!loadHidden && isHidden(dir, path)) {
 			return false;
 		}
-		if (matchesExclude(path)) {
+		if (matches(excludeMatchers, path)) {
 			return false;
 		}
-		return matchesGlob(path);
+		return matches(globMatchers, path);
 	}
 
-	private boolean isHidden(Path path) {
+	/**
+	 * A file is hidden if it or any directory between it and the parsed directory is
+	 * hidden or starts with a dot.
+	 */
+	private boolean isHidden(Path dir, Path path) {
+		for (Path name : dir.relativize(path)) {
+			if (name.toString().startsWith(".")) {
+				return true;
+			}
+		}
 		try {
-			return Files.isHidden(path) || path.toString().contains(FileSystems.getDefault().getSeparator() + ".");
+			return Files.isHidden(path);
 		}
 		catch (IOException e) {
 			return false;
 		}
 	}
 
-	private boolean matchesGlob(Path path) {
-		return globPatterns.stream()
-			.anyMatch(
-					pattern -> FileSystems.getDefault().getPathMatcher("glob:" + pattern).matches(path.getFileName()));
+	private static boolean matches(List<PathMatcher> matchers, Path path) {
+		Path fileName = path.getFileName();
+		for (PathMatcher matcher : matchers) {
+			if (matcher.matches(fileName)) {
+				return true;
+			}
+		}
+		return false;
 	}
 
-	private boolean matchesExclude(Path path) {
-
-		return excludePatterns.stream()
-			.anyMatch(
-					pattern -> FileSystems.getDefault().getPathMatcher("glob:" + pattern).matches(path.getFileName()));
+	private static List<PathMatcher> compile(List<String> patterns) {
+		return patterns.stream().map(pattern -> FileSystems.getDefault().getPathMatcher("glob:" + pattern)).toList();
 	}
 
-	private Stream<Document> loadDocumentsFromFile(Path file) {
-		try (FileInputStream fileInputStream = new FileInputStream(file.toFile())) {
-			return documentParser.parse(fileInputStream).stream();
+	private ParsedFile parseFile(Path file) {
+		try {
+			if (fileStates == null) {
+				try (FileInputStream fileInputStream = new FileInputStream(file.toFile())) {
+					return new ParsedFile(null, null, documentParser.parse(fileInputStream));
+				}
+			}
+
+			String key = file.toAbsolutePath().normalize().toString();
+			BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+			long size = attributes.size();
+			long lastModified = attributes.lastModifiedTime().toMillis();
+			FileState previous = fileStates.get(key);
+			if (previous != null && previous.size() == size && previous.lastModified() == lastModified) {
+				return new ParsedFile(null, null, List.of());
+			}
+			String hash = hash(file);
+			FileState state = new FileState(size, lastModified, hash);
+			if (previous != null && previous.hash().equals(hash)) {
+				return new ParsedFile(key, state, List.of());
+			}
+
+			List<Document> documents;
+			try (FileInputStream fileInputStream = new FileInputStream(file.toFile())) {
+				documents = documentParser.parse(fileInputStream);
+			}
+			for (Document document : documents) {
+				document.getMetadata().put(METADATA_FILE_PATH, key);
+				document.getMetadata().put(METADATA_FILE_SIZE, size);
+				document.getMetadata().put(METADATA_LAST_MODIFIED, lastModified);
+				document.getMetadata().put(METADATA_CONTENT_HASH, hash);
+			}
+			return new ParsedFile(key, state, documents);
 		}
 		catch (Exception e) {
 			throw new RuntimeException("Error loading file: " + file, e);
 		}
 	}
 
+	/**
+	 * Records the state of a file once all of its documents have been consumed, so a file
+	 * is only skipped on the next run if its documents were actually delivered.
+	 */
+	private void record(ParsedFile parsedFile) {
+		if (parsedFile.state() != null) {
+			fileStates.put(parsedFile.key(), parsedFile.state());
+		}
+	}
+
+	private static String hash(Path file) throws IOException, NoSuchAlgorithmException {
+		MessageDigest digest = MessageDigest.getInstance("SHA-256");
+		try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+			in.transferTo(OutputStream.nullOutputStream());
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
 	private List<Path> sampleFiles(List<Path> files) {
 		if (randomizeSample) {
 			Random rand = sampleSeed != null ? new Random(sampleSeed) : new Random();
@@ -157,6 +283,22 @@ public class DocumentDirectoryParser implements DocumentParser {
 		return List.of();
 	}
 
+	/**
+	 * The state of a parsed file, used to skip unchanged files.
+	 * 
+	 * @param size the file size in bytes
+	 * @param lastModified the modification time in epoch milliseconds
+	 * @param hash the hex-encoded SHA-256 hash of the content
+	 */
+	public record FileState(long size, long lastModified, String hash) {
+	}
+
+	/**
+	 * The documents of a file and, if the file is tracked, the state to record for it.
+	 */
+	private record ParsedFile(String key, FileState state, List<Document> documents) {
+	}
+
 	public static class Builder {
 
 		private final String path;
@@ -177,6 +319,10 @@ public class DocumentDirectoryParser implements DocumentParser {
 
 		private Integer sampleSeed = null;
 
+		private int parallelism = 1;
+
+		private ConcurrentMap<String, FileState> fileStates;
+
 		public Builder(String path) {
 			this.path = path;
 		}
@@ -213,6 +359,27 @@ public class DocumentDirectoryParser implements DocumentParser {
 			return this;
 		}
 
+		/**
+		 * Number of files parsed concurrently. Default is 1, which parses the files on
+		 * the consuming thread.
+		 */
+		public Builder parallelism(int parallelism) {
+			this.parallelism = parallelism;
+			return this;
+		}
+
+		/**
+		 * States of previously parsed files keyed by absolute path. Files whose size and
+		 * modification time, or content hash, match their recorded state are skipped. The
+		 * state of a file is recorded after its documents have been consumed, and files
+		 * that were deleted are removed. Persist the map between runs to ingest only
+		 * changed files.
+		 */
+		public Builder fileStates(ConcurrentMap<String, FileState> fileStates) {
+			this.fileStates = fileStates;
+			return this;
+		}
+
 		public DocumentDirectoryParser build() {
 			return new DocumentDirectoryParser(this);
 		}
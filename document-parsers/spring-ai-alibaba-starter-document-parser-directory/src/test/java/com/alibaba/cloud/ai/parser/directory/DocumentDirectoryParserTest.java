@@ -17,10 +17,22 @@
 package com.alibaba.cloud.ai.parser.directory;
 
 import com.alibaba.cloud.ai.document.TextDocumentParser;
-import org.junit.Test;
+import com.alibaba.cloud.ai.parser.directory.DocumentDirectoryParser.FileState;
+import org.junit.jupiter.api.Test;
 import org.springframework.ai.document.Document;
+import org.springframework.util.FileSystemUtils;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
 
 /**
  * @author HeYQ
@@ -89,4 +101,119 @@ public class DocumentDirectoryParserTest {
 		}
 	}
 
+	// Parse files concurrently, keeping the sequential order.
+	@Test
+	public void testParallelMatchesSequential() {
+		String path = "src/test/resources";
+
+		List<Document> sequential = new DocumentDirectoryParser.Builder(path).documentParser(new TextDocumentParser())
+			.recursive(true)
+			.build()
+			.parse();
+		List<Document> parallel = new DocumentDirectoryParser.Builder(path).documentParser(new TextDocumentParser())
+			.recursive(true)
+			.parallelism(4)
+			.build()
+			.parse();
+
+		assertThat(parallel).extracting(Document::getText)
+			.containsExactlyElementsOf(sequential.stream().map(Document::getText).toList());
+	}
+
+	// Skip files whose size and mtime, or content hash, did not change.
+	@Test
+	public void testSkipUnchangedFiles() throws IOException {
+		Path dir = Files.createTempDirectory("directory-parser");
+		try {
+			Path a = Files.writeString(dir.resolve("a.txt"), "a");
+			Path b = Files.writeString(dir.resolve("b.txt"), "b");
+			ConcurrentMap<String, FileState> fileStates = new ConcurrentHashMap<>();
+			DocumentDirectoryParser parser = new DocumentDirectoryParser.Builder(dir.toString())
+				.documentParser(new TextDocumentParser())
+				.parallelism(2)
+				.fileStates(fileStates)
+				.build();
+
+			List<Document> documents = parser.parse();
+			assertThat(documents).extracting(Document::getText).containsExactlyInAnyOrder("a", "b");
+			assertThat(documents.get(0).getMetadata()).containsKeys(DocumentDirectoryParser.METADATA_FILE_PATH,
+					DocumentDirectoryParser.METADATA_FILE_SIZE, DocumentDirectoryParser.METADATA_LAST_MODIFIED,
+					DocumentDirectoryParser.METADATA_CONTENT_HASH);
+			assertThat(fileStates).hasSize(2);
+			assertThat(parser.parse()).isEmpty();
+
+			Files.writeString(b, "changed");
+			assertThat(parser.parse()).extracting(Document::getText).containsExactly("changed");
+
+			Files.setLastModifiedTime(a, FileTime.fromMillis(0));
+			assertThat(parser.parse()).isEmpty();
+		}
+		finally {
+			FileSystemUtils.deleteRecursively(dir);
+		}
+	}
+
+	// Record a file only after its documents were consumed, and forget deleted files.
+	@Test
+	public void testRecordConsumedFilesAndForgetDeletedFiles() throws IOException {
+		Path dir = Files.createTempDirectory("directory-parser");
+		try {
+			Path a = Files.writeString(dir.resolve("a.txt"), "a");
+			Path b = Files.writeString(dir.resolve("b.txt"), "b");
+			ConcurrentMap<String, FileState> fileStates = new ConcurrentHashMap<>();
+			DocumentDirectoryParser parser = new DocumentDirectoryParser.Builder(dir.toString())
+				.documentParser(new TextDocumentParser())
+				.glob("*.txt")
+				.parallelism(2)
+				.fileStates(fileStates)
+				.build();
+
+			try (Stream<Document> stream = parser.parseAsStream()) {
+				Iterator<Document> documents = stream.iterator();
+				Document first = documents.next();
+				assertThat(fileStates).isEmpty();
+				documents.next();
+				assertThat(fileStates)
+					.containsOnlyKeys((String) first.getMetadata().get(DocumentDirectoryParser.METADATA_FILE_PATH));
+				assertThat(documents.hasNext()).isFalse();
+				assertThat(fileStates).containsOnlyKeys(key(a), key(b));
+			}
+
+			Files.delete(b);
+			assertThat(parser.parse()).isEmpty();
+			assertThat(fileStates).containsOnlyKeys(key(a));
+		}
+		finally {
+			FileSystemUtils.deleteRecursively(dir);
+		}
+	}
+
+	private static String key(Path file) {
+		return file.toAbsolutePath().normalize().toString();
+	}
+
+	// Hidden directories below the parsed directory are skipped, but the directory itself
+	// may be hidden.
+	@Test
+	public void testHiddenDirectories() throws IOException {
+		Path dir = Files.createTempDirectory(".directory-parser");
+		try {
+			Files.createDirectories(dir.resolve(".hidden"));
+			Files.createDirectories(dir.resolve("visible"));
+			Files.writeString(dir.resolve(".hidden/x.txt"), "x");
+			Files.writeString(dir.resolve("visible/y.txt"), "y");
+
+			List<Document> documents = new DocumentDirectoryParser.Builder(dir.toString())
+				.documentParser(new TextDocumentParser())
+				.recursive(true)
+				.build()
+				.parse();
+
+			assertThat(documents).extracting(Document::getText).containsExactly("y");
+		}
+		finally {
+			FileSystemUtils.deleteRecursively(dir);
+		}
+	}
+
 }
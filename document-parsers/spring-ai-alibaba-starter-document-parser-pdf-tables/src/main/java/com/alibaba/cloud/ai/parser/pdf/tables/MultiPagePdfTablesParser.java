@@ -0,0 +1,257 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.parser.pdf.tables;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.alibaba.cloud.ai.document.DocumentParser;
+import com.alibaba.cloud.ai.document.OrderedTaskIterator;
+import com.alibaba.cloud.ai.document.TaskResources;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import technology.tabula.ObjectExtractor;
+import technology.tabula.Table;
+import technology.tabula.extractors.SpreadsheetExtractionAlgorithm;
+
+import org.springframework.ai.document.Document;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Extracts the tables of all pages, or of a page range, of a PDF file with tabula-java.
+ * Unlike {@link PdfTablesParser}, which returns one {@link Document} per row of a single
+ * page, every table becomes one {@link Document} whose rows are separated by line breaks
+ * and whose metadata holds the page number and the index of the table on that page.
+ * <p>
+ * The PDF is spooled to a temporary file and pages are extracted concurrently. Every
+ * worker loads the file once, with temporary-file-only memory settings, and keeps the
+ * document for all of its page ranges. Tables are emitted lazily and in page order by
+ * {@link #parseAsStream(InputStream)}, with a bounded number of page ranges in flight, so
+ * large reports are processed in bounded memory. Close the stream to release the workers
+ * and the temporary file early.
+ *
+ * @author yuluo
+ * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
+ */
+
+public class MultiPagePdfTablesParser implements DocumentParser {
+
+	public static final String METADATA_PAGE_NUMBER = "page_number";
+
+	public static final String METADATA_TABLE_INDEX = "table_index";
+
+	/**
+	 * End page value that extracts up to the last page of the PDF file.
+	 */
+	public static final int LAST_PAGE = -1;
+
+	private static final int MAX_PAGES_PER_TASK = 16;
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	/**
+	 * The first page to extract, starting at 1.
+	 */
+	private final int startPage;
+
+	/**
+	 * The last page to extract, inclusive, or {@link #LAST_PAGE}.
+	 */
+	private final int endPage;
+
+	private final int parallelism;
+
+	/**
+	 * The metadata added to every table document.
+	 */
+	private final Map<String, String> metadata;
+
+	public MultiPagePdfTablesParser() {
+
+		this(1, LAST_PAGE);
+	}
+
+	public MultiPagePdfTablesParser(int startPage, int endPage) {
+
+		this(startPage, endPage, Runtime.getRuntime().availableProcessors(), Map.of());
+	}
+
+	public MultiPagePdfTablesParser(int startPage, int endPage, int parallelism, Map<String, String> metadata) {
+
+		Assert.isTrue(startPage > 0, "startPage must be greater than 0");
+		Assert.isTrue(endPage == LAST_PAGE || endPage >= startPage,
+				"endPage must not be less than startPage unless it is LAST_PAGE");
+		Assert.isTrue(parallelism > 0, "parallelism must be greater than 0");
+		Assert.notNull(metadata, "metadata must not be null");
+		this.startPage = startPage;
+		this.endPage = endPage;
+		this.parallelism = parallelism;
+		this.metadata = metadata;
+	}
+
+	@Override
+	public List<Document> parse(InputStream inputStream) {
+
+		try (Stream<Document> documents = parseAsStream(inputStream)) {
+			return documents.toList();
+		}
+	}
+
+	@Override
+	public Stream<Document> parseAsStream(InputStream inputStream) {
+
+		Path file = spool(inputStream);
+		TaskResources<TableReader> readers = new TaskResources<>(() -> new TableReader(load(file)));
+		try {
+			TableReader firstReader = readers.borrow();
+			int numberOfPages = firstReader.document().getNumberOfPages();
+			readers.release(firstReader);
+			if (startPage > numberOfPages) {
+
+				throw new RuntimeException("The start page is greater than the number of pages in the PDF file.");
+			}
+			int lastPage = endPage == LAST_PAGE ? numberOfPages : Math.min(endPage, numberOfPages);
+			logger.info("Extracting tables from pages {} to {} with parallelism {}", startPage, lastPage, parallelism);
+
+			int pagesPerTask = Math.max(1,
+					Math.min(MAX_PAGES_PER_TASK, (lastPage - startPage + parallelism) / parallelism));
+			Iterator<Callable<List<Document>>> tasks = IntStream
+				.iterate(startPage, from -> from <= lastPage, from -> from + pagesPerTask)
+				.<Callable<List<Document>>>mapToObj(
+						from -> () -> extractTables(readers, from, Math.min(from + pagesPerTask - 1, lastPage)))
+				.iterator();
+			return new OrderedTaskIterator<>("pdf-tables-parser", parallelism, tasks).onClose(readers::close)
+				.onClose(() -> deleteQuietly(file))
+				.stream()
+				.flatMap(List::stream);
+		}
+		catch (RuntimeException e) {
+			readers.close();
+			deleteQuietly(file);
+			throw e;
+		}
+		catch (Exception e) {
+			readers.close();
+			deleteQuietly(file);
+			throw new RuntimeException(e);
+		}
+	}
+
+	protected Document toDocument(String tableText, int pageNumber, int tableIndex) {
+
+		Document document = new Document(tableText);
+		document.getMetadata().putAll(metadata);
+		document.getMetadata().put(METADATA_PAGE_NUMBER, pageNumber);
+		document.getMetadata().put(METADATA_TABLE_INDEX, tableIndex);
+		return document;
+	}
+
+	private PDDocument load(Path file) throws IOException {
+
+		return PDDocument.load(file.toFile(), MemoryUsageSetting.setupTempFileOnly());
+	}
+
+	/**
+	 * Extracts the tables of the pages {@code [from, to]} with a reader that no other
+	 * task is using.
+	 */
+	private List<Document> extractTables(TaskResources<TableReader> readers, int from, int to) throws Exception {
+
+		TableReader reader = readers.borrow();
+		try {
+			SpreadsheetExtractionAlgorithm sea = new SpreadsheetExtractionAlgorithm();
+
+			List<Document> documents = new ArrayList<>();
+			for (int pageNumber = from; pageNumber <= to; pageNumber++) {
+				int tableIndex = 0;
+				for (Table table : sea.extract(reader.extractor().extract(pageNumber))) {
+					String tableText = table.getRows()
+						.stream()
+						.map(PdfTablesParser::formatRow)
+						.collect(Collectors.joining("\n"));
+					if (StringUtils.hasText(tableText)) {
+						documents.add(toDocument(tableText, pageNumber, tableIndex++));
+					}
+				}
+			}
+			return documents;
+		}
+		finally {
+			readers.release(reader);
+		}
+	}
+
+	private Path spool(InputStream inputStream) {
+
+		Path file = null;
+		try {
+			file = Files.createTempFile("pdf-tables-", ".pdf");
+			Files.copy(inputStream, file, StandardCopyOption.REPLACE_EXISTING);
+			return file;
+		}
+		catch (IOException e) {
+			deleteQuietly(file);
+			throw new RuntimeException(e);
+		}
+	}
+
+	private void deleteQuietly(Path file) {
+
+		if (file == null) {
+			return;
+		}
+		try {
+			Files.deleteIfExists(file);
+		}
+		catch (IOException e) {
+			logger.warn("Failed to delete temporary file {}", file, e);
+		}
+	}
+
+	/**
+	 * A loaded document with its tabula extractor, used by one task at a time.
+	 */
+	private record TableReader(PDDocument document, ObjectExtractor extractor) implements AutoCloseable {
+
+		TableReader(PDDocument document) {
+
+			this(document, new ObjectExtractor(document));
+		}
+
+		@Override
+		public void close() throws IOException {
+
+			document.close();
+		}
+
+	}
+
+}
@@ -27,6 +27,7 @@ import com.alibaba.cloud.ai.document.DocumentParser;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import technology.tabula.ObjectExtractor;
 import technology.tabula.Page;
+import technology.tabula.RectangularTextContainer;
 import technology.tabula.Table;
 import technology.tabula.extractors.SpreadsheetExtractionAlgorithm;
 
@@ -70,6 +71,10 @@ public class PdfTablesParser implements DocumentParser {
 		this.metadata = metadata;
 	}
 
+	/**
+	 * Returns one {@link Document} per table row of the page. A page without tables
+	 * yields an empty list, earlier versions returned {@code null} instead.
+	 */
 	@Override
 	public List<Document> parse(InputStream inputStream) {
 
@@ -83,26 +88,27 @@ public class PdfTablesParser implements DocumentParser {
 
 	protected List<Table> extraTableData(InputStream in) throws Exception {
 
-		PDDocument document = PDDocument.load(in);
+		try (PDDocument document = PDDocument.load(in)) {
 
-		// check pdf files
-		int numberOfPages = document.getNumberOfPages();
-		if (numberOfPages < 0) {
+			// check pdf files
+			int numberOfPages = document.getNumberOfPages();
+			if (numberOfPages < 0) {
 
-			throw new RuntimeException("No page found in the PDF file.");
-		}
+				throw new RuntimeException("No page found in the PDF file.");
+			}
 
-		if (page > numberOfPages) {
+			if (page > numberOfPages) {
 
-			throw new RuntimeException("The page number is greater than the number of pages in the PDF file.");
-		}
+				throw new RuntimeException("The page number is greater than the number of pages in the PDF file.");
+			}
 
-		SpreadsheetExtractionAlgorithm sea = new SpreadsheetExtractionAlgorithm();
+			SpreadsheetExtractionAlgorithm sea = new SpreadsheetExtractionAlgorithm();
 
-		// extract page by page numbers.
-		Page extract = new ObjectExtractor(document).extract(this.page);
+			// extract page by page numbers.
+			Page extract = new ObjectExtractor(document).extract(this.page);
 
-		return sea.extract(extract);
+			return sea.extract(extract);
+		}
 	}
 
 	protected List<String> parseTables(List<Table> data) {
@@ -112,23 +118,25 @@ public class PdfTablesParser implements DocumentParser {
 		}
 
 		return data.stream()
-			.flatMap(table -> table.getRows()
-				.stream()
-				.map(cells -> cells.stream()
-					.map(content -> content.getText().replace("\r", "").replace("\n", " "))
-					.reduce((first, second) -> first + "|" + second)
-					.orElse("") + "|"))
+			.flatMap(table -> table.getRows().stream().map(PdfTablesParser::formatRow))
 			.collect(Collectors.toList());
 	}
 
+	/**
+	 * Formats a table row as its cell texts separated and terminated by {@code |}.
+	 */
+	static String formatRow(List<RectangularTextContainer> cells) {
+
+		return cells.stream()
+			.map(content -> content.getText().replace("\r", "").replace("\n", " "))
+			.reduce((first, second) -> first + "|" + second)
+			.orElse("") + "|";
+	}
+
 	private List<Document> data2Document(List<String> data) {
 
 		List<Document> documents = new ArrayList<>();
 
-		if (data.isEmpty()) {
-			return null;
-		}
-
 		for (String datum : data) {
 			Document doc = new Document(datum);
 			documents.add(addMetadata(doc));
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.parser.pdf.tables;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.ai.document.Document;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author yuluo
+ * @author <a href="mailto:yuluo08290126@gmail.com">yuluo</a>
+ */
+
+class MultiPagePdfTablesParserTests {
+
+	private final Resource resource = new DefaultResourceLoader().getResource("classpath:/sample1.pdf");
+
+	@Test
+	void extractsTheSameRowsAsSinglePageParser() throws IOException {
+
+		List<Document> tables = parse(new MultiPagePdfTablesParser(1, MultiPagePdfTablesParser.LAST_PAGE, 3,
+				Map.of("source", "sample1.pdf")));
+
+		for (int page = 1; page <= 4; page++) {
+			int pageNumber = page;
+			List<Document> pageTables = tables.stream()
+				.filter(doc -> doc.getMetadata().get(MultiPagePdfTablesParser.METADATA_PAGE_NUMBER).equals(pageNumber))
+				.toList();
+			String rows = pageTables.stream().map(Document::getText).collect(Collectors.joining("\n"));
+
+			assertEquals(singlePageRows(pageNumber), rows);
+			for (int i = 0; i < pageTables.size(); i++) {
+				assertEquals(i, pageTables.get(i).getMetadata().get(MultiPagePdfTablesParser.METADATA_TABLE_INDEX));
+				assertEquals("sample1.pdf", pageTables.get(i).getMetadata().get("source"));
+			}
+		}
+	}
+
+	@Test
+	void extractsOnlyThePageRange() throws IOException {
+
+		List<Document> tables = parse(new MultiPagePdfTablesParser(3, 3));
+
+		assertFalse(tables.isEmpty());
+		assertTrue(tables.stream()
+			.allMatch(doc -> doc.getMetadata().get(MultiPagePdfTablesParser.METADATA_PAGE_NUMBER).equals(3)));
+		assertEquals(singlePageRows(3), tables.stream().map(Document::getText).collect(Collectors.joining("\n")));
+	}
+
+	@Test
+	void extractsTheSameTablesAtEveryParallelism() throws IOException {
+
+		List<Document> sequential = parse(
+				new MultiPagePdfTablesParser(1, MultiPagePdfTablesParser.LAST_PAGE, 1, Map.of()));
+		List<Document> parallel = parse(
+				new MultiPagePdfTablesParser(1, MultiPagePdfTablesParser.LAST_PAGE, 4, Map.of()));
+
+		assertEquals(sequential.stream().map(Document::getText).toList(),
+				parallel.stream().map(Document::getText).toList());
+		assertEquals(sequential.stream().map(Document::getMetadata).toList(),
+				parallel.stream().map(Document::getMetadata).toList());
+	}
+
+	@Test
+	void streamCanBeClosedEarly() throws IOException {
+
+		try (InputStream in = resource.getInputStream();
+				Stream<Document> tables = new MultiPagePdfTablesParser().parseAsStream(in)) {
+			assertEquals(1, tables.limit(1).count());
+		}
+	}
+
+	private List<Document> parse(MultiPagePdfTablesParser parser) throws IOException {
+
+		try (InputStream in = resource.getInputStream()) {
+			return parser.parse(in);
+		}
+	}
+
+	private String singlePageRows(int page) throws IOException {
+
+		try (InputStream in = resource.getInputStream()) {
+			return new PdfTablesParser(page).parse(in)
+				.stream()
+				.map(Document::getText)
+				.collect(Collectors.joining("\n"));
+		}
+	}
+
+}
@@ -163,4 +163,14 @@ class PdfTablesParserTests {
 
 	}
 
+	@Test
+	void PdfTablesParseEmptyPageTest() throws IOException {
+
+		InputStream in = new FileInputStream(resource2.getFile());
+		PdfTablesParser pdfTablesParser = new PdfTablesParser(2);
+		List<Document> docs = pdfTablesParser.parse(in);
+
+		Assert.isTrue(docs != null && docs.isEmpty());
+	}
+
 }
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.parser.tika;
+
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * SAX content handler that hands the extracted text to a consumer in chunks while the
+ * document is still being parsed, instead of buffering the whole text like
+ * {@link org.apache.tika.sax.BodyContentHandler} without a write limit.
+ * <p>
+ * Text is collected into paragraphs that end with block-level XHTML elements such as
+ * {@code p}, {@code div}, {@code li} or {@code tr}, and paragraphs are packed into a
+ * chunk until the next one would exceed {@code chunkSize}. The size is measured with the
+ * given estimator, so the budget can be in characters ({@code String::length}) or tokens
+ * (for example {@code TokenCountEstimator::estimate}). A chunk never exceeds
+ * {@code maxChunkLength} characters: a paragraph that is longer is cut at the last
+ * whitespace before the limit, which also bounds the memory the handler holds.
+ *
+ * @author HeYQ
+ */
+public class ChunkingContentHandler extends DefaultHandler {
+
+	private static final Set<String> BLOCK_ELEMENTS = Set.of("p", "div", "h1", "h2", "h3", "h4", "h5", "h6", "li", "dt",
+			"dd", "tr", "table", "pre", "blockquote", "section", "article", "title", "br", "hr");
+
+	private final int chunkSize;
+
+	private final int maxChunkLength;
+
+	private final ToIntFunction<String> sizeEstimator;
+
+	private final Consumer<String> chunkConsumer;
+
+	private final StringBuilder chunk = new StringBuilder();
+
+	private final StringBuilder paragraph = new StringBuilder();
+
+	private int chunkUnits;
+
+	private boolean paragraphEnded;
+
+	/**
+	 * Creates a handler that measures chunks in characters.
+	 * @param chunkSize the number of characters after which a chunk is closed at the next
+	 * paragraph boundary
+	 * @param chunkConsumer receives the chunks in document order
+	 */
+	public ChunkingContentHandler(int chunkSize, Consumer<String> chunkConsumer) {
+		this(chunkSize, chunkSize, String::length, chunkConsumer);
+	}
+
+	/**
+	 * @param chunkSize the size, as measured by {@code sizeEstimator}, after which a
+	 * chunk is closed at the next paragraph boundary
+	 * @param maxChunkLength the hard cap on the characters of a chunk
+	 * @param sizeEstimator measures the size of a paragraph
+	 * @param chunkConsumer receives the chunks in document order
+	 */
+	public ChunkingContentHandler(int chunkSize, int maxChunkLength, ToIntFunction<String> sizeEstimator,
+			Consumer<String> chunkConsumer) {
+		Assert.isTrue(chunkSize > 0, "chunkSize must be greater than 0");
+		Assert.isTrue(maxChunkLength > 0, "maxChunkLength must be greater than 0");
+		Assert.notNull(sizeEstimator, "sizeEstimator must not be null");
+		Assert.notNull(chunkConsumer, "chunkConsumer must not be null");
+		this.chunkSize = chunkSize;
+		this.maxChunkLength = maxChunkLength;
+		this.sizeEstimator = sizeEstimator;
+		this.chunkConsumer = chunkConsumer;
+	}
+
+	@Override
+	public void startElement(String uri, String localName, String qName, Attributes attributes) {
+		if (isBlockElement(localName, qName)) {
+			endParagraph();
+		}
+	}
+
+	@Override
+	public void endElement(String uri, String localName, String qName) {
+		if (isBlockElement(localName, qName)) {
+			// the line break Tika writes after a block element still belongs to it
+			this.paragraphEnded = true;
+		}
+	}
+
+	@Override
+	public void characters(char[] ch, int start, int length) {
+		if (this.paragraphEnded && !isWhitespace(ch, start, length)) {
+			endParagraph();
+		}
+		append(ch, start, length);
+	}
+
+	@Override
+	public void ignorableWhitespace(char[] ch, int start, int length) {
+		append(ch, start, length);
+	}
+
+	@Override
+	public void endDocument() {
+		finish();
+	}
+
+	/**
+	 * Emits the remaining text. Called at the end of the document; calling it again has
+	 * no effect.
+	 */
+	public void finish() {
+		endParagraph();
+		emitChunk();
+	}
+
+	private void append(char[] ch, int start, int length) {
+		while (length > 0) {
+			int room = this.maxChunkLength - this.chunk.length() - this.paragraph.length();
+			if (room <= 0) {
+				overflow();
+				continue;
+			}
+			int n = Math.min(room, length);
+			this.paragraph.append(ch, start, n);
+			start += n;
+			length -= n;
+		}
+	}
+
+	/**
+	 * Makes room once the hard cap is reached, preferring to close the chunk before the
+	 * current paragraph and otherwise cutting the paragraph at its last whitespace.
+	 */
+	private void overflow() {
+		if (this.chunk.length() > 0) {
+			emitChunk();
+			return;
+		}
+		int cut = this.paragraph.length();
+		for (int i = this.paragraph.length() - 1; i > 0; i--) {
+			if (Character.isWhitespace(this.paragraph.charAt(i))) {
+				cut = i + 1;
+				break;
+			}
+		}
+		this.chunk.append(this.paragraph, 0, cut);
+		this.paragraph.delete(0, cut);
+		emitChunk();
+	}
+
+	private void endParagraph() {
+		this.paragraphEnded = false;
+		if (this.paragraph.length() == 0) {
+			return;
+		}
+		String text = this.paragraph.toString();
+		this.paragraph.setLength(0);
+		int units = this.sizeEstimator.applyAsInt(text);
+		if (this.chunk.length() > 0 && this.chunkUnits + units > this.chunkSize) {
+			emitChunk();
+		}
+		this.chunk.append(text);
+		this.chunkUnits += units;
+	}
+
+	private void emitChunk() {
+		String text = this.chunk.toString();
+		this.chunk.setLength(0);
+		this.chunkUnits = 0;
+		if (StringUtils.hasText(text)) {
+			this.chunkConsumer.accept(text);
+		}
+	}
+
+	private static boolean isBlockElement(String localName, String qName) {
+		return BLOCK_ELEMENTS.contains(StringUtils.hasLength(localName) ? localName : qName);
+	}
+
+	private static boolean isWhitespace(char[] ch, int start, int length) {
+		for (int i = start; i < start + length; i++) {
+			if (!Character.isWhitespace(ch[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -18,25 +18,50 @@ package com.alibaba.cloud.ai.parser.tika;
 import com.alibaba.cloud.ai.document.DocumentParser;
 import org.apache.tika.exception.ZeroByteFileException;
 import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaCoreProperties;
 import org.apache.tika.parser.AutoDetectParser;
 import org.apache.tika.parser.ParseContext;
 import org.apache.tika.parser.Parser;
 import org.apache.tika.sax.BodyContentHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.reader.ExtractedTextFormatter;
+import org.springframework.util.Assert;
 import org.xml.sax.ContentHandler;
 
 import java.io.InputStream;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Parses files into {@link Document}s using Apache Tika library, automatically detecting
  * the file format. This parser supports various file formats, including PDF, DOC, PPT,
  * XLS. For detailed information on supported formats, please refer to the
  * <a href="https://tika.apache.org/2.9.1/formats.html">Apache Tika documentation</a>.
+ * <p>
+ * {@link #parse(InputStream)} returns the whole text as a single {@link Document}. For
+ * large files, {@link #parse(InputStream, Consumer)} and
+ * {@link #parseAsStream(InputStream)} emit the text in chunks through a
+ * {@link ChunkingContentHandler} while Tika is still parsing, so the full text is never
+ * held in memory. Chunks close at paragraph boundaries once {@code chunkSize} is reached
+ * and never exceed {@code maxChunkLength} characters. Every chunk carries the content
+ * type and title that Tika has detected by the time the chunk is produced.
  *
  * @author HeYQ
  * @since 2024-12-02 11:32
@@ -44,6 +69,8 @@ import java.util.function.Supplier;
 
 public class TikaDocumentParser implements DocumentParser {
 
+	private static final Logger logger = LoggerFactory.getLogger(TikaDocumentParser.class);
+
 	private static final int NO_WRITE_LIMIT = -1;
 
 	public static final Supplier<Parser> DEFAULT_PARSER_SUPPLIER = AutoDetectParser::new;
@@ -55,6 +82,29 @@ public class TikaDocumentParser implements DocumentParser {
 	public static final Supplier<ContentHandler> DEFAULT_CONTENT_HANDLER_SUPPLIER = () -> new BodyContentHandler(
 			NO_WRITE_LIMIT);
 
+	public static final int DEFAULT_CHUNK_SIZE = 4000;
+
+	public static final int DEFAULT_MAX_CHUNK_LENGTH = 8000;
+
+	public static final String METADATA_CHUNK_INDEX = "chunk_index";
+
+	public static final String METADATA_CONTENT_TYPE = "content_type";
+
+	public static final String METADATA_TITLE = "title";
+
+	/**
+	 * Chunks parsed ahead of the consumer of {@link #parseAsStream(InputStream)}.
+	 */
+	private static final int STREAM_BUFFER_SIZE = 4;
+
+	/**
+	 * How long closing the stream waits by default for the parser thread to stop reading
+	 * the input.
+	 */
+	static final long DEFAULT_CLOSE_TIMEOUT_MILLIS = 30_000;
+
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
 	private final Supplier<Parser> parserSupplier;
 
 	private final Supplier<ContentHandler> contentHandlerSupplier;
@@ -65,6 +115,14 @@ public class TikaDocumentParser implements DocumentParser {
 
 	private final ExtractedTextFormatter textFormatter;
 
+	private final int chunkSize;
+
+	private final int maxChunkLength;
+
+	private final ToIntFunction<String> chunkSizeEstimator;
+
+	private long closeTimeoutMillis = DEFAULT_CLOSE_TIMEOUT_MILLIS;
+
 	public TikaDocumentParser() {
 		this((Supplier<Parser>) null, null, null, null, ExtractedTextFormatter.defaults());
 	}
@@ -100,6 +158,52 @@ public class TikaDocumentParser implements DocumentParser {
 	public TikaDocumentParser(Supplier<Parser> parserSupplier, Supplier<ContentHandler> contentHandlerSupplier,
 			Supplier<Metadata> metadataSupplier, Supplier<ParseContext> parseContextSupplier,
 			ExtractedTextFormatter textFormatter) {
+		this(parserSupplier, contentHandlerSupplier, metadataSupplier, parseContextSupplier, textFormatter,
+				DEFAULT_CHUNK_SIZE, DEFAULT_MAX_CHUNK_LENGTH, String::length);
+	}
+
+	/**
+	 * Creates an instance that chunks streamed text with the given budget.
+	 * @param textFormatter Formatter for extracted text
+	 * @param chunkSize Size, as measured by {@code chunkSizeEstimator}, after which a
+	 * chunk is closed at the next paragraph boundary
+	 * @param maxChunkLength Hard cap on the characters of a chunk
+	 * @param chunkSizeEstimator Measures the size of a paragraph, for example
+	 * {@code String::length} or a token count estimator
+	 */
+	public TikaDocumentParser(ExtractedTextFormatter textFormatter, int chunkSize, int maxChunkLength,
+			ToIntFunction<String> chunkSizeEstimator) {
+		this(null, null, null, null, textFormatter, chunkSize, maxChunkLength, chunkSizeEstimator);
+	}
+
+	/**
+	 * Creates an instance of an {@code ApacheTikaDocumentParser} with the provided
+	 * suppliers for Tika components and chunking options. If some of the suppliers are
+	 * not provided ({@code null}), the defaults will be used. The content handler
+	 * supplier is only used by {@link #parse(InputStream)}.
+	 * @param parserSupplier Supplier for Tika parser to use
+	 * @param contentHandlerSupplier Supplier for Tika content handler
+	 * @param metadataSupplier Supplier for Tika metadata
+	 * @param parseContextSupplier Supplier for Tika parse context
+	 * @param textFormatter Formatter for extracted text
+	 * @param chunkSize Size, as measured by {@code chunkSizeEstimator}, after which a
+	 * streamed chunk is closed at the next paragraph boundary. Default:
+	 * {@value #DEFAULT_CHUNK_SIZE}
+	 * @param maxChunkLength Hard cap on the characters of a streamed chunk. Default:
+	 * {@value #DEFAULT_MAX_CHUNK_LENGTH}
+	 * @param chunkSizeEstimator Measures the size of a paragraph. Default:
+	 * {@code String::length}
+	 */
+	public TikaDocumentParser(Supplier<Parser> parserSupplier, Supplier<ContentHandler> contentHandlerSupplier,
+			Supplier<Metadata> metadataSupplier, Supplier<ParseContext> parseContextSupplier,
+			ExtractedTextFormatter textFormatter, int chunkSize, int maxChunkLength,
+			ToIntFunction<String> chunkSizeEstimator) {
+		Assert.isTrue(chunkSize > 0, "chunkSize must be greater than 0");
+		Assert.isTrue(maxChunkLength > 0, "maxChunkLength must be greater than 0");
+		Assert.notNull(chunkSizeEstimator, "chunkSizeEstimator must not be null");
+		this.chunkSize = chunkSize;
+		this.maxChunkLength = maxChunkLength;
+		this.chunkSizeEstimator = chunkSizeEstimator;
 		this.parserSupplier = getOrDefault(parserSupplier, () -> DEFAULT_PARSER_SUPPLIER);
 		this.contentHandlerSupplier = getOrDefault(contentHandlerSupplier, () -> DEFAULT_CONTENT_HANDLER_SUPPLIER);
 		this.metadataSupplier = getOrDefault(metadataSupplier, () -> DEFAULT_METADATA_SUPPLIER);
@@ -129,6 +233,47 @@ public class TikaDocumentParser implements DocumentParser {
 		}
 	}
 
+	/**
+	 * Parses the given {@link InputStream} and passes the text to the consumer in chunks,
+	 * as Tika extracts it. Each chunk becomes a {@link Document} with a
+	 * {@value #METADATA_CHUNK_INDEX} metadata entry, and with
+	 * {@value #METADATA_CONTENT_TYPE} and {@value #METADATA_TITLE} entries once Tika has
+	 * detected them.
+	 * @param inputStream The {@link InputStream} to parse, which is not closed
+	 * @param consumer Receives the documents in order on the calling thread
+	 */
+	public void parse(InputStream inputStream, Consumer<Document> consumer) {
+		try {
+			Parser parser = parserSupplier.get();
+			Metadata metadata = metadataSupplier.get();
+			ParseContext parseContext = parseContextSupplier.get();
+
+			AtomicInteger chunkIndex = new AtomicInteger();
+			ChunkingContentHandler chunkingHandler = new ChunkingContentHandler(this.chunkSize, this.maxChunkLength,
+					this.chunkSizeEstimator,
+					chunk -> consumer.accept(toDocument(chunk, chunkIndex.getAndIncrement(), metadata)));
+
+			parser.parse(inputStream, new BodyContentHandler(chunkingHandler), metadata, parseContext);
+			chunkingHandler.finish();
+		}
+		catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Parses the given {@link InputStream} on a background thread and returns the chunk
+	 * documents as they are produced. The parser runs at most a few chunks ahead of the
+	 * consumer; closing the stream stops it.
+	 */
+	@Override
+	public Stream<Document> parseAsStream(InputStream inputStream) {
+		ChunkIterator iterator = new ChunkIterator(inputStream);
+		return StreamSupport
+			.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+			.onClose(iterator::close);
+	}
+
 	/**
 	 * Converts the given text to a {@link Document}.
 	 * @param docText Text to be converted
@@ -140,8 +285,132 @@ public class TikaDocumentParser implements DocumentParser {
 		return new Document(docText);
 	}
 
+	private Document toDocument(String chunk, int chunkIndex, Metadata metadata) {
+		Document document = toDocument(chunk);
+		document.getMetadata().put(METADATA_CHUNK_INDEX, chunkIndex);
+		// the metadata is filled in by the parser as it goes
+		putIfPresent(document, METADATA_CONTENT_TYPE, metadata.get(Metadata.CONTENT_TYPE));
+		putIfPresent(document, METADATA_TITLE, metadata.get(TikaCoreProperties.TITLE));
+		return document;
+	}
+
+	private static void putIfPresent(Document document, String key, String value) {
+		if (value != null) {
+			document.getMetadata().put(key, value);
+		}
+	}
+
+	/**
+	 * Sets how long closing a stream from {@link #parseAsStream(InputStream)} waits for a
+	 * parser that does not react to interrupts.
+	 */
+	void setCloseTimeoutMillis(long closeTimeoutMillis) {
+		Assert.isTrue(closeTimeoutMillis > 0, "closeTimeoutMillis must be greater than 0");
+		this.closeTimeoutMillis = closeTimeoutMillis;
+	}
+
 	private static <T> T getOrDefault(T value, Supplier<T> defaultValueSupplier) {
 		return value != null ? value : defaultValueSupplier.get();
 	}
 
+	/**
+	 * Hands the documents produced by {@link #parse(InputStream, Consumer)} on a daemon
+	 * thread over a small bounded queue, which blocks the parser while the consumer is
+	 * behind.
+	 */
+	private final class ChunkIterator implements Iterator<Document>, AutoCloseable {
+
+		private static final Object END = new Object();
+
+		private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(STREAM_BUFFER_SIZE);
+
+		private final Thread producer;
+
+		private volatile boolean closed;
+
+		private Object next;
+
+		ChunkIterator(InputStream inputStream) {
+			this.producer = new Thread(() -> {
+				try {
+					parse(inputStream, this::put);
+					put(END);
+				}
+				catch (Throwable e) {
+					if (!this.closed) {
+						put(e instanceof RuntimeException runtimeException ? runtimeException
+								: new RuntimeException(e));
+					}
+				}
+			}, "tika-parser-" + THREAD_COUNTER.incrementAndGet());
+			this.producer.setDaemon(true);
+			this.producer.start();
+		}
+
+		private void put(Object item) {
+			try {
+				while (!this.queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+					if (this.closed) {
+						throw new CancellationException("The document stream was closed");
+					}
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new CancellationException("The document stream was closed");
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (this.next == null && !this.closed) {
+				try {
+					this.next = this.queue.take();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new RuntimeException(e);
+				}
+				if (this.next instanceof RuntimeException e) {
+					this.next = END;
+					throw e;
+				}
+			}
+			return this.next != null && this.next != END;
+		}
+
+		@Override
+		public Document next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Document document = (Document) this.next;
+			this.next = null;
+			return document;
+		}
+
+		@Override
+		public void close() {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+			this.producer.interrupt();
+			this.queue.clear();
+			try {
+				// the input stream must not be read once the stream is closed, but a parser
+				// that ignores interrupts must not hang the caller either
+				this.producer.join(closeTimeoutMillis);
+				if (this.producer.isAlive()) {
+					logger.warn("Tika parser thread {} did not stop within {} ms, it may still read the input",
+							this.producer.getName(), closeTimeoutMillis);
+				}
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+	}
+
 }
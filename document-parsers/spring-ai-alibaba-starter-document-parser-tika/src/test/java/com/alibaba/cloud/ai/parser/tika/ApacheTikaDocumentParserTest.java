@@ -16,16 +16,32 @@
 package com.alibaba.cloud.ai.parser.tika;
 
 import com.alibaba.cloud.ai.document.DocumentParser;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.mime.MediaType;
 import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.Parser;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.ai.document.Document;
+import org.springframework.ai.reader.ExtractedTextFormatter;
+import org.xml.sax.ContentHandler;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 
 /**
  * @author HeYQ
@@ -133,4 +149,111 @@ class ApacheTikaDocumentParserTest {
 		assertThat(document.getMetadata()).isEmpty();
 	}
 
+	@Test
+	void should_stream_large_html_in_chunks() {
+
+		String html = IntStream.range(0, 2000)
+			.mapToObj(i -> "<p>paragraph " + i + " of the streamed document</p>")
+			.collect(Collectors.joining("", "<html><body>", "</body></html>"));
+		TikaDocumentParser parser = new TikaDocumentParser(ExtractedTextFormatter.builder().build(), 1000, 2000,
+				String::length);
+
+		List<Document> documents;
+		try (Stream<Document> stream = parser
+			.parseAsStream(new ByteArrayInputStream(html.getBytes(StandardCharsets.UTF_8)))) {
+			documents = stream.toList();
+		}
+
+		assertThat(documents).hasSizeGreaterThan(10)
+			.allSatisfy(document -> assertThat(document.getText()).hasSizeLessThanOrEqualTo(2000));
+		assertThat(documents)
+			.extracting(document -> document.getMetadata().get(TikaDocumentParser.METADATA_CHUNK_INDEX))
+			.containsExactlyElementsOf(IntStream.range(0, documents.size()).boxed().toList());
+		assertThat(documents.stream().map(Document::getText).collect(Collectors.joining())).isEqualToIgnoringWhitespace(
+				parser.parse(new ByteArrayInputStream(html.getBytes(StandardCharsets.UTF_8))).get(0).getText());
+	}
+
+	@Test
+	void should_add_content_type_and_title_to_chunks() {
+
+		String html = IntStream.range(0, 200)
+			.mapToObj(i -> "<p>paragraph " + i + "</p>")
+			.collect(Collectors.joining("", "<html><head><title>Streamed</title></head><body>", "</body></html>"));
+		TikaDocumentParser parser = new TikaDocumentParser(ExtractedTextFormatter.builder().build(), 100, 200,
+				String::length);
+
+		List<Document> documents;
+		try (Stream<Document> stream = parser
+			.parseAsStream(new ByteArrayInputStream(html.getBytes(StandardCharsets.UTF_8)))) {
+			documents = stream.toList();
+		}
+
+		assertThat(documents).hasSizeGreaterThan(1).allSatisfy(document -> {
+			assertThat(document.getMetadata()).containsEntry(TikaDocumentParser.METADATA_TITLE, "Streamed");
+			assertThat((String) document.getMetadata().get(TikaDocumentParser.METADATA_CONTENT_TYPE))
+				.startsWith("text/html");
+		});
+	}
+
+	@Test
+	void should_stop_parsing_when_stream_is_closed() {
+
+		String html = IntStream.range(0, 2000)
+			.mapToObj(i -> "<p>paragraph " + i + "</p>")
+			.collect(Collectors.joining("", "<html><body>", "</body></html>"));
+		TikaDocumentParser parser = new TikaDocumentParser(ExtractedTextFormatter.builder().build(), 100, 200,
+				String::length);
+
+		try (Stream<Document> stream = parser
+			.parseAsStream(new ByteArrayInputStream(html.getBytes(StandardCharsets.UTF_8)))) {
+			assertThat(stream.limit(2)).hasSize(2);
+		}
+	}
+
+	@Test
+	void should_not_wait_forever_for_a_parser_ignoring_interrupts() {
+
+		CountDownLatch release = new CountDownLatch(1);
+		Parser stubborn = new Parser() {
+			@Override
+			public Set<MediaType> getSupportedTypes(ParseContext context) {
+				return Set.of(MediaType.TEXT_PLAIN);
+			}
+
+			@Override
+			public void parse(InputStream stream, ContentHandler handler, Metadata metadata, ParseContext context) {
+				while (release.getCount() > 0) {
+					try {
+						release.await();
+					}
+					catch (InterruptedException e) {
+						// keeps reading as if nothing happened
+					}
+				}
+			}
+		};
+		TikaDocumentParser parser = new TikaDocumentParser(() -> stubborn, null, null, null);
+		parser.setCloseTimeoutMillis(200);
+
+		try {
+			Stream<Document> stream = parser.parseAsStream(new ByteArrayInputStream(new byte[0]));
+			assertTimeoutPreemptively(Duration.ofSeconds(5), stream::close);
+		}
+		finally {
+			release.countDown();
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "empty-file.txt", "blank-file.txt" })
+	void should_throw_from_stream_for_empty_files(String fileName) {
+
+		TikaDocumentParser parser = new TikaDocumentParser();
+		InputStream inputStream = getClass().getClassLoader().getResourceAsStream(fileName);
+
+		try (Stream<Document> stream = parser.parseAsStream(inputStream)) {
+			assertThatThrownBy(stream::toList).isExactlyInstanceOf(RuntimeException.class);
+		}
+	}
+
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.parser.tika;
+
+import org.junit.jupiter.api.Test;
+
+import javax.xml.parsers.SAXParserFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author HeYQ
+ */
+class ChunkingContentHandlerTest {
+
+	@Test
+	void packsParagraphsUpToTheChunkSize() throws Exception {
+		List<String> chunks = parse("<html><body><p>aaaa</p>\n<p>bbbb</p>\n<p>cccc</p>\n</body></html>", 10, 100,
+				String::length);
+
+		assertThat(chunks).containsExactly("aaaa\nbbbb\n", "cccc\n");
+	}
+
+	@Test
+	void neverSplitsInsideAParagraphBelowTheHardCap() throws Exception {
+		List<String> chunks = parse("<html><body><p>one two</p><p>three four five</p></body></html>", 5, 100,
+				String::length);
+
+		assertThat(chunks).containsExactly("one two", "three four five");
+	}
+
+	@Test
+	void cutsLongParagraphsAtWhitespaceBeforeTheHardCap() throws Exception {
+		String text = "lorem ipsum dolor sit amet ".repeat(20);
+		List<String> chunks = parse("<html><body><p>" + text + "</p></body></html>", 1000, 40, String::length);
+
+		assertThat(chunks).hasSizeGreaterThan(1).allSatisfy(chunk -> assertThat(chunk).hasSizeLessThanOrEqualTo(40));
+		assertThat(chunks.subList(0, chunks.size() - 1)).allSatisfy(chunk -> assertThat(chunk).endsWith(" "));
+		assertThat(String.join("", chunks)).isEqualTo(text);
+	}
+
+	@Test
+	void measuresChunksWithTheEstimator() throws Exception {
+		List<String> chunks = parse("<html><body><p>a b</p><p>c</p><p>d e</p></body></html>", 3, 1000,
+				text -> text.isBlank() ? 0 : text.strip().split("\\s+").length);
+
+		assertThat(chunks).containsExactly("a bc", "d e");
+	}
+
+	@Test
+	void skipsBlankChunks() throws Exception {
+		List<String> chunks = parse("<html><body><p> </p><div>\n</div></body></html>", 10, 100, String::length);
+
+		assertThat(chunks).isEmpty();
+	}
+
+	private static List<String> parse(String xhtml, int chunkSize, int maxChunkLength,
+			ToIntFunction<String> sizeEstimator) throws Exception {
+		List<String> chunks = new ArrayList<>();
+		SAXParserFactory.newInstance()
+			.newSAXParser()
+			.parse(new ByteArrayInputStream(xhtml.getBytes(StandardCharsets.UTF_8)),
+					new ChunkingContentHandler(chunkSize, maxChunkLength, sizeEstimator, chunks::add));
+		return chunks;
+	}
+
+}
@@ -0,0 +1,427 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.mcp.discovery.client.balancer;
+
+import io.modelcontextprotocol.spec.McpError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 分布式 MCP 客户端的负载均衡器。
+ * <p>
+ * 节点列表以不可变快照的形式保存，只有 Nacos 推送节点变化时才通过 {@link #update(Map)} 整体替换，选择节点时不再复制列表。
+ * 每个节点会统计未完成请求数与 EWMA 延迟供 {@link LoadBalanceStrategy} 使用；连续失败的节点会被熔断，熔断期满后放行一个探测请求；
+ * 延迟明显高于集群中位数的节点会被临时摘除。幂等请求（如 listTools）失败时会透明地换一个节点重试。
+ * @param <T> 客户端类型
+ */
+public class DistributedMcpClientBalancer<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DistributedMcpClientBalancer.class);
+
+    private final String serverName;
+
+    private final LoadBalanceStrategy strategy;
+
+    private final int failureThreshold;
+
+    private final long openNanos;
+
+    private final int maxRetries;
+
+    private final double outlierLatencyRatio;
+
+    private final long outlierMinLatencyNanos;
+
+    private final long ejectionNanos;
+
+    private final long outlierCheckIntervalNanos;
+
+    private final long decayNanos;
+
+    private final LongSupplier ticker;
+
+    private final AtomicLong lastOutlierCheckNanos = new AtomicLong();
+
+    private volatile Snapshot<T> snapshot = new Snapshot<>(List.of(), List.of());
+
+    private DistributedMcpClientBalancer(Builder builder) {
+        this.serverName = builder.serverName;
+        this.strategy = builder.strategy;
+        this.failureThreshold = builder.failureThreshold;
+        this.openNanos = builder.openDuration.toNanos();
+        this.maxRetries = builder.maxRetries;
+        this.outlierLatencyRatio = builder.outlierLatencyRatio;
+        this.outlierMinLatencyNanos = builder.outlierMinLatency.toNanos();
+        this.ejectionNanos = builder.ejectionDuration.toNanos();
+        this.outlierCheckIntervalNanos = builder.outlierCheckInterval.toNanos();
+        this.decayNanos = builder.decayWindow.toNanos();
+        this.ticker = builder.ticker;
+        this.lastOutlierCheckNanos.set(ticker.getAsLong());
+    }
+
+    /**
+     * 根据最新的客户端映射替换节点快照，未变化节点的统计信息会被保留
+     * @param keyToClientMap 节点 key 到客户端的映射
+     */
+    public synchronized void update(Map<String, T> keyToClientMap) {
+        Map<String, McpClientEndpoint<T>> current = new HashMap<>();
+        for (McpClientEndpoint<T> endpoint : snapshot.endpoints()) {
+            current.put(endpoint.getKey(), endpoint);
+        }
+        List<McpClientEndpoint<T>> endpoints = new ArrayList<>(keyToClientMap.size());
+        List<T> clients = new ArrayList<>(keyToClientMap.size());
+        keyToClientMap.forEach((key, client) -> {
+            McpClientEndpoint<T> existing = current.get(key);
+            endpoints.add(existing != null && existing.getClient() == client ? existing
+                    : new McpClientEndpoint<>(key, client, decayNanos));
+            clients.add(client);
+        });
+        this.snapshot = new Snapshot<>(List.copyOf(endpoints), List.copyOf(clients));
+    }
+
+    /**
+     * @return 当前快照中的所有客户端，不可修改
+     */
+    public List<T> getClients() {
+        return snapshot.clients();
+    }
+
+    /**
+     * @return 当前快照中的所有节点，不可修改
+     */
+    public List<McpClientEndpoint<T>> getEndpoints() {
+        return snapshot.endpoints();
+    }
+
+    /**
+     * 按策略选择一个客户端，不记录调用统计，用于读取客户端元信息等无需跟踪的场景
+     * @return 选中的客户端
+     */
+    public T choose() {
+        McpClientEndpoint<T> endpoint = select(null);
+        if (endpoint == null) {
+            throw noAvailableClient();
+        }
+        return endpoint.getClient();
+    }
+
+    /**
+     * 在选中的客户端上执行同步调用
+     * @param action 调用
+     * @param idempotent 是否幂等，幂等调用失败时会在其它节点上重试
+     * @param <R> 返回类型
+     * @return 调用结果
+     */
+    public <R> R execute(Function<T, R> action, boolean idempotent) {
+        McpClientEndpoint<T> endpoint = select(null);
+        if (endpoint == null) {
+            throw noAvailableClient();
+        }
+        Set<String> tried = null;
+        int retriesLeft = idempotent ? maxRetries : 0;
+        while (true) {
+            long start = ticker.getAsLong();
+            RuntimeException failure;
+            endpoint.acquire(start);
+            try {
+                R result = action.apply(endpoint.getClient());
+                recordSuccess(endpoint, start);
+                return result;
+            }
+            catch (RuntimeException e) {
+                recordError(endpoint, start, e);
+                failure = e;
+            }
+            finally {
+                endpoint.release();
+            }
+            if (retriesLeft-- <= 0 || !isRetryable(failure)) {
+                throw failure;
+            }
+            if (tried == null) {
+                tried = new HashSet<>();
+            }
+            tried.add(endpoint.getKey());
+            McpClientEndpoint<T> next = select(tried);
+            if (next == null) {
+                throw failure;
+            }
+            logger.warn("[Nacos Mcp Client] Call to {} of {} failed, retrying on {}: {}", endpoint.getKey(),
+                    serverName, next.getKey(), failure.getMessage());
+            endpoint = next;
+        }
+    }
+
+    /**
+     * 在选中的客户端上执行异步调用
+     * @param action 调用
+     * @param idempotent 是否幂等，幂等调用失败时会在其它节点上重试
+     * @param <R> 返回类型
+     * @return 调用结果
+     */
+    public <R> Mono<R> executeAsync(Function<T, Mono<R>> action, boolean idempotent) {
+        return Mono.defer(() -> {
+            McpClientEndpoint<T> endpoint = select(null);
+            if (endpoint == null) {
+                return Mono.error(noAvailableClient());
+            }
+            return attemptAsync(endpoint, action, idempotent ? maxRetries : 0, new HashSet<>());
+        });
+    }
+
+    private <R> Mono<R> attemptAsync(McpClientEndpoint<T> endpoint, Function<T, Mono<R>> action, int retriesLeft,
+            Set<String> tried) {
+        tried.add(endpoint.getKey());
+        return Mono.defer(() -> {
+            long start = ticker.getAsLong();
+            endpoint.acquire(start);
+            return Mono.defer(() -> action.apply(endpoint.getClient()))
+                .doOnSuccess(result -> recordSuccess(endpoint, start))
+                .doOnError(e -> recordError(endpoint, start, e))
+                .doFinally(signal -> endpoint.release());
+        }).onErrorResume(e -> retriesLeft > 0 && isRetryable(e), e -> {
+            McpClientEndpoint<T> next = select(tried);
+            if (next == null) {
+                return Mono.error(e);
+            }
+            logger.warn("[Nacos Mcp Client] Call to {} of {} failed, retrying on {}: {}", endpoint.getKey(),
+                    serverName, next.getKey(), e.getMessage());
+            return attemptAsync(next, action, retriesLeft - 1, tried);
+        });
+    }
+
+    /**
+     * 选择节点：优先在可用节点中选择；所有节点都被熔断或摘除时退化为在全部节点中选择，避免整体不可用
+     */
+    private McpClientEndpoint<T> select(Set<String> excluded) {
+        List<McpClientEndpoint<T>> endpoints = snapshot.endpoints();
+        if (endpoints.isEmpty()) {
+            return null;
+        }
+        long now = ticker.getAsLong();
+        if (excluded == null) {
+            McpClientEndpoint<T> chosen = strategy.choose(endpoints);
+            if (chosen.isAvailable(now)) {
+                return chosen;
+            }
+        }
+        List<McpClientEndpoint<T>> available = new ArrayList<>(endpoints.size());
+        List<McpClientEndpoint<T>> remaining = new ArrayList<>(endpoints.size());
+        for (McpClientEndpoint<T> endpoint : endpoints) {
+            if (excluded != null && excluded.contains(endpoint.getKey())) {
+                continue;
+            }
+            remaining.add(endpoint);
+            if (endpoint.isAvailable(now)) {
+                available.add(endpoint);
+            }
+        }
+        if (!available.isEmpty()) {
+            return strategy.choose(available);
+        }
+        return remaining.isEmpty() ? null : strategy.choose(remaining);
+    }
+
+    private void recordSuccess(McpClientEndpoint<T> endpoint, long start) {
+        long now = ticker.getAsLong();
+        endpoint.recordSuccess(now, now - start);
+        maybeEjectOutliers(now);
+    }
+
+    private void recordError(McpClientEndpoint<T> endpoint, long start, Throwable e) {
+        if (!isRetryable(e)) {
+            // 服务端返回的 JSON-RPC 错误说明节点本身是健康的
+            recordSuccess(endpoint, start);
+            return;
+        }
+        long now = ticker.getAsLong();
+        if (endpoint.recordFailure(now, now - start, failureThreshold, openNanos)) {
+            logger.warn("[Nacos Mcp Client] Circuit opened for {} of {} after {} consecutive failures",
+                    endpoint.getKey(), serverName, endpoint.getConsecutiveFailures());
+        }
+        maybeEjectOutliers(now);
+    }
+
+    private boolean isRetryable(Throwable e) {
+        return !(e instanceof McpError);
+    }
+
+    /**
+     * 每个检查周期最多执行一次：EWMA 延迟超过集群中位数一定倍数的节点会被临时摘除，摘除数量不超过节点总数的一半
+     */
+    private void maybeEjectOutliers(long now) {
+        long last = lastOutlierCheckNanos.get();
+        if (now - last < outlierCheckIntervalNanos || !lastOutlierCheckNanos.compareAndSet(last, now)) {
+            return;
+        }
+        List<McpClientEndpoint<T>> endpoints = snapshot.endpoints();
+        if (endpoints.size() < 3) {
+            return;
+        }
+        int ejected = 0;
+        int measured = 0;
+        double[] latencies = new double[endpoints.size()];
+        for (McpClientEndpoint<T> endpoint : endpoints) {
+            if (endpoint.isEjected(now)) {
+                ejected++;
+            }
+            else if (endpoint.getEwmaLatencyNanos() > 0) {
+                latencies[measured++] = endpoint.getEwmaLatencyNanos();
+            }
+        }
+        if (measured < 3) {
+            return;
+        }
+        Arrays.sort(latencies, 0, measured);
+        double median = latencies[measured / 2];
+        double threshold = Math.max(median * outlierLatencyRatio, outlierMinLatencyNanos);
+        int maxEjected = endpoints.size() / 2;
+        for (McpClientEndpoint<T> endpoint : endpoints) {
+            if (ejected >= maxEjected) {
+                break;
+            }
+            if (!endpoint.isEjected(now) && endpoint.getEwmaLatencyNanos() > threshold) {
+                logger.warn("[Nacos Mcp Client] Ejecting latency outlier {} of {}, ewma {} ms, median {} ms",
+                        endpoint.getKey(), serverName, (long) (endpoint.getEwmaLatencyNanos() / 1_000_000),
+                        (long) (median / 1_000_000));
+                endpoint.eject(now, ejectionNanos, median);
+                ejected++;
+            }
+        }
+    }
+
+    private IllegalStateException noAvailableClient() {
+        return new IllegalStateException("[Nacos Mcp Client] No McpClient available, name: " + serverName);
+    }
+
+    public static <T> Builder<T> builder(String serverName) {
+        return new Builder<>(serverName);
+    }
+
+    private record Snapshot<T>(List<McpClientEndpoint<T>> endpoints, List<T> clients) {
+    }
+
+    public static class Builder<T> {
+
+        private final String serverName;
+
+        private LoadBalanceStrategy strategy = new EwmaLatencyLoadBalanceStrategy();
+
+        private int failureThreshold = 5;
+
+        private Duration openDuration = Duration.ofSeconds(10);
+
+        private int maxRetries = 1;
+
+        private double outlierLatencyRatio = 3.0;
+
+        private Duration outlierMinLatency = Duration.ofMillis(50);
+
+        private Duration ejectionDuration = Duration.ofSeconds(30);
+
+        private Duration outlierCheckInterval = Duration.ofSeconds(1);
+
+        private Duration decayWindow = Duration.ofSeconds(10);
+
+        private LongSupplier ticker = System::nanoTime;
+
+        private Builder(String serverName) {
+            Assert.notNull(serverName, "serverName cannot be null");
+            this.serverName = serverName;
+        }
+
+        public Builder<T> strategy(LoadBalanceStrategy strategy) {
+            Assert.notNull(strategy, "strategy cannot be null");
+            this.strategy = strategy;
+            return this;
+        }
+
+        public Builder<T> failureThreshold(int failureThreshold) {
+            Assert.isTrue(failureThreshold > 0, "failureThreshold must be positive");
+            this.failureThreshold = failureThreshold;
+            return this;
+        }
+
+        public Builder<T> openDuration(Duration openDuration) {
+            Assert.notNull(openDuration, "openDuration cannot be null");
+            this.openDuration = openDuration;
+            return this;
+        }
+
+        public Builder<T> maxRetries(int maxRetries) {
+            Assert.isTrue(maxRetries >= 0, "maxRetries cannot be negative");
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        public Builder<T> outlierLatencyRatio(double outlierLatencyRatio) {
+            Assert.isTrue(outlierLatencyRatio > 1, "outlierLatencyRatio must be greater than 1");
+            this.outlierLatencyRatio = outlierLatencyRatio;
+            return this;
+        }
+
+        public Builder<T> outlierMinLatency(Duration outlierMinLatency) {
+            Assert.notNull(outlierMinLatency, "outlierMinLatency cannot be null");
+            this.outlierMinLatency = outlierMinLatency;
+            return this;
+        }
+
+        public Builder<T> ejectionDuration(Duration ejectionDuration) {
+            Assert.notNull(ejectionDuration, "ejectionDuration cannot be null");
+            this.ejectionDuration = ejectionDuration;
+            return this;
+        }
+
+        public Builder<T> outlierCheckInterval(Duration outlierCheckInterval) {
+            Assert.notNull(outlierCheckInterval, "outlierCheckInterval cannot be null");
+            this.outlierCheckInterval = outlierCheckInterval;
+            return this;
+        }
+
+        public Builder<T> decayWindow(Duration decayWindow) {
+            Assert.isTrue(decayWindow != null && !decayWindow.isZero() && !decayWindow.isNegative(),
+                    "decayWindow must be positive");
+            this.decayWindow = decayWindow;
+            return this;
+        }
+
+        Builder<T> ticker(LongSupplier ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        public DistributedMcpClientBalancer<T> build() {
+            return new DistributedMcpClientBalancer<>(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.mcp.discovery.client.balancer;
+
+import java.util.List;
+
+/**
+ * 延迟感知策略（peak EWMA），以 EWMA 延迟 × (未完成请求数 + 1) 作为节点代价，
+ * 随机取两个节点选择代价较小的一个。慢节点的代价会迅速升高，从而自动减少分配到它的流量。
+ */
+public class EwmaLatencyLoadBalanceStrategy implements LoadBalanceStrategy {
+
+    @Override
+    public <T> McpClientEndpoint<T> choose(List<McpClientEndpoint<T>> candidates) {
+        return PowerOfTwoChoices.choose(candidates,
+                endpoint -> (endpoint.getEwmaLatencyNanos() + 1) * (endpoint.getOutstanding() + 1));
+    }
+
+}
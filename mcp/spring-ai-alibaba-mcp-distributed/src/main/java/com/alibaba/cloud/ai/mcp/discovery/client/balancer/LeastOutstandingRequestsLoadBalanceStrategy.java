@@ -0,0 +1,32 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.mcp.discovery.client.balancer;
+
+import java.util.List;
+
+/**
+ * 最少未完成请求策略，随机取两个节点（power of two choices），选择未完成请求数较少的一个，
+ * 避免所有调用方同时涌向同一个最空闲的节点。
+ */
+public class LeastOutstandingRequestsLoadBalanceStrategy implements LoadBalanceStrategy {
+
+    @Override
+    public <T> McpClientEndpoint<T> choose(List<McpClientEndpoint<T>> candidates) {
+        return PowerOfTwoChoices.choose(candidates, endpoint -> endpoint.getOutstanding());
+    }
+
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.mcp.discovery.client.balancer;
+
+import java.util.List;
+
+/**
+ * 分布式 MCP 客户端的负载均衡策略，从可用节点中选出本次调用的目标节点。
+ * 可以通过在容器中注册该类型的 Bean 替换默认策略。
+ */
+public interface LoadBalanceStrategy {
+
+    /**
+     * 从候选节点中选择一个节点
+     * @param candidates 当前可用的候选节点，不为空
+     * @param <T> 客户端类型
+     * @return 选中的节点
+     */
+    <T> McpClientEndpoint<T> choose(List<McpClientEndpoint<T>> candidates);
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.mcp.discovery.client.balancer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 负载均衡中的单个 MCP 服务节点，记录未完成请求数、EWMA 延迟以及熔断、摘除状态。
+ * @param <T> 客户端类型
+ */
+public final class McpClientEndpoint<T> {
+
+    private final String key;
+
+    private final T client;
+
+    private final double decayNanos;
+
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    private final AtomicBoolean probing = new AtomicBoolean();
+
+    private volatile double ewmaLatencyNanos;
+
+    private volatile long lastObservedNanos;
+
+    private volatile long openUntilNanos;
+
+    private volatile long ejectedUntilNanos;
+
+    McpClientEndpoint(String key, T client, long decayNanos) {
+        this.key = key;
+        this.client = client;
+        this.decayNanos = decayNanos;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public T getClient() {
+        return client;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public double getEwmaLatencyNanos() {
+        return ewmaLatencyNanos;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    /**
+     * 节点是否可以接收新请求：未被摘除，且熔断器关闭或已到半开探测时间且当前没有探测请求
+     */
+    boolean isAvailable(long now) {
+        if (now < ejectedUntilNanos) {
+            return false;
+        }
+        long openUntil = openUntilNanos;
+        if (openUntil == 0) {
+            return true;
+        }
+        return now >= openUntil && !probing.get();
+    }
+
+    boolean isCircuitOpen(long now) {
+        long openUntil = openUntilNanos;
+        return openUntil != 0 && now < openUntil;
+    }
+
+    boolean isEjected(long now) {
+        return now < ejectedUntilNanos;
+    }
+
+    void acquire(long now) {
+        outstanding.incrementAndGet();
+        long openUntil = openUntilNanos;
+        if (openUntil != 0 && now >= openUntil) {
+            probing.set(true);
+        }
+    }
+
+    void release() {
+        outstanding.decrementAndGet();
+        probing.set(false);
+    }
+
+    void recordSuccess(long now, long latencyNanos) {
+        observe(now, latencyNanos);
+        consecutiveFailures.set(0);
+        openUntilNanos = 0;
+    }
+
+    /**
+     * 记录一次失败，连续失败达到阈值或半开探测失败时打开熔断器
+     * @return 本次是否打开了熔断器
+     */
+    boolean recordFailure(long now, long latencyNanos, int failureThreshold, long openNanos) {
+        observe(now, latencyNanos);
+        int failures = consecutiveFailures.incrementAndGet();
+        boolean halfOpen = openUntilNanos != 0 && now >= openUntilNanos;
+        if (halfOpen || failures >= failureThreshold) {
+            openUntilNanos = now + openNanos;
+            return true;
+        }
+        return false;
+    }
+
+    void eject(long now, long ejectionNanos, double resetLatencyNanos) {
+        ejectedUntilNanos = now + ejectionNanos;
+        // 恢复后以集群中位延迟重新参与竞争，仍然慢的话会被 peak EWMA 立即拉高
+        synchronized (this) {
+            ewmaLatencyNanos = resetLatencyNanos;
+        }
+    }
+
+    private synchronized void observe(long now, long latencyNanos) {
+        double current = ewmaLatencyNanos;
+        if (current == 0 || latencyNanos > current) {
+            ewmaLatencyNanos = latencyNanos;
+        }
+        else {
+            double weight = Math.exp(-Math.max(0, now - lastObservedNanos) / decayNanos);
+            ewmaLatencyNanos = current * weight + latencyNanos * (1 - weight);
+        }
+        lastObservedNanos = now;
+    }
+
+    @Override
+    public String toString() {
+        return "McpClientEndpoint{key='" + key + "', outstanding=" + outstanding.get() + ", ewmaLatencyMs="
+                + ewmaLatencyNanos / 1_000_000 + ", consecutiveFailures=" + consecutiveFailures.get() + "}";
+    }
+
+}
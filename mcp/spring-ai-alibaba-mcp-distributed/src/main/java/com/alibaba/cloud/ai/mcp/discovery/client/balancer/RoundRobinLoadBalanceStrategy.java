@@ -0,0 +1,35 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.mcp.discovery.client.balancer;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 轮询策略，不考虑节点的负载与延迟。
+ */
+public class RoundRobinLoadBalanceStrategy implements LoadBalanceStrategy {
+
+    private final AtomicInteger index = new AtomicInteger(0);
+
+    @Override
+    public <T> McpClientEndpoint<T> choose(List<McpClientEndpoint<T>> candidates) {
+        int current = index.getAndIncrement() & Integer.MAX_VALUE;
+        return candidates.get(current % candidates.size());
+    }
+
+}
@@ -18,7 +18,6 @@ package com.alibaba.cloud.ai.mcp.discovery.client.tool;
 
 import com.alibaba.cloud.ai.mcp.discovery.client.transport.DistributedAsyncMcpClient;
 import io.modelcontextprotocol.spec.McpSchema;
-import org.springframework.ai.mcp.McpToolUtils;
 import org.springframework.ai.model.ModelOptionsUtils;
 import org.springframework.ai.tool.ToolCallback;
 import org.springframework.ai.tool.definition.ToolDefinition;
@@ -37,20 +36,30 @@ public class DistributedAsyncMcpToolCallback implements ToolCallback {
 
     private final McpSchema.Tool tool;
 
+    private final ToolDefinition toolDefinition;
+
     public DistributedAsyncMcpToolCallback(DistributedAsyncMcpClient distributedAsyncMcpClient, McpSchema.Tool tool) {
         Assert.notNull(distributedAsyncMcpClient, "distributedSyncClient must not be null");
         Assert.notNull(tool, "tool must not be null");
         this.distributedAsyncMcpClient = distributedAsyncMcpClient;
         this.tool = tool;
+        this.toolDefinition = DistributedMcpToolCatalog.toToolDefinition(distributedAsyncMcpClient.getServerName(), tool);
+    }
+
+    public DistributedAsyncMcpToolCallback(DistributedAsyncMcpClient distributedAsyncMcpClient, McpSchema.Tool tool,
+            ToolDefinition toolDefinition) {
+        Assert.notNull(distributedAsyncMcpClient, "distributedSyncClient must not be null");
+        Assert.notNull(tool, "tool must not be null");
+        Assert.notNull(toolDefinition, "toolDefinition must not be null");
+        this.distributedAsyncMcpClient = distributedAsyncMcpClient;
+        this.tool = tool;
+        this.toolDefinition = toolDefinition;
     }
 
     @Override
     public ToolDefinition getToolDefinition() {
-        return ToolDefinition.builder()
-                .name(McpToolUtils.prefixedToolName(this.distributedAsyncMcpClient.getServerName(), this.tool.name()))
-                .description(this.tool.description())
-                .inputSchema(ModelOptionsUtils.toJsonString(this.tool.inputSchema()))
-                .build();    }
+        return this.toolDefinition;
+    }
 
     @Override
     public String call(String toolInput) {
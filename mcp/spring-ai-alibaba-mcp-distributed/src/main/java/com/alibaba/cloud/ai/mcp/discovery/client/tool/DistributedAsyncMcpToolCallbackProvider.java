@@ -23,11 +23,17 @@ import org.springframework.ai.tool.ToolCallback;
 import org.springframework.ai.tool.ToolCallbackProvider;
 import org.springframework.ai.tool.support.ToolUtils;
 import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiPredicate;
+import java.util.function.Function;
 
 /**
  * @author yingzi
@@ -36,42 +42,79 @@ import java.util.function.BiPredicate;
 
 public class DistributedAsyncMcpToolCallbackProvider implements ToolCallbackProvider {
 
-    private final List<DistributedAsyncMcpClient> mcpClients;
-
     private final BiPredicate<McpAsyncClient, McpSchema.Tool> toolFilter;
 
-    public DistributedAsyncMcpToolCallbackProvider(BiPredicate<McpAsyncClient, McpSchema.Tool> toolFilter, List<DistributedAsyncMcpClient> mcpClients) {
+    private final Map<DistributedAsyncMcpClient, DistributedMcpToolCatalog> catalogs = new LinkedHashMap<>();
+
+    /**
+     * 目录变化事件计数，缓存的回调只在构建之后没有新事件时有效
+     */
+    private final AtomicLong catalogChanges = new AtomicLong();
+
+    private volatile CachedToolCallbacks cachedToolCallbacks;
+
+    public DistributedAsyncMcpToolCallbackProvider(BiPredicate<McpAsyncClient, McpSchema.Tool> toolFilter,
+            List<DistributedAsyncMcpClient> mcpClients, Duration refreshInterval) {
         Assert.notNull(mcpClients, "mcpClients cannot be null");
         Assert.notNull(toolFilter, "toolFilter cannot be null");
-        this.mcpClients = mcpClients;
         this.toolFilter = toolFilter;
+        for (DistributedAsyncMcpClient mcpClient : mcpClients) {
+            DistributedMcpToolCatalog catalog = new DistributedMcpToolCatalog(mcpClient.getServerName(),
+                    () -> mcpClient.getMcpAsyncClientList()
+                        .stream()
+                        .<Function<String, Mono<McpSchema.ListToolsResult>>>map(client -> client::listTools)
+                        .toList(),
+                    refreshInterval);
+            catalog.addListener(snapshot -> catalogChanges.incrementAndGet());
+            catalogs.put(mcpClient, catalog);
+            // 启动时即开始加载，回调可能在事件循环线程上获取，那里不能等待首次加载
+            catalog.refreshInBackground();
+        }
+    }
+
+    public DistributedAsyncMcpToolCallbackProvider(BiPredicate<McpAsyncClient, McpSchema.Tool> toolFilter, List<DistributedAsyncMcpClient> mcpClients) {
+        this(toolFilter, mcpClients, DistributedMcpToolCatalog.DEFAULT_REFRESH_INTERVAL);
     }
 
     public DistributedAsyncMcpToolCallbackProvider(List<DistributedAsyncMcpClient> mcpClients) {
         this((mcpClient, tool) -> true, mcpClients);
     }
 
+    /**
+     * 工具目录未发出变化事件时直接返回上次构建的回调，收到变化事件后才重新构建。在 Reactor 非阻塞线程上调用时不等待首次加载，
+     * 尚未加载完成的服务暂不提供工具，加载完成的变化事件会让下一次调用重新构建
+     */
     @Override
     public ToolCallback[] getToolCallbacks() {
-        List<ToolCallback> toolCallbackList = new ArrayList();
-        Iterator var2 = this.mcpClients.iterator();
-
-        while (var2.hasNext()) {
-            DistributedAsyncMcpClient mcpClient = (DistributedAsyncMcpClient) var2.next();
-            ToolCallback[] toolCallbacks = (ToolCallback[]) mcpClient.listTools().map((response) -> {
-                return (ToolCallback[]) response.tools().stream().filter((tool) -> {
-                    return this.toolFilter.test(mcpClient.getMcpAsyncClient(), tool);
-                }).map((tool) -> {
-                    return new DistributedAsyncMcpToolCallback(mcpClient, tool);
-                }).toArray((x$0) -> {
-                    return new ToolCallback[x$0];
-                });
-            }).block();
-            this.validateToolCallbacks(toolCallbacks);
-            toolCallbackList.addAll(List.of(toolCallbacks));
+        // 先读取事件计数再读取目录，构建期间发生的变化会让下一次调用重新构建
+        long changes = catalogChanges.get();
+        List<DistributedMcpToolCatalog.Snapshot> snapshots = new ArrayList<>(catalogs.size());
+        boolean nonBlocking = Schedulers.isInNonBlockingThread();
+        for (DistributedMcpToolCatalog catalog : catalogs.values()) {
+            snapshots.add(nonBlocking ? catalog.getLoadedSnapshot() : catalog.getSnapshot());
         }
-
-        return (ToolCallback[]) toolCallbackList.toArray(new ToolCallback[0]);
+        CachedToolCallbacks cached = this.cachedToolCallbacks;
+        if (cached != null && cached.changes() == changes) {
+            return cached.toolCallbacks().clone();
+        }
+        List<ToolCallback> toolCallbacks = new ArrayList<>();
+        int i = 0;
+        for (DistributedAsyncMcpClient mcpClient : catalogs.keySet()) {
+            DistributedMcpToolCatalog.Snapshot snapshot = snapshots.get(i++);
+            if (snapshot == null) {
+                continue;
+            }
+            for (McpSchema.Tool tool : snapshot.tools()) {
+                if (this.toolFilter.test(mcpClient.getMcpAsyncClient(), tool)) {
+                    toolCallbacks.add(new DistributedAsyncMcpToolCallback(mcpClient, tool,
+                            snapshot.getToolDefinition(tool)));
+                }
+            }
+        }
+        ToolCallback[] array = toolCallbacks.toArray(new ToolCallback[0]);
+        this.validateToolCallbacks(array);
+        this.cachedToolCallbacks = new CachedToolCallbacks(changes, array);
+        return array.clone();
     }
 
     private void validateToolCallbacks(ToolCallback[] toolCallbacks) {
@@ -81,4 +124,7 @@ public class DistributedAsyncMcpToolCallbackProvider implements ToolCallbackProv
                     "Multiple tools with the same name (%s)".formatted(String.join(", ", duplicateToolNames)));
         }
     }
+
+    private record CachedToolCallbacks(long changes, ToolCallback[] toolCallbacks) {
+    }
 }
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.mcp.discovery.client.tool;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.mcp.McpToolUtils;
+import org.springframework.ai.model.ModelOptionsUtils;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 单个分布式 MCP 服务的工具目录。
+ * <p>
+ * 并发地向服务的所有实例拉取工具列表（自动翻页），以多数实例一致的工具列表作为目录内容，滚动发布期间个别实例的差异不会导致目录抖动。
+ * 工具列表没有变化时目录版本保持不变，已生成的 {@link ToolDefinition}（含序列化后的 inputSchema）会被复用；
+ * 发生变化时版本号递增并通知监听器，{@link org.springframework.ai.tool.ToolCallbackProvider} 据此决定是否需要重建回调。
+ */
+public class DistributedMcpToolCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(DistributedMcpToolCatalog.class);
+
+    public static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofSeconds(30);
+
+    private static final Duration LOAD_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String serverName;
+
+    private final Supplier<List<Function<String, Mono<McpSchema.ListToolsResult>>>> instances;
+
+    private final long refreshIntervalNanos;
+
+    private final LongSupplier ticker;
+
+    private final List<Consumer<Snapshot>> listeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicReference<Mono<Snapshot>> inflight = new AtomicReference<>();
+
+    private volatile Snapshot snapshot;
+
+    private volatile long loadedAtNanos;
+
+    /**
+     * @param serverName MCP 服务名，用于生成带前缀的工具名
+     * @param instances 当前所有实例的 listTools 调用，入参为分页游标
+     * @param refreshInterval 目录刷新间隔，过期后在后台刷新，调用方继续使用旧目录
+     */
+    public DistributedMcpToolCatalog(String serverName,
+            Supplier<List<Function<String, Mono<McpSchema.ListToolsResult>>>> instances, Duration refreshInterval) {
+        this(serverName, instances, refreshInterval, System::nanoTime);
+    }
+
+    DistributedMcpToolCatalog(String serverName,
+            Supplier<List<Function<String, Mono<McpSchema.ListToolsResult>>>> instances, Duration refreshInterval,
+            LongSupplier ticker) {
+        Assert.notNull(serverName, "serverName cannot be null");
+        Assert.notNull(instances, "instances cannot be null");
+        Assert.notNull(refreshInterval, "refreshInterval cannot be null");
+        this.serverName = serverName;
+        this.instances = instances;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+        this.ticker = ticker;
+    }
+
+    public String getServerName() {
+        return serverName;
+    }
+
+    /**
+     * 注册目录变化监听器，只有工具列表实际发生变化时才会被调用
+     * @param listener 监听器
+     */
+    public void addListener(Consumer<Snapshot> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 获取当前目录。首次调用会等待加载完成，不能在 Reactor 非阻塞线程上调用；目录过期时触发后台刷新并立即返回旧目录
+     * @return 当前目录
+     */
+    public Snapshot getSnapshot() {
+        Snapshot current = getLoadedSnapshot();
+        return current != null ? current : refresh().block(LOAD_TIMEOUT);
+    }
+
+    /**
+     * 获取已加载的目录，从不阻塞。尚未加载或已过期时触发后台刷新，刷新完成后通过监听器通知
+     * @return 当前目录，尚未加载完成时返回 null
+     */
+    public Snapshot getLoadedSnapshot() {
+        Snapshot current = this.snapshot;
+        if (current == null || ticker.getAsLong() - loadedAtNanos >= refreshIntervalNanos) {
+            refreshInBackground();
+        }
+        return current;
+    }
+
+    /**
+     * 在后台刷新目录，失败只记录日志
+     */
+    public void refreshInBackground() {
+        refresh().subscribe(s -> {
+        }, e -> logger.warn("[Nacos Mcp Client] Failed to refresh tools of {}: {}", serverName, e.getMessage()));
+    }
+
+    /**
+     * 立即刷新目录，并发刷新会共享同一次加载
+     * @return 刷新后的目录
+     */
+    public Mono<Snapshot> refresh() {
+        while (true) {
+            Mono<Snapshot> existing = inflight.get();
+            if (existing != null) {
+                return existing;
+            }
+            Mono<Snapshot> load = load().doFinally(signal -> inflight.set(null)).cache();
+            if (inflight.compareAndSet(null, load)) {
+                return load;
+            }
+        }
+    }
+
+    private Mono<Snapshot> load() {
+        return Mono.defer(() -> {
+            List<Function<String, Mono<McpSchema.ListToolsResult>>> calls = instances.get();
+            if (calls.isEmpty()) {
+                return Mono.error(new IllegalStateException(
+                        "[Nacos Mcp Client] No McpClient available, name: " + serverName));
+            }
+            return Flux.fromIterable(calls)
+                .flatMap(call -> listAllTools(call).onErrorResume(e -> {
+                    logger.warn("[Nacos Mcp Client] Failed to list tools from an instance of {}: {}", serverName,
+                            e.getMessage());
+                    return Mono.empty();
+                }))
+                .collectList()
+                .flatMap(results -> results.isEmpty()
+                        ? Mono.error(new IllegalStateException(
+                                "[Nacos Mcp Client] Failed to list tools from all instances of " + serverName))
+                        : Mono.just(apply(majority(results))));
+        });
+    }
+
+    private Mono<List<McpSchema.Tool>> listAllTools(Function<String, Mono<McpSchema.ListToolsResult>> call) {
+        return call.apply(null)
+            .expand(result -> result.nextCursor() == null ? Mono.empty() : call.apply(result.nextCursor()))
+            .flatMapIterable(result -> result.tools() == null ? List.<McpSchema.Tool>of() : result.tools())
+            .collectList()
+            .map(tools -> {
+                List<McpSchema.Tool> sorted = new ArrayList<>(tools);
+                sorted.sort(Comparator.comparing(McpSchema.Tool::name));
+                return sorted;
+            });
+    }
+
+    private List<McpSchema.Tool> majority(List<List<McpSchema.Tool>> results) {
+        Map<List<McpSchema.Tool>, Integer> votes = new HashMap<>();
+        List<McpSchema.Tool> winner = results.get(0);
+        int best = 0;
+        for (List<McpSchema.Tool> tools : results) {
+            int count = votes.merge(tools, 1, Integer::sum);
+            if (count > best) {
+                best = count;
+                winner = tools;
+            }
+        }
+        if (votes.size() > 1) {
+            logger.debug("[Nacos Mcp Client] Instances of {} report {} different tool lists, using the majority",
+                    serverName, votes.size());
+        }
+        return winner;
+    }
+
+    private synchronized Snapshot apply(List<McpSchema.Tool> tools) {
+        loadedAtNanos = ticker.getAsLong();
+        Snapshot current = this.snapshot;
+        if (current != null && current.tools().equals(tools)) {
+            return current;
+        }
+        Map<String, McpSchema.Tool> previousTools = new HashMap<>();
+        if (current != null) {
+            current.tools().forEach(tool -> previousTools.put(tool.name(), tool));
+        }
+        Map<String, ToolDefinition> definitions = new LinkedHashMap<>();
+        for (McpSchema.Tool tool : tools) {
+            // 未变化的工具沿用上一版本的定义，避免重复序列化 inputSchema
+            boolean unchanged = tool.equals(previousTools.get(tool.name()));
+            definitions.put(tool.name(), unchanged ? current.getToolDefinition(tool) : toToolDefinition(serverName, tool));
+        }
+        Snapshot updated = new Snapshot(current == null ? 1 : current.version() + 1, List.copyOf(tools),
+                definitions);
+        this.snapshot = updated;
+        logger.info("[Nacos Mcp Client] Tool catalog of {} updated to version {}, {} tools", serverName,
+                updated.version(), tools.size());
+        for (Consumer<Snapshot> listener : listeners) {
+            listener.accept(updated);
+        }
+        return updated;
+    }
+
+    static ToolDefinition toToolDefinition(String serverName, McpSchema.Tool tool) {
+        return ToolDefinition.builder()
+            .name(McpToolUtils.prefixedToolName(serverName, tool.name()))
+            .description(tool.description())
+            .inputSchema(ModelOptionsUtils.toJsonString(tool.inputSchema()))
+            .build();
+    }
+
+    /**
+     * 某一版本的工具目录
+     * @param version 目录版本，工具列表变化时递增
+     * @param tools 按名称排序的工具列表
+     * @param definitions 工具名到已生成的 ToolDefinition 的映射
+     */
+    public record Snapshot(long version, List<McpSchema.Tool> tools, Map<String, ToolDefinition> definitions) {
+
+        public ToolDefinition getToolDefinition(McpSchema.Tool tool) {
+            return definitions.get(tool.name());
+        }
+
+    }
+
+}
@@ -18,7 +18,6 @@ package com.alibaba.cloud.ai.mcp.discovery.client.tool;
 
 import com.alibaba.cloud.ai.mcp.discovery.client.transport.DistributedSyncMcpClient;
 import io.modelcontextprotocol.spec.McpSchema;
-import org.springframework.ai.mcp.McpToolUtils;
 import org.springframework.ai.model.ModelOptionsUtils;
 import org.springframework.ai.tool.ToolCallback;
 import org.springframework.ai.tool.definition.ToolDefinition;
@@ -37,20 +36,30 @@ public class DistributedSyncMcpToolCallback implements ToolCallback {
 
     private final McpSchema.Tool tool;
 
+    private final ToolDefinition toolDefinition;
+
     public DistributedSyncMcpToolCallback(DistributedSyncMcpClient distributedSyncMcpClient, McpSchema.Tool tool) {
         Assert.notNull(distributedSyncMcpClient, "distributedSyncClient must not be null");
         Assert.notNull(tool, "tool must not be null");
         this.distributedSyncMcpClient = distributedSyncMcpClient;
         this.tool = tool;
+        this.toolDefinition = DistributedMcpToolCatalog.toToolDefinition(distributedSyncMcpClient.getServerName(), tool);
+    }
+
+    public DistributedSyncMcpToolCallback(DistributedSyncMcpClient distributedSyncMcpClient, McpSchema.Tool tool,
+            ToolDefinition toolDefinition) {
+        Assert.notNull(distributedSyncMcpClient, "distributedSyncClient must not be null");
+        Assert.notNull(tool, "tool must not be null");
+        Assert.notNull(toolDefinition, "toolDefinition must not be null");
+        this.distributedSyncMcpClient = distributedSyncMcpClient;
+        this.tool = tool;
+        this.toolDefinition = toolDefinition;
     }
 
     @Override
     public ToolDefinition getToolDefinition() {
-        return ToolDefinition.builder()
-                .name(McpToolUtils.prefixedToolName(this.distributedSyncMcpClient.getServerName(), this.tool.name()))
-                .description(this.tool.description())
-                .inputSchema(ModelOptionsUtils.toJsonString(this.tool.inputSchema()))
-                .build();    }
+        return this.toolDefinition;
+    }
 
     @Override
     public String call(String toolInput) {
@@ -23,10 +23,17 @@ import org.springframework.ai.tool.ToolCallback;
 import org.springframework.ai.tool.ToolCallbackProvider;
 import org.springframework.ai.tool.support.ToolUtils;
 import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiPredicate;
+import java.util.function.Function;
 
 /**
  * @author yingzi
@@ -35,36 +42,74 @@ import java.util.function.BiPredicate;
 
 public class DistributedSyncMcpToolCallbackProvider implements ToolCallbackProvider {
 
-    private final List<DistributedSyncMcpClient> mcpClients;
-
     private final BiPredicate<McpSyncClient, McpSchema.Tool> toolFilter;
 
-    public DistributedSyncMcpToolCallbackProvider(BiPredicate<McpSyncClient, McpSchema.Tool> toolFilter, List<DistributedSyncMcpClient> mcpClients) {
+    private final Map<DistributedSyncMcpClient, DistributedMcpToolCatalog> catalogs = new LinkedHashMap<>();
+
+    /**
+     * 目录变化事件计数，缓存的回调只在构建之后没有新事件时有效
+     */
+    private final AtomicLong catalogChanges = new AtomicLong();
+
+    private volatile CachedToolCallbacks cachedToolCallbacks;
+
+    public DistributedSyncMcpToolCallbackProvider(BiPredicate<McpSyncClient, McpSchema.Tool> toolFilter,
+            List<DistributedSyncMcpClient> mcpClients, Duration refreshInterval) {
         Assert.notNull(mcpClients, "mcpClients cannot be null");
         Assert.notNull(toolFilter, "toolFilter cannot be null");
-        this.mcpClients = mcpClients;
         this.toolFilter = toolFilter;
+        for (DistributedSyncMcpClient mcpClient : mcpClients) {
+            DistributedMcpToolCatalog catalog = new DistributedMcpToolCatalog(mcpClient.getServerName(),
+                    () -> mcpClient.getMcpSyncClientList()
+                        .stream()
+                        .<Function<String, Mono<McpSchema.ListToolsResult>>>map(client -> cursor -> Mono
+                            .fromCallable(() -> client.listTools(cursor))
+                            .subscribeOn(Schedulers.boundedElastic()))
+                        .toList(),
+                    refreshInterval);
+            catalog.addListener(snapshot -> catalogChanges.incrementAndGet());
+            catalogs.put(mcpClient, catalog);
+        }
+    }
+
+    public DistributedSyncMcpToolCallbackProvider(BiPredicate<McpSyncClient, McpSchema.Tool> toolFilter, List<DistributedSyncMcpClient> mcpClients) {
+        this(toolFilter, mcpClients, DistributedMcpToolCatalog.DEFAULT_REFRESH_INTERVAL);
     }
 
     public DistributedSyncMcpToolCallbackProvider(List<DistributedSyncMcpClient> mcpClients) {
         this((mcpClient, tool) -> true, mcpClients);
     }
 
+    /**
+     * 工具目录未发出变化事件时直接返回上次构建的回调，收到变化事件后才重新构建
+     */
     @Override
     public ToolCallback[] getToolCallbacks() {
-        ArrayList<Object> toolCallbacks = new ArrayList();
-
-        this.mcpClients.stream().forEach(
-                mcpClint -> {
-                    toolCallbacks.addAll(mcpClint.listTools().tools().stream().filter((tool) -> {
-                        return this.toolFilter.test(mcpClint.getMcpSyncClient(), tool);
-                    }).map((tool) -> {
-                        return new DistributedSyncMcpToolCallback(mcpClint, tool);
-                    }).toList());                }
-        );
-        ToolCallback[] array = (ToolCallback[]) toolCallbacks.toArray(new ToolCallback[0]);
+        // 先读取事件计数再读取目录，构建期间发生的变化会让下一次调用重新构建
+        long changes = catalogChanges.get();
+        List<DistributedMcpToolCatalog.Snapshot> snapshots = new ArrayList<>(catalogs.size());
+        for (DistributedMcpToolCatalog catalog : catalogs.values()) {
+            snapshots.add(catalog.getSnapshot());
+        }
+        CachedToolCallbacks cached = this.cachedToolCallbacks;
+        if (cached != null && cached.changes() == changes) {
+            return cached.toolCallbacks().clone();
+        }
+        List<ToolCallback> toolCallbacks = new ArrayList<>();
+        int i = 0;
+        for (DistributedSyncMcpClient mcpClient : catalogs.keySet()) {
+            DistributedMcpToolCatalog.Snapshot snapshot = snapshots.get(i++);
+            for (McpSchema.Tool tool : snapshot.tools()) {
+                if (this.toolFilter.test(mcpClient.getMcpSyncClient(), tool)) {
+                    toolCallbacks.add(new DistributedSyncMcpToolCallback(mcpClient, tool,
+                            snapshot.getToolDefinition(tool)));
+                }
+            }
+        }
+        ToolCallback[] array = toolCallbacks.toArray(new ToolCallback[0]);
         this.validateToolCallbacks(array);
-        return array;
+        this.cachedToolCallbacks = new CachedToolCallbacks(changes, array);
+        return array.clone();
     }
 
     private void validateToolCallbacks(ToolCallback[] toolCallbacks) {
@@ -74,4 +119,7 @@ public class DistributedSyncMcpToolCallbackProvider implements ToolCallbackProvi
                     "Multiple tools with the same name (%s)".formatted(String.join(", ", duplicateToolNames)));
         }
     }
+
+    private record CachedToolCallbacks(long changes, ToolCallback[] toolCallbacks) {
+    }
 }
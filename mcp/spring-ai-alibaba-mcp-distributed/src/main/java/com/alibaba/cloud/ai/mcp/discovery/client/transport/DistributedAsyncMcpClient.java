@@ -20,6 +20,7 @@ import io.modelcontextprotocol.client.McpAsyncClient;
 import io.modelcontextprotocol.spec.McpSchema;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -37,6 +38,13 @@ public interface DistributedAsyncMcpClient {
 
     McpAsyncClient getMcpAsyncClient();
 
+    /**
+     * @return 当前所有实例的客户端，默认只返回负载均衡选中的一个
+     */
+    default List<McpAsyncClient> getMcpAsyncClientList() {
+        return List.of(getMcpAsyncClient());
+    }
+
     Map<String, McpAsyncClient> init();
 
     void subscribe();
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.mcp.discovery.client.transport;
+
+import com.alibaba.cloud.ai.mcp.discovery.client.balancer.DistributedMcpClientBalancer;
+import com.alibaba.cloud.ai.mcp.discovery.client.balancer.McpClientEndpoint;
+import com.alibaba.cloud.ai.mcp.utils.NacosMcpClientUtil;
+import com.alibaba.nacos.api.ai.model.mcp.McpEndpointInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * 分布式 MCP 客户端的增量节点协调器。
+ * <p>
+ * Nacos 推送节点变化时按节点 key（地址 + 端口 + exportPath）做一次 O(n) 的哈希比对，只为新增节点创建客户端、只关闭被移除节点的客户端，
+ * 未变化的节点保留原有连接，不再重复 SSE 建连与 initialize 握手。被移除的节点先从负载均衡快照中摘掉，
+ * 等待其未完成请求结束（或超时）后再关闭。
+ * @param <T> 客户端类型
+ */
+public class DistributedMcpClientReconciler<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DistributedMcpClientReconciler.class);
+
+    private static final Duration DEFAULT_DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final Duration DRAIN_POLL_INTERVAL = Duration.ofMillis(50);
+
+    private final String serverName;
+
+    private final DistributedMcpClientBalancer<T> balancer;
+
+    private final BiFunction<McpEndpointInfo, String, T> clientFactory;
+
+    private final Function<T, Mono<Void>> clientCloser;
+
+    private final Duration drainTimeout;
+
+    public DistributedMcpClientReconciler(String serverName, DistributedMcpClientBalancer<T> balancer,
+            BiFunction<McpEndpointInfo, String, T> clientFactory, Function<T, Mono<Void>> clientCloser) {
+        this(serverName, balancer, clientFactory, clientCloser, DEFAULT_DRAIN_TIMEOUT);
+    }
+
+    public DistributedMcpClientReconciler(String serverName, DistributedMcpClientBalancer<T> balancer,
+            BiFunction<McpEndpointInfo, String, T> clientFactory, Function<T, Mono<Void>> clientCloser,
+            Duration drainTimeout) {
+        Assert.notNull(serverName, "serverName cannot be null");
+        Assert.notNull(balancer, "balancer cannot be null");
+        Assert.notNull(clientFactory, "clientFactory cannot be null");
+        Assert.notNull(clientCloser, "clientCloser cannot be null");
+        Assert.notNull(drainTimeout, "drainTimeout cannot be null");
+        this.serverName = serverName;
+        this.balancer = balancer;
+        this.clientFactory = clientFactory;
+        this.clientCloser = clientCloser;
+        this.drainTimeout = drainTimeout;
+    }
+
+    /**
+     * 将客户端映射与最新的节点列表对齐，并刷新负载均衡快照
+     * @param keyToClientMap 当前客户端映射，会被原地修改
+     * @param endpoints 最新的节点列表
+     * @param exportPath 最新的 exportPath
+     * @return 被移除客户端全部关闭后完成的 Mono，关闭过程已在后台进行，调用方无需订阅
+     */
+    public synchronized Mono<Void> reconcile(Map<String, T> keyToClientMap, List<McpEndpointInfo> endpoints,
+            String exportPath) {
+        Map<String, McpEndpointInfo> desired = new LinkedHashMap<>();
+        if (endpoints != null) {
+            for (McpEndpointInfo endpoint : endpoints) {
+                desired.putIfAbsent(NacosMcpClientUtil.getMcpEndpointInfoId(endpoint, exportPath), endpoint);
+            }
+        }
+
+        List<String> removedKeys = new ArrayList<>();
+        for (String key : keyToClientMap.keySet()) {
+            if (!desired.containsKey(key)) {
+                removedKeys.add(key);
+            }
+        }
+        List<String> addedKeys = new ArrayList<>();
+        for (Map.Entry<String, McpEndpointInfo> entry : desired.entrySet()) {
+            if (keyToClientMap.containsKey(entry.getKey())) {
+                continue;
+            }
+            try {
+                keyToClientMap.put(entry.getKey(), clientFactory.apply(entry.getValue(), exportPath));
+                addedKeys.add(entry.getKey());
+            }
+            catch (RuntimeException e) {
+                // 单个节点不可用时不影响其它节点，下次节点变化时会再次尝试
+                logger.warn("[Nacos Mcp Client] Failed to create client for {} of {}: {}", entry.getKey(),
+                        serverName, e.getMessage());
+            }
+        }
+        if (addedKeys.isEmpty() && removedKeys.isEmpty()) {
+            return Mono.empty();
+        }
+        logger.info("[Nacos Mcp Client] Mcp server {} endpoints changed, added: {}, removed: {}", serverName,
+                addedKeys, removedKeys);
+
+        Map<String, McpClientEndpoint<T>> previousEndpoints = new HashMap<>();
+        for (McpClientEndpoint<T> endpoint : balancer.getEndpoints()) {
+            previousEndpoints.put(endpoint.getKey(), endpoint);
+        }
+        Map<String, T> removedClients = new LinkedHashMap<>();
+        for (String key : removedKeys) {
+            removedClients.put(key, keyToClientMap.remove(key));
+        }
+        balancer.update(keyToClientMap);
+
+        List<Mono<Void>> closing = new ArrayList<>(removedClients.size());
+        removedClients.forEach((key, client) -> closing.add(drainAndClose(key, client, previousEndpoints.get(key))));
+        Mono<Void> closed = Mono.when(closing).cache();
+        closed.subscribe();
+        return closed;
+    }
+
+    private Mono<Void> drainAndClose(String key, T client, McpClientEndpoint<T> endpoint) {
+        Mono<Void> drained = endpoint == null || endpoint.getOutstanding() == 0 ? Mono.empty()
+                : Flux.interval(DRAIN_POLL_INTERVAL)
+                    .filter(tick -> endpoint.getOutstanding() == 0)
+                    .next()
+                    .then()
+                    .timeout(drainTimeout, Mono.fromRunnable(() -> logger.warn(
+                            "[Nacos Mcp Client] Drain timeout for {} of {}, closing with {} requests in flight", key,
+                            serverName, endpoint.getOutstanding())));
+        return drained.then(Mono.defer(() -> {
+            logger.info("[Nacos Mcp Client] Removing client {} of {}", key, serverName);
+            return clientCloser.apply(client);
+        })).doOnSuccess(v -> logger.info("[Nacos Mcp Client] Removed client {} of {} Success", key, serverName))
+            .onErrorResume(e -> {
+                logger.warn("[Nacos Mcp Client] Failed to close client {} of {}: {}", key, serverName,
+                        e.getMessage());
+                return Mono.empty();
+            });
+    }
+
+}
@@ -19,6 +19,7 @@ package com.alibaba.cloud.ai.mcp.discovery.client.transport;
 import io.modelcontextprotocol.client.McpSyncClient;
 import io.modelcontextprotocol.spec.McpSchema;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -36,6 +37,13 @@ public interface DistributedSyncMcpClient {
 
     McpSyncClient getMcpSyncClient();
 
+    /**
+     * @return 当前所有实例的客户端，默认只返回负载均衡选中的一个
+     */
+    default List<McpSyncClient> getMcpSyncClientList() {
+        return List.of(getMcpSyncClient());
+    }
+
     Map<String, McpSyncClient> init();
 
     void subscribe();
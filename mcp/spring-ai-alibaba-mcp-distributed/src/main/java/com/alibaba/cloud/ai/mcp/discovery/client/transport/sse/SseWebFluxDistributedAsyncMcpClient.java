@@ -17,7 +17,11 @@
 package com.alibaba.cloud.ai.mcp.discovery.client.transport.sse;
 
 import com.alibaba.cloud.ai.mcp.common.transport.builder.WebFluxSseClientTransportBuilder;
+import com.alibaba.cloud.ai.mcp.discovery.client.balancer.DistributedMcpClientBalancer;
+import com.alibaba.cloud.ai.mcp.discovery.client.balancer.EwmaLatencyLoadBalanceStrategy;
+import com.alibaba.cloud.ai.mcp.discovery.client.balancer.LoadBalanceStrategy;
 import com.alibaba.cloud.ai.mcp.discovery.client.transport.DistributedAsyncMcpClient;
+import com.alibaba.cloud.ai.mcp.discovery.client.transport.DistributedMcpClientReconciler;
 import com.alibaba.cloud.ai.mcp.utils.CommonUtil;
 import com.alibaba.cloud.ai.mcp.utils.NacosMcpClientUtil;
 import com.alibaba.cloud.ai.mcp.nacos.service.NacosMcpOperationService;
@@ -49,7 +53,6 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
@@ -75,7 +78,9 @@ public class SseWebFluxDistributedAsyncMcpClient implements DistributedAsyncMcpC
 
     private final McpJsonMapper mcpJsonMapper;
 
-    private final AtomicInteger index = new AtomicInteger(0);
+    private final DistributedMcpClientBalancer<McpAsyncClient> balancer;
+
+    private final DistributedMcpClientReconciler<McpAsyncClient> reconciler;
 
     private Map<String, McpAsyncClient> keyToClientMap;
 
@@ -128,13 +133,17 @@ public class SseWebFluxDistributedAsyncMcpClient implements DistributedAsyncMcpC
             logger.debug("MCP trace filter not found, continuing without tracing: {}", e.getMessage());
         }
         this.traceFilter = tempTraceFilter;
+        this.balancer = DistributedMcpClientBalancer.<McpAsyncClient>builder(serverName)
+                .strategy(applicationContext.getBeanProvider(LoadBalanceStrategy.class)
+                        .getIfAvailable(EwmaLatencyLoadBalanceStrategy::new))
+                .build();
+        this.reconciler = new DistributedMcpClientReconciler<>(serverName, balancer, this::clientByEndpoint,
+                McpAsyncClient::closeGracefully);
     }
 
     public Map<String, McpAsyncClient> init() {
         keyToClientMap = new ConcurrentHashMap<>();
-        for (McpEndpointInfo mcpEndpointInfo : serverEndpoint.getMcpEndpointInfoList()) {
-            updateByAddEndpoint(mcpEndpointInfo, serverEndpoint.getExportPath());
-        }
+        reconciler.reconcile(keyToClientMap, serverEndpoint.getMcpEndpointInfoList(), serverEndpoint.getExportPath());
         logger.info("[Nacos Mcp Async Client] McpAsyncClient init, serverName: {}, version: {}, endpoint: {}", serverName,
                 version, serverEndpoint);
         return keyToClientMap;
@@ -160,17 +169,11 @@ public class SseWebFluxDistributedAsyncMcpClient implements DistributedAsyncMcpC
     }
 
     public McpAsyncClient getMcpAsyncClient() {
-        List<McpAsyncClient> asynClients = getMcpAsyncClientList();
-        if (asynClients.isEmpty()) {
-            throw new IllegalStateException("[Nacos Mcp Async Client] No McpAsyncClient available, name:" + serverName);
-        }
-
-        int currentIndex = index.getAndUpdate(index -> (index + 1) % asynClients.size());
-        return asynClients.get(currentIndex);
+        return balancer.choose();
     }
 
     public List<McpAsyncClient> getMcpAsyncClientList() {
-        return keyToClientMap.values().stream().toList();
+        return balancer.getClients();
     }
 
     public String getServerName() {
@@ -181,12 +184,6 @@ public class SseWebFluxDistributedAsyncMcpClient implements DistributedAsyncMcpC
         return this.serverEndpoint;
     }
 
-    private void updateByAddEndpoint(McpEndpointInfo mcpEndpointInfo, String exportPath) {
-        McpAsyncClient mcpAsyncClient = clientByEndpoint(mcpEndpointInfo, exportPath);
-        String key = NacosMcpClientUtil.getMcpEndpointInfoId(mcpEndpointInfo, exportPath);
-        keyToClientMap.putIfAbsent(key, mcpAsyncClient);
-    }
-
     private McpAsyncClient clientByEndpoint(McpEndpointInfo mcpEndpointInfo, String exportPath) {
         McpAsyncClient mcpAsyncClient;
 
@@ -224,71 +221,15 @@ public class SseWebFluxDistributedAsyncMcpClient implements DistributedAsyncMcpC
     private void updateClientList(NacosMcpServerEndpoint newServerEndpoint) {
         if (!StringUtils.equals(this.serverEndpoint.getExportPath(), newServerEndpoint.getExportPath())
                 || !StringUtils.equals(this.serverEndpoint.getVersion(), newServerEndpoint.getVersion())) {
-            logger.info(
-                    "[Nacos Mcp Async Client] Mcp server {} exportPath or protocol changed, need to update all endpoints: {}",
-                    serverName, newServerEndpoint);
-            updateAll(newServerEndpoint);
-        }
-        else {
-            List<McpEndpointInfo> currentMcpEndpointInfoList = this.serverEndpoint.getMcpEndpointInfoList();
-            List<McpEndpointInfo> newMcpEndpointInfoList = newServerEndpoint.getMcpEndpointInfoList();
-            List<McpEndpointInfo> addEndpointInfoList = newMcpEndpointInfoList.stream()
-                    .filter(newEndpoint -> currentMcpEndpointInfoList.stream()
-                            .noneMatch(currentEndpoint -> currentEndpoint.getAddress().equals(newEndpoint.getAddress())
-                                    && currentEndpoint.getPort() == newEndpoint.getPort()))
-                    .toList();
-            List<McpEndpointInfo> removeEndpointInfoList = currentMcpEndpointInfoList.stream()
-                    .filter(currentEndpoint -> newMcpEndpointInfoList.stream()
-                            .noneMatch(newEndpoint -> newEndpoint.getAddress().equals(currentEndpoint.getAddress())
-                                    && newEndpoint.getPort() == currentEndpoint.getPort()))
-                    .toList();
-            if (!addEndpointInfoList.isEmpty()) {
-                logger.info("[Nacos Mcp Async Client] Mcp server {} endpoints changed, endpoints need to add {}",
-                        serverName, addEndpointInfoList);
-            }
-            for (McpEndpointInfo addEndpointInfo : addEndpointInfoList) {
-                updateByAddEndpoint(addEndpointInfo, newServerEndpoint.getExportPath());
-            }
-            if (!removeEndpointInfoList.isEmpty()) {
-                logger.info("[Nacos Mcp Async Client] Mcp server {} endpoints changed, endpoints need to remove {}",
-                        serverName, removeEndpointInfoList);
-            }
-            for (McpEndpointInfo removeEndpointInfo : removeEndpointInfoList) {
-                updateByRemoveEndpoint(removeEndpointInfo, newServerEndpoint.getExportPath());
-            }
+            logger.info("[Nacos Mcp Async Client] Mcp server {} exportPath or version changed: {}", serverName,
+                    newServerEndpoint);
         }
+        // 节点 key 包含 exportPath，exportPath 变化时所有节点都会被视为新增，其余情况只处理增删的节点
+        reconciler.reconcile(keyToClientMap, newServerEndpoint.getMcpEndpointInfoList(),
+                newServerEndpoint.getExportPath());
         this.serverEndpoint = newServerEndpoint;
     }
 
-    private void updateAll(NacosMcpServerEndpoint newServerEndpoint) {
-        Map<String, McpAsyncClient> newKeyToClientMap = new ConcurrentHashMap<>();
-        Map<String, McpAsyncClient> oldKeyToClientMap = this.keyToClientMap;
-        Map<String, Integer> newKeyToCountMap = new ConcurrentHashMap<>();
-        for (McpEndpointInfo mcpEndpointInfo : newServerEndpoint.getMcpEndpointInfoList()) {
-            McpAsyncClient syncClient = clientByEndpoint(mcpEndpointInfo, newServerEndpoint.getExportPath());
-            String key = NacosMcpClientUtil.getMcpEndpointInfoId(mcpEndpointInfo, newServerEndpoint.getExportPath());
-            newKeyToClientMap.putIfAbsent(key, syncClient);
-            newKeyToCountMap.putIfAbsent(key, 0);
-        }
-        this.keyToClientMap = newKeyToClientMap;
-        for (Map.Entry<String, McpAsyncClient> entry : oldKeyToClientMap.entrySet()) {
-            McpAsyncClient asyncClient = entry.getValue();
-            logger.info("Removing McpAsyncClient: {}", asyncClient.getClientInfo().name());
-            asyncClient.closeGracefully().block();
-            logger.info("Removed McpAsyncClient: {} Success", asyncClient.getClientInfo().name());
-        }
-    }
-
-    private void updateByRemoveEndpoint(McpEndpointInfo serverEndpoint, String exportPath) {
-        String key = NacosMcpClientUtil.getMcpEndpointInfoId(serverEndpoint, exportPath);
-        if (keyToClientMap.containsKey(key)) {
-            McpAsyncClient asyncClient = keyToClientMap.remove(key);
-            logger.info("Removing McpAsyncClient: {}", asyncClient.getClientInfo().name());
-            asyncClient.closeGracefully().block();
-            logger.info("Removed McpAsyncClient: {} Success", asyncClient.getClientInfo().name());
-        }
-    }
-
     // ---------------------------原始调用方法------------------------------//
     public McpSchema.ServerCapabilities getServerCapabilities() {
         return getMcpAsyncClient().getServerCapabilities();
@@ -311,7 +252,7 @@ public class SseWebFluxDistributedAsyncMcpClient implements DistributedAsyncMcpC
     }
 
     public void close() {
-        Iterator<McpAsyncClient> iterator = getMcpAsyncClientList().iterator();
+        Iterator<McpAsyncClient> iterator = keyToClientMap.values().iterator();
         while (iterator.hasNext()) {
             McpAsyncClient mcpAsyncClient = iterator.next();
             mcpAsyncClient.close();
@@ -319,15 +260,17 @@ public class SseWebFluxDistributedAsyncMcpClient implements DistributedAsyncMcpC
             logger.info("[Nacos Mcp Async Client] Closed and removed McpAsyncClient: {}",
                     mcpAsyncClient.getClientInfo().name());
         }
+        balancer.update(keyToClientMap);
     }
 
     public Mono<Void> closeGracefully() {
-        Iterator<McpAsyncClient> iterator = getMcpAsyncClientList().iterator();
+        Iterator<McpAsyncClient> iterator = keyToClientMap.values().iterator();
         List<Mono<Void>> closeMonos = new ArrayList<>();
         while (iterator.hasNext()) {
             McpAsyncClient mcpAsyncClient = iterator.next();
             Mono<Void> voidMono = mcpAsyncClient.closeGracefully().doOnSuccess(v -> {
-                iterator.remove();
+                keyToClientMap.values().remove(mcpAsyncClient);
+                balancer.update(keyToClientMap);
                 logger.info("[Nacos Mcp Async Client] Closed and removed McpAsyncClient: {}",
                         mcpAsyncClient.getClientInfo().name());
             });
@@ -337,7 +280,7 @@ public class SseWebFluxDistributedAsyncMcpClient implements DistributedAsyncMcpC
     }
 
     public Mono<Object> ping() {
-        return getMcpAsyncClient().ping();
+        return balancer.executeAsync(McpAsyncClient::ping, true);
     }
 
     public Mono<Void> addRoot(McpSchema.Root root) {
@@ -359,7 +302,7 @@ public class SseWebFluxDistributedAsyncMcpClient implements DistributedAsyncMcpC
     }
 
     public Mono<McpSchema.CallToolResult> callTool(McpSchema.CallToolRequest callToolRequest) {
-        return getMcpAsyncClient().callTool(callToolRequest);
+        return balancer.executeAsync(client -> client.callTool(callToolRequest), false);
     }
 
     public Mono<McpSchema.ListToolsResult> listTools() {
@@ -371,30 +314,30 @@ public class SseWebFluxDistributedAsyncMcpClient implements DistributedAsyncMcpC
     }
 
     private Mono<McpSchema.ListToolsResult> listToolsInternal(String cursor) {
-        return getMcpAsyncClient().listTools(cursor);
+        return balancer.executeAsync(client -> client.listTools(cursor), true);
     }
 
     public Mono<McpSchema.ListResourcesResult> listResources() {
-        return getMcpAsyncClient().listResources();
+        return balancer.executeAsync(McpAsyncClient::listResources, true);
     }
 
     public Mono<McpSchema.ListResourcesResult> listResources(String cursor) {
-        return getMcpAsyncClient().listResources(cursor);
+        return balancer.executeAsync(client -> client.listResources(cursor), true);
     }
 
     public Mono<McpSchema.ReadResourceResult> readResource(McpSchema.Resource resource) {
-        return getMcpAsyncClient().readResource(resource);
+        return balancer.executeAsync(client -> client.readResource(resource), true);
     }
 
     public Mono<McpSchema.ReadResourceResult> readResource(McpSchema.ReadResourceRequest readResourceRequest) {
-        return getMcpAsyncClient().readResource(readResourceRequest);
+        return balancer.executeAsync(client -> client.readResource(readResourceRequest), true);
     }
 
     public Mono<McpSchema.ListResourceTemplatesResult> listResourceTemplates() {
-        return getMcpAsyncClient().listResourceTemplates();
+        return balancer.executeAsync(McpAsyncClient::listResourceTemplates, true);
     }
     public Mono<McpSchema.ListResourceTemplatesResult> listResourceTemplates(String cursor) {
-        return getMcpAsyncClient().listResourceTemplates(cursor);
+        return balancer.executeAsync(client -> client.listResourceTemplates(cursor), true);
     }
 
     public Mono<Void> subscribeResource(McpSchema.SubscribeRequest subscribeRequest) {
@@ -410,15 +353,15 @@ public class SseWebFluxDistributedAsyncMcpClient implements DistributedAsyncMcpC
     }
 
     public Mono<McpSchema.ListPromptsResult> listPrompts() {
-        return getMcpAsyncClient().listPrompts();
+        return balancer.executeAsync(McpAsyncClient::listPrompts, true);
     }
 
     public Mono<McpSchema.ListPromptsResult> listPrompts(String cursor) {
-        return getMcpAsyncClient().listPrompts(cursor);
+        return balancer.executeAsync(client -> client.listPrompts(cursor), true);
     }
 
     public Mono<McpSchema.GetPromptResult> getPrompt(McpSchema.GetPromptRequest getPromptRequest) {
-        return getMcpAsyncClient().getPrompt(getPromptRequest);
+        return balancer.executeAsync(client -> client.getPrompt(getPromptRequest), true);
     }
 
     public Mono<Void> setLoggingLevel(McpSchema.LoggingLevel loggingLevel) {
@@ -428,7 +371,7 @@ public class SseWebFluxDistributedAsyncMcpClient implements DistributedAsyncMcpC
     }
 
     public Mono<McpSchema.CompleteResult> completeCompletion(McpSchema.CompleteRequest completeRequest) {
-        return getMcpAsyncClient().completeCompletion(completeRequest);
+        return balancer.executeAsync(client -> client.completeCompletion(completeRequest), false);
     }
     // ---------------------------原始调用方法------------------------------//
 
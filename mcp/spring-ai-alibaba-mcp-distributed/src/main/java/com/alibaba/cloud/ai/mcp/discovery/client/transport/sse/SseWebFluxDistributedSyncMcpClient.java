@@ -17,7 +17,11 @@
 package com.alibaba.cloud.ai.mcp.discovery.client.transport.sse;
 
 import com.alibaba.cloud.ai.mcp.common.transport.builder.WebFluxSseClientTransportBuilder;
+import com.alibaba.cloud.ai.mcp.discovery.client.balancer.DistributedMcpClientBalancer;
+import com.alibaba.cloud.ai.mcp.discovery.client.balancer.EwmaLatencyLoadBalanceStrategy;
+import com.alibaba.cloud.ai.mcp.discovery.client.balancer.LoadBalanceStrategy;
 import com.alibaba.cloud.ai.mcp.discovery.client.transport.DistributedSyncMcpClient;
+import com.alibaba.cloud.ai.mcp.discovery.client.transport.DistributedMcpClientReconciler;
 import com.alibaba.cloud.ai.mcp.utils.CommonUtil;
 import com.alibaba.cloud.ai.mcp.utils.NacosMcpClientUtil;
 import com.alibaba.cloud.ai.mcp.nacos.service.NacosMcpOperationService;
@@ -42,13 +46,14 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.util.Assert;
 import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author yingzi
@@ -72,7 +77,9 @@ public class SseWebFluxDistributedSyncMcpClient implements DistributedSyncMcpCli
 
     private final McpJsonMapper mcpJsonMapper;
 
-    private final AtomicInteger index = new AtomicInteger(0);
+    private final DistributedMcpClientBalancer<McpSyncClient> balancer;
+
+    private final DistributedMcpClientReconciler<McpSyncClient> reconciler;
 
     private Map<String, McpSyncClient> keyToClientMap;
 
@@ -125,13 +132,18 @@ public class SseWebFluxDistributedSyncMcpClient implements DistributedSyncMcpCli
             logger.debug("MCP trace filter not found, continuing without tracing: {}", e.getMessage());
         }
         this.traceFilter = tempTraceFilter;
+        this.balancer = DistributedMcpClientBalancer.<McpSyncClient>builder(serverName)
+                .strategy(applicationContext.getBeanProvider(LoadBalanceStrategy.class)
+                        .getIfAvailable(EwmaLatencyLoadBalanceStrategy::new))
+                .build();
+        this.reconciler = new DistributedMcpClientReconciler<>(serverName, balancer, this::clientByEndpoint,
+                client -> Mono.<Void>fromRunnable(client::closeGracefully)
+                        .subscribeOn(Schedulers.boundedElastic()));
     }
 
     public Map<String, McpSyncClient> init() {
         keyToClientMap = new ConcurrentHashMap<>();
-        for (McpEndpointInfo mcpEndpointInfo : serverEndpoint.getMcpEndpointInfoList()) {
-            updateByAddEndpoint(mcpEndpointInfo, serverEndpoint.getExportPath());
-        }
+        reconciler.reconcile(keyToClientMap, serverEndpoint.getMcpEndpointInfoList(), serverEndpoint.getExportPath());
         logger.info("[Nacos Mcp Sync Client] McpSyncClient init, serverName: {}, version: {}, endpoint: {}", serverName,
                 version, serverEndpoint);
         return keyToClientMap;
@@ -154,17 +166,11 @@ public class SseWebFluxDistributedSyncMcpClient implements DistributedSyncMcpCli
     }
 
     public McpSyncClient getMcpSyncClient() {
-        List<McpSyncClient> syncClients = getMcpSyncClientList();
-        if (syncClients.isEmpty()) {
-            throw new IllegalStateException("[Nacos Mcp Sync Client] No McpSyncClient available, name :" + serverName);
-        }
-        int currentIndex = index.getAndUpdate(index -> (index + 1) % syncClients.size());
-
-        return syncClients.get(currentIndex);
+        return balancer.choose();
     }
 
     public List<McpSyncClient> getMcpSyncClientList() {
-        return keyToClientMap.values().stream().toList();
+        return balancer.getClients();
     }
 
     public String getServerName() {
@@ -175,12 +181,6 @@ public class SseWebFluxDistributedSyncMcpClient implements DistributedSyncMcpCli
         return this.serverEndpoint;
     }
 
-    private void updateByAddEndpoint(McpEndpointInfo mcpEndpointInfo, String exportPath) {
-        McpSyncClient mcpSyncClient = clientByEndpoint(mcpEndpointInfo, exportPath);
-        String key = NacosMcpClientUtil.getMcpEndpointInfoId(mcpEndpointInfo, exportPath);
-        keyToClientMap.putIfAbsent(key, mcpSyncClient);
-    }
-
     private McpSyncClient clientByEndpoint(McpEndpointInfo mcpEndpointInfo, String exportPath) {
         McpSyncClient syncClient;
 
@@ -219,71 +219,15 @@ public class SseWebFluxDistributedSyncMcpClient implements DistributedSyncMcpCli
     private void updateClientList(NacosMcpServerEndpoint newServerEndpoint) {
         if (!StringUtils.equals(this.serverEndpoint.getExportPath(), newServerEndpoint.getExportPath())
                 || !StringUtils.equals(this.serverEndpoint.getVersion(), newServerEndpoint.getVersion())) {
-            logger.info(
-                    "[Nacos Mcp Sync Client] Mcp server {} exportPath or protocol changed, need to update all endpoints: {}",
-                    serverName, newServerEndpoint);
-            updateAll(newServerEndpoint);
-        }
-        else {
-            List<McpEndpointInfo> currentMcpEndpointInfoList = this.serverEndpoint.getMcpEndpointInfoList();
-            List<McpEndpointInfo> newMcpEndpointInfoList = newServerEndpoint.getMcpEndpointInfoList();
-            List<McpEndpointInfo> addEndpointInfoList = newMcpEndpointInfoList.stream()
-                    .filter(newEndpoint -> currentMcpEndpointInfoList.stream()
-                            .noneMatch(currentEndpoint -> currentEndpoint.getAddress().equals(newEndpoint.getAddress())
-                                    && currentEndpoint.getPort() == newEndpoint.getPort()))
-                    .toList();
-            List<McpEndpointInfo> removeEndpointInfoList = currentMcpEndpointInfoList.stream()
-                    .filter(currentEndpoint -> newMcpEndpointInfoList.stream()
-                            .noneMatch(newEndpoint -> newEndpoint.getAddress().equals(currentEndpoint.getAddress())
-                                    && newEndpoint.getPort() == currentEndpoint.getPort()))
-                    .toList();
-            if (!addEndpointInfoList.isEmpty()) {
-                logger.info("[Nacos Mcp Sync Client] Mcp server {} endpoints changed, endpoints need to add {}",
-                        serverName, addEndpointInfoList);
-            }
-            for (McpEndpointInfo addEndpointInfo : addEndpointInfoList) {
-                updateByAddEndpoint(addEndpointInfo, newServerEndpoint.getExportPath());
-            }
-            if (!removeEndpointInfoList.isEmpty()) {
-                logger.info("[Nacos Mcp Sync Client] Mcp server {} endpoints changed, endpoints need to remove {}",
-                        serverName, removeEndpointInfoList);
-            }
-            for (McpEndpointInfo removeEndpointInfo : removeEndpointInfoList) {
-                updateByRemoveEndpoint(removeEndpointInfo, newServerEndpoint.getExportPath());
-            }
+            logger.info("[Nacos Mcp Sync Client] Mcp server {} exportPath or version changed: {}", serverName,
+                    newServerEndpoint);
         }
+        // 节点 key 包含 exportPath，exportPath 变化时所有节点都会被视为新增，其余情况只处理增删的节点
+        reconciler.reconcile(keyToClientMap, newServerEndpoint.getMcpEndpointInfoList(),
+                newServerEndpoint.getExportPath());
         this.serverEndpoint = newServerEndpoint;
     }
 
-    private void updateAll(NacosMcpServerEndpoint newServerEndpoint) {
-        Map<String, McpSyncClient> newKeyToClientMap = new ConcurrentHashMap<>();
-        Map<String, McpSyncClient> oldKeyToClientMap = this.keyToClientMap;
-        Map<String, Integer> newKeyToCountMap = new ConcurrentHashMap<>();
-        for (McpEndpointInfo mcpEndpointInfo : newServerEndpoint.getMcpEndpointInfoList()) {
-            McpSyncClient syncClient = clientByEndpoint(mcpEndpointInfo, newServerEndpoint.getExportPath());
-            String key = NacosMcpClientUtil.getMcpEndpointInfoId(mcpEndpointInfo, newServerEndpoint.getExportPath());
-            newKeyToClientMap.putIfAbsent(key, syncClient);
-            newKeyToCountMap.putIfAbsent(key, 0);
-        }
-        this.keyToClientMap = newKeyToClientMap;
-        for (Map.Entry<String, McpSyncClient> entry : oldKeyToClientMap.entrySet()) {
-            McpSyncClient syncClient = entry.getValue();
-            logger.info("Removing McpSyncClient: {}", syncClient.getClientInfo().name());
-            syncClient.closeGracefully();
-            logger.info("Removed McpSyncClient: {} Success", syncClient.getClientInfo().name());
-        }
-    }
-
-    private void updateByRemoveEndpoint(McpEndpointInfo serverEndpoint, String exportPath) {
-        String key = NacosMcpClientUtil.getMcpEndpointInfoId(serverEndpoint, exportPath);
-        if (keyToClientMap.containsKey(key)) {
-            McpSyncClient syncClient = keyToClientMap.remove(key);
-            logger.info("Removing McpSyncClient: {}", syncClient.getClientInfo().name());
-            syncClient.closeGracefully();
-            logger.info("Removed McpSyncClient: {} Success", syncClient.getClientInfo().name());
-        }
-    }
-
     // ---------------------------原始调用方法------------------------------//
     public McpSchema.ServerCapabilities getServerCapabilities() {
         return getMcpSyncClient().getServerCapabilities();
@@ -306,7 +250,7 @@ public class SseWebFluxDistributedSyncMcpClient implements DistributedSyncMcpCli
     }
 
     public void close() {
-        Iterator<McpSyncClient> iterator = getMcpSyncClientList().iterator();
+        Iterator<McpSyncClient> iterator = keyToClientMap.values().iterator();
         while (iterator.hasNext()) {
             McpSyncClient mcpSyncClient = iterator.next();
             mcpSyncClient.close();
@@ -314,11 +258,12 @@ public class SseWebFluxDistributedSyncMcpClient implements DistributedSyncMcpCli
             logger.info("[Nacos Mcp Sync Client] Closed and removed McpSyncClient: {}",
                     mcpSyncClient.getClientInfo().name());
         }
+        balancer.update(keyToClientMap);
     }
 
     public boolean closeGracefully() {
         List<Boolean> flagList = new ArrayList<>();
-        Iterator<McpSyncClient> iterator = getMcpSyncClientList().iterator();
+        Iterator<McpSyncClient> iterator = keyToClientMap.values().iterator();
         while (iterator.hasNext()) {
             McpSyncClient mcpSyncClient = iterator.next();
             boolean flag = mcpSyncClient.closeGracefully();
@@ -329,6 +274,7 @@ public class SseWebFluxDistributedSyncMcpClient implements DistributedSyncMcpCli
                         mcpSyncClient.getClientInfo().name());
             }
         }
+        balancer.update(keyToClientMap);
         return !flagList.stream().allMatch(flag -> flag);
     }
 
@@ -349,43 +295,43 @@ public class SseWebFluxDistributedSyncMcpClient implements DistributedSyncMcpCli
     }
 
     public Object ping() {
-        return getMcpSyncClient().ping();
+        return balancer.execute(McpSyncClient::ping, true);
     }
 
     public McpSchema.CallToolResult callTool(McpSchema.CallToolRequest callToolRequest) {
-        return getMcpSyncClient().callTool(callToolRequest);
+        return balancer.execute(client -> client.callTool(callToolRequest), false);
     }
 
     public McpSchema.ListToolsResult listTools() {
-        return getMcpSyncClient().listTools();
+        return balancer.execute(McpSyncClient::listTools, true);
     }
 
     public McpSchema.ListToolsResult listTools(String cursor) {
-        return getMcpSyncClient().listTools(cursor);
+        return balancer.execute(client -> client.listTools(cursor), true);
     }
 
     public McpSchema.ListResourcesResult listResources(String cursor) {
-        return getMcpSyncClient().listResources(cursor);
+        return balancer.execute(client -> client.listResources(cursor), true);
     }
 
     public McpSchema.ListResourcesResult listResources() {
-        return getMcpSyncClient().listResources();
+        return balancer.execute(McpSyncClient::listResources, true);
     }
 
     public McpSchema.ReadResourceResult readResource(McpSchema.Resource resource) {
-        return getMcpSyncClient().readResource(resource);
+        return balancer.execute(client -> client.readResource(resource), true);
     }
 
     public McpSchema.ReadResourceResult readResource(McpSchema.ReadResourceRequest readResourceRequest) {
-        return getMcpSyncClient().readResource(readResourceRequest);
+        return balancer.execute(client -> client.readResource(readResourceRequest), true);
     }
 
     public McpSchema.ListResourceTemplatesResult listResourceTemplates(String cursor) {
-        return getMcpSyncClient().listResourceTemplates(cursor);
+        return balancer.execute(client -> client.listResourceTemplates(cursor), true);
     }
 
     public McpSchema.ListResourceTemplatesResult listResourceTemplates() {
-        return getMcpSyncClient().listResourceTemplates();
+        return balancer.execute(McpSyncClient::listResourceTemplates, true);
     }
 
     public void subscribeResource (McpSchema.SubscribeRequest subscribeRequest) {
@@ -401,15 +347,15 @@ public class SseWebFluxDistributedSyncMcpClient implements DistributedSyncMcpCli
     }
 
     public McpSchema.ListPromptsResult listPrompts(String cursor) {
-        return getMcpSyncClient().listPrompts(cursor);
+        return balancer.execute(client -> client.listPrompts(cursor), true);
     }
 
     public McpSchema.ListPromptsResult listPrompts() {
-        return getMcpSyncClient().listPrompts();
+        return balancer.execute(McpSyncClient::listPrompts, true);
     }
 
     public McpSchema.GetPromptResult getPrompt(McpSchema.GetPromptRequest getPromptRequest) {
-        return getMcpSyncClient().getPrompt(getPromptRequest);
+        return balancer.execute(client -> client.getPrompt(getPromptRequest), true);
     }
 
     public void setLoggingLevel(McpSchema.LoggingLevel loggingLevel) {
@@ -419,7 +365,7 @@ public class SseWebFluxDistributedSyncMcpClient implements DistributedSyncMcpCli
     }
 
     public McpSchema.CompleteResult completeCompletion(McpSchema.CompleteRequest completeRequest) {
-        return getMcpSyncClient().completeCompletion(completeRequest);
+        return balancer.execute(client -> client.completeCompletion(completeRequest), false);
     }
 
     // ---------------------------原始调用方法------------------------------//
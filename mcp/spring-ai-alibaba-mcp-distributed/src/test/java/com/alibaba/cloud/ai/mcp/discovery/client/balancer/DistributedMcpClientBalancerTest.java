@@ -0,0 +1,142 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.mcp.discovery.client.balancer;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DistributedMcpClientBalancerTest {
+
+    private final AtomicLong ticker = new AtomicLong(1);
+
+    @Test
+    void shouldRetryIdempotentCallOnAnotherEndpoint() {
+        DistributedMcpClientBalancer<String> balancer = balancer(new RoundRobinLoadBalanceStrategy(), 5);
+        balancer.update(clients("a", "b"));
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals("b", balancer.execute(client -> failOn("a", client), true));
+            assertEquals("b", balancer.executeAsync(client -> Mono.fromCallable(() -> failOn("a", client)), true)
+                    .block());
+        }
+    }
+
+    @Test
+    void shouldNotRetryNonIdempotentCall() {
+        DistributedMcpClientBalancer<String> balancer = balancer(new RoundRobinLoadBalanceStrategy(), 5);
+        balancer.update(clients("a"));
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> balancer.execute(client -> {
+            calls.incrementAndGet();
+            return failOn("a", client);
+        }, false));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void shouldOpenCircuitAndProbeAfterOpenDuration() {
+        DistributedMcpClientBalancer<String> balancer = balancer(new RoundRobinLoadBalanceStrategy(), 2);
+        balancer.update(clients("a", "b"));
+
+        for (int i = 0; i < 4; i++) {
+            balancer.execute(client -> failOn("a", client), true);
+        }
+        Set<String> chosen = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            chosen.add(balancer.choose());
+        }
+        assertEquals(Set.of("b"), chosen);
+
+        ticker.addAndGet(Duration.ofSeconds(11).toNanos());
+        for (int i = 0; i < 10; i++) {
+            chosen.add(balancer.choose());
+        }
+        assertTrue(chosen.contains("a"));
+    }
+
+    @Test
+    void shouldEjectLatencyOutlier() {
+        DistributedMcpClientBalancer<String> balancer = balancer(new RoundRobinLoadBalanceStrategy(), 5);
+        balancer.update(clients("a", "b", "c", "slow"));
+
+        for (int i = 0; i < 8; i++) {
+            balancer.execute(client -> {
+                ticker.addAndGet(Duration.ofMillis("slow".equals(client) ? 2000 : 10).toNanos());
+                return client;
+            }, false);
+        }
+        for (int i = 0; i < 20; i++) {
+            assertFalse("slow".equals(balancer.choose()));
+        }
+    }
+
+    @Test
+    void shouldKeepEndpointStatsAcrossSnapshotUpdates() {
+        DistributedMcpClientBalancer<String> balancer = balancer(new LeastOutstandingRequestsLoadBalanceStrategy(), 5);
+        balancer.update(clients("a", "b"));
+        McpClientEndpoint<String> before = balancer.getEndpoints().get(0);
+
+        balancer.update(clients("a", "b", "c"));
+
+        List<McpClientEndpoint<String>> endpoints = balancer.getEndpoints();
+        assertEquals(3, endpoints.size());
+        assertSame(before, endpoints.get(0));
+        assertThrows(UnsupportedOperationException.class, () -> balancer.getClients().remove(0));
+    }
+
+    private DistributedMcpClientBalancer<String> balancer(LoadBalanceStrategy strategy, int failureThreshold) {
+        return DistributedMcpClientBalancer.<String>builder("test-server")
+                .strategy(strategy)
+                .failureThreshold(failureThreshold)
+                .openDuration(Duration.ofSeconds(10))
+                .outlierCheckInterval(Duration.ZERO)
+                .ticker(ticker::get)
+                .build();
+    }
+
+    private static Map<String, String> clients(String... keys) {
+        Map<String, String> clients = new LinkedHashMap<>();
+        for (String key : keys) {
+            clients.put(key, key);
+        }
+        return clients;
+    }
+
+    private static String failOn(String failing, String client) {
+        if (failing.equals(client)) {
+            throw new IllegalStateException("connection refused: " + client);
+        }
+        return client;
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.mcp.discovery.client.tool;
+
+import com.alibaba.cloud.ai.mcp.discovery.client.transport.DistributedAsyncMcpClient;
+import io.modelcontextprotocol.client.McpAsyncClient;
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.tool.ToolCallback;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DistributedAsyncMcpToolCallbackProviderTest {
+
+    @Test
+    void shouldRebuildCallbacksOnlyAfterCatalogChangeEvent() {
+        AtomicReference<List<McpSchema.Tool>> tools = new AtomicReference<>(List.of(tool("a")));
+        McpAsyncClient client = mock(McpAsyncClient.class);
+        when(client.listTools(any()))
+            .thenAnswer(invocation -> Mono.fromSupplier(() -> new McpSchema.ListToolsResult(tools.get(), null)));
+        DistributedAsyncMcpClient mcpClient = mock(DistributedAsyncMcpClient.class);
+        when(mcpClient.getServerName()).thenReturn("server");
+        when(mcpClient.getMcpAsyncClient()).thenReturn(client);
+        when(mcpClient.getMcpAsyncClientList()).thenReturn(List.of(client));
+        // 刷新间隔为 0，每次调用都会刷新目录，但只有工具列表变化才会触发重建
+        DistributedAsyncMcpToolCallbackProvider provider = new DistributedAsyncMcpToolCallbackProvider(
+                (c, tool) -> true, List.of(mcpClient), Duration.ZERO);
+
+        provider.getToolCallbacks();
+        ToolCallback[] built = provider.getToolCallbacks();
+        assertSame(built[0], provider.getToolCallbacks()[0]);
+
+        tools.set(List.of(tool("a"), tool("b")));
+        // 本次调用触发的刷新发出变化事件，下一次调用才使用新目录
+        assertEquals(1, provider.getToolCallbacks().length);
+        ToolCallback[] rebuilt = provider.getToolCallbacks();
+        assertEquals(2, rebuilt.length);
+        assertNotSame(built[0], rebuilt[0]);
+    }
+
+    @Test
+    void shouldNotWaitForTheFirstLoadOnNonBlockingThreads() {
+        McpAsyncClient client = mock(McpAsyncClient.class);
+        when(client.listTools(any())).thenAnswer(invocation -> Mono.delay(Duration.ofMillis(200))
+            .thenReturn(new McpSchema.ListToolsResult(List.of(tool("a")), null)));
+        DistributedAsyncMcpClient mcpClient = mock(DistributedAsyncMcpClient.class);
+        when(mcpClient.getServerName()).thenReturn("server");
+        when(mcpClient.getMcpAsyncClient()).thenReturn(client);
+        when(mcpClient.getMcpAsyncClientList()).thenReturn(List.of(client));
+        DistributedAsyncMcpToolCallbackProvider provider = new DistributedAsyncMcpToolCallbackProvider(
+                List.of(mcpClient));
+        Mono<ToolCallback[]> onEventLoop = Mono.fromCallable(provider::getToolCallbacks)
+            .subscribeOn(Schedulers.parallel());
+
+        // 首次加载尚未完成，事件循环线程上不能阻塞等待
+        assertEquals(0, onEventLoop.block(Duration.ofSeconds(5)).length);
+
+        Mono.delay(Duration.ofMillis(500)).block();
+        assertEquals(1, onEventLoop.block(Duration.ofSeconds(5)).length);
+    }
+
+    private static McpSchema.Tool tool(String name) {
+        return McpSchema.Tool.builder()
+                .name(name)
+                .description("tool " + name)
+                .inputSchema(new McpSchema.JsonSchema("object", Map.of(), List.of(), false, null, null))
+                .build();
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.mcp.discovery.client.tool;
+
+import io.modelcontextprotocol.spec.McpSchema;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.mcp.McpToolUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class DistributedMcpToolCatalogTest {
+
+    @Test
+    void shouldKeepVersionAndDefinitionsWhenToolsUnchanged() {
+        List<Function<String, Mono<McpSchema.ListToolsResult>>> instances = List.of(instance(tool("a"), tool("b")),
+                instance(tool("b"), tool("a")));
+        AtomicInteger events = new AtomicInteger();
+        DistributedMcpToolCatalog catalog = new DistributedMcpToolCatalog("server", () -> instances, Duration.ZERO);
+        catalog.addListener(snapshot -> events.incrementAndGet());
+
+        DistributedMcpToolCatalog.Snapshot first = catalog.getSnapshot();
+        DistributedMcpToolCatalog.Snapshot second = catalog.refresh().block();
+
+        assertSame(first, second);
+        assertEquals(1, first.version());
+        assertEquals(1, events.get());
+        assertEquals(McpToolUtils.prefixedToolName("server", "a"), first.getToolDefinition(tool("a")).name());
+    }
+
+    @Test
+    void shouldUseMajorityAndReuseDefinitionsOfUnchangedTools() {
+        List<Function<String, Mono<McpSchema.ListToolsResult>>> instances = new ArrayList<>(
+                List.of(instance(tool("a")), instance(tool("a"))));
+        DistributedMcpToolCatalog catalog = new DistributedMcpToolCatalog("server", () -> List.copyOf(instances),
+                Duration.ZERO);
+        DistributedMcpToolCatalog.Snapshot first = catalog.getSnapshot();
+
+        instances.add(instance(tool("a"), tool("b")));
+        assertSame(first, catalog.refresh().block());
+
+        instances.set(0, instance(tool("a"), tool("b")));
+        DistributedMcpToolCatalog.Snapshot second = catalog.refresh().block();
+        assertEquals(2, second.version());
+        assertEquals(2, second.tools().size());
+        assertSame(first.getToolDefinition(tool("a")), second.getToolDefinition(tool("a")));
+    }
+
+    @Test
+    void shouldFollowPaginationCursor() {
+        Map<String, McpSchema.ListToolsResult> pages = Map.of("", new McpSchema.ListToolsResult(List.of(tool("a")), "2"),
+                "2", new McpSchema.ListToolsResult(List.of(tool("b")), null));
+        DistributedMcpToolCatalog catalog = new DistributedMcpToolCatalog("server",
+                () -> List.of(cursor -> Mono.just(pages.get(cursor == null ? "" : cursor))), Duration.ZERO);
+
+        assertEquals(2, catalog.getSnapshot().tools().size());
+    }
+
+    private static Function<String, Mono<McpSchema.ListToolsResult>> instance(McpSchema.Tool... tools) {
+        return cursor -> Mono.just(new McpSchema.ListToolsResult(List.of(tools), null));
+    }
+
+    private static McpSchema.Tool tool(String name) {
+        return McpSchema.Tool.builder()
+                .name(name)
+                .description("tool " + name)
+                .inputSchema(new McpSchema.JsonSchema("object", Map.of(), List.of(), false, null, null))
+                .build();
+    }
+
+}
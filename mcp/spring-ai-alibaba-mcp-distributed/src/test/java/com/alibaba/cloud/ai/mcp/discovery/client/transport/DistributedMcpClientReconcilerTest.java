@@ -0,0 +1,106 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.mcp.discovery.client.transport;
+
+import com.alibaba.cloud.ai.mcp.discovery.client.balancer.DistributedMcpClientBalancer;
+import com.alibaba.nacos.api.ai.model.mcp.McpEndpointInfo;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DistributedMcpClientReconcilerTest {
+
+    private final List<String> created = new CopyOnWriteArrayList<>();
+
+    private final List<String> closed = new CopyOnWriteArrayList<>();
+
+    private final DistributedMcpClientBalancer<String> balancer = DistributedMcpClientBalancer
+            .<String>builder("test-server")
+            .build();
+
+    private final DistributedMcpClientReconciler<String> reconciler = new DistributedMcpClientReconciler<>(
+            "test-server", balancer, (endpoint, exportPath) -> {
+                String client = endpoint.getAddress() + ":" + endpoint.getPort() + exportPath;
+                created.add(client);
+                return client;
+            }, client -> Mono.fromRunnable(() -> closed.add(client)), Duration.ofSeconds(5));
+
+    @Test
+    void shouldOnlyCreateAddedAndCloseRemovedClients() {
+        Map<String, String> clients = new ConcurrentHashMap<>();
+        reconciler.reconcile(clients, endpoints(1, 2, 3), "/sse").block();
+
+        reconciler.reconcile(clients, endpoints(2, 3, 4), "/sse").block(Duration.ofSeconds(5));
+
+        assertEquals(4, created.size());
+        assertEquals(List.of("10.0.0.1:8080/sse"), closed);
+        assertEquals(3, clients.size());
+        assertEquals(3, balancer.getClients().size());
+    }
+
+    @Test
+    void shouldRebuildAllClientsWhenExportPathChanges() {
+        Map<String, String> clients = new ConcurrentHashMap<>();
+        reconciler.reconcile(clients, endpoints(1, 2), "/sse").block();
+
+        reconciler.reconcile(clients, endpoints(1, 2), "/mcp/sse").block(Duration.ofSeconds(5));
+
+        assertEquals(4, created.size());
+        assertEquals(2, closed.size());
+        assertTrue(clients.values().stream().allMatch(c -> c.endsWith("/mcp/sse")));
+    }
+
+    @Test
+    void shouldDrainInFlightRequestsBeforeClosing() {
+        Map<String, String> clients = new ConcurrentHashMap<>();
+        reconciler.reconcile(clients, endpoints(1), "/sse").block();
+        Sinks.One<String> response = Sinks.one();
+        Mono<String> inFlight = balancer.executeAsync(client -> response.asMono(), false).cache();
+        inFlight.subscribe();
+
+        Mono<Void> closing = reconciler.reconcile(clients, endpoints(2), "/sse");
+        Mono.delay(Duration.ofMillis(200)).block();
+        assertTrue(closed.isEmpty());
+
+        response.tryEmitValue("done");
+        closing.block(Duration.ofSeconds(5));
+        assertEquals("done", inFlight.block());
+        assertEquals(List.of("10.0.0.1:8080/sse"), closed);
+    }
+
+    private static List<McpEndpointInfo> endpoints(int... hosts) {
+        List<McpEndpointInfo> endpoints = new ArrayList<>();
+        for (int host : hosts) {
+            McpEndpointInfo endpoint = new McpEndpointInfo();
+            endpoint.setAddress("10.0.0." + host);
+            endpoint.setPort(8080);
+            endpoints.add(endpoint);
+        }
+        return endpoints;
+    }
+
+}
@@ -33,6 +33,11 @@ public class McpGatewayProperties {
 
 	private String messageEndpoint = "/message";
 
+	/**
+	 * 网关调用后端 HTTP 接口或 MCP 工具的超时时间
+	 */
+	private Duration requestTimeout = Duration.ofSeconds(30);
+
 	private SseConfig sse = new SseConfig();
 
 	private StreamableConfig streamable = new StreamableConfig();
@@ -149,6 +154,14 @@ public class McpGatewayProperties {
 		this.messageEndpoint = messageEndpoint;
 	}
 
+	public Duration getRequestTimeout() {
+		return requestTimeout;
+	}
+
+	public void setRequestTimeout(Duration requestTimeout) {
+		this.requestTimeout = requestTimeout;
+	}
+
 	public SseConfig getSse() {
 		return sse;
 	}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.mcp.gateway.core.client;
+
+import io.modelcontextprotocol.client.McpAsyncClient;
+import io.modelcontextprotocol.client.McpClient;
+import io.modelcontextprotocol.client.transport.HttpClientSseClientTransport;
+import io.modelcontextprotocol.spec.McpError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 网关后端客户端池，按 baseUrl 复用 WebClient，按 baseUrl + sseEndpoint 复用已初始化的 MCP 异步客户端，
+ * 避免每次工具调用都重新构建 WebClient 或重复 MCP initialize 握手。
+ */
+public class McpGatewayClientPool implements AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(McpGatewayClientPool.class);
+
+	private static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+	private final WebClient.Builder webClientBuilder;
+
+	private final Duration requestTimeout;
+
+	private final Map<String, WebClient> webClients = new ConcurrentHashMap<>();
+
+	private final Map<String, Mono<McpAsyncClient>> mcpClients = new ConcurrentHashMap<>();
+
+	private final Map<String, McpAsyncClient> initializedMcpClients = new ConcurrentHashMap<>();
+
+	public McpGatewayClientPool(WebClient.Builder webClientBuilder) {
+		this(webClientBuilder, DEFAULT_REQUEST_TIMEOUT);
+	}
+
+	public McpGatewayClientPool(WebClient.Builder webClientBuilder, Duration requestTimeout) {
+		Assert.notNull(webClientBuilder, "webClientBuilder cannot be null");
+		Assert.notNull(requestTimeout, "requestTimeout cannot be null");
+		this.webClientBuilder = webClientBuilder;
+		this.requestTimeout = requestTimeout;
+	}
+
+	/**
+	 * @return 后端请求的超时时间
+	 */
+	public Duration getRequestTimeout() {
+		return requestTimeout;
+	}
+
+	/**
+	 * 获取指定 baseUrl 的共享 WebClient
+	 * @param baseUrl 后端地址，如 http://127.0.0.1:8080
+	 * @return 共享的 WebClient
+	 */
+	public WebClient getWebClient(String baseUrl) {
+		return webClients.computeIfAbsent(baseUrl, url -> webClientBuilder.clone().baseUrl(url).build());
+	}
+
+	/**
+	 * 获取指定后端的已初始化 MCP 异步客户端，同一后端的并发请求共享同一次 initialize
+	 * @param baseUrl 后端地址
+	 * @param sseEndpoint SSE 端点
+	 * @return 已初始化的 MCP 异步客户端
+	 */
+	public Mono<McpAsyncClient> getMcpClient(String baseUrl, String sseEndpoint) {
+		String key = baseUrl + sseEndpoint;
+		return mcpClients.computeIfAbsent(key, k -> createMcpClient(k, baseUrl, sseEndpoint));
+	}
+
+	/**
+	 * 关闭并移除指定后端的 MCP 客户端，调用失败时使用，下次调用会重新建立连接
+	 * @param baseUrl 后端地址
+	 * @param sseEndpoint SSE 端点
+	 */
+	public void evictMcpClient(String baseUrl, String sseEndpoint) {
+		String key = baseUrl + sseEndpoint;
+		mcpClients.remove(key);
+		closeQuietly(key, initializedMcpClients.remove(key));
+	}
+
+	/**
+	 * 在后端 MCP 客户端上执行操作，连接类错误时驱逐该客户端，服务端返回的 JSON-RPC 错误不影响连接复用
+	 * @param baseUrl 后端地址
+	 * @param sseEndpoint SSE 端点
+	 * @param action 要执行的操作
+	 * @param <T> 返回类型
+	 * @return 操作结果
+	 */
+	public <T> Mono<T> withMcpClient(String baseUrl, String sseEndpoint, Function<McpAsyncClient, Mono<T>> action) {
+		return getMcpClient(baseUrl, sseEndpoint).flatMap(action)
+			.doOnError(e -> !(e instanceof McpError), e -> evictMcpClient(baseUrl, sseEndpoint));
+	}
+
+	private Mono<McpAsyncClient> createMcpClient(String key, String baseUrl, String sseEndpoint) {
+		return Mono.defer(() -> {
+			HttpClientSseClientTransport transport = HttpClientSseClientTransport.builder(baseUrl)
+				.sseEndpoint(sseEndpoint)
+				.build();
+			McpAsyncClient client = McpClient.async(transport).requestTimeout(requestTimeout).build();
+			return client.initialize().doOnNext(initializeResult -> {
+				logger.debug("MCP client initialized for {}: {}", key, initializeResult.serverInfo());
+				McpAsyncClient previous = initializedMcpClients.put(key, client);
+				if (previous != null && previous != client) {
+					closeQuietly(key, previous);
+				}
+			}).doOnError(e -> {
+				mcpClients.remove(key);
+				closeQuietly(key, client);
+			}).thenReturn(client);
+		}).cache(client -> Duration.ofMillis(Long.MAX_VALUE), e -> Duration.ZERO, () -> Duration.ZERO);
+	}
+
+	private void closeQuietly(String key, McpAsyncClient client) {
+		if (client == null) {
+			return;
+		}
+		client.closeGracefully().onErrorResume(e -> {
+			logger.warn("Failed to close MCP client {}: {}", key, e.getMessage());
+			return Mono.empty();
+		}).subscribe();
+	}
+
+	@Override
+	public void close() {
+		webClients.clear();
+		mcpClients.clear();
+		initializedMcpClients.forEach(this::closeQuietly);
+		initializedMcpClients.clear();
+	}
+
+}
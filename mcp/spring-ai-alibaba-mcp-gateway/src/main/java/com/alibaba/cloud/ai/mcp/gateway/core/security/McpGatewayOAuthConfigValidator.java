@@ -146,6 +146,10 @@ public class McpGatewayOAuthConfigValidator {
 				warnings.add("Token缓存刷新时间过大(> 1小时)，建议减小该值");
 			}
 		}
+
+		if (cacheConfig.getRefreshRatio() <= 0 || cacheConfig.getRefreshRatio() > 1) {
+			warnings.add("Token提前续期比例应在(0, 1]之间，当前值: " + cacheConfig.getRefreshRatio());
+		}
 	}
 
 	/**
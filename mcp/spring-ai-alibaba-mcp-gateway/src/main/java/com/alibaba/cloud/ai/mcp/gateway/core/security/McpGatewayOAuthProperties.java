@@ -181,7 +181,12 @@ public class McpGatewayOAuthProperties {
 		private Duration refreshBeforeExpiry = Duration.ofMinutes(5);
 
 		/**
-		 * 最大缓存大小
+		 * Token生命周期达到该比例时在后台提前续期，续期期间继续使用当前Token
+		 */
+		private double refreshRatio = 0.8;
+
+		/**
+		 * 最大缓存大小，按客户端凭证分别缓存
 		 */
 		private int maxSize = 1000;
 
@@ -202,6 +207,14 @@ public class McpGatewayOAuthProperties {
 			this.refreshBeforeExpiry = refreshBeforeExpiry;
 		}
 
+		public double getRefreshRatio() {
+			return refreshRatio;
+		}
+
+		public void setRefreshRatio(double refreshRatio) {
+			this.refreshRatio = refreshRatio;
+		}
+
 		public int getMaxSize() {
 			return maxSize;
 		}
@@ -28,31 +28,52 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
 
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * OAuth Token管理器 负责Token的获取、缓存和刷新
+ * <p>
+ * 每个客户端凭证独立缓存Token；同一凭证的并发请求共享同一个进行中的刷新请求(single-flight)， Token生命周期达到
+ * {@code refreshRatio} 后在后台提前续期，刷新失败时按带抖动的退避时间冷却，避免对认证服务造成请求风暴。
  */
 public class McpGatewayOAuthTokenManager {
 
 	private static final Logger logger = LoggerFactory.getLogger(McpGatewayOAuthTokenManager.class);
 
+	private static final double BACKOFF_JITTER = 0.5;
+
 	private final WebClient webClient;
 
 	private final McpGatewayOAuthProperties oauthProperties;
 
 	private final ObjectMapper objectMapper;
 
-	private volatile CachedToken cachedToken;
+	private final Clock clock;
+
+	private final Map<String, TokenHolder> tokenHolders = new ConcurrentHashMap<>();
 
 	private final static Integer DEFAULT_EXPIRED_TIME = 3600;
 
 	public McpGatewayOAuthTokenManager(WebClient.Builder webClientBuilder, McpGatewayOAuthProperties oauthProperties) {
+		this(webClientBuilder, oauthProperties, Clock.systemUTC());
+	}
+
+	McpGatewayOAuthTokenManager(WebClient.Builder webClientBuilder, McpGatewayOAuthProperties oauthProperties,
+			Clock clock) {
 		this.webClient = webClientBuilder.build();
 		this.oauthProperties = oauthProperties;
 		this.objectMapper = new ObjectMapper();
-		this.cachedToken = null;
+		this.clock = clock;
 	}
 
 	/**
@@ -62,31 +83,115 @@ public class McpGatewayOAuthTokenManager {
 		if (!oauthProperties.isEnabled()) {
 			return Mono.empty();
 		}
+		return getAccessToken(oauthProperties.getProvider());
+	}
+
+	/**
+	 * 获取指定客户端凭证的访问Token，用于多租户网关
+	 * @param provider OAuth提供商配置
+	 */
+	public Mono<String> getAccessToken(McpGatewayOAuthProperties.OAuthProvider provider) {
+		if (provider == null) {
+			return Mono.error(new IllegalArgumentException("OAuth 未配置"));
+		}
+		if (!oauthProperties.getTokenCache().isEnabled()) {
+			return fetchNewToken(provider).map(CachedToken::getAccessToken);
+		}
 
-		return Mono.fromCallable(() -> {
-			// 检查缓存
-			if (oauthProperties.getTokenCache().isEnabled()) {
-				if (cachedToken != null && !isTokenExpiring(cachedToken)) {
-					logger.debug("使用缓存的token");
-					return cachedToken.getAccessToken();
+		return Mono.defer(() -> {
+			TokenHolder holder = getTokenHolder(provider);
+			CachedToken token = holder.token;
+			Instant now = clock.instant();
+			if (token != null && !isTokenExpiring(token, now)) {
+				if (isRefreshDue(token, now) && now.isAfter(holder.retryNotBefore)) {
+					// 后台提前续期，当前请求继续使用未过期的Token
+					refresh(holder, provider).subscribe(t -> {
+					}, e -> logger.warn("后台续期token失败: {}", e.getMessage()));
 				}
+				logger.debug("使用缓存的token");
+				return Mono.just(token.getAccessToken());
 			}
-			return null;
-		}).onErrorResume(throwable -> {
-			logger.error("获取访问token失败", throwable);
-			return Mono.empty();
-		}).switchIfEmpty(fetchNewToken());
+			if (now.isBefore(holder.retryNotBefore) && holder.lastError != null) {
+				// 刷新失败后的冷却期内直接失败，避免持续冲击认证服务
+				return Mono.error(new RuntimeException("OAuth token获取失败", holder.lastError));
+			}
+			return refresh(holder, provider).map(CachedToken::getAccessToken);
+		});
+	}
+
+	private TokenHolder getTokenHolder(McpGatewayOAuthProperties.OAuthProvider provider) {
+		String key = cacheKey(provider);
+		TokenHolder holder = tokenHolders.get(key);
+		if (holder != null) {
+			return holder;
+		}
+		int maxSize = Math.max(1, oauthProperties.getTokenCache().getMaxSize());
+		if (tokenHolders.size() >= maxSize) {
+			evictTokenHolders(maxSize);
+		}
+		return tokenHolders.computeIfAbsent(key, k -> new TokenHolder());
+	}
+
+	private void evictTokenHolders(int maxSize) {
+		Instant now = clock.instant();
+		tokenHolders.entrySet()
+			.removeIf(entry -> entry.getValue().inflight.get() == null
+					&& (entry.getValue().token == null || isTokenExpiring(entry.getValue().token, now)));
+		Iterator<String> keys = tokenHolders.keySet().iterator();
+		while (tokenHolders.size() >= maxSize && keys.hasNext()) {
+			keys.next();
+			keys.remove();
+		}
+	}
+
+	private static String cacheKey(McpGatewayOAuthProperties.OAuthProvider provider) {
+		return provider.getTokenUri() + "|" + provider.getClientId() + "|" + provider.getGrantType() + "|"
+				+ provider.getScope();
 	}
 
 	/**
-	 * 获取新的访问Token
+	 * 刷新Token，同一凭证同时只有一个进行中的刷新请求
 	 */
-	private Mono<String> fetchNewToken() {
-		McpGatewayOAuthProperties.OAuthProvider provider = oauthProperties.getProvider();
-		if (provider == null) {
-			return Mono.error(new IllegalArgumentException("OAuth 未配置"));
+	private Mono<CachedToken> refresh(TokenHolder holder, McpGatewayOAuthProperties.OAuthProvider provider) {
+		while (true) {
+			Mono<CachedToken> inflight = holder.inflight.get();
+			if (inflight != null) {
+				return inflight;
+			}
+			Sinks.One<CachedToken> sink = Sinks.one();
+			Mono<CachedToken> candidate = sink.asMono();
+			if (holder.inflight.compareAndSet(null, candidate)) {
+				fetchNewToken(provider).subscribe(token -> {
+					holder.token = token;
+					holder.lastError = null;
+					holder.retryNotBefore = Instant.MIN;
+					holder.inflight.set(null);
+					sink.tryEmitValue(token);
+				}, e -> {
+					holder.lastError = e;
+					holder.retryNotBefore = clock.instant().plus(jitteredBackoff());
+					holder.inflight.set(null);
+					sink.tryEmitError(e);
+				});
+				return candidate;
+			}
 		}
+	}
+
+	private Duration jitteredBackoff() {
+		Duration backoff = oauthProperties.getRetry().getBackoff();
+		if (backoff == null || backoff.isZero() || backoff.isNegative()) {
+			return Duration.ZERO;
+		}
+		long millis = backoff.toMillis();
+		long jitter = (long) (millis * BACKOFF_JITTER);
+		return Duration.ofMillis(millis - jitter + ThreadLocalRandom.current().nextLong(2 * jitter + 1));
+	}
 
+	/**
+	 * 获取新的访问Token
+	 */
+	private Mono<CachedToken> fetchNewToken(McpGatewayOAuthProperties.OAuthProvider provider) {
 		logger.info("获取新的访问token");
 
 		MultiValueMap<String, String> formData = new LinkedMultiValueMap<>();
@@ -98,25 +203,39 @@ public class McpGatewayOAuthTokenManager {
 			formData.add("scope", provider.getScope());
 		}
 
-		return webClient.post()
+		Mono<CachedToken> request = webClient.post()
 			.uri(provider.getTokenUri())
 			.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_FORM_URLENCODED_VALUE)
 			.body(BodyInserters.fromFormData(formData))
 			.retrieve()
 			.bodyToMono(String.class)
-			.map(responseBody -> parseTokenResponse(responseBody))
-			.doOnNext(token -> logger.info("成功获取访问token"))
-			.retry(oauthProperties.getRetry().getMaxAttempts() - 1)
-			.onErrorMap(throwable -> {
-				logger.error("获取访问token失败", throwable);
-				return new RuntimeException("OAuth token获取失败", throwable);
-			});
+			// 空响应必须以错误结束，否则进行中的刷新永远不会完成，等待它的请求全部挂起
+			.switchIfEmpty(Mono.error(() -> new IllegalStateException("认证服务返回了空的响应")))
+			.map(this::parseTokenResponse)
+			.doOnNext(token -> logger.info("成功获取访问token"));
+
+		McpGatewayOAuthProperties.Retry retry = oauthProperties.getRetry();
+		long maxRetries = Math.max(0, retry.getMaxAttempts() - 1);
+		Duration backoff = retry.getBackoff();
+		if (maxRetries > 0 && backoff != null && !backoff.isZero() && !backoff.isNegative()) {
+			request = request.retryWhen(Retry.backoff(maxRetries, backoff)
+				.jitter(BACKOFF_JITTER)
+				.onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+		}
+		else {
+			request = request.retry(maxRetries);
+		}
+
+		return request.onErrorMap(throwable -> {
+			logger.error("获取访问token失败", throwable);
+			return new RuntimeException("OAuth token获取失败", throwable);
+		});
 	}
 
 	/**
 	 * 解析Token响应
 	 */
-	private String parseTokenResponse(String responseBody) {
+	private CachedToken parseTokenResponse(String responseBody) {
 		try {
 			TokenResponse tokenResponse = objectMapper.readValue(responseBody, TokenResponse.class);
 
@@ -124,16 +243,10 @@ public class McpGatewayOAuthTokenManager {
 				throw new RuntimeException("响应中未找到访问token");
 			}
 
-			// 缓存Token
-			if (oauthProperties.getTokenCache().isEnabled()) {
-				cachedToken = new CachedToken(tokenResponse.getAccessToken(), tokenResponse.getRefreshToken(),
-						Instant.now()
-							.plusSeconds(tokenResponse.getExpiresIn() != null ? tokenResponse.getExpiresIn() : DEFAULT_EXPIRED_TIME),
-						tokenResponse.getTokenType());
-				logger.debug("缓存访问token");
-			}
-
-			return tokenResponse.getAccessToken();
+			Instant issuedAt = clock.instant();
+			long expiresIn = tokenResponse.getExpiresIn() != null ? tokenResponse.getExpiresIn() : DEFAULT_EXPIRED_TIME;
+			return new CachedToken(tokenResponse.getAccessToken(), tokenResponse.getRefreshToken(), issuedAt,
+					issuedAt.plusSeconds(expiresIn), tokenResponse.getTokenType());
 		}
 		catch (Exception e) {
 			logger.error("解析token响应失败，响应内容: {}", responseBody, e);
@@ -142,17 +255,41 @@ public class McpGatewayOAuthTokenManager {
 	}
 
 	/**
-	 * 检查Token是否即将过期
+	 * 检查Token是否即将过期，过期前 refreshBeforeExpiry 内不再使用该Token；若该时间早于提前续期时间点，则以实际过期时间为准
 	 */
-	private boolean isTokenExpiring(CachedToken cachedToken) {
+	private boolean isTokenExpiring(CachedToken cachedToken, Instant now) {
 		if (cachedToken.getExpiresAt() == null) {
 			return false;
 		}
 
 		Instant refreshThreshold = cachedToken.getExpiresAt()
 			.minus(oauthProperties.getTokenCache().getRefreshBeforeExpiry());
+		Instant refreshAt = getRefreshAt(cachedToken);
+		if (refreshAt != null && refreshThreshold.isBefore(refreshAt)) {
+			refreshThreshold = cachedToken.getExpiresAt();
+		}
+
+		return !now.isBefore(refreshThreshold);
+	}
+
+	/**
+	 * 检查Token是否已到提前续期时间点
+	 */
+	private boolean isRefreshDue(CachedToken cachedToken, Instant now) {
+		Instant refreshAt = getRefreshAt(cachedToken);
+		return refreshAt != null && !now.isBefore(refreshAt);
+	}
 
-		return Instant.now().isAfter(refreshThreshold);
+	private Instant getRefreshAt(CachedToken cachedToken) {
+		if (cachedToken.getIssuedAt() == null || cachedToken.getExpiresAt() == null) {
+			return null;
+		}
+		double ratio = oauthProperties.getTokenCache().getRefreshRatio();
+		if (ratio <= 0 || ratio > 1) {
+			return null;
+		}
+		long lifetimeMillis = Duration.between(cachedToken.getIssuedAt(), cachedToken.getExpiresAt()).toMillis();
+		return cachedToken.getIssuedAt().plusMillis((long) (lifetimeMillis * ratio));
 	}
 
 	/**
@@ -165,26 +302,57 @@ public class McpGatewayOAuthTokenManager {
 
 		logger.info("强制刷新访问token");
 
+		McpGatewayOAuthProperties.OAuthProvider provider = oauthProperties.getProvider();
+		if (provider == null) {
+			return Mono.error(new IllegalArgumentException("OAuth 未配置"));
+		}
+
 		// 清除缓存的token
-		clearCachedToken();
+		clearCachedToken(provider);
 
 		// 获取新的token
-		return fetchNewToken();
+		return getAccessToken(provider);
 	}
 
 	/**
-	 * 清除缓存Token
+	 * 清除所有缓存Token
 	 */
 	public void clearCachedToken() {
-		if (cachedToken != null) {
+		if (!tokenHolders.isEmpty()) {
 			logger.info("清除缓存的token ");
-			cachedToken = null;
+			tokenHolders.values().forEach(holder -> holder.token = null);
 		}
 		else {
 			logger.debug("没有找到要清除的缓存token");
 		}
 	}
 
+	/**
+	 * 清除指定客户端凭证的缓存Token
+	 * @param provider OAuth提供商配置
+	 */
+	public void clearCachedToken(McpGatewayOAuthProperties.OAuthProvider provider) {
+		TokenHolder holder = tokenHolders.get(cacheKey(provider));
+		if (holder != null) {
+			holder.token = null;
+		}
+	}
+
+	/**
+	 * 单个客户端凭证的Token缓存状态
+	 */
+	private static class TokenHolder {
+
+		private volatile CachedToken token;
+
+		private volatile Instant retryNotBefore = Instant.MIN;
+
+		private volatile Throwable lastError;
+
+		private final AtomicReference<Mono<CachedToken>> inflight = new AtomicReference<>();
+
+	}
+
 	/**
 	 * Token响应信息
 	 */
@@ -256,13 +424,21 @@ public class McpGatewayOAuthTokenManager {
 
 		private final String refreshToken;
 
+		private final Instant issuedAt;
+
 		private final Instant expiresAt;
 
 		private final String tokenType;
 
 		public CachedToken(String accessToken, String refreshToken, Instant expiresAt, String tokenType) {
+			this(accessToken, refreshToken, null, expiresAt, tokenType);
+		}
+
+		public CachedToken(String accessToken, String refreshToken, Instant issuedAt, Instant expiresAt,
+				String tokenType) {
 			this.accessToken = accessToken;
 			this.refreshToken = refreshToken;
+			this.issuedAt = issuedAt;
 			this.expiresAt = expiresAt;
 			this.tokenType = tokenType;
 		}
@@ -275,6 +451,10 @@ public class McpGatewayOAuthTokenManager {
 			return refreshToken;
 		}
 
+		public Instant getIssuedAt() {
+			return issuedAt;
+		}
+
 		public Instant getExpiresAt() {
 			return expiresAt;
 		}
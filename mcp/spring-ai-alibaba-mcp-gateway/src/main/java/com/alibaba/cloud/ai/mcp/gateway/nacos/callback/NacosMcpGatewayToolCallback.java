@@ -16,7 +16,9 @@
 
 package com.alibaba.cloud.ai.mcp.gateway.nacos.callback;
 
+import com.alibaba.cloud.ai.mcp.gateway.core.McpGatewayProperties;
 import com.alibaba.cloud.ai.mcp.gateway.core.McpGatewayToolDefinition;
+import com.alibaba.cloud.ai.mcp.gateway.core.client.McpGatewayClientPool;
 import com.alibaba.cloud.ai.mcp.gateway.core.jsontemplate.RequestTemplateInfo;
 import com.alibaba.cloud.ai.mcp.gateway.core.jsontemplate.RequestTemplateParser;
 import com.alibaba.cloud.ai.mcp.gateway.core.utils.SpringBeanUtils;
@@ -38,12 +40,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.modelcontextprotocol.client.McpClient;
-import io.modelcontextprotocol.client.McpSyncClient;
-import io.modelcontextprotocol.client.transport.HttpClientSseClientTransport;
 import io.modelcontextprotocol.spec.McpSchema;
 import io.modelcontextprotocol.spec.McpSchema.CallToolResult;
-import io.modelcontextprotocol.spec.McpSchema.InitializeResult;
 import io.modelcontextprotocol.spec.McpSchema.TextContent;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -58,11 +56,14 @@ import org.springframework.util.CollectionUtils;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -79,6 +80,11 @@ public class NacosMcpGatewayToolCallback implements ToolCallback {
     private static final Pattern NACOS_TEMPLATE_PATTERN = Pattern
             .compile("\\{\\{\\s*\\$\\{nacos\\.([^}]+)\\}(\\.[\\w]+(?:\\.[\\w]+)*)?\\s*}}");
     
+    /**
+     * 调试日志中单个请求/响应内容的最大长度，超出部分截断，避免大报文拖慢网关
+     */
+    private static final int MAX_LOG_LENGTH = 1024;
+    
     /**
      * The Object mapper.
      */
@@ -93,11 +99,13 @@ public class NacosMcpGatewayToolCallback implements ToolCallback {
     
     private final NacosMcpOperationService nacosMcpOperationService;
     
-    private final HashMap<String, AbstractListener> nacosConfigListeners = new HashMap<>();
+    private final Map<String, AbstractListener> nacosConfigListeners = new ConcurrentHashMap<>();
+    
+    private final Map<String, String> nacosConfigContent = new ConcurrentHashMap<>();
     
-    private final HashMap<String, String> nacosConfigContent = new HashMap<>();
+    private final McpGatewayClientPool clientPool;
     
-    private final WebClient.Builder webClientBuilder;
+    private final boolean ownsClientPool;
     
     /**
      * Instantiates a new Nacos mcp gateway tool callback.
@@ -107,7 +115,27 @@ public class NacosMcpGatewayToolCallback implements ToolCallback {
     public NacosMcpGatewayToolCallback(final McpGatewayToolDefinition toolDefinition) {
         this.toolDefinition = (NacosMcpGatewayToolDefinition) toolDefinition;
         this.nacosMcpOperationService = SpringBeanUtils.getInstance().getBean(NacosMcpOperationService.class);
-        this.webClientBuilder = initializeWebClientBuilder(toolDefinition.name());
+        McpGatewayClientPool sharedClientPool = lookupSharedClientPool();
+        this.ownsClientPool = sharedClientPool == null;
+        this.clientPool = sharedClientPool != null ? sharedClientPool
+                : new McpGatewayClientPool(initializeWebClientBuilder(toolDefinition.name()), lookupRequestTimeout());
+    }
+    
+    private Duration lookupRequestTimeout() {
+        try {
+            return SpringBeanUtils.getInstance().getBean(McpGatewayProperties.class).getRequestTimeout();
+        } catch (Exception e) {
+            return new McpGatewayProperties().getRequestTimeout();
+        }
+    }
+    
+    private McpGatewayClientPool lookupSharedClientPool() {
+        try {
+            return SpringBeanUtils.getInstance().getBean(McpGatewayClientPool.class);
+        } catch (Exception e) {
+            logger.debug("未找到共享的 McpGatewayClientPool，使用独立客户端池 tool: {}", toolDefinition.name());
+            return null;
+        }
     }
     
     private WebClient.Builder initializeWebClientBuilder(String toolName) {
@@ -141,7 +169,10 @@ public class NacosMcpGatewayToolCallback implements ToolCallback {
     private Mono<String> processToolRequest(String configJson, Map<String, Object> args, String baseUrl) {
         try {
             JsonNode toolConfig = objectMapper.readTree(configJson);
-            logger.info("[processToolRequest] toolConfig: {} args: {} baseUrl: {}", toolConfig, args, baseUrl);
+            if (logger.isDebugEnabled()) {
+                logger.debug("[processToolRequest] toolConfig: {} args: {} baseUrl: {}", abbreviate(toolConfig),
+                        abbreviate(args), baseUrl);
+            }
             
             // 验证配置完整性
             if (toolConfig == null || toolConfig.isEmpty()) {
@@ -152,7 +183,7 @@ public class NacosMcpGatewayToolCallback implements ToolCallback {
             JsonNode argsPosition = toolConfig.path("argsPosition");
             String url = requestTemplate.path("url").asText();
             String method = requestTemplate.path("method").asText();
-            logger.info("[processToolRequest] requestTemplate: {} url: {} method: {}", requestTemplate, url, method);
+            logger.debug("[processToolRequest] url: {} method: {}", url, method);
             
             // 检查URL和方法
             if (url.isEmpty() || method.isEmpty()) {
@@ -166,12 +197,16 @@ public class NacosMcpGatewayToolCallback implements ToolCallback {
                 return Mono.error(new IllegalArgumentException("Invalid HTTP method: " + method));
             }
             
-            // 创建WebClient
+            // 按 baseUrl 复用共享的 WebClient
             baseUrl = baseUrl != null ? baseUrl : "http://localhost";
-            WebClient client = webClientBuilder.baseUrl(baseUrl).build();
+            WebClient client = clientPool.getWebClient(baseUrl);
+            
+            // 响应模板引用的 Nacos 配置在发起请求前加载，响应在事件循环线程上处理，不能再阻塞读取 Nacos
+            JsonNode responseTemplate = toolConfig.path("responseTemplate");
+            Map<String, String> responseConfigs = loadNacosConfigs(responseTemplate);
             
             // 构建并执行请求
-            return buildAndExecuteRequest(client, requestTemplate, argsPosition, toolConfig.path("responseTemplate"),
+            return buildAndExecuteRequest(client, requestTemplate, argsPosition, responseTemplate, responseConfigs,
                     args, baseUrl)
                     .onErrorResume(e -> {
                         logger.error("Failed to execute tool request:", e);
@@ -187,7 +222,8 @@ public class NacosMcpGatewayToolCallback implements ToolCallback {
      * 构建并执行WebClient请求
      */
     private Mono<String> buildAndExecuteRequest(WebClient client, JsonNode requestTemplate, JsonNode argsPosition,
-                                                JsonNode responseTemplate, Map<String, Object> args, String baseUrl) {
+                                                JsonNode responseTemplate, Map<String, String> responseConfigs,
+                                                Map<String, Object> args, String baseUrl) {
         
         RequestTemplateInfo info = RequestTemplateParser.parseRequestTemplate(requestTemplate, argsPosition);
         String url = info.url;
@@ -200,7 +236,7 @@ public class NacosMcpGatewayToolCallback implements ToolCallback {
         params.put("args", args);
         params.put("extendedData", "");
         String processedUrl = processTemplateString(processingUrl, params);
-        logger.info("[buildAndExecuteRequest] original url template: {} processed url: {}", url, processedUrl);
+        logger.debug("[buildAndExecuteRequest] original url template: {} processed url: {}", url, processedUrl);
         
         String hostFromUrl = extractHostFromUrl(processedUrl);
         String pathOnlyUrl = extractPathFromUrl(processedUrl);
@@ -223,7 +259,10 @@ public class NacosMcpGatewayToolCallback implements ToolCallback {
         // 输出最终请求信息
         String fullUrl = baseUrl.endsWith("/") && pathOnlyUrl.startsWith("/") ? baseUrl + pathOnlyUrl.substring(1)
                 : baseUrl + pathOnlyUrl;
-        logger.info("[buildAndExecuteRequest] final request: method={} url={} args={}", method, fullUrl, args);
+        if (logger.isDebugEnabled()) {
+            logger.debug("[buildAndExecuteRequest] final request: method={} url={} args={}", method, fullUrl,
+                    abbreviate(args));
+        }
         
         return headersSpec.retrieve()
                 .onStatus(HttpStatusCode::is4xxClientError,
@@ -232,8 +271,7 @@ public class NacosMcpGatewayToolCallback implements ToolCallback {
                         response -> Mono.error(new RuntimeException("Server error: " + response.statusCode())))
                 .bodyToMono(String.class)
                 .timeout(getTimeoutDuration()) // 使用配置的超时时间
-                .doOnNext(responseBody -> logger.info("[buildAndExecuteRequest] received responseBody: {}", responseBody))
-                .map(responseBody -> processResponse(responseBody, responseTemplate, args))
+                .map(responseBody -> processResponse(responseBody, responseTemplate, responseConfigs, args))
                 .onErrorResume(e -> {
                     logger.error("[buildAndExecuteRequest] Request failed: {}", e.getMessage(), e);
                     return Mono.error(new RuntimeException("HTTP request failed: " + e.getMessage(), e));
@@ -302,11 +340,14 @@ public class NacosMcpGatewayToolCallback implements ToolCallback {
     }
     
     /**
-     * 处理响应
+     * 处理响应，其中的 Nacos 配置引用只从预先加载的配置中取值
      */
-    private String processResponse(String responseBody, JsonNode responseTemplate, Map<String, Object> args) {
-        logger.info("[processResponse] received responseBody: {}", responseBody);
-        String result = null;
+    private String processResponse(String responseBody, JsonNode responseTemplate, Map<String, String> configs,
+                                   Map<String, Object> args) {
+        BiFunction<String, String, String> configLookup = (dataId, group) -> configs.get(configKey(dataId, group));
+        if (logger.isDebugEnabled()) {
+            logger.debug("[processResponse] received responseBody: {}", abbreviate(responseBody));
+        }
         Map<String, Object> params = new HashMap<>();
         params.put("args", args);
         params.put("extendedData", responseBody);
@@ -314,21 +355,15 @@ public class NacosMcpGatewayToolCallback implements ToolCallback {
             if (responseTemplate.has("body") && !responseTemplate.path("body").asText().isEmpty()) {
                 String bodyTemplate = responseTemplate.path("body").asText();
                 // 统一交给 ResponseTemplateParser 处理
-                result = processTemplateString(bodyTemplate, params);
-                logger.info("[processResponse] ResponseTemplateParser result: {}", result);
-                return result;
+                return processTemplateString(bodyTemplate, params, configLookup);
             } else if (responseTemplate.has("prependBody") || responseTemplate.has("appendBody")) {
                 String prependText = responseTemplate.path("prependBody").asText("");
                 String appendText = responseTemplate.path("appendBody").asText("");
-                result = processTemplateString(prependText, params) + responseBody
-                        + processTemplateString(appendText, params);
-                logger.info("[processResponse] prepend/append result: {}", result);
-                return result;
+                return processTemplateString(prependText, params, configLookup) + responseBody
+                        + processTemplateString(appendText, params, configLookup);
             }
         }
-        result = responseBody;
-        logger.info("[processResponse] default result: {}", result);
-        return result;
+        return responseBody;
     }
     
     /**
@@ -338,6 +373,10 @@ public class NacosMcpGatewayToolCallback implements ToolCallback {
      * @return the string
      */
     public String processNacosConfigRefTemplate(String template) {
+        return processNacosConfigRefTemplate(template, this::fetchConfigContent);
+    }
+    
+    private String processNacosConfigRefTemplate(String template, BiFunction<String, String, String> configLookup) {
         if (StringUtils.isBlank(template)) {
             return template;
         }
@@ -348,7 +387,7 @@ public class NacosMcpGatewayToolCallback implements ToolCallback {
         while (matcher.find()) {
             String nacosRef = matcher.group(1);
             String dotNotation = matcher.group(2);
-            String replacement = resolveNacosReference(nacosRef, dotNotation);
+            String replacement = resolveNacosReference(nacosRef, dotNotation, configLookup);
             matcher.appendReplacement(result, Matcher.quoteReplacement(replacement != null ? replacement : ""));
         }
         matcher.appendTail(result);
@@ -361,9 +400,11 @@ public class NacosMcpGatewayToolCallback implements ToolCallback {
      *
      * @param nacosRef 引用字符串，格式为 dataId/group
      * @param dotNotation 点语法部分，格式为 .key1.key2（可能为null）
+     * @param configLookup 按 dataId 和 group 读取配置内容
      * @return 解析后的值
      */
-    private String resolveNacosReference(String nacosRef, String dotNotation) {
+    private String resolveNacosReference(String nacosRef, String dotNotation,
+                                         BiFunction<String, String, String> configLookup) {
         if (StringUtils.isBlank(nacosRef)) {
             return null;
         }
@@ -380,7 +421,7 @@ public class NacosMcpGatewayToolCallback implements ToolCallback {
             String group = configParts[1];
             
             // 获取配置内容
-            String configContent = getConfigContent(dataId, group);
+            String configContent = configLookup.apply(dataId, group);
             if (StringUtils.isBlank(configContent)) {
                 logger.warn("[resolveNacosReference] No content found for dataId: {}, group: {}", dataId, group);
                 return null;
@@ -402,6 +443,44 @@ public class NacosMcpGatewayToolCallback implements ToolCallback {
         }
     }
     
+    /**
+     * 加载模板中引用的全部 Nacos 配置，可能阻塞，不能在事件循环线程上调用
+     *
+     * @param template 响应模板
+     * @return 以 dataId 和 group 为键的配置内容
+     */
+    private Map<String, String> loadNacosConfigs(JsonNode template) {
+        Map<String, String> configs = new HashMap<>();
+        for (String field : List.of("body", "prependBody", "appendBody")) {
+            Matcher matcher = NACOS_TEMPLATE_PATTERN.matcher(template.path(field).asText(""));
+            while (matcher.find()) {
+                String[] configParts = matcher.group(1).split("/");
+                if (configParts.length != 2) {
+                    // 格式错误在解析模板时报告
+                    continue;
+                }
+                String key = configKey(configParts[0], configParts[1]);
+                if (!configs.containsKey(key)) {
+                    configs.put(key, fetchConfigContent(configParts[0], configParts[1]));
+                }
+            }
+        }
+        return configs;
+    }
+    
+    private static String configKey(String dataId, String group) {
+        return dataId + "@@" + group;
+    }
+    
+    private String fetchConfigContent(String dataId, String group) {
+        try {
+            return getConfigContent(dataId, group);
+        } catch (NacosException e) {
+            throw new RuntimeException("Failed to read Nacos config " + dataId + "/" + group + ": " + e.getMessage(),
+                    e);
+        }
+    }
+    
     /**
      * 获取Nacos配置内容
      *
@@ -411,27 +490,36 @@ public class NacosMcpGatewayToolCallback implements ToolCallback {
      * @throws NacosException Nacos异常
      */
     private String getConfigContent(String dataId, String group) throws NacosException {
-        String cacheKey = dataId + "@@" + group;
-        if (nacosConfigContent.containsKey(cacheKey)) {
-            return nacosConfigContent.get(cacheKey);
-        } else {
-            AbstractListener listener = new AbstractListener() {
-                @Override
-                public void receiveConfigInfo(String configInfo) {
+        String cacheKey = configKey(dataId, group);
+        String cached = nacosConfigContent.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        AbstractListener listener = new AbstractListener() {
+            @Override
+            public void receiveConfigInfo(String configInfo) {
+                if (configInfo == null) {
+                    nacosConfigContent.remove(cacheKey);
+                } else {
                     nacosConfigContent.put(cacheKey, configInfo);
                 }
-            };
-            AbstractListener oldListener = nacosConfigListeners.putIfAbsent(cacheKey, listener);
-            if (oldListener == null) {
-                try {
-                    nacosMcpOperationService.getConfigService().addListener(dataId, group, listener);
-                } catch (Exception e) {
-                    nacosConfigListeners.remove(cacheKey);
-                    logger.error("Failed to add listener for Nacos config: {}", e.getMessage(), e);
-                }
             }
-            return nacosMcpOperationService.getConfigService().getConfig(dataId, group, 3000);
+        };
+        AbstractListener oldListener = nacosConfigListeners.putIfAbsent(cacheKey, listener);
+        if (oldListener == null) {
+            try {
+                nacosMcpOperationService.getConfigService().addListener(dataId, group, listener);
+            } catch (Exception e) {
+                nacosConfigListeners.remove(cacheKey);
+                logger.error("Failed to add listener for Nacos config: {}", e.getMessage(), e);
+            }
         }
+        String content = nacosMcpOperationService.getConfigService().getConfig(dataId, group, 3000);
+        if (content != null) {
+            // 监听器可能已写入更新的内容，仅在缺失时填充
+            nacosConfigContent.putIfAbsent(cacheKey, content);
+        }
+        return content;
     }
     
     /**
@@ -487,9 +575,17 @@ public class NacosMcpGatewayToolCallback implements ToolCallback {
     }
     
     private String processTemplateString(String template, Map<String, Object> params) {
+        return processTemplateString(template, params, this::fetchConfigContent);
+    }
+    
+    private String processTemplateString(String template, Map<String, Object> params,
+                                         BiFunction<String, String, String> configLookup) {
         Map<String, Object> args = (Map<String, Object>) params.get("args");
         String extendedData = (String) params.get("extendedData");
-        logger.debug("[processTemplateString] template: {} args: {} extendedData: {}", template, args, extendedData);
+        if (logger.isDebugEnabled()) {
+            logger.debug("[processTemplateString] template: {} args: {} extendedData: {}", abbreviate(template),
+                    abbreviate(args), abbreviate(extendedData));
+        }
         if (template == null || template.isEmpty()) {
             return "";
         }
@@ -503,8 +599,10 @@ public class NacosMcpGatewayToolCallback implements ToolCallback {
         }
         matcher.appendTail(result);
         String finalResult = result.toString();
-        finalResult = processNacosConfigRefTemplate(finalResult);
-        logger.debug("[processTemplateString] final result: {}", finalResult);
+        finalResult = processNacosConfigRefTemplate(finalResult, configLookup);
+        if (logger.isDebugEnabled()) {
+            logger.debug("[processTemplateString] final result: {}", abbreviate(finalResult));
+        }
         
         return finalResult;
     }
@@ -608,212 +706,203 @@ public class NacosMcpGatewayToolCallback implements ToolCallback {
     }
     
     @Override
-    @SuppressWarnings("unchecked")
     public String call(@NonNull final String input, final ToolContext toolContext) {
-        try {
-            logger.info("[call] input: {} toolContext: {}", input, JacksonUtils.toJson(toolContext));
-            
-            // 参数验证
-            if (this.toolDefinition == null) {
-                throw new IllegalStateException("Tool definition is null");
-            }
-            
-            // input解析
-            logger.info("[call] input string: {}", input);
-            Map<String, Object> args = new HashMap<>();
-            if (!input.isEmpty()) {
-                try {
-                    args = objectMapper.readValue(input, Map.class);
-                    logger.info("[call] parsed args: {}", args);
-                } catch (Exception e) {
-                    logger.error("[call] Failed to parse input to args", e);
-                    // 如果解析失败，尝试作为单个参数处理
-                    args.put("input", input);
-                }
-            }
-            
-            String protocol = this.toolDefinition.getProtocol();
-            if (protocol == null) {
-                throw new IllegalStateException("Protocol is null");
-            }
-
-            McpServerRemoteServiceConfig remoteServerConfig = this.toolDefinition.getRemoteServerConfig();
-            if (remoteServerConfig == null) {
-                throw new IllegalStateException("Remote server config is null");
-            }
-            // 根据协议类型分发到不同的处理方法
-            if ("http".equalsIgnoreCase(protocol) || "https".equalsIgnoreCase(protocol)) {
-                return handleHttpHttpsProtocol(args, remoteServerConfig, protocol);
-            } else if ("mcp-sse".equalsIgnoreCase(protocol) || "mcp-streamable".equalsIgnoreCase(protocol)) {
-                return handleMcpStreamProtocol(args, remoteServerConfig, protocol);
-            } else {
-                logger.error("[call] Unsupported protocol: {}", protocol);
-                return "Error: Unsupported protocol " + protocol;
+        if (logger.isDebugEnabled()) {
+            logger.debug("[call] input: {} toolContext: {}", abbreviate(input),
+                    abbreviate(JacksonUtils.toJson(toolContext)));
+        }
+        return callAsync(parseArgs(input)).block();
+    }
+    
+    /**
+     * 异步执行工具调用，HTTP 与 MCP 后端请求均以非阻塞方式完成，供异步 MCP Server 直接使用。
+     *
+     * @param args 工具参数
+     * @return 工具调用结果，失败时返回以 "Error: " 开头的描述
+     */
+    public Mono<String> callAsync(final Map<String, Object> args) {
+        // 端点选择与模板准备可能访问 Nacos，放到弹性线程执行，网络等待阶段不占用线程
+        return Mono.fromCallable(() -> dispatch(args != null ? args : new HashMap<>()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(result -> result)
+                .onErrorResume(e -> {
+                    logger.error("[callAsync] Unexpected error occurred", e);
+                    return Mono.just("Error: " + e.getMessage());
+                });
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> parseArgs(String input) {
+        Map<String, Object> args = new HashMap<>();
+        if (!input.isEmpty()) {
+            try {
+                args = objectMapper.readValue(input, Map.class);
+            } catch (Exception e) {
+                logger.error("[call] Failed to parse input to args", e);
+                // 如果解析失败，尝试作为单个参数处理
+                args.put("input", input);
             }
-        } catch (Exception e) {
-            logger.error("[call] Unexpected error occurred", e);
-            return "Error: " + e.getMessage();
+        }
+        return args;
+    }
+    
+    private Mono<String> dispatch(Map<String, Object> args) throws NacosException {
+        // 参数验证
+        if (this.toolDefinition == null) {
+            throw new IllegalStateException("Tool definition is null");
+        }
+        
+        String protocol = this.toolDefinition.getProtocol();
+        if (protocol == null) {
+            throw new IllegalStateException("Protocol is null");
+        }
+        
+        McpServerRemoteServiceConfig remoteServerConfig = this.toolDefinition.getRemoteServerConfig();
+        if (remoteServerConfig == null) {
+            throw new IllegalStateException("Remote server config is null");
+        }
+        // 根据协议类型分发到不同的处理方法
+        if ("http".equalsIgnoreCase(protocol) || "https".equalsIgnoreCase(protocol)) {
+            return handleHttpHttpsProtocol(args, remoteServerConfig, protocol);
+        } else if ("mcp-sse".equalsIgnoreCase(protocol) || "mcp-streamable".equalsIgnoreCase(protocol)) {
+            return handleMcpStreamProtocol(args, remoteServerConfig, protocol);
+        } else {
+            logger.error("[call] Unsupported protocol: {}", protocol);
+            return Mono.just("Error: Unsupported protocol " + protocol);
         }
     }
     
     /**
      * 处理HTTP/HTTPS协议的工具调用
      */
-    private String handleHttpHttpsProtocol(Map<String, Object> args, McpServerRemoteServiceConfig remoteServerConfig,
-                                           String protocol) throws NacosException {
+    private Mono<String> handleHttpHttpsProtocol(Map<String, Object> args,
+                                                 McpServerRemoteServiceConfig remoteServerConfig, String protocol) throws NacosException {
         McpServiceRef serviceRef = remoteServerConfig.getServiceRef();
         if (serviceRef == null) {
             logger.error("[handleHttpHttpsProtocol] serviceRef is null");
-            return "Error: service reference is null";
+            return Mono.just("Error: service reference is null");
         }
         McpEndpointInfo mcpEndpointInfo = nacosMcpOperationService.selectEndpoint(serviceRef);
         if (mcpEndpointInfo == null) {
             throw new RuntimeException("No available endpoint found for service: " + serviceRef.getServiceName());
         }
         
-        logger.info("Tool callback instance: {}", JacksonUtils.toJson(mcpEndpointInfo));
         McpToolMeta toolMeta = this.toolDefinition.getToolMeta();
         String baseUrl = protocol + "://" + mcpEndpointInfo.getAddress() + ":" + mcpEndpointInfo.getPort();
         
         if (toolMeta == null || toolMeta.getTemplates() == null) {
             logger.warn("[handleHttpHttpsProtocol] templates not found in toolsMeta");
-            return "Error: templates not found in tool metadata";
+            return Mono.just("Error: templates not found in tool metadata");
         }
         
         Map<String, Object> templates = toolMeta.getTemplates();
         if (templates != null && templates.containsKey("json-go-template")) {
             Object jsonGoTemplate = templates.get("json-go-template");
+            String configJson;
             try {
-                logger.info("[handleHttpHttpsProtocol] json-go-template: {}",
-                        objectMapper.writeValueAsString(jsonGoTemplate));
+                configJson = objectMapper.writeValueAsString(jsonGoTemplate);
             } catch (JsonProcessingException e) {
                 logger.error("[handleHttpHttpsProtocol] Failed to serialize json-go-template", e);
+                return Mono.just("Error: " + e.getMessage());
             }
-            try {
-                // 调用executeToolRequest
-                String configJson = objectMapper.writeValueAsString(jsonGoTemplate);
-                logger.info("[handleHttpHttpsProtocol] configJson: {} args: {} baseUrl: {}", configJson, args,
-                        baseUrl);
-                return processToolRequest(configJson, args, baseUrl).block();
-            } catch (Exception e) {
+            logger.debug("[handleHttpHttpsProtocol] baseUrl: {}", baseUrl);
+            return processToolRequest(configJson, args, baseUrl).onErrorResume(e -> {
                 logger.error("Failed to execute tool request", e);
-                return "Error: " + e.getMessage();
-            }
+                return Mono.just("Error: " + e.getMessage());
+            });
         } else {
             logger.warn("[handleHttpHttpsProtocol] json-go-template not found in templates");
-            return "Error: json-go-template not found in tool configuration";
+            return Mono.just("Error: json-go-template not found in tool configuration");
         }
         
     }
     
     /**
-     * 处理MCP流式协议的工具调用 (mcp-sse, mcp-streamable)
+     * 处理MCP流式协议的工具调用 (mcp-sse, mcp-streamable)，复用客户端池中已初始化的 MCP 客户端
      */
-    private String handleMcpStreamProtocol(Map<String, Object> args, McpServerRemoteServiceConfig remoteServerConfig,
-                                           String protocol) throws NacosException {
+    private Mono<String> handleMcpStreamProtocol(Map<String, Object> args,
+                                                 McpServerRemoteServiceConfig remoteServerConfig, String protocol) throws NacosException {
         McpServiceRef serviceRef = remoteServerConfig.getServiceRef();
-		if (serviceRef == null) {
-			logger.error("[handleMcpStreamProtocol] serviceRef is null");
-			return "Error: service reference is null";
-		}
+        if (serviceRef == null) {
+            logger.error("[handleMcpStreamProtocol] serviceRef is null");
+            return Mono.just("Error: service reference is null");
+        }
         McpEndpointInfo mcpEndpointInfo = nacosMcpOperationService.selectEndpoint(serviceRef);
         if (mcpEndpointInfo == null) {
             throw new RuntimeException("No available endpoint found for service: " + serviceRef.getServiceName());
         }
         
-        logger.info("[handleMcpStreamProtocol] Tool callback instance: {}", JacksonUtils.toJson(mcpEndpointInfo));
         String exportPath = remoteServerConfig.getExportPath();
         
         // 构建基础URL
         String baseUrl = "http://" + mcpEndpointInfo.getAddress() + ":" + mcpEndpointInfo.getPort();
         
-        logger.info("[handleMcpStreamProtocol] Processing {} protocol with args: {} and baseUrl: {}", protocol,
-                args, baseUrl);
+        if (logger.isDebugEnabled()) {
+            logger.debug("[handleMcpStreamProtocol] Processing {} protocol with args: {} and baseUrl: {}", protocol,
+                    abbreviate(args), baseUrl);
+        }
         
-        try {
-            // 获取工具名称 - 从工具定义名称中提取实际的工具名称
-            String toolDefinitionName = this.toolDefinition.name();
-            if (toolDefinitionName.isEmpty()) {
-                throw new RuntimeException("Tool definition name is not available");
-            }
-            
-            // 工具定义名称格式为: serverName_tools_toolName
-            // 需要提取最后的 toolName 部分
-            String toolName;
-            if (toolDefinitionName.contains("_tools_")) {
-                toolName = toolDefinitionName.substring(toolDefinitionName.lastIndexOf("_tools_") + 7);
+        // 获取工具名称 - 从工具定义名称中提取实际的工具名称
+        String toolDefinitionName = this.toolDefinition.name();
+        if (toolDefinitionName.isEmpty()) {
+            throw new RuntimeException("Tool definition name is not available");
+        }
+        
+        // 工具定义名称格式为: serverName_tools_toolName
+        // 需要提取最后的 toolName 部分
+        String toolName;
+        if (toolDefinitionName.contains("_tools_")) {
+            toolName = toolDefinitionName.substring(toolDefinitionName.lastIndexOf("_tools_") + 7);
+        } else {
+            // 如果没有 _tools_ 分隔符，使用整个名称
+            toolName = toolDefinitionName;
+        }
+        
+        if (toolName.isEmpty()) {
+            throw new RuntimeException("Extracted tool name is empty");
+        }
+        
+        String sseEndpoint = "/sse";
+        if (exportPath != null && !exportPath.isEmpty()) {
+            sseEndpoint = exportPath;
+        }
+        
+        McpSchema.CallToolRequest request = new McpSchema.CallToolRequest(toolName, args);
+        return clientPool.withMcpClient(baseUrl, sseEndpoint, client -> client.callTool(request))
+                .timeout(getTimeoutDuration())
+                .map(this::extractMcpResult)
+                .onErrorResume(e -> {
+                    logger.error("[handleMcpStreamProtocol] MCP call failed:", e);
+                    return Mono.just("Error: MCP call failed - " + e.getMessage());
+                });
+    }
+    
+    private String extractMcpResult(CallToolResult result) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("[handleMcpStreamProtocol] tool call result: {}", abbreviate(result));
+        }
+        Object content = result.content();
+        if (content instanceof List<?> list && !CollectionUtils.isEmpty(list)) {
+            Object first = list.get(0);
+            // 兼容TextContent的text字段
+            if (first instanceof TextContent textContent) {
+                return textContent.text();
+            } else if (first instanceof Map<?, ?> map && map.containsKey("text")) {
+                return map.get("text").toString();
             } else {
-                // 如果没有 _tools_ 分隔符，使用整个名称
-                toolName = toolDefinitionName;
-            }
-            
-            if (toolName.isEmpty()) {
-                throw new RuntimeException("Extracted tool name is empty");
-            }
-            
-            // 构建传输层
-            String sseEndpoint = "/sse";
-            if (exportPath != null && !exportPath.isEmpty()) {
-                sseEndpoint = exportPath;
+                return first.toString();
             }
-            
-            HttpClientSseClientTransport.Builder transportBuilder = HttpClientSseClientTransport.builder(baseUrl)
-                    .sseEndpoint(sseEndpoint);
-            
-            // 添加自定义请求头（如果需要）
-            // 这里可以根据需要添加认证头等
-            
-            HttpClientSseClientTransport transport = transportBuilder.build();
-            
-            // 创建MCP同步客户端
-            McpSyncClient client = McpClient.sync(transport).build();
-            
-            try {
-                // 初始化客户端
-                InitializeResult initializeResult = client.initialize();
-                logger.info("[handleMcpStreamProtocol] MCP Client initialized: {}", initializeResult);
-                
-                // 调用工具
-                McpSchema.CallToolRequest request = new McpSchema.CallToolRequest(toolName, args);
-                logger.info("[handleMcpStreamProtocol] CallToolRequest: {}", request);
-                
-                CallToolResult result = client.callTool(request);
-                logger.info("[handleMcpStreamProtocol] tool call result: {}", result);
-                
-                // 处理结果
-                Object content = result.content();
-                if (content instanceof List<?> list && !CollectionUtils.isEmpty(list)) {
-                    Object first = list.get(0);
-                    // 兼容TextContent的text字段
-                    if (first instanceof TextContent textContent) {
-                        return textContent.text();
-                    } else if (first instanceof Map<?, ?> map && map.containsKey("text")) {
-                        return map.get("text").toString();
-                    } else {
-                        return first.toString();
-                    }
-                } else {
-                    return content != null ? content.toString() : "No content returned";
-                }
-            } finally {
-                // 清理资源
-                try {
-                    if (client != null) {
-                        client.close();
-                    }
-                } catch (Exception e) {
-                    logger.warn("[handleMcpStreamProtocol] Failed to close MCP client", e);
-                }
-            }
-        } catch (Exception e) {
-            logger.error("[handleMcpStreamProtocol] MCP call failed:", e);
-            return "Error: MCP call failed - " + e.getMessage();
+        } else {
+            return content != null ? content.toString() : "No content returned";
         }
     }
     
+    private static String abbreviate(Object value) {
+        return StringUtils.abbreviate(String.valueOf(value), MAX_LOG_LENGTH);
+    }
+    
     private Duration getTimeoutDuration() {
-        
-        return Duration.ofSeconds(30); // 默认超时时间
+        return clientPool.getRequestTimeout();
     }
     
     /**
@@ -827,6 +916,9 @@ public class NacosMcpGatewayToolCallback implements ToolCallback {
             String group = cacheKey.split("@@")[1];
             nacosMcpOperationService.getConfigService().removeListener(dataId, group, entry.getValue());
         }
+        if (ownsClientPool) {
+            clientPool.close();
+        }
     }
     
 }
@@ -20,16 +20,19 @@ import com.alibaba.cloud.ai.mcp.gateway.core.McpGatewayToolDefinition;
 import com.alibaba.cloud.ai.mcp.gateway.core.McpGatewayToolManager;
 import com.alibaba.cloud.ai.mcp.gateway.nacos.callback.NacosMcpGatewayToolCallback;
 import io.modelcontextprotocol.server.McpAsyncServer;
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
 import org.springframework.ai.mcp.McpToolUtils;
 
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class NacosMcpAsyncGatewayToolsProvider implements McpGatewayToolManager {
 
 	private final McpAsyncServer mcpAsyncServer;
 
-	private final Map<String, NacosMcpGatewayToolCallback> toolCallbacks = new HashMap<>();
+	private final Map<String, NacosMcpGatewayToolCallback> toolCallbacks = new ConcurrentHashMap<>();
 
 	public NacosMcpAsyncGatewayToolsProvider(final McpAsyncServer mcpAsyncServer) {
 		this.mcpAsyncServer = mcpAsyncServer;
@@ -45,7 +48,7 @@ public class NacosMcpAsyncGatewayToolsProvider implements McpGatewayToolManager
 		}
 		NacosMcpGatewayToolCallback toolCallback = new NacosMcpGatewayToolCallback(toolDefinition);
 		toolCallbacks.put(toolDefinition.name(), toolCallback);
-		mcpAsyncServer.addTool(McpToolUtils.toAsyncToolSpecification(toolCallback)).block();
+		mcpAsyncServer.addTool(toAsyncToolSpecification(toolCallback)).block();
 	}
 
 	@Override
@@ -57,4 +60,17 @@ public class NacosMcpAsyncGatewayToolsProvider implements McpGatewayToolManager
 		mcpAsyncServer.removeTool(toolName).block();
 	}
 
+	/**
+	 * 构建直接基于 {@link NacosMcpGatewayToolCallback#callAsync} 的异步工具规格，避免每次调用占用一个阻塞线程
+	 */
+	private McpServerFeatures.AsyncToolSpecification toAsyncToolSpecification(
+			NacosMcpGatewayToolCallback toolCallback) {
+		McpSchema.Tool tool = McpToolUtils.toAsyncToolSpecification(toolCallback).tool();
+		return McpServerFeatures.AsyncToolSpecification.builder()
+			.tool(tool)
+			.callHandler((exchange, request) -> toolCallback.callAsync(request.arguments())
+				.map(result -> new McpSchema.CallToolResult(List.of(new McpSchema.TextContent(result)), false)))
+			.build();
+	}
+
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.mcp.gateway.core.client;
+
+import io.modelcontextprotocol.client.McpAsyncClient;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class McpGatewayClientPoolTest {
+
+	@Test
+	void shouldReuseWebClientPerBaseUrl() {
+		try (McpGatewayClientPool pool = new McpGatewayClientPool(WebClient.builder())) {
+			WebClient first = pool.getWebClient("http://127.0.0.1:8080");
+			WebClient second = pool.getWebClient("http://127.0.0.1:8080");
+			WebClient other = pool.getWebClient("http://127.0.0.1:8081");
+
+			assertSame(first, second);
+			assertNotSame(first, other);
+		}
+	}
+
+	@Test
+	void shouldShareMcpClientInitializationPerEndpoint() {
+		try (McpGatewayClientPool pool = new McpGatewayClientPool(WebClient.builder())) {
+			assertSame(pool.getMcpClient("http://127.0.0.1:8080", "/sse"),
+					pool.getMcpClient("http://127.0.0.1:8080", "/sse"));
+			assertNotSame(pool.getMcpClient("http://127.0.0.1:8080", "/sse"),
+					pool.getMcpClient("http://127.0.0.1:8080", "/custom/sse"));
+		}
+	}
+
+	@Test
+	void shouldCreateNewMcpClientAfterEviction() {
+		try (McpGatewayClientPool pool = new McpGatewayClientPool(WebClient.builder())) {
+			Mono<McpAsyncClient> before = pool.getMcpClient("http://127.0.0.1:8080", "/sse");
+			pool.evictMcpClient("http://127.0.0.1:8080", "/sse");
+
+			assertNotSame(before, pool.getMcpClient("http://127.0.0.1:8080", "/sse"));
+		}
+	}
+
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.mcp.gateway.core.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class McpGatewayOAuthTokenManagerTest {
+
+	private final AtomicInteger tokenRequests = new AtomicInteger();
+
+	private volatile HttpStatus tokenStatus = HttpStatus.OK;
+
+	private volatile boolean emptyTokenBody;
+
+	private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+
+	private McpGatewayOAuthProperties properties;
+
+	private McpGatewayOAuthTokenManager tokenManager;
+
+	@BeforeEach
+	void setUp() {
+		properties = new McpGatewayOAuthProperties();
+		properties.setEnabled(true);
+		properties.getProvider().setClientId("client");
+		properties.getProvider().setClientSecret("secret");
+		properties.getProvider().setTokenUri("http://idp.local/token");
+		properties.getTokenCache().setRefreshBeforeExpiry(Duration.ZERO);
+		properties.getRetry().setMaxAttempts(1);
+
+		WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> {
+			int n = tokenRequests.incrementAndGet();
+			ClientResponse.Builder response = ClientResponse.create(tokenStatus)
+				.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+			if (!emptyTokenBody) {
+				response.body("{\"access_token\":\"token-" + n + "\",\"expires_in\":100}");
+			}
+			return Mono.delay(Duration.ofMillis(50)).thenReturn(response.build());
+		});
+		tokenManager = new McpGatewayOAuthTokenManager(builder, properties, clock);
+	}
+
+	@Test
+	void shouldShareInFlightRefreshAcrossConcurrentCallers() {
+		List<String> tokens = Flux.range(0, 50)
+			.flatMap(i -> tokenManager.getAccessToken())
+			.collectList()
+			.block(Duration.ofSeconds(5));
+
+		assertEquals(50, tokens.size());
+		assertEquals(1, tokenRequests.get());
+		tokens.forEach(token -> assertEquals("token-1", token));
+	}
+
+	@Test
+	void shouldRenewProactivelyWithoutBlockingCallers() {
+		assertEquals("token-1", tokenManager.getAccessToken().block());
+
+		clock.advance(Duration.ofSeconds(85));
+		assertEquals("token-1", tokenManager.getAccessToken().block());
+
+		Mono.delay(Duration.ofMillis(200)).block();
+		assertEquals("token-2", tokenManager.getAccessToken().block());
+		assertEquals(2, tokenRequests.get());
+	}
+
+	@Test
+	void shouldCacheTokensPerClientCredential() {
+		McpGatewayOAuthProperties.OAuthProvider tenant = new McpGatewayOAuthProperties.OAuthProvider();
+		tenant.setClientId("tenant");
+		tenant.setClientSecret("secret");
+		tenant.setTokenUri("http://idp.local/token");
+
+		tokenManager.getAccessToken().block();
+		tokenManager.getAccessToken(tenant).block();
+		tokenManager.getAccessToken().block();
+		tokenManager.getAccessToken(tenant).block();
+
+		assertEquals(2, tokenRequests.get());
+	}
+
+	@Test
+	void shouldFailCallersWhenTokenResponseIsEmpty() {
+		emptyTokenBody = true;
+
+		RuntimeException error = assertThrows(RuntimeException.class,
+				() -> tokenManager.getAccessToken().block(Duration.ofSeconds(5)));
+		assertEquals("OAuth token获取失败", error.getMessage());
+
+		// the failed refresh must not stay in flight for the next caller
+		emptyTokenBody = false;
+		clock.advance(Duration.ofSeconds(2));
+		assertEquals("token-2", tokenManager.getAccessToken().block(Duration.ofSeconds(5)));
+	}
+
+	@Test
+	void shouldCoolDownAfterFailedRefresh() {
+		properties.getRetry().setBackoff(Duration.ofSeconds(10));
+		tokenStatus = HttpStatus.SERVICE_UNAVAILABLE;
+
+		assertThrows(RuntimeException.class, () -> tokenManager.getAccessToken().block(Duration.ofSeconds(5)));
+		assertEquals(1, tokenRequests.get());
+
+		tokenStatus = HttpStatus.OK;
+		clock.advance(Duration.ofSeconds(4));
+		RuntimeException error = assertThrows(RuntimeException.class,
+				() -> tokenManager.getAccessToken().block(Duration.ofSeconds(5)));
+		assertEquals("OAuth token获取失败", error.getMessage());
+		assertEquals(1, tokenRequests.get());
+
+		// backoff with jitter ends at most 15 seconds after the failure
+		clock.advance(Duration.ofSeconds(12));
+		assertEquals("token-2", tokenManager.getAccessToken().block(Duration.ofSeconds(5)));
+		assertEquals(2, tokenRequests.get());
+	}
+
+	private static class MutableClock extends Clock {
+
+		private volatile Instant now;
+
+		MutableClock(Instant now) {
+			this.now = now;
+		}
+
+		void advance(Duration duration) {
+			now = now.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alibaba.cloud.ai.mcp.gateway.nacos.callback;
+
+import com.alibaba.cloud.ai.mcp.gateway.core.client.McpGatewayClientPool;
+import com.alibaba.cloud.ai.mcp.gateway.core.utils.SpringBeanUtils;
+import com.alibaba.cloud.ai.mcp.gateway.nacos.definition.NacosMcpGatewayToolDefinition;
+import com.alibaba.cloud.ai.mcp.nacos.service.NacosMcpOperationService;
+import com.alibaba.nacos.api.ai.model.mcp.McpEndpointInfo;
+import com.alibaba.nacos.api.ai.model.mcp.McpServerRemoteServiceConfig;
+import com.alibaba.nacos.api.ai.model.mcp.McpServiceRef;
+import com.alibaba.nacos.api.ai.model.mcp.McpToolMeta;
+import com.alibaba.nacos.api.config.ConfigService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NacosMcpGatewayToolCallbackTest {
+
+	private final List<Boolean> configReadsOnNonBlockingThreads = new CopyOnWriteArrayList<>();
+
+	private McpGatewayClientPool clientPool;
+
+	private NacosMcpGatewayToolCallback callback;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		ConfigService configService = mock(ConfigService.class);
+		when(configService.getConfig(eq("greeting"), eq("DEFAULT_GROUP"), anyLong())).thenAnswer(invocation -> {
+			configReadsOnNonBlockingThreads.add(Schedulers.isInNonBlockingThread());
+			return "hello";
+		});
+		McpEndpointInfo endpoint = new McpEndpointInfo();
+		endpoint.setAddress("127.0.0.1");
+		endpoint.setPort(8080);
+		NacosMcpOperationService operationService = mock(NacosMcpOperationService.class);
+		when(operationService.getConfigService()).thenReturn(configService);
+		when(operationService.selectEndpoint(any())).thenReturn(endpoint);
+
+		// the response arrives on a parallel scheduler thread, like a reactor-netty event loop
+		WebClient.Builder builder = WebClient.builder()
+			.exchangeFunction(request -> Mono.delay(Duration.ofMillis(10))
+				.thenReturn(ClientResponse.create(HttpStatus.OK)
+					.header(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_PLAIN_VALUE)
+					.body("world")
+					.build()));
+		clientPool = new McpGatewayClientPool(builder, Duration.ofSeconds(5));
+
+		StaticApplicationContext context = new StaticApplicationContext();
+		context.getBeanFactory().registerSingleton("nacosMcpOperationService", operationService);
+		context.getBeanFactory().registerSingleton("mcpGatewayClientPool", clientPool);
+		SpringBeanUtils.getInstance().setApplicationContext(context);
+
+		McpToolMeta toolMeta = new McpToolMeta();
+		toolMeta.setTemplates(Map.of("json-go-template",
+				Map.of("requestTemplate", Map.of("url", "/hello", "method", "GET"), "responseTemplate",
+						Map.of("prependBody", "{{ ${nacos.greeting/DEFAULT_GROUP} }} "))));
+		McpServerRemoteServiceConfig remoteServerConfig = new McpServerRemoteServiceConfig();
+		remoteServerConfig.setServiceRef(new McpServiceRef());
+		NacosMcpGatewayToolDefinition toolDefinition = new NacosMcpGatewayToolDefinition("greet", "greet", "{}");
+		toolDefinition.setProtocol("http");
+		toolDefinition.setRemoteServerConfig(remoteServerConfig);
+		toolDefinition.setToolMeta(toolMeta);
+		callback = new NacosMcpGatewayToolCallback(toolDefinition);
+	}
+
+	@AfterEach
+	void tearDown() {
+		callback.close();
+		clientPool.close();
+	}
+
+	@Test
+	void shouldReadResponseTemplateConfigBeforeTheRequest() {
+		String result = callback.callAsync(Map.of()).block(Duration.ofSeconds(5));
+
+		assertEquals("hello world", result);
+		assertEquals(List.of(false), configReadsOnNonBlockingThreads);
+	}
+
+}
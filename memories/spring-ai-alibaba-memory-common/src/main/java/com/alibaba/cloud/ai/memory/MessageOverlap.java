@@ -0,0 +1,62 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.memory;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+
+/**
+ * Compares the messages a chat memory repository stored last with the messages of a new
+ * save, so that only the messages past the overlap have to be written.
+ *
+ * A save usually repeats the stored conversation with new messages behind it, possibly
+ * after a message window evicted some of its leading messages.
+ */
+public final class MessageOverlap {
+
+	private MessageOverlap() {
+	}
+
+	/**
+	 * Find the smallest number of messages to drop from the head of {@code known} so that
+	 * the rest is a prefix of {@code incoming}. Dropping everything always matches, so
+	 * {@code known.size()} means the messages do not overlap at all.
+	 */
+	public static <T> int overlapStart(List<T> known, List<T> incoming) {
+		return overlapStart(known, incoming, Objects::equals);
+	}
+
+	/**
+	 * Like {@link #overlapStart(List, List)}, comparing messages with
+	 * {@code sameMessage}, for messages such as byte arrays that do not implement
+	 * {@code equals}
+	 */
+	public static <T> int overlapStart(List<T> known, List<T> incoming, BiPredicate<T, T> sameMessage) {
+		for (int drop = Math.max(0, known.size() - incoming.size()); drop < known.size(); drop++) {
+			int kept = known.size() - drop;
+			boolean matches = true;
+			for (int i = 0; i < kept && matches; i++) {
+				matches = sameMessage.test(known.get(drop + i), incoming.get(i));
+			}
+			if (matches) {
+				return drop;
+			}
+		}
+		return known.size();
+	}
+
+}
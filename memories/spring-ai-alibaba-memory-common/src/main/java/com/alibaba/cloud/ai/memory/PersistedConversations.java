@@ -0,0 +1,78 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.memory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * What a chat memory repository last stored for its most recently used conversations, so
+ * a save can be compared with it instead of reading the conversation back. Only the
+ * {@code capacity} most recently used conversations are kept, a conversation that fell
+ * out is simply read or rewritten again.
+ *
+ * @param <V> what is remembered per conversation
+ */
+public class PersistedConversations<V> {
+
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	private final Map<String, V> conversations;
+
+	public PersistedConversations() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public PersistedConversations(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+		this.conversations = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * @return what was stored last for the conversation, or null if it is not tracked
+	 */
+	public synchronized V get(String conversationId) {
+		return conversations.get(conversationId);
+	}
+
+	public synchronized void put(String conversationId, V persisted) {
+		conversations.put(conversationId, persisted);
+	}
+
+	/**
+	 * Forget the conversation, e.g. because it was deleted or a write to it failed
+	 * @return what was stored last for the conversation, or null if it was not tracked
+	 */
+	public synchronized V remove(String conversationId) {
+		return conversations.remove(conversationId);
+	}
+
+	public synchronized void clear() {
+		conversations.clear();
+	}
+
+	public synchronized int size() {
+		return conversations.size();
+	}
+
+}
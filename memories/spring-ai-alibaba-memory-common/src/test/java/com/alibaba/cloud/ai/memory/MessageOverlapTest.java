@@ -0,0 +1,54 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.memory;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessageOverlapTest {
+
+	@Test
+	void overlapStartFindsAppendAndWindowEviction() {
+		List<String> known = List.of("a", "b", "c");
+
+		assertThat(MessageOverlap.overlapStart(known, List.of("a", "b", "c", "d"))).isZero();
+		assertThat(MessageOverlap.overlapStart(known, List.of("b", "c", "d", "e"))).isEqualTo(1);
+		assertThat(MessageOverlap.overlapStart(known, List.of("c"))).isEqualTo(2);
+		assertThat(MessageOverlap.overlapStart(known, List.of("x", "y"))).isEqualTo(3);
+		assertThat(MessageOverlap.overlapStart(known, List.of())).isEqualTo(3);
+		assertThat(MessageOverlap.overlapStart(List.of(), List.of("x"))).isZero();
+	}
+
+	@Test
+	void overlapStartComparesByteArraysByContent() {
+		List<byte[]> known = bytes("a", "b", "c");
+
+		assertThat(MessageOverlap.overlapStart(known, bytes("b", "c", "d"), Arrays::equals)).isEqualTo(1);
+		assertThat(MessageOverlap.overlapStart(known, bytes("c", "d"), Arrays::equals)).isEqualTo(2);
+		assertThat(MessageOverlap.overlapStart(known, bytes("x", "y"), Arrays::equals)).isEqualTo(3);
+	}
+
+	private static List<byte[]> bytes(String... values) {
+		return Stream.of(values).map(value -> value.getBytes(StandardCharsets.UTF_8)).toList();
+	}
+
+}
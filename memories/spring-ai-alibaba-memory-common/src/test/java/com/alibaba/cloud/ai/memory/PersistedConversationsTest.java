@@ -0,0 +1,39 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.memory;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PersistedConversationsTest {
+
+	@Test
+	void evictsLeastRecentlyUsedConversation() {
+		PersistedConversations<Integer> persisted = new PersistedConversations<>(2);
+		persisted.put("a", 1);
+		persisted.put("b", 2);
+		persisted.get("a");
+		persisted.put("c", 3);
+
+		assertThat(persisted.get("a")).isEqualTo(1);
+		assertThat(persisted.get("b")).isNull();
+		assertThat(persisted.get("c")).isEqualTo(3);
+		assertThat(persisted.remove("c")).isEqualTo(3);
+		assertThat(persisted.size()).isEqualTo(1);
+	}
+
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.memory.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * ChatMemoryRepository decorator that keeps hot conversations in a bounded local cache
+ * and writes them to the backing repository asynchronously.
+ * <p>
+ * Reads of a cached conversation never reach the backing repository. With
+ * {@link Durability#WRITE_BEHIND} saves only update the cache; the latest state of every
+ * changed conversation is written once per flush interval, so several saves in between
+ * cost a single write. Saves fall back to writing through when too many conversations are
+ * waiting to be flushed. {@link #close()} flushes everything still pending.
+ * <p>
+ * When several nodes share the backing repository, a node does not see the writes of
+ * the others until its cached entry is older than {@code maxStaleness} (5 seconds by
+ * default), there is no version check on read. Keep it short, or call
+ * {@link #invalidate(String)} from a backend notification (Redis keyspace events, MongoDB
+ * change streams...). The {@code changeListener} is told about every conversation written
+ * to the backing repository so it can publish such notifications. Two nodes saving the
+ * same conversation within one flush interval still overwrite each other, route a
+ * conversation to a single node when that matters.
+ */
+public class WriteBehindChatMemoryRepository implements ChatMemoryRepository, AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(WriteBehindChatMemoryRepository.class);
+
+	private static final int LOCK_STRIPES = 64;
+
+	private final ChatMemoryRepository delegate;
+
+	private final Durability durability;
+
+	private final int maxConversations;
+
+	private final long maxStalenessNanos;
+
+	private final Consumer<String> changeListener;
+
+	private final LongSupplier ticker;
+
+	private final Map<String, CachedConversation> cache;
+
+	private final Map<String, List<Message>> pending = new ConcurrentHashMap<>();
+
+	private final Object[] locks = new Object[LOCK_STRIPES];
+
+	private final ScheduledExecutorService scheduler;
+
+	private volatile boolean closed;
+
+	private WriteBehindChatMemoryRepository(Builder builder) {
+		this.delegate = builder.delegate;
+		this.durability = builder.durability;
+		this.maxConversations = builder.maxConversations;
+		this.maxStalenessNanos = builder.maxStaleness.isZero() ? Long.MAX_VALUE : builder.maxStaleness.toNanos();
+		this.changeListener = builder.changeListener;
+		this.ticker = builder.ticker;
+		this.cache = Collections.synchronizedMap(new LinkedHashMap<String, CachedConversation>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CachedConversation> eldest) {
+				return size() > maxConversations;
+			}
+		});
+		for (int i = 0; i < LOCK_STRIPES; i++) {
+			locks[i] = new Object();
+		}
+		if (durability == Durability.WRITE_BEHIND) {
+			this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, "chat-memory-write-behind");
+				thread.setDaemon(true);
+				return thread;
+			});
+			long interval = builder.flushInterval.toMillis();
+			this.scheduler.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+		}
+		else {
+			this.scheduler = null;
+		}
+	}
+
+	public static Builder builder(ChatMemoryRepository delegate) {
+		return new Builder(delegate);
+	}
+
+	@Override
+	public List<String> findConversationIds() {
+		Set<String> conversationIds = new LinkedHashSet<>(delegate.findConversationIds());
+		// conversations that were saved but not flushed yet
+		conversationIds.addAll(pending.keySet());
+		return new ArrayList<>(conversationIds);
+	}
+
+	@Override
+	public List<Message> findByConversationId(String conversationId) {
+		Assert.hasText(conversationId, "conversationId cannot be null or empty");
+		List<Message> unflushed = pending.get(conversationId);
+		if (unflushed != null) {
+			return new ArrayList<>(unflushed);
+		}
+		CachedConversation cached = cache.get(conversationId);
+		if (cached != null && ticker.getAsLong() - cached.loadedAtNanos() < maxStalenessNanos) {
+			return new ArrayList<>(cached.messages());
+		}
+		long readAt = ticker.getAsLong();
+		List<Message> messages = List.copyOf(delegate.findByConversationId(conversationId));
+		// a save that raced with the read is newer than what we just read
+		cache.compute(conversationId, (id, current) -> current == null || current.loadedAtNanos() < readAt
+				? new CachedConversation(messages, readAt) : current);
+		return new ArrayList<>(messages);
+	}
+
+	@Override
+	public void saveAll(String conversationId, List<Message> messages) {
+		Assert.hasText(conversationId, "conversationId cannot be null or empty");
+		Assert.notNull(messages, "messages cannot be null");
+		Assert.noNullElements(messages, "messages cannot contain null elements");
+		List<Message> copy = List.copyOf(messages);
+		// both paths hold the stripe lock, a write-through must not drop a newer pending save
+		synchronized (lock(conversationId)) {
+			if (durability == Durability.WRITE_THROUGH || closed
+					|| pending.size() >= maxConversations && !pending.containsKey(conversationId)) {
+				write(conversationId, copy);
+				pending.remove(conversationId);
+			}
+			else {
+				pending.put(conversationId, copy);
+			}
+			cache.put(conversationId, new CachedConversation(copy, ticker.getAsLong()));
+		}
+	}
+
+	@Override
+	public void deleteByConversationId(String conversationId) {
+		Assert.hasText(conversationId, "conversationId cannot be null or empty");
+		synchronized (lock(conversationId)) {
+			pending.remove(conversationId);
+			cache.remove(conversationId);
+			delegate.deleteByConversationId(conversationId);
+			notifyChange(conversationId);
+		}
+	}
+
+	/**
+	 * Drop the cached state of a conversation, typically because another node changed it.
+	 * Saves of this node that are not flushed yet are kept.
+	 * @param conversationId the conversation id
+	 */
+	public void invalidate(String conversationId) {
+		cache.remove(conversationId);
+	}
+
+	/**
+	 * Drop the cached state of all conversations.
+	 */
+	public void invalidateAll() {
+		cache.clear();
+	}
+
+	/**
+	 * Write every pending conversation to the backing repository.
+	 * @throws RuntimeException the first write failure, the conversations that failed stay
+	 * pending and are retried by the next flush
+	 */
+	public void flush() {
+		RuntimeException failure = null;
+		for (String conversationId : new ArrayList<>(pending.keySet())) {
+			try {
+				flush(conversationId);
+			}
+			catch (RuntimeException e) {
+				logger.warn("Failed to flush chat memory of conversation {}: {}", conversationId, e.getMessage());
+				if (failure == null) {
+					failure = e;
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private void flush(String conversationId) {
+		synchronized (lock(conversationId)) {
+			List<Message> messages = pending.get(conversationId);
+			if (messages == null) {
+				return;
+			}
+			// readers take no lock, the save stays pending until it is written so that a read
+			// missing the cache meanwhile does not load and cache the previous backend copy;
+			// a failed write simply stays pending
+			write(conversationId, messages);
+			pending.remove(conversationId, messages);
+		}
+	}
+
+	private void flushQuietly() {
+		try {
+			flush();
+		}
+		catch (RuntimeException e) {
+			// already logged, retried with the next flush
+		}
+	}
+
+	private void write(String conversationId, List<Message> messages) {
+		delegate.saveAll(conversationId, messages);
+		notifyChange(conversationId);
+	}
+
+	private void notifyChange(String conversationId) {
+		if (changeListener == null) {
+			return;
+		}
+		try {
+			changeListener.accept(conversationId);
+		}
+		catch (RuntimeException e) {
+			logger.warn("Failed to publish chat memory change of conversation {}: {}", conversationId,
+					e.getMessage());
+		}
+	}
+
+	private Object lock(String conversationId) {
+		return locks[Math.floorMod(conversationId.hashCode(), LOCK_STRIPES)];
+	}
+
+	/**
+	 * Stop the background flush and write everything still pending. The backing
+	 * repository is not closed.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		if (scheduler != null) {
+			scheduler.shutdown();
+			try {
+				scheduler.awaitTermination(30, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		flush();
+	}
+
+	/**
+	 * When saves reach the backing repository
+	 */
+	public enum Durability {
+
+		/**
+		 * Saves are written to the backing repository before they return.
+		 */
+		WRITE_THROUGH,
+
+		/**
+		 * Saves return immediately and are written by the next flush. Saves not flushed
+		 * yet are lost if the process dies without {@link #close()}.
+		 */
+		WRITE_BEHIND
+
+	}
+
+	private record CachedConversation(List<Message> messages, long loadedAtNanos) {
+	}
+
+	public static class Builder {
+
+		private final ChatMemoryRepository delegate;
+
+		private Durability durability = Durability.WRITE_BEHIND;
+
+		private int maxConversations = 1024;
+
+		private Duration flushInterval = Duration.ofSeconds(1);
+
+		private Duration maxStaleness = Duration.ofSeconds(5);
+
+		private Consumer<String> changeListener;
+
+		private LongSupplier ticker = System::nanoTime;
+
+		private Builder(ChatMemoryRepository delegate) {
+			Assert.notNull(delegate, "delegate cannot be null");
+			this.delegate = delegate;
+		}
+
+		public Builder durability(Durability durability) {
+			Assert.notNull(durability, "durability cannot be null");
+			this.durability = durability;
+			return this;
+		}
+
+		/**
+		 * @param maxConversations the most conversations kept in the local cache, also
+		 * the most conversations waiting to be flushed
+		 */
+		public Builder maxConversations(int maxConversations) {
+			Assert.isTrue(maxConversations > 0, "maxConversations must be positive");
+			this.maxConversations = maxConversations;
+			return this;
+		}
+
+		public Builder flushInterval(Duration flushInterval) {
+			Assert.isTrue(flushInterval != null && !flushInterval.isNegative() && !flushInterval.isZero(),
+					"flushInterval must be positive");
+			this.flushInterval = flushInterval;
+			return this;
+		}
+
+		/**
+		 * @param maxStaleness how long a cached conversation is served before it is read
+		 * again, {@link Duration#ZERO} to keep it until it is evicted or invalidated
+		 */
+		public Builder maxStaleness(Duration maxStaleness) {
+			Assert.isTrue(maxStaleness != null && !maxStaleness.isNegative(), "maxStaleness cannot be negative");
+			this.maxStaleness = maxStaleness;
+			return this;
+		}
+
+		/**
+		 * @param changeListener called with the conversation id after it was written to or
+		 * deleted from the backing repository
+		 */
+		public Builder changeListener(Consumer<String> changeListener) {
+			this.changeListener = changeListener;
+			return this;
+		}
+
+		Builder ticker(LongSupplier ticker) {
+			this.ticker = ticker;
+			return this;
+		}
+
+		public WriteBehindChatMemoryRepository build() {
+			return new WriteBehindChatMemoryRepository(this);
+		}
+
+	}
+
+}
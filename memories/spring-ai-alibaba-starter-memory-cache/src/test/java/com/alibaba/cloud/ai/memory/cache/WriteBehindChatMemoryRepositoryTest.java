@@ -0,0 +1,202 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.memory.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.memory.InMemoryChatMemoryRepository;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WriteBehindChatMemoryRepositoryTest {
+
+	private final CountingRepository backend = new CountingRepository();
+
+	private final AtomicLong ticker = new AtomicLong();
+
+	@Test
+	void coalescesSavesUntilFlush() {
+		WriteBehindChatMemoryRepository repository = WriteBehindChatMemoryRepository.builder(backend)
+			.flushInterval(Duration.ofHours(1))
+			.build();
+
+		repository.saveAll("c1", List.of(new UserMessage("hi")));
+		repository.saveAll("c1", List.of(new UserMessage("hi"), new AssistantMessage("hello")));
+
+		assertThat(repository.findByConversationId("c1")).hasSize(2);
+		assertThat(repository.findConversationIds()).containsExactly("c1");
+		assertThat(backend.saves.get()).isZero();
+		assertThat(backend.reads.get()).isZero();
+
+		repository.close();
+		assertThat(backend.saves.get()).isEqualTo(1);
+		assertThat(backend.findByConversationId("c1")).hasSize(2);
+	}
+
+	@Test
+	void servesCachedConversationUntilStaleOrInvalidated() {
+		backend.saveAll("c1", List.of(new UserMessage("hi")));
+		WriteBehindChatMemoryRepository repository = WriteBehindChatMemoryRepository.builder(backend)
+			.durability(WriteBehindChatMemoryRepository.Durability.WRITE_THROUGH)
+			.maxStaleness(Duration.ofSeconds(10))
+			.ticker(ticker::get)
+			.build();
+
+		repository.findByConversationId("c1");
+		repository.findByConversationId("c1");
+		assertThat(backend.reads.get()).isEqualTo(1);
+
+		ticker.addAndGet(Duration.ofSeconds(11).toNanos());
+		repository.findByConversationId("c1");
+		assertThat(backend.reads.get()).isEqualTo(2);
+
+		repository.invalidate("c1");
+		repository.findByConversationId("c1");
+		assertThat(backend.reads.get()).isEqualTo(3);
+	}
+
+	@Test
+	void rereadsOtherNodesWritesAfterDefaultStaleness() {
+		backend.saveAll("c1", List.of(new UserMessage("hi")));
+		WriteBehindChatMemoryRepository repository = WriteBehindChatMemoryRepository.builder(backend)
+			.flushInterval(Duration.ofHours(1))
+			.ticker(ticker::get)
+			.build();
+		assertThat(repository.findByConversationId("c1")).hasSize(1);
+
+		// another node writes straight to the backing repository
+		backend.saveAll("c1", List.of(new UserMessage("hi"), new AssistantMessage("hello")));
+		ticker.addAndGet(Duration.ofSeconds(6).toNanos());
+
+		assertThat(repository.findByConversationId("c1")).hasSize(2);
+		repository.close();
+	}
+
+	@Test
+	void keepsFailedWritesPendingAndNotifiesChanges() {
+		List<String> changes = new CopyOnWriteArrayList<>();
+		WriteBehindChatMemoryRepository repository = WriteBehindChatMemoryRepository.builder(backend)
+			.flushInterval(Duration.ofHours(1))
+			.changeListener(changes::add)
+			.build();
+		repository.saveAll("c1", List.of(new UserMessage("hi")));
+
+		backend.failing = true;
+		assertThatThrownBy(repository::flush).isInstanceOf(IllegalStateException.class);
+		assertThat(repository.findByConversationId("c1")).hasSize(1);
+		assertThat(changes).isEmpty();
+
+		backend.failing = false;
+		repository.flush();
+		assertThat(backend.findByConversationId("c1")).hasSize(1);
+		assertThat(changes).containsExactly("c1");
+
+		repository.deleteByConversationId("c1");
+		assertThat(repository.findByConversationId("c1")).isEmpty();
+		assertThat(changes).containsExactly("c1", "c1");
+		repository.close();
+	}
+
+	@Test
+	void servesPendingSaveWhileItIsBeingFlushed() {
+		WriteBehindChatMemoryRepository repository = WriteBehindChatMemoryRepository.builder(backend)
+			.flushInterval(Duration.ofHours(1))
+			.build();
+		repository.saveAll("c1", List.of(new UserMessage("hi"), new AssistantMessage("hello")));
+		List<List<Message>> readsDuringFlush = new CopyOnWriteArrayList<>();
+		backend.beforeSave = () -> {
+			// the cache shares its capacity with the pending saves and may have evicted it
+			repository.invalidate("c1");
+			readsDuringFlush.add(repository.findByConversationId("c1"));
+		};
+
+		repository.flush();
+		backend.beforeSave = null;
+
+		assertThat(readsDuringFlush).singleElement().satisfies(messages -> assertThat(messages).hasSize(2));
+		assertThat(backend.reads.get()).isZero();
+		assertThat(repository.findByConversationId("c1")).hasSize(2);
+		repository.close();
+	}
+
+	@Test
+	void writesThroughWhenTooManyConversationsArePending() {
+		WriteBehindChatMemoryRepository repository = WriteBehindChatMemoryRepository.builder(backend)
+			.flushInterval(Duration.ofHours(1))
+			.maxConversations(1)
+			.build();
+
+		repository.saveAll("c1", List.of(new UserMessage("one")));
+		repository.saveAll("c2", List.of(new UserMessage("two")));
+
+		assertThat(backend.saves.get()).isEqualTo(1);
+		assertThat(backend.findByConversationId("c2")).hasSize(1);
+		repository.close();
+	}
+
+	private static class CountingRepository implements ChatMemoryRepository {
+
+		private final ChatMemoryRepository store = new InMemoryChatMemoryRepository();
+
+		private final AtomicInteger reads = new AtomicInteger();
+
+		private final AtomicInteger saves = new AtomicInteger();
+
+		private volatile boolean failing;
+
+		private volatile Runnable beforeSave;
+
+		@Override
+		public List<String> findConversationIds() {
+			return store.findConversationIds();
+		}
+
+		@Override
+		public List<Message> findByConversationId(String conversationId) {
+			reads.incrementAndGet();
+			return store.findByConversationId(conversationId);
+		}
+
+		@Override
+		public void saveAll(String conversationId, List<Message> messages) {
+			if (failing) {
+				throw new IllegalStateException("backend unavailable");
+			}
+			if (beforeSave != null) {
+				beforeSave.run();
+			}
+			saves.incrementAndGet();
+			store.saveAll(conversationId, messages);
+		}
+
+		@Override
+		public void deleteByConversationId(String conversationId) {
+			store.deleteByConversationId(conversationId);
+		}
+
+	}
+
+}
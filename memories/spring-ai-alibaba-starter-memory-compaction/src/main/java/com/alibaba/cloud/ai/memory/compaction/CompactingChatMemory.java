@@ -0,0 +1,427 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.memory.compaction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.tokenizer.JTokkitTokenCountEstimator;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * ChatMemory that bounds conversations by tokens instead of by message count.
+ * <p>
+ * Works on top of any {@link ChatMemoryRepository}. The token count of every conversation
+ * is tracked as messages are added. Once it passes {@code tokenBudget}, the older turns
+ * are summarized in the background with the configured {@link ChatModel}, keeping about
+ * {@code retainTokens} of the most recent messages verbatim. The summary is stored as a
+ * pinned {@link SystemMessage} ahead of them and folded into the next summary, so long
+ * sessions keep their important context in a bounded prompt.
+ * <p>
+ * Adding messages never waits for a summary: the model is called outside of any lock, and
+ * the result is only applied if the summarized messages are still stored unchanged.
+ */
+public class CompactingChatMemory implements ChatMemory, AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(CompactingChatMemory.class);
+
+	/**
+	 * Leading text of the pinned summary message, used to recognize it once stored
+	 */
+	public static final String SUMMARY_PREFIX = "Summary of the earlier conversation:\n";
+
+	public static final String DEFAULT_SUMMARY_INSTRUCTION = """
+			Summarize the conversation below so that it can replace the original messages \
+			in later turns. Keep facts, decisions, user preferences, open tasks and tool \
+			results that may still matter, drop small talk. Fold the previous summary, if \
+			any, into the new one. Write it concisely in the language of the conversation.""";
+
+	public static final int DEFAULT_TOKEN_BUDGET = 8000;
+
+	private static final int MESSAGE_OVERHEAD_TOKENS = 4;
+
+	private static final int MAX_TRACKED_CONVERSATIONS = 10_000;
+
+	private static final int LOCK_STRIPES = 64;
+
+	private final ChatMemoryRepository repository;
+
+	private final ChatModel chatModel;
+
+	private final TokenCountEstimator tokenCountEstimator;
+
+	private final int tokenBudget;
+
+	private final int retainTokens;
+
+	private final String summaryInstruction;
+
+	private final Executor executor;
+
+	private final ExecutorService ownedExecutor;
+
+	private final Map<String, TrackedConversation> tracked = Collections
+		.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, TrackedConversation> eldest) {
+				return size() > MAX_TRACKED_CONVERSATIONS;
+			}
+		});
+
+	private final Set<String> compacting = ConcurrentHashMap.newKeySet();
+
+	private final Object[] locks = new Object[LOCK_STRIPES];
+
+	private CompactingChatMemory(Builder builder) {
+		this.repository = builder.repository;
+		this.chatModel = builder.chatModel;
+		this.tokenCountEstimator = builder.tokenCountEstimator;
+		this.tokenBudget = builder.tokenBudget;
+		this.retainTokens = builder.retainTokens > 0 ? builder.retainTokens : builder.tokenBudget / 2;
+		this.summaryInstruction = builder.summaryInstruction;
+		if (builder.executor != null) {
+			this.executor = builder.executor;
+			this.ownedExecutor = null;
+		}
+		else {
+			this.ownedExecutor = Executors.newSingleThreadExecutor(r -> {
+				Thread thread = new Thread(r, "chat-memory-compaction");
+				thread.setDaemon(true);
+				return thread;
+			});
+			this.executor = this.ownedExecutor;
+		}
+		for (int i = 0; i < LOCK_STRIPES; i++) {
+			locks[i] = new Object();
+		}
+	}
+
+	public static Builder builder(ChatMemoryRepository repository, ChatModel chatModel) {
+		return new Builder(repository, chatModel);
+	}
+
+	@Override
+	public void add(String conversationId, List<Message> messages) {
+		Assert.hasText(conversationId, "conversationId cannot be null or empty");
+		Assert.notNull(messages, "messages cannot be null");
+		Assert.noNullElements(messages, "messages cannot contain null elements");
+		int tokens;
+		synchronized (lock(conversationId)) {
+			List<Message> stored = repository.findByConversationId(conversationId);
+			List<Message> updated = new ArrayList<>(stored);
+			// as in MessageWindowChatMemory a new system message replaces the previous
+			// ones, the pinned summary stays
+			boolean replacesSystem = messages.stream().anyMatch(m -> m instanceof SystemMessage && !isSummary(m));
+			if (replacesSystem) {
+				updated.removeIf(m -> m instanceof SystemMessage && !isSummary(m));
+			}
+			updated.addAll(messages);
+			repository.saveAll(conversationId, updated);
+
+			TrackedConversation known = tracked.get(conversationId);
+			if (known != null && !replacesSystem && known.messageCount() == stored.size()) {
+				tokens = known.tokens() + countTokens(messages);
+			}
+			else {
+				tokens = countTokens(updated);
+			}
+			tracked.put(conversationId, new TrackedConversation(updated.size(), tokens));
+		}
+		if (tokens > tokenBudget) {
+			scheduleCompaction(conversationId);
+		}
+	}
+
+	@Override
+	public List<Message> get(String conversationId) {
+		Assert.hasText(conversationId, "conversationId cannot be null or empty");
+		return repository.findByConversationId(conversationId);
+	}
+
+	@Override
+	public void clear(String conversationId) {
+		Assert.hasText(conversationId, "conversationId cannot be null or empty");
+		synchronized (lock(conversationId)) {
+			repository.deleteByConversationId(conversationId);
+			tracked.remove(conversationId);
+		}
+	}
+
+	/**
+	 * Estimated token count of a conversation as stored
+	 */
+	public int getTokenCount(String conversationId) {
+		TrackedConversation known = tracked.get(conversationId);
+		return known != null ? known.tokens() : countTokens(repository.findByConversationId(conversationId));
+	}
+
+	/**
+	 * Stop the compaction thread created by this memory, summaries in progress are
+	 * dropped
+	 */
+	@Override
+	public void close() {
+		if (ownedExecutor != null) {
+			ownedExecutor.shutdownNow();
+		}
+	}
+
+	private void scheduleCompaction(String conversationId) {
+		if (!compacting.add(conversationId)) {
+			return;
+		}
+		try {
+			executor.execute(() -> {
+				try {
+					compact(conversationId);
+				}
+				catch (RuntimeException e) {
+					// the next add over budget tries again
+					logger.warn("Failed to compact conversation {}: {}", conversationId, e.getMessage(), e);
+				}
+				finally {
+					compacting.remove(conversationId);
+				}
+			});
+		}
+		catch (RejectedExecutionException e) {
+			compacting.remove(conversationId);
+			logger.debug("Compaction of conversation {} rejected: {}", conversationId, e.getMessage());
+		}
+	}
+
+	private void compact(String conversationId) {
+		List<Message> snapshot = repository.findByConversationId(conversationId);
+		int cut = retainedFrom(snapshot);
+		String previousSummary = null;
+		List<Message> older = new ArrayList<>();
+		for (Message message : snapshot.subList(0, cut)) {
+			if (isSummary(message)) {
+				previousSummary = message.getText().substring(SUMMARY_PREFIX.length());
+			}
+			else if (!(message instanceof SystemMessage)) {
+				older.add(message);
+			}
+		}
+		if (older.isEmpty()) {
+			return;
+		}
+		String summary = summarize(previousSummary, older);
+
+		synchronized (lock(conversationId)) {
+			List<Message> current = repository.findByConversationId(conversationId);
+			if (current.size() < cut || !current.subList(0, cut).equals(snapshot.subList(0, cut))) {
+				logger.debug("Conversation {} changed while being summarized, compaction skipped", conversationId);
+				return;
+			}
+			List<Message> compacted = new ArrayList<>();
+			for (Message message : current.subList(0, cut)) {
+				if (message instanceof SystemMessage && !isSummary(message)) {
+					compacted.add(message);
+				}
+			}
+			compacted.add(new SystemMessage(SUMMARY_PREFIX + summary));
+			compacted.addAll(current.subList(cut, current.size()));
+			repository.saveAll(conversationId, compacted);
+			int tokens = countTokens(compacted);
+			tracked.put(conversationId, new TrackedConversation(compacted.size(), tokens));
+			logger.debug("Compacted {} messages of conversation {} into a summary, {} tokens left", older.size(),
+					conversationId, tokens);
+		}
+	}
+
+	/**
+	 * Index of the first message kept verbatim: the most recent messages fitting in
+	 * {@code retainTokens} but at least the last one, never starting with a tool response
+	 * cut off from its call
+	 */
+	private int retainedFrom(List<Message> messages) {
+		int cut = messages.size();
+		int tokens = 0;
+		while (cut > 0) {
+			Message message = messages.get(cut - 1);
+			if (!(message instanceof SystemMessage)) {
+				tokens += countTokens(message);
+				if (tokens > retainTokens && cut < messages.size()) {
+					break;
+				}
+			}
+			cut--;
+		}
+		while (cut > 0 && cut < messages.size() && messages.get(cut) instanceof ToolResponseMessage) {
+			cut--;
+		}
+		return cut;
+	}
+
+	private String summarize(String previousSummary, List<Message> messages) {
+		StringBuilder transcript = new StringBuilder();
+		if (previousSummary != null) {
+			transcript.append("Previous summary:\n").append(previousSummary).append("\n\nNew messages:\n");
+		}
+		for (Message message : messages) {
+			transcript.append(message.getMessageType().name()).append(": ").append(textOf(message)).append('\n');
+		}
+		ChatResponse response = chatModel
+			.call(new Prompt(List.of(new SystemMessage(summaryInstruction), new UserMessage(transcript.toString()))));
+		String summary = response == null || response.getResult() == null ? null
+				: response.getResult().getOutput().getText();
+		if (!StringUtils.hasText(summary)) {
+			throw new IllegalStateException("The chat model returned an empty summary");
+		}
+		return summary.strip();
+	}
+
+	private int countTokens(List<Message> messages) {
+		int tokens = 0;
+		for (Message message : messages) {
+			tokens += countTokens(message);
+		}
+		return tokens;
+	}
+
+	private int countTokens(Message message) {
+		String text = textOf(message);
+		return MESSAGE_OVERHEAD_TOKENS + (StringUtils.hasLength(text) ? tokenCountEstimator.estimate(text) : 0);
+	}
+
+	private static String textOf(Message message) {
+		if (message instanceof ToolResponseMessage toolResponse) {
+			StringBuilder text = new StringBuilder();
+			for (ToolResponseMessage.ToolResponse response : toolResponse.getResponses()) {
+				text.append(response.name()).append(" -> ").append(response.responseData()).append('\n');
+			}
+			return text.toString();
+		}
+		if (message instanceof AssistantMessage assistant && assistant.hasToolCalls()) {
+			StringBuilder text = new StringBuilder(assistant.getText() == null ? "" : assistant.getText());
+			for (AssistantMessage.ToolCall toolCall : assistant.getToolCalls()) {
+				text.append('\n').append(toolCall.name()).append('(').append(toolCall.arguments()).append(')');
+			}
+			return text.toString();
+		}
+		return message.getText();
+	}
+
+	private static boolean isSummary(Message message) {
+		return message instanceof SystemMessage && message.getText() != null
+				&& message.getText().startsWith(SUMMARY_PREFIX);
+	}
+
+	private Object lock(String conversationId) {
+		return locks[Math.floorMod(conversationId.hashCode(), LOCK_STRIPES)];
+	}
+
+	private record TrackedConversation(int messageCount, int tokens) {
+	}
+
+	public static final class Builder {
+
+		private final ChatMemoryRepository repository;
+
+		private final ChatModel chatModel;
+
+		private TokenCountEstimator tokenCountEstimator;
+
+		private int tokenBudget = DEFAULT_TOKEN_BUDGET;
+
+		private int retainTokens;
+
+		private String summaryInstruction = DEFAULT_SUMMARY_INSTRUCTION;
+
+		private Executor executor;
+
+		private Builder(ChatMemoryRepository repository, ChatModel chatModel) {
+			Assert.notNull(repository, "repository cannot be null");
+			Assert.notNull(chatModel, "chatModel cannot be null");
+			this.repository = repository;
+			this.chatModel = chatModel;
+		}
+
+		/**
+		 * Token count of a conversation above which it gets compacted
+		 */
+		public Builder tokenBudget(int tokenBudget) {
+			Assert.isTrue(tokenBudget > 0, "tokenBudget must be positive");
+			this.tokenBudget = tokenBudget;
+			return this;
+		}
+
+		/**
+		 * Tokens of the most recent messages kept verbatim by a compaction, half of the
+		 * budget by default
+		 */
+		public Builder retainTokens(int retainTokens) {
+			Assert.isTrue(retainTokens > 0, "retainTokens must be positive");
+			this.retainTokens = retainTokens;
+			return this;
+		}
+
+		public Builder tokenCountEstimator(TokenCountEstimator tokenCountEstimator) {
+			Assert.notNull(tokenCountEstimator, "tokenCountEstimator cannot be null");
+			this.tokenCountEstimator = tokenCountEstimator;
+			return this;
+		}
+
+		public Builder summaryInstruction(String summaryInstruction) {
+			Assert.hasText(summaryInstruction, "summaryInstruction cannot be null or empty");
+			this.summaryInstruction = summaryInstruction;
+			return this;
+		}
+
+		/**
+		 * Executor the summaries run on, a single daemon thread by default
+		 */
+		public Builder executor(Executor executor) {
+			Assert.notNull(executor, "executor cannot be null");
+			this.executor = executor;
+			return this;
+		}
+
+		public CompactingChatMemory build() {
+			Assert.isTrue(retainTokens < tokenBudget, "retainTokens must be lower than tokenBudget");
+			if (tokenCountEstimator == null) {
+				tokenCountEstimator = new JTokkitTokenCountEstimator();
+			}
+			return new CompactingChatMemory(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.memory.compaction;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.memory.InMemoryChatMemoryRepository;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.content.MediaContent;
+import org.springframework.ai.tokenizer.TokenCountEstimator;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactingChatMemoryTest {
+
+	private final InMemoryChatMemoryRepository repository = new InMemoryChatMemoryRepository();
+
+	private final List<Prompt> prompts = new CopyOnWriteArrayList<>();
+
+	private Runnable onSummarize = () -> {
+	};
+
+	private final ChatModel chatModel = prompt -> {
+		prompts.add(prompt);
+		onSummarize.run();
+		return new ChatResponse(List.of(new Generation(new AssistantMessage("summary " + prompts.size()))));
+	};
+
+	@Test
+	void summarizesOlderTurnsOnceOverBudget() {
+		CompactingChatMemory memory = memory(Runnable::run);
+		memory.add("c1", new SystemMessage("be nice"));
+		for (int i = 0; i < 4; i++) {
+			memory.add("c1", List.of(new UserMessage("question " + i), new AssistantMessage("answer " + i)));
+		}
+		assertThat(prompts).isEmpty();
+
+		memory.add("c1", List.of(new UserMessage("question 4"), new AssistantMessage("answer 4")));
+
+		assertThat(prompts).hasSize(1);
+		assertThat(prompts.get(0).getUserMessage().getText()).contains("USER: question 0").doesNotContain("question 4");
+		List<Message> messages = memory.get("c1");
+		assertThat(messages.get(0).getText()).isEqualTo("be nice");
+		assertThat(messages.get(1).getText()).isEqualTo(CompactingChatMemory.SUMMARY_PREFIX + "summary 1");
+		assertThat(messages.get(messages.size() - 1).getText()).isEqualTo("answer 4");
+		assertThat(memory.getTokenCount("c1")).isLessThanOrEqualTo(60);
+	}
+
+	@Test
+	void foldsPreviousSummaryIntoTheNextOne() {
+		CompactingChatMemory memory = memory(Runnable::run);
+		for (int i = 0; i < 10; i++) {
+			memory.add("c1", List.of(new UserMessage("question " + i), new AssistantMessage("answer " + i)));
+		}
+
+		assertThat(prompts).hasSizeGreaterThan(1);
+		assertThat(prompts.get(prompts.size() - 1).getUserMessage().getText())
+			.startsWith("Previous summary:\nsummary " + (prompts.size() - 1));
+		assertThat(memory.get("c1")).filteredOn(m -> m.getText().startsWith(CompactingChatMemory.SUMMARY_PREFIX))
+			.hasSize(1);
+	}
+
+	@Test
+	void keepsMessagesAddedWhileSummarizing() {
+		CompactingChatMemory memory = memory(Runnable::run);
+		onSummarize = () -> memory.add("c1", new UserMessage("question 5"));
+		for (int i = 0; i < 6; i++) {
+			memory.add("c1", List.of(new UserMessage("question " + i), new AssistantMessage("answer " + i)));
+		}
+
+		assertThat(prompts).hasSize(1);
+		List<Message> messages = memory.get("c1");
+		assertThat(messages.get(0).getText()).startsWith(CompactingChatMemory.SUMMARY_PREFIX);
+		assertThat(messages.get(messages.size() - 1).getText()).isEqualTo("question 5");
+	}
+
+	@Test
+	void skipsCompactionWhenConversationWasCleared() {
+		CompactingChatMemory memory = memory(Runnable::run);
+		onSummarize = () -> memory.clear("c1");
+		for (int i = 0; i < 6; i++) {
+			memory.add("c1", List.of(new UserMessage("question " + i), new AssistantMessage("answer " + i)));
+		}
+
+		assertThat(prompts).hasSize(1);
+		assertThat(memory.get("c1")).isEmpty();
+	}
+
+	@Test
+	void addDoesNotWaitForTheSummary() {
+		Queue<Runnable> tasks = new ArrayDeque<>();
+		CompactingChatMemory memory = memory(tasks::add);
+		for (int i = 0; i < 6; i++) {
+			memory.add("c1", List.of(new UserMessage("question " + i), new AssistantMessage("answer " + i)));
+		}
+
+		assertThat(tasks).hasSize(1);
+		assertThat(prompts).isEmpty();
+		assertThat(memory.get("c1")).hasSize(12);
+	}
+
+	private CompactingChatMemory memory(Executor executor) {
+		return CompactingChatMemory.builder(repository, chatModel)
+			.tokenBudget(60)
+			.retainTokens(20)
+			.tokenCountEstimator(new WordCountEstimator())
+			.executor(executor)
+			.build();
+	}
+
+	/**
+	 * One token per word, so the budgets in the tests are easy to follow
+	 */
+	private static class WordCountEstimator implements TokenCountEstimator {
+
+		@Override
+		public int estimate(String text) {
+			return text.isBlank() ? 0 : text.strip().split("\\s+").length;
+		}
+
+		@Override
+		public int estimate(MediaContent content) {
+			return estimate(content.getText());
+		}
+
+		@Override
+		public int estimate(Iterable<MediaContent> messages) {
+			int tokens = 0;
+			for (MediaContent content : messages) {
+				tokens += estimate(content);
+			}
+			return tokens;
+		}
+
+	}
+
+}
@@ -16,11 +16,21 @@
 package com.alibaba.cloud.ai.memory.elasticsearch;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.Refresh;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.aggregations.CompositeAggregate;
+import co.elastic.clients.elasticsearch._types.aggregations.CompositeAggregationSource;
+import co.elastic.clients.elasticsearch._types.aggregations.CompositeBucket;
 import co.elastic.clients.elasticsearch.core.BulkRequest;
 import co.elastic.clients.elasticsearch.core.BulkResponse;
 import co.elastic.clients.elasticsearch.core.DeleteByQueryResponse;
+import co.elastic.clients.elasticsearch.core.MgetResponse;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.mget.MultiGetResponseItem;
 import co.elastic.clients.elasticsearch.core.search.Hit;
+import com.alibaba.cloud.ai.memory.MessageOverlap;
+import com.alibaba.cloud.ai.memory.PersistedConversations;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
@@ -34,12 +44,25 @@ import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.util.Assert;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 /**
- * Elasticsearch implementation of ChatMemoryRepository
+ * Elasticsearch implementation of ChatMemoryRepository.
+ * <p>
+ * Messages are indexed with deterministic ids ({@code conversationId:seq}). The
+ * repository remembers the last messages it read or wrote for recent conversations, so a
+ * save only indexes the new messages and deletes the ones a window evicted, in one bulk
+ * request. A realtime multi-get checks that nobody else wrote the conversation in
+ * between, otherwise it is rewritten. Saves only wait for visibility when
+ * read-your-writes is enabled, and never force a refresh, so known conversations are read
+ * back with realtime multi-gets rather than search. Searches read messages in pages with
+ * {@code search_after} and conversation ids are listed with a paged composite
+ * aggregation, so neither is capped by the size of a single search.
  */
 public class ElasticsearchChatMemoryRepository implements ChatMemoryRepository, AutoCloseable {
 
@@ -47,13 +70,41 @@ public class ElasticsearchChatMemoryRepository implements ChatMemoryRepository,
 
 	private static final String INDEX_NAME = "chat_memory";
 
+	private static final String CONVERSATION_ID_FIELD = "conversationId";
+
+	private static final String SEQ_FIELD = "seq";
+
+	private static final String TIMESTAMP_FIELD = "timestamp";
+
+	private static final String CONVERSATIONS_AGGREGATION = "conversations";
+
+	private static final int CONVERSATIONS_PAGE_SIZE = 1000;
+
+	private static final int MESSAGES_PAGE_SIZE = 1000;
+
 	// private final ElasticsearchConfig config;
 
 	private final ElasticsearchClient client;
 
 	private final ObjectMapper objectMapper;
 
+	private final boolean readYourWrites;
+
+	private final PersistedConversations<PersistedConversation> persisted = new PersistedConversations<>();
+
 	public ElasticsearchChatMemoryRepository(ElasticsearchClient client) {
+		this(client, false);
+	}
+
+	/**
+	 * @param client the Elasticsearch client
+	 * @param readYourWrites whether writes wait until they are visible to search
+	 * ({@code refresh=wait_for}). Without it, the default, saves return as soon as they
+	 * are durable and become searchable with the next scheduled refresh, so a read right
+	 * after a save may not see it yet.
+	 */
+	public ElasticsearchChatMemoryRepository(ElasticsearchClient client, boolean readYourWrites) {
+		this.readYourWrites = readYourWrites;
 		this.objectMapper = new ObjectMapper();
 		// Configure Jackson to ignore unknown properties to handle schema changes
 		this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
@@ -70,6 +121,10 @@ public class ElasticsearchChatMemoryRepository implements ChatMemoryRepository,
 		if (!client.indices().exists(e -> e.index(INDEX_NAME)).value()) {
 			createIndex();
 		}
+		else {
+			// indices created by earlier versions have no seq field
+			client.indices().putMapping(p -> p.index(INDEX_NAME).properties(SEQ_FIELD, f -> f.long_(l -> l)));
+		}
 	}
 
 	private void createIndex() throws IOException {
@@ -78,6 +133,7 @@ public class ElasticsearchChatMemoryRepository implements ChatMemoryRepository,
 				.mappings(m -> m.properties("conversationId", p -> p.keyword(k -> k))
 					.properties("messageType", p -> p.keyword(k -> k))
 					.properties("messageText", p -> p.text(t -> t))
+					.properties(SEQ_FIELD, p -> p.long_(l -> l))
 					.properties("timestamp", p -> p.date(d -> d))));
 	}
 
@@ -85,6 +141,7 @@ public class ElasticsearchChatMemoryRepository implements ChatMemoryRepository,
 		if (client.indices().exists(e -> e.index(INDEX_NAME)).value()) {
 			client.indices().delete(d -> d.index(INDEX_NAME));
 		}
+		persisted.clear();
 		createIndex();
 	}
 
@@ -141,15 +198,27 @@ public class ElasticsearchChatMemoryRepository implements ChatMemoryRepository,
 	@Override
 	public List<String> findConversationIds() {
 		try {
-			SearchResponse<ChatMessage> response = client
-				.search(s -> s.index(INDEX_NAME).size(10000).query(q -> q.matchAll(m -> m)), ChatMessage.class);
-
-			return response.hits()
-				.hits()
-				.stream()
-				.map(hit -> hit.source().getConversationId())
-				.distinct()
-				.collect(Collectors.toList());
+			List<String> conversationIds = new ArrayList<>();
+			Map<String, FieldValue> afterKey = null;
+			do {
+				Map<String, FieldValue> after = afterKey;
+				SearchResponse<Void> response = client.search(s -> s.index(INDEX_NAME)
+					.size(0)
+					.aggregations(CONVERSATIONS_AGGREGATION, a -> a.composite(c -> {
+						c.size(CONVERSATIONS_PAGE_SIZE)
+							.sources(Map.of(CONVERSATION_ID_FIELD,
+									CompositeAggregationSource.of(src -> src.terms(t -> t.field(CONVERSATION_ID_FIELD)))));
+						return after == null ? c : c.after(after);
+					})), Void.class);
+				CompositeAggregate aggregate = response.aggregations().get(CONVERSATIONS_AGGREGATION).composite();
+				for (CompositeBucket bucket : aggregate.buckets().array()) {
+					conversationIds.add(bucket.key().get(CONVERSATION_ID_FIELD).stringValue());
+				}
+				afterKey = aggregate.buckets().array().isEmpty() || aggregate.afterKey() == null
+						|| aggregate.afterKey().isEmpty() ? null : aggregate.afterKey();
+			}
+			while (afterKey != null);
+			return conversationIds;
 		}
 		catch (IOException e) {
 			throw new RuntimeException("Error finding conversation IDs", e);
@@ -160,21 +229,25 @@ public class ElasticsearchChatMemoryRepository implements ChatMemoryRepository,
 	public List<Message> findByConversationId(String conversationId) {
 		Assert.hasText(conversationId, "conversationId cannot be null or empty");
 		try {
-			logger.info("Finding messages for conversation: {}", conversationId);
-			SearchResponse<ChatMessage> response = client.search(s -> s.index(INDEX_NAME)
-				.query(q -> q.term(t -> t.field("conversationId").value(conversationId)))
-				.sort(sort -> sort
-					.field(f -> f.field("timestamp").order(co.elastic.clients.elasticsearch._types.SortOrder.Asc))),
-					ChatMessage.class);
-
-			List<Message> messages = response.hits()
-				.hits()
-				.stream()
-				.map(hit -> hit.source().toSpringMessage())
+			logger.debug("Finding messages for conversation: {}", conversationId);
+			List<ChatMessage> stored = read(conversationId);
+
+			Long firstSeq = stored.isEmpty() ? null : stored.get(0).getSeq();
+			boolean sequenced = stored.stream().allMatch(message -> message.getSeq() != null);
+			if (sequenced) {
+				persisted.put(conversationId,
+						new PersistedConversation(firstSeq == null ? 0 : firstSeq, keys(stored)));
+			}
+			else {
+				persisted.remove(conversationId);
+			}
+
+			List<Message> messages = stored.stream()
+				.map(ChatMessage::toSpringMessage)
 				.filter(Objects::nonNull)
 				.collect(Collectors.toList());
 
-			logger.info("Found {} messages for conversation: {}", messages.size(), conversationId);
+			logger.debug("Found {} messages for conversation: {}", messages.size(), conversationId);
 			return messages;
 		}
 		catch (IOException e) {
@@ -183,6 +256,99 @@ public class ElasticsearchChatMemoryRepository implements ChatMemoryRepository,
 		}
 	}
 
+	/**
+	 * Search is near-real-time: it misses saves that were not refreshed yet and may return
+	 * the previous version of rewritten messages. Remembering such a view would make the
+	 * next save drop the messages it missed, so sequenced conversations are read with a
+	 * realtime multi-get of their deterministic ids, starting from the first message we
+	 * know of
+	 */
+	private List<ChatMessage> read(String conversationId) throws IOException {
+		PersistedConversation known = persisted.get(conversationId);
+		if (known != null) {
+			List<ChatMessage> current = getFrom(conversationId, known.firstSeq(), known.messages().size());
+			// an empty result for a known conversation means someone else removed its first
+			// messages, fall back to search to find where it starts now
+			if (!current.isEmpty() || known.messages().isEmpty()) {
+				return current;
+			}
+		}
+		List<ChatMessage> stored = search(conversationId);
+		if (stored.stream().anyMatch(message -> message.getSeq() == null)) {
+			return stored;
+		}
+		List<ChatMessage> current = getFrom(conversationId, stored.isEmpty() ? 0 : stored.get(0).getSeq(),
+				stored.size());
+		return current.isEmpty() ? stored : current;
+	}
+
+	/**
+	 * The consecutive messages starting at {@code firstSeq}, read with realtime multi-gets
+	 * until the first missing id
+	 * @param expected how many messages are expected, sizes the first request
+	 */
+	private List<ChatMessage> getFrom(String conversationId, long firstSeq, int expected) throws IOException {
+		List<ChatMessage> messages = new ArrayList<>();
+		long seq = firstSeq;
+		int pageSize = Math.min(expected + 1, MESSAGES_PAGE_SIZE);
+		while (true) {
+			List<String> ids = LongStream.range(seq, seq + pageSize)
+				.mapToObj(s -> documentId(conversationId, s))
+				.toList();
+			List<MultiGetResponseItem<ChatMessage>> docs = client
+				.mget(m -> m.index(INDEX_NAME).ids(ids), ChatMessage.class)
+				.docs();
+			for (MultiGetResponseItem<ChatMessage> doc : docs) {
+				if (!doc.isResult() || !doc.result().found() || doc.result().source() == null) {
+					return messages;
+				}
+				messages.add(doc.result().source());
+			}
+			if (docs.size() < ids.size()) {
+				return messages;
+			}
+			seq += pageSize;
+			pageSize = MESSAGES_PAGE_SIZE;
+		}
+	}
+
+	private List<ChatMessage> search(String conversationId) throws IOException {
+		return searchHits(conversationId, true, Integer.MAX_VALUE).stream()
+			.map(Hit::source)
+			.filter(Objects::nonNull)
+			.collect(Collectors.toList());
+	}
+
+	/**
+	 * The first {@code limit} messages of a conversation in order, read in pages with
+	 * {@code search_after}
+	 */
+	private List<Hit<ChatMessage>> searchHits(String conversationId, boolean fetchSource, int limit)
+			throws IOException {
+		List<Hit<ChatMessage>> hits = new ArrayList<>();
+		List<FieldValue> searchAfter = null;
+		while (hits.size() < limit) {
+			List<FieldValue> after = searchAfter;
+			int pageSize = Math.min(MESSAGES_PAGE_SIZE, limit - hits.size());
+			SearchResponse<ChatMessage> response = client.search(s -> {
+				s.index(INDEX_NAME)
+					.size(pageSize)
+					.source(src -> src.fetch(fetchSource))
+					.query(q -> q.term(t -> t.field(CONVERSATION_ID_FIELD).value(conversationId)))
+					.sort(sort -> sort.field(f -> f.field(SEQ_FIELD).order(SortOrder.Asc)))
+					.sort(sort -> sort.field(f -> f.field(TIMESTAMP_FIELD).order(SortOrder.Asc)));
+				return after == null ? s : s.searchAfter(after);
+			}, ChatMessage.class);
+			List<Hit<ChatMessage>> page = response.hits().hits();
+			hits.addAll(page);
+			if (page.size() < pageSize) {
+				break;
+			}
+			searchAfter = page.get(page.size() - 1).sort();
+		}
+		return hits;
+	}
+
 	@Override
 	public void saveAll(String conversationId, List<Message> messages) {
 		Assert.hasText(conversationId, "conversationId cannot be null or empty");
@@ -190,32 +356,19 @@ public class ElasticsearchChatMemoryRepository implements ChatMemoryRepository,
 		Assert.noNullElements(messages, "messages cannot contain null elements");
 
 		try {
-			// Delete existing messages first
-			deleteByConversationId(conversationId);
-
-			// Bulk insert new messages
-			BulkRequest.Builder br = new BulkRequest.Builder();
-			for (Message message : messages) {
-				ChatMessage chatMessage = new ChatMessage(conversationId, message);
-				logger.info("Saving message for {}: type={}, text={}", conversationId, chatMessage.getMessageType(),
-						chatMessage.getMessageText());
-				br.operations(op -> op.index(idx -> idx.index(INDEX_NAME).document(chatMessage)));
-			}
-
-			BulkResponse response = client.bulk(br.build());
-			if (response.errors()) {
-				logger.error("Error saving messages: {}",
-						response.items()
-							.stream()
-							.filter(item -> item.error() != null)
-							.map(item -> item.error().reason())
-							.collect(Collectors.joining(", ")));
-				throw new RuntimeException("Error saving messages to Elasticsearch");
+			long now = System.currentTimeMillis();
+			List<ChatMessage> incoming = new ArrayList<>(messages.size());
+			for (int i = 0; i < messages.size(); i++) {
+				incoming.add(new ChatMessage(conversationId, messages.get(i), now + i));
 			}
-
-			// Ensure index is refreshed immediately
-			client.indices().refresh(r -> r.index(INDEX_NAME));
-			logger.info("Successfully saved {} messages for conversation {}", messages.size(), conversationId);
+			List<MessageKey> incomingKeys = keys(incoming);
+
+			PersistedConversation known = persisted.get(conversationId);
+			PersistedConversation saved = known != null && isCurrent(conversationId, known)
+					? append(conversationId, known, incoming, incomingKeys)
+					: replace(conversationId, known, incoming, incomingKeys);
+			persisted.put(conversationId, saved);
+			logger.debug("Successfully saved {} messages for conversation {}", messages.size(), conversationId);
 		}
 		catch (IOException e) {
 			logger.error("Error saving messages", e);
@@ -223,12 +376,110 @@ public class ElasticsearchChatMemoryRepository implements ChatMemoryRepository,
 		}
 	}
 
+	/**
+	 * Check with a realtime multi-get that the last remembered message exists and nothing
+	 * was written after it, so that the remembered state can be appended to
+	 */
+	private boolean isCurrent(String conversationId, PersistedConversation known) throws IOException {
+		long next = known.firstSeq() + known.messages().size();
+		List<String> ids = known.messages().isEmpty() ? List.of(documentId(conversationId, next))
+				: List.of(documentId(conversationId, next - 1), documentId(conversationId, next));
+		MgetResponse<ChatMessage> response = client.mget(m -> m.index(INDEX_NAME).ids(ids), ChatMessage.class);
+		List<MultiGetResponseItem<ChatMessage>> docs = response.docs();
+		boolean nextFound = docs.get(docs.size() - 1).isResult() && docs.get(docs.size() - 1).result().found();
+		boolean lastFound = known.messages().isEmpty() || docs.get(0).isResult() && docs.get(0).result().found();
+		if (!lastFound || nextFound) {
+			logger.debug("Conversation {} was changed by another writer, rewriting it", conversationId);
+			return false;
+		}
+		return true;
+	}
+
+	private PersistedConversation append(String conversationId, PersistedConversation known, List<ChatMessage> incoming,
+			List<MessageKey> incomingKeys) throws IOException {
+		int drop = MessageOverlap.overlapStart(known.messages(), incomingKeys);
+		int kept = known.messages().size() - drop;
+		long firstSeq = known.firstSeq() + drop;
+		BulkRequest.Builder br = new BulkRequest.Builder();
+		boolean empty = true;
+		for (long seq = known.firstSeq(); seq < firstSeq; seq++) {
+			String id = documentId(conversationId, seq);
+			br.operations(op -> op.delete(d -> d.index(INDEX_NAME).id(id)));
+			empty = false;
+		}
+		for (int i = kept; i < incoming.size(); i++) {
+			empty = false;
+			index(br, incoming.get(i), firstSeq + i);
+		}
+		if (!empty) {
+			bulk(br);
+		}
+		return new PersistedConversation(firstSeq, incomingKeys);
+	}
+
+	private PersistedConversation replace(String conversationId, PersistedConversation known,
+			List<ChatMessage> incoming, List<MessageKey> incomingKeys) throws IOException {
+		deleteByConversationId(conversationId);
+		BulkRequest.Builder br = new BulkRequest.Builder();
+		boolean empty = true;
+		for (int i = 0; i < incoming.size(); i++) {
+			empty = false;
+			index(br, incoming.get(i), i);
+		}
+		// delete by query does not see documents that were not refreshed yet, remove the
+		// ones we know about by id
+		long knownEnd = known == null ? 0 : known.firstSeq() + known.messages().size();
+		for (long seq = incoming.size(); seq < knownEnd; seq++) {
+			String id = documentId(conversationId, seq);
+			br.operations(op -> op.delete(d -> d.index(INDEX_NAME).id(id)));
+			empty = false;
+		}
+		if (!empty) {
+			bulk(br);
+		}
+		return new PersistedConversation(0, incomingKeys);
+	}
+
+	private void index(BulkRequest.Builder br, ChatMessage message, long seq) {
+		message.setSeq(seq);
+		String id = documentId(message.getConversationId(), seq);
+		logger.debug("Saving message {}: type={}", id, message.getMessageType());
+		br.operations(op -> op.index(idx -> idx.index(INDEX_NAME).id(id).document(message)));
+	}
+
+	private void bulk(BulkRequest.Builder br) throws IOException {
+		// wait_for rides on the next scheduled refresh instead of forcing one
+		if (readYourWrites) {
+			br.refresh(Refresh.WaitFor);
+		}
+		BulkResponse response = client.bulk(br.build());
+		if (response.errors()) {
+			logger.error("Error saving messages: {}",
+					response.items()
+						.stream()
+						.filter(item -> item.error() != null)
+						.map(item -> item.error().reason())
+						.collect(Collectors.joining(", ")));
+			throw new RuntimeException("Error saving messages to Elasticsearch");
+		}
+	}
+
+	static String documentId(String conversationId, long seq) {
+		return conversationId + ":" + seq;
+	}
+
+	private static List<MessageKey> keys(List<ChatMessage> messages) {
+		return messages.stream().map(m -> new MessageKey(m.getMessageType(), m.getMessageText())).toList();
+	}
+
 	@Override
 	public void deleteByConversationId(String conversationId) {
 		Assert.hasText(conversationId, "conversationId cannot be null or empty");
 		try {
-			DeleteByQueryResponse response = client.deleteByQuery(
-					d -> d.index(INDEX_NAME).query(q -> q.term(t -> t.field("conversationId").value(conversationId))));
+			DeleteByQueryResponse response = client.deleteByQuery(d -> d.index(INDEX_NAME)
+				.query(q -> q.term(t -> t.field(CONVERSATION_ID_FIELD).value(conversationId)))
+				.refresh(readYourWrites));
+			persisted.remove(conversationId);
 
 			if (response.failures().size() > 0) {
 				throw new RuntimeException("Error deleting messages for conversation: " + conversationId);
@@ -242,33 +493,20 @@ public class ElasticsearchChatMemoryRepository implements ChatMemoryRepository,
 	public void clearOverLimit(String conversationId, int maxLimit, int deleteSize) {
 		Assert.hasText(conversationId, "conversationId cannot be null or empty");
 		try {
-			SearchResponse<ChatMessage> response = client.search(s -> s.index(INDEX_NAME)
-				.query(q -> q.term(t -> t.field("conversationId").value(conversationId)))
-				.sort(sort -> sort
-					.field(f -> f.field("timestamp").order(co.elastic.clients.elasticsearch._types.SortOrder.Asc))),
-					ChatMessage.class);
-
-			List<ChatMessage> messages = response.hits().hits().stream().map(Hit::source).collect(Collectors.toList());
-
-			if (messages.size() >= maxLimit) {
-				// Delete all messages
-				deleteByConversationId(conversationId);
-
-				// Reinsert messages after skipping the oldest ones
-				List<ChatMessage> messagesToKeep = messages.stream().skip(deleteSize).collect(Collectors.toList());
-
-				BulkRequest.Builder br = new BulkRequest.Builder();
-				for (ChatMessage message : messagesToKeep) {
-					br.operations(op -> op.index(idx -> idx.index(INDEX_NAME).document(message)));
-				}
-
-				BulkResponse bulkResponse = client.bulk(br.build());
-				if (bulkResponse.errors()) {
-					throw new RuntimeException("Error saving messages to Elasticsearch");
+			long count = client
+				.count(c -> c.index(INDEX_NAME)
+					.query(q -> q.term(t -> t.field(CONVERSATION_ID_FIELD).value(conversationId))))
+				.count();
+			if (count >= maxLimit && deleteSize > 0) {
+				List<Hit<ChatMessage>> hits = searchHits(conversationId, false, deleteSize);
+				if (hits.isEmpty()) {
+					return;
 				}
-
-				// Force refresh the index to make changes available immediately
-				client.indices().refresh(r -> r.index(INDEX_NAME));
+				// Delete the oldest messages by id, the rest stay in place
+				BulkRequest.Builder br = new BulkRequest.Builder();
+				hits.forEach(hit -> br.operations(op -> op.delete(d -> d.index(INDEX_NAME).id(hit.id()))));
+				bulk(br);
+				persisted.remove(conversationId);
 			}
 		}
 		catch (IOException e) {
@@ -326,6 +564,15 @@ public class ElasticsearchChatMemoryRepository implements ChatMemoryRepository,
 		return sb.toString();
 	}
 
+	/**
+	 * What identifies a stored message when comparing a save with the remembered state
+	 */
+	record MessageKey(String messageType, String messageText) {
+	}
+
+	private record PersistedConversation(long firstSeq, List<MessageKey> messages) {
+	}
+
 	private static class ChatMessage {
 
 		private String conversationId;
@@ -336,6 +583,9 @@ public class ElasticsearchChatMemoryRepository implements ChatMemoryRepository,
 
 		private long timestamp;
 
+		// Position in the conversation, null for documents written by earlier versions
+		private Long seq;
+
 		// For backward compatibility with existing data
 		private Object message;
 
@@ -343,10 +593,14 @@ public class ElasticsearchChatMemoryRepository implements ChatMemoryRepository,
 		}
 
 		public ChatMessage(String conversationId, Message message) {
+			this(conversationId, message, System.currentTimeMillis());
+		}
+
+		public ChatMessage(String conversationId, Message message, long timestamp) {
 			this.conversationId = conversationId;
 			this.messageType = message.getMessageType().toString();
 			this.messageText = message.getText();
-			this.timestamp = System.currentTimeMillis();
+			this.timestamp = timestamp;
 		}
 
 		public String getConversationId() {
@@ -381,6 +635,14 @@ public class ElasticsearchChatMemoryRepository implements ChatMemoryRepository,
 			this.timestamp = timestamp;
 		}
 
+		public Long getSeq() {
+			return seq;
+		}
+
+		public void setSeq(Long seq) {
+			this.seq = seq;
+		}
+
 		public Object getMessage() {
 			return message;
 		}
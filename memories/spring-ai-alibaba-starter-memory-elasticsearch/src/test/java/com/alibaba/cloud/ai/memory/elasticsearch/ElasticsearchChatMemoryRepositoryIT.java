@@ -282,6 +282,23 @@ class ElasticsearchChatMemoryRepositoryIT {
 		System.out.println("Raw search result: " + response);
 	}
 
+	@Test
+	void saveMessagesSlidingWindow() throws Exception {
+		var conversationId = UUID.randomUUID().toString();
+		var first = new UserMessage("first - " + conversationId);
+		var second = new AssistantMessage("second - " + conversationId);
+		var third = new UserMessage("third - " + conversationId);
+
+		chatMemoryRepository.saveAll(conversationId, List.of(first, second));
+		chatMemoryRepository.saveAll(conversationId, List.of(first, second, third));
+		// the oldest message falls out of the window
+		chatMemoryRepository.saveAll(conversationId, List.of(second, third));
+
+		var messages = chatMemoryRepository.findByConversationId(conversationId);
+		assertThat(messages).extracting(Message::getText).containsExactly(second.getText(), third.getText());
+		assertThat(chatMemoryRepository.findConversationIds()).contains(conversationId);
+	}
+
 	@SpringBootConfiguration
 	static class TestConfiguration {
 
@@ -292,7 +309,7 @@ class ElasticsearchChatMemoryRepositoryIT {
 			RestClient restClient = restClientBuilder.build();
 			RestClientTransport transport = new RestClientTransport(restClient, new JacksonJsonpMapper());
 			ElasticsearchClient client = new ElasticsearchClient(transport);
-			return new ElasticsearchChatMemoryRepository(client);
+			return new ElasticsearchChatMemoryRepository(client, true);
 		}
 
 	}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.memory.elasticsearch;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.Refresh;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.MgetRequest;
+import co.elastic.clients.elasticsearch.core.MgetResponse;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.mget.MultiGetResponseItem;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.core.search.HitsMetadata;
+import co.elastic.clients.util.ObjectBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the requests sent to Elasticsearch, no cluster required
+ */
+class ElasticsearchChatMemoryRepositoryTest {
+
+	private ElasticsearchClient client;
+
+	@BeforeEach
+	void setUp() {
+		client = mock(ElasticsearchClient.class, RETURNS_DEEP_STUBS);
+	}
+
+	@Test
+	void appendOnlyIndexesNewMessagesAndDeletesEvictedOnes() throws Exception {
+		var repository = new ElasticsearchChatMemoryRepository(client);
+		Message first = new UserMessage("first");
+		Message second = new AssistantMessage("second");
+		Message third = new UserMessage("third");
+		Message fourth = new AssistantMessage("fourth");
+
+		repository.saveAll("c", List.of(first, second));
+		// the window evicted the first message and two new ones were added
+		stubLastMessageIsCurrent();
+		repository.saveAll("c", List.of(second, third, fourth));
+
+		ArgumentCaptor<BulkRequest> bulk = ArgumentCaptor.forClass(BulkRequest.class);
+		verify(client, times(2)).bulk(bulk.capture());
+		assertThat(operations(bulk.getAllValues().get(0))).containsExactly("index c:0", "index c:1");
+		assertThat(operations(bulk.getAllValues().get(1))).containsExactly("delete c:0", "index c:2", "index c:3");
+		assertThat(bulk.getAllValues()).allSatisfy(request -> assertThat(request.refresh()).isNull());
+	}
+
+	@Test
+	void readYourWritesWaitsForTheNextRefresh() throws Exception {
+		var repository = new ElasticsearchChatMemoryRepository(client, true);
+
+		repository.saveAll("c", List.of(new UserMessage("first")));
+
+		ArgumentCaptor<BulkRequest> bulk = ArgumentCaptor.forClass(BulkRequest.class);
+		verify(client).bulk(bulk.capture());
+		assertThat(bulk.getValue().refresh()).isEqualTo(Refresh.WaitFor);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void readsConversationsLongerThanOnePage() throws Exception {
+		SearchResponse<Object> fullPage = searchResponse(1000);
+		SearchResponse<Object> lastPage = searchResponse(1);
+		doReturn(fullPage, lastPage).when(client).search(any(Function.class), any(Class.class));
+		var repository = new ElasticsearchChatMemoryRepository(client);
+
+		repository.findByConversationId("c");
+
+		verify(client, times(2)).search(any(Function.class), any(Class.class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void readsSavesThatWereNotRefreshedYet() throws Exception {
+		// a realtime store behind get and bulk, search never sees anything
+		Map<String, Object> documents = new HashMap<>();
+		when(client.bulk(any(BulkRequest.class))).thenAnswer(invocation -> {
+			BulkRequest request = invocation.getArgument(0);
+			request.operations().forEach(op -> {
+				if (op.isIndex()) {
+					documents.put(op.index().id(), op.index().document());
+				}
+				else {
+					documents.remove(op.delete().id());
+				}
+			});
+			return BulkResponse.of(b -> b.errors(false).items(List.of()).took(1));
+		});
+		doAnswer(invocation -> {
+			Function<MgetRequest.Builder, ObjectBuilder<MgetRequest>> fn = invocation.getArgument(0);
+			List<MultiGetResponseItem<Object>> docs = fn.apply(new MgetRequest.Builder())
+				.build()
+				.ids()
+				.stream()
+				.map(id -> MultiGetResponseItem.of(i -> i.result(r -> r.index("chat_memory")
+					.id(id)
+					.found(documents.containsKey(id))
+					.source(documents.get(id)))))
+				.toList();
+			return MgetResponse.of(b -> b.docs(docs));
+		}).when(client).mget(any(Function.class), any(Class.class));
+		doReturn(searchResponse(0)).when(client).search(any(Function.class), any(Class.class));
+		var repository = new ElasticsearchChatMemoryRepository(client);
+		Message first = new UserMessage("first");
+		Message second = new AssistantMessage("second");
+		Message third = new UserMessage("third");
+
+		repository.saveAll("c", List.of(first, second));
+		List<Message> read = repository.findByConversationId("c");
+		List<Message> next = new ArrayList<>(read);
+		next.add(third);
+		repository.saveAll("c", next);
+
+		assertThat(read).extracting(Message::getText).containsExactly("first", "second");
+		ArgumentCaptor<BulkRequest> bulk = ArgumentCaptor.forClass(BulkRequest.class);
+		verify(client, times(2)).bulk(bulk.capture());
+		assertThat(operations(bulk.getAllValues().get(1))).containsExactly("index c:2");
+		assertThat(new ElasticsearchChatMemoryRepository(client).findByConversationId("c")).extracting(Message::getText)
+			.containsExactly("first", "second", "third");
+	}
+
+	@SuppressWarnings("unchecked")
+	private void stubLastMessageIsCurrent() throws Exception {
+		MultiGetResponseItem<Object> last = mock(MultiGetResponseItem.class, RETURNS_DEEP_STUBS);
+		when(last.isResult()).thenReturn(true);
+		when(last.result().found()).thenReturn(true);
+		MultiGetResponseItem<Object> next = mock(MultiGetResponseItem.class, RETURNS_DEEP_STUBS);
+		when(next.isResult()).thenReturn(true);
+		when(next.result().found()).thenReturn(false);
+		MgetResponse<Object> response = mock(MgetResponse.class);
+		when(response.docs()).thenReturn(List.of(last, next));
+		doReturn(response).when(client).mget(any(Function.class), any(Class.class));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static SearchResponse<Object> searchResponse(int count) {
+		HitsMetadata<Object> hits = mock(HitsMetadata.class);
+		doReturn(hits(count)).when(hits).hits();
+		SearchResponse<Object> response = mock(SearchResponse.class);
+		doReturn(hits).when(response).hits();
+		return response;
+	}
+
+	private static List<Hit<Object>> hits(int count) {
+		List<Hit<Object>> hits = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			@SuppressWarnings("unchecked")
+			Hit<Object> hit = mock(Hit.class);
+			hits.add(hit);
+		}
+		return hits;
+	}
+
+	private static List<String> operations(BulkRequest request) {
+		return request.operations()
+			.stream()
+			.map(op -> op.isIndex() ? "index " + op.index().id() : "delete " + op.delete().id())
+			.toList();
+	}
+
+}
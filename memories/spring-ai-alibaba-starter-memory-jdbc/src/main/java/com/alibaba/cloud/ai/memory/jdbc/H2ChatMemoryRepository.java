@@ -23,12 +23,12 @@ import org.springframework.jdbc.core.JdbcTemplate;
 public class H2ChatMemoryRepository extends JdbcChatMemoryRepository {
 
 	// H2 specific query statements
-	private static final String H2_QUERY_ADD = "INSERT INTO ai_chat_memory (conversation_id, content, type, timestamp) VALUES (?, ?, ?, ?)";
+	private static final String H2_QUERY_ADD = "INSERT INTO ai_chat_memory (conversation_id, content, type, timestamp, seq, tool_payload) VALUES (?, ?, ?, ?, ?, ?)";
 
-	private static final String H2_QUERY_GET = "SELECT content, type FROM ai_chat_memory WHERE conversation_id = ? ORDER BY timestamp";
+	private static final String H2_QUERY_GET = "SELECT content, type, tool_payload, seq FROM ai_chat_memory WHERE conversation_id = ? ORDER BY seq, timestamp";
 
-	private H2ChatMemoryRepository(JdbcTemplate jdbcTemplate) {
-		super(jdbcTemplate);
+	private H2ChatMemoryRepository(JdbcTemplate jdbcTemplate, boolean appendOnly) {
+		super(jdbcTemplate, appendOnly);
 	}
 
 	public static H2ChatMemoryRepository.H2Builder h2Builder() {
@@ -39,13 +39,23 @@ public class H2ChatMemoryRepository extends JdbcChatMemoryRepository {
 
 		private JdbcTemplate jdbcTemplate;
 
+		private boolean appendOnly = false;
+
 		public H2ChatMemoryRepository.H2Builder jdbcTemplate(JdbcTemplate jdbcTemplate) {
 			this.jdbcTemplate = jdbcTemplate;
 			return this;
 		}
 
+		/**
+		 * Only insert messages past the last persisted sequence on save
+		 */
+		public H2ChatMemoryRepository.H2Builder appendOnly(boolean appendOnly) {
+			this.appendOnly = appendOnly;
+			return this;
+		}
+
 		public H2ChatMemoryRepository build() {
-			return new H2ChatMemoryRepository(this.jdbcTemplate);
+			return new H2ChatMemoryRepository(this.jdbcTemplate, this.appendOnly);
 		}
 
 	}
@@ -60,7 +70,7 @@ public class H2ChatMemoryRepository extends JdbcChatMemoryRepository {
 		return String.format(
 				"CREATE TABLE %s (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
 						+ "conversation_id VARCHAR(256) NOT NULL, content LONGTEXT NOT NULL, "
-						+ "type VARCHAR(100) NOT NULL, timestamp TIMESTAMP NOT NULL, "
+						+ "type VARCHAR(100) NOT NULL, timestamp TIMESTAMP NOT NULL, seq BIGINT, tool_payload LONGTEXT, "
 						+ "CONSTRAINT chk_message_type CHECK (type IN ('USER', 'ASSISTANT', 'SYSTEM', 'TOOL')))",
 				tableName);
 	}
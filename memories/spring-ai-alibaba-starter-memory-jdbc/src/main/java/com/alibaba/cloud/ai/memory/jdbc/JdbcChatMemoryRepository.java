@@ -15,22 +15,49 @@
  */
 package com.alibaba.cloud.ai.memory.jdbc;
 
+import com.alibaba.cloud.ai.memory.MessageOverlap;
+import com.alibaba.cloud.ai.memory.PersistedConversations;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.memory.ChatMemoryRepository;
 import org.springframework.ai.chat.messages.*;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
-import org.springframework.lang.Nullable;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.Assert;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Base JDBC chat memory repository.
+ * <p>
+ * Every message row carries a per-conversation sequence number and, for assistant tool
+ * calls and tool responses, a JSON tool payload. Tables created by earlier versions get
+ * both columns and the {@code (conversation_id, seq)} index added on startup; their
+ * conversations are renumbered on the next save.
+ * <p>
+ * By default {@link #saveAll} replaces the conversation in one transaction. In append-only
+ * mode the repository remembers the last messages it read or wrote for recent
+ * conversations, so a save only inserts the messages past the last persisted sequence and
+ * trims messages evicted from the head of a window with one indexed delete. If the stored
+ * count or last sequence no longer match, another writer got there first and the
+ * conversation is rewritten instead.
+ */
 public abstract class JdbcChatMemoryRepository implements ChatMemoryRepository {
 
+	private static final Logger logger = LoggerFactory.getLogger(JdbcChatMemoryRepository.class);
+
 	public static final String TABLE_NAME = "ai_chat_memory";
 
 	private static final String QUERY_GET_IDS = """
@@ -38,26 +65,70 @@ public abstract class JdbcChatMemoryRepository implements ChatMemoryRepository {
 			""";
 
 	private static final String QUERY_ADD = """
-			INSERT INTO ai_chat_memory (conversation_id, content, type, "timestamp") VALUES (?, ?, ?, ?)
+			INSERT INTO ai_chat_memory (conversation_id, content, type, "timestamp", seq, tool_payload) VALUES (?, ?, ?, ?, ?, ?)
 			""";
 
 	private static final String QUERY_GET = """
-			SELECT content, type FROM ai_chat_memory WHERE conversation_id = ? ORDER BY "timestamp"
+			SELECT content, type, tool_payload, seq FROM ai_chat_memory WHERE conversation_id = ? ORDER BY seq, "timestamp"
 			""";
 
 	private static final String QUERY_CLEAR = "DELETE FROM ai_chat_memory WHERE conversation_id = ?";
 
+	private static final String QUERY_SEQ_RANGE = "SELECT COUNT(*), MAX(seq) FROM ai_chat_memory WHERE conversation_id = ?";
+
+	private static final String QUERY_TRIM = "DELETE FROM ai_chat_memory WHERE conversation_id = ? AND seq < ?";
+
+	private static final String QUERY_HAS_SEQ = "SELECT seq, tool_payload FROM ai_chat_memory WHERE 1 = 0";
+
+	private static final ObjectMapper OBJECT_MAPPER = JsonMapper.builder().build();
+
 	private final JdbcTemplate jdbcTemplate;
 
+	private final TransactionTemplate transactionTemplate;
+
+	private final boolean appendOnly;
+
+	private final PersistedConversations<PersistedConversation> persisted = new PersistedConversations<>();
+
 	public JdbcChatMemoryRepository(JdbcTemplate jdbcTemplate) {
+		this(jdbcTemplate, false);
+	}
+
+	/**
+	 * @param jdbcTemplate the JDBC template
+	 * @param appendOnly only insert messages past the last persisted sequence on save
+	 */
+	protected JdbcChatMemoryRepository(JdbcTemplate jdbcTemplate, boolean appendOnly) {
 		Assert.notNull(jdbcTemplate, "jdbcTemplate cannot be null");
+		DataSource dataSource = jdbcTemplate.getDataSource();
+		Assert.notNull(dataSource, "jdbcTemplate must have a DataSource");
 		this.jdbcTemplate = jdbcTemplate;
+		this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		this.appendOnly = appendOnly;
 		checkAndCreateTable();
 	}
 
 	private void checkAndCreateTable() {
 		if (!jdbcTemplate.query(hasTableSql(TABLE_NAME), ResultSet::next)) {
 			jdbcTemplate.execute(createTableSql(TABLE_NAME));
+			jdbcTemplate.execute(createSequenceIndexSql(TABLE_NAME));
+		}
+		else if (!hasSequenceColumns()) {
+			logger.info("Adding seq and tool_payload columns to {}", TABLE_NAME);
+			for (String sql : addSequenceColumnsSql(TABLE_NAME)) {
+				jdbcTemplate.execute(sql);
+			}
+			jdbcTemplate.execute(createSequenceIndexSql(TABLE_NAME));
+		}
+	}
+
+	private boolean hasSequenceColumns() {
+		try {
+			jdbcTemplate.query(QUERY_HAS_SEQ, ResultSet::next);
+			return true;
+		}
+		catch (DataAccessException e) {
+			return false;
 		}
 	}
 
@@ -76,7 +147,29 @@ public abstract class JdbcChatMemoryRepository implements ChatMemoryRepository {
 	@Override
 	public List<Message> findByConversationId(String conversationId) {
 		Assert.hasText(conversationId, "conversationId cannot be null or empty");
-		return this.jdbcTemplate.query(getGetSql(), new JdbcChatMemoryRepository.MessageRowMapper(), conversationId);
+		List<StoredMessage> stored = new ArrayList<>();
+		Long firstSeq = this.jdbcTemplate.query(getGetSql(), rs -> {
+			Long first = null;
+			boolean sequenced = true;
+			while (rs.next()) {
+				stored.add(new StoredMessage(rs.getString(1), MessageType.valueOf(rs.getString(2)), rs.getString(3)));
+				long seq = rs.getLong(4);
+				sequenced &= !rs.wasNull();
+				if (first == null) {
+					first = seq;
+				}
+			}
+			return sequenced ? (first != null ? first : 0L) : null;
+		}, conversationId);
+		if (appendOnly) {
+			if (firstSeq != null) {
+				persisted.put(conversationId, new PersistedConversation(firstSeq, List.copyOf(stored)));
+			}
+			else {
+				persisted.remove(conversationId);
+			}
+		}
+		return stored.stream().map(JdbcChatMemoryRepository::toMessage).toList();
 	}
 
 	@Override
@@ -84,15 +177,67 @@ public abstract class JdbcChatMemoryRepository implements ChatMemoryRepository {
 		Assert.hasText(conversationId, "conversationId cannot be null or empty");
 		Assert.notNull(messages, "messages cannot be null");
 		Assert.noNullElements(messages, "messages cannot contain null elements");
-		this.deleteByConversationId(conversationId);
-		this.jdbcTemplate.batchUpdate(getAddSql(),
-				new JdbcChatMemoryRepository.AddBatchPreparedStatement(conversationId, messages));
+		List<StoredMessage> incoming = messages.stream().map(JdbcChatMemoryRepository::toStoredMessage).toList();
+		PersistedConversation known = appendOnly ? persisted.get(conversationId) : null;
+		PersistedConversation saved = null;
+		if (known != null) {
+			try {
+				saved = transactionTemplate.execute(status -> append(conversationId, known, incoming));
+			}
+			catch (DataIntegrityViolationException e) {
+				logger.debug("Concurrent append to conversation {}, rewriting it", conversationId);
+			}
+		}
+		if (saved == null) {
+			saved = transactionTemplate.execute(status -> replace(conversationId, incoming));
+		}
+		if (appendOnly) {
+			persisted.put(conversationId, saved);
+		}
+	}
+
+	private PersistedConversation replace(String conversationId, List<StoredMessage> incoming) {
+		this.jdbcTemplate.update(QUERY_CLEAR, conversationId);
+		insert(conversationId, incoming, 0);
+		return new PersistedConversation(0, incoming);
+	}
+
+	private PersistedConversation append(String conversationId, PersistedConversation known,
+			List<StoredMessage> incoming) {
+		long[] range = this.jdbcTemplate.query(QUERY_SEQ_RANGE, rs -> {
+			rs.next();
+			long count = rs.getLong(1);
+			long max = rs.getLong(2);
+			return new long[] { count, rs.wasNull() ? -1 : max };
+		}, conversationId);
+		List<StoredMessage> knownMessages = known.messages();
+		if (range == null || range[0] != knownMessages.size()
+				|| range[1] != known.firstSeq() + knownMessages.size() - 1) {
+			logger.debug("Conversation {} was changed by another writer, rewriting it", conversationId);
+			return null;
+		}
+		int drop = MessageOverlap.overlapStart(knownMessages, incoming);
+		int kept = knownMessages.size() - drop;
+		long firstSeq = known.firstSeq() + drop;
+		if (drop > 0) {
+			this.jdbcTemplate.update(QUERY_TRIM, conversationId, firstSeq);
+		}
+		insert(conversationId, incoming.subList(kept, incoming.size()), firstSeq + kept);
+		return new PersistedConversation(firstSeq, incoming);
+	}
+
+	private void insert(String conversationId, List<StoredMessage> messages, long firstSeq) {
+		if (!messages.isEmpty()) {
+			this.jdbcTemplate.batchUpdate(getAddSql(),
+					new JdbcChatMemoryRepository.AddBatchPreparedStatement(conversationId, messages, firstSeq));
+		}
 	}
 
 	@Override
 	public void deleteByConversationId(String conversationId) {
 		Assert.hasText(conversationId, "conversationId cannot be null or empty");
 		this.jdbcTemplate.update(QUERY_CLEAR, conversationId);
+		persisted.remove(conversationId);
 	}
 
 	/**
@@ -111,11 +256,74 @@ public abstract class JdbcChatMemoryRepository implements ChatMemoryRepository {
 		return QUERY_GET;
 	}
 
-	private record AddBatchPreparedStatement(String conversationId, List<Message> messages,
-			AtomicLong instantSeq) implements BatchPreparedStatementSetter {
+	static StoredMessage toStoredMessage(Message message) {
+		String toolPayload = null;
+		if (message instanceof ToolResponseMessage toolResponseMessage) {
+			toolPayload = toJson(toolResponseMessage.getResponses());
+		}
+		else if (message instanceof AssistantMessage assistantMessage && assistantMessage.hasToolCalls()) {
+			toolPayload = toJson(assistantMessage.getToolCalls());
+		}
+		String content = message.getText() != null ? message.getText() : "";
+		return new StoredMessage(content, message.getMessageType(), toolPayload);
+	}
+
+	static Message toMessage(StoredMessage stored) {
+		String content = stored.content();
+		return switch (stored.type()) {
+			case USER -> new UserMessage(content);
+			case ASSISTANT -> stored.toolPayload() == null ? new AssistantMessage(content)
+					: AssistantMessage.builder()
+						.content(content)
+						.toolCalls(fromJson(stored.toolPayload(), new TypeReference<List<AssistantMessage.ToolCall>>() {
+						}))
+						.build();
+			case SYSTEM -> new SystemMessage(content);
+			// rows written before tool_payload existed have no responses
+			case TOOL -> ToolResponseMessage.builder()
+				.responses(stored.toolPayload() == null ? List.of()
+						: fromJson(stored.toolPayload(), new TypeReference<List<ToolResponseMessage.ToolResponse>>() {
+						}))
+				.build();
+		};
+	}
+
+	private static String toJson(Object value) {
+		try {
+			return OBJECT_MAPPER.writeValueAsString(value);
+		}
+		catch (JsonProcessingException e) {
+			throw new IllegalStateException("Error serializing tool payload", e);
+		}
+	}
+
+	private static <T> T fromJson(String json, TypeReference<T> type) {
+		try {
+			return OBJECT_MAPPER.readValue(json, type);
+		}
+		catch (JsonProcessingException e) {
+			throw new IllegalStateException("Error deserializing tool payload", e);
+		}
+	}
+
+	/**
+	 * A message as stored in one row
+	 */
+	record StoredMessage(String content, MessageType type, String toolPayload) {
+	}
+
+	/**
+	 * The messages of a conversation as last read or written, starting at
+	 * {@code firstSeq}
+	 */
+	private record PersistedConversation(long firstSeq, List<StoredMessage> messages) {
+	}
 
-		private AddBatchPreparedStatement(String conversationId, List<Message> messages) {
-			this(conversationId, messages, new AtomicLong(Instant.now().toEpochMilli()));
+	private record AddBatchPreparedStatement(String conversationId, List<StoredMessage> messages, long firstSeq,
+			long firstMillis) implements BatchPreparedStatementSetter {
+
+		private AddBatchPreparedStatement(String conversationId, List<StoredMessage> messages, long firstSeq) {
+			this(conversationId, messages, firstSeq, Instant.now().toEpochMilli());
 		}
 
 		@Override
@@ -123,9 +331,11 @@ public abstract class JdbcChatMemoryRepository implements ChatMemoryRepository {
 			var message = this.messages.get(i);
 
 			ps.setString(1, this.conversationId);
-			ps.setString(2, message.getText());
-			ps.setString(3, message.getMessageType().name());
-			ps.setTimestamp(4, new Timestamp(instantSeq.getAndIncrement()));
+			ps.setString(2, message.content());
+			ps.setString(3, message.type().name());
+			ps.setTimestamp(4, new Timestamp(this.firstMillis + i));
+			ps.setLong(5, this.firstSeq + i);
+			ps.setString(6, message.toolPayload());
 		}
 
 		@Override
@@ -134,29 +344,30 @@ public abstract class JdbcChatMemoryRepository implements ChatMemoryRepository {
 		}
 	}
 
-	private static class MessageRowMapper implements RowMapper<Message> {
-
-		@Override
-		@Nullable
-		public Message mapRow(ResultSet rs, int i) throws SQLException {
-			var content = rs.getString(1);
-			var type = MessageType.valueOf(rs.getString(2));
+	protected abstract String hasTableSql(String tableName);
 
-			return switch (type) {
-				case USER -> new UserMessage(content);
-				case ASSISTANT -> new AssistantMessage(content);
-				case SYSTEM -> new SystemMessage(content);
-				// The content is always stored empty for ToolResponseMessages.
-				// If we want to capture the actual content, we need to extend
-				// AddBatchPreparedStatement to support it.
-				case TOOL -> ToolResponseMessage.builder().responses(List.of()).build();
-			};
-		}
+	/**
+	 * Create the message table, including the nullable {@code seq} and
+	 * {@code tool_payload} columns
+	 */
+	protected abstract String createTableSql(String tableName);
 
+	/**
+	 * Statements adding {@code seq} and {@code tool_payload} to a table created by an
+	 * earlier version
+	 */
+	protected List<String> addSequenceColumnsSql(String tableName) {
+		return List.of(String.format("ALTER TABLE %s ADD COLUMN seq BIGINT", tableName),
+				String.format("ALTER TABLE %s ADD COLUMN tool_payload TEXT", tableName));
 	}
 
-	protected abstract String hasTableSql(String tableName);
-
-	protected abstract String createTableSql(String tableName);
+	/**
+	 * Index used to read a conversation in order and to trim it. It is unique where the
+	 * database allows several rows with a null {@code seq}, so that concurrent appends
+	 * cannot both take the same sequence number.
+	 */
+	protected String createSequenceIndexSql(String tableName) {
+		return String.format("CREATE UNIQUE INDEX %s_seq_idx ON %s (conversation_id, seq)", tableName, tableName);
+	}
 
 }
@@ -17,18 +17,20 @@ package com.alibaba.cloud.ai.memory.jdbc;
 
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.util.List;
+
 /**
  * MySQL implementation of chat memory repository
  */
 public class MysqlChatMemoryRepository extends JdbcChatMemoryRepository {
 
 	// MySQL specific query statements
-	private static final String MYSQL_QUERY_ADD = "INSERT INTO ai_chat_memory (conversation_id, content, type, timestamp) VALUES (?, ?, ?, ?)";
+	private static final String MYSQL_QUERY_ADD = "INSERT INTO ai_chat_memory (conversation_id, content, type, timestamp, seq, tool_payload) VALUES (?, ?, ?, ?, ?, ?)";
 
-	private static final String MYSQL_QUERY_GET = "SELECT content, type FROM ai_chat_memory WHERE conversation_id = ? ORDER BY timestamp";
+	private static final String MYSQL_QUERY_GET = "SELECT content, type, tool_payload, seq FROM ai_chat_memory WHERE conversation_id = ? ORDER BY seq, timestamp";
 
-	private MysqlChatMemoryRepository(JdbcTemplate jdbcTemplate) {
-		super(jdbcTemplate);
+	private MysqlChatMemoryRepository(JdbcTemplate jdbcTemplate, boolean appendOnly) {
+		super(jdbcTemplate, appendOnly);
 	}
 
 	public static MysqlBuilder mysqlBuilder() {
@@ -39,13 +41,23 @@ public class MysqlChatMemoryRepository extends JdbcChatMemoryRepository {
 
 		private JdbcTemplate jdbcTemplate;
 
+		private boolean appendOnly = false;
+
 		public MysqlBuilder jdbcTemplate(JdbcTemplate jdbcTemplate) {
 			this.jdbcTemplate = jdbcTemplate;
 			return this;
 		}
 
+		/**
+		 * Only insert messages past the last persisted sequence on save
+		 */
+		public MysqlBuilder appendOnly(boolean appendOnly) {
+			this.appendOnly = appendOnly;
+			return this;
+		}
+
 		public MysqlChatMemoryRepository build() {
-			return new MysqlChatMemoryRepository(this.jdbcTemplate);
+			return new MysqlChatMemoryRepository(this.jdbcTemplate, this.appendOnly);
 		}
 
 	}
@@ -62,7 +74,7 @@ public class MysqlChatMemoryRepository extends JdbcChatMemoryRepository {
 		return String.format(
 				"CREATE TABLE %s (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
 						+ "conversation_id VARCHAR(256) NOT NULL, content LONGTEXT NOT NULL, "
-						+ "type VARCHAR(100) NOT NULL, timestamp TIMESTAMP NOT NULL, "
+						+ "type VARCHAR(100) NOT NULL, timestamp TIMESTAMP NOT NULL, seq BIGINT, tool_payload LONGTEXT, "
 						+ "CONSTRAINT chk_message_type CHECK (type IN ('USER', 'ASSISTANT', 'SYSTEM', 'TOOL')))",
 				tableName);
 	}
@@ -77,4 +89,10 @@ public class MysqlChatMemoryRepository extends JdbcChatMemoryRepository {
 		return MYSQL_QUERY_GET;
 	}
 
+	@Override
+	protected List<String> addSequenceColumnsSql(String tableName) {
+		return List.of(String.format(
+				"ALTER TABLE %s ADD COLUMN seq BIGINT NULL, ADD COLUMN tool_payload LONGTEXT NULL", tableName));
+	}
+
 }
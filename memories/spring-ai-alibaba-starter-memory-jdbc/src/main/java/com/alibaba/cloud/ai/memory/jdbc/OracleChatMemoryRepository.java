@@ -17,6 +17,8 @@ package com.alibaba.cloud.ai.memory.jdbc;
 
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.util.List;
+
 /**
  * Oracle implementation of the chat memory repository
  */
@@ -24,12 +26,12 @@ public class OracleChatMemoryRepository extends JdbcChatMemoryRepository {
 
 	// Oracle specific query statement, not wrapping the 'timestamp' keyword with double
 	// quotes
-	private static final String ORACLE_QUERY_ADD = "INSERT INTO ai_chat_memory (conversation_id, content, type, timestamp) VALUES (?, ?, ?, ?)";
+	private static final String ORACLE_QUERY_ADD = "INSERT INTO ai_chat_memory (conversation_id, content, type, timestamp, seq, tool_payload) VALUES (?, ?, ?, ?, ?, ?)";
 
-	private static final String ORACLE_QUERY_GET = "SELECT content, type FROM ai_chat_memory WHERE conversation_id = ? ORDER BY timestamp";
+	private static final String ORACLE_QUERY_GET = "SELECT content, type, tool_payload, seq FROM ai_chat_memory WHERE conversation_id = ? ORDER BY seq, timestamp";
 
-	private OracleChatMemoryRepository(JdbcTemplate jdbcTemplate) {
-		super(jdbcTemplate);
+	private OracleChatMemoryRepository(JdbcTemplate jdbcTemplate, boolean appendOnly) {
+		super(jdbcTemplate, appendOnly);
 	}
 
 	public static OracleBuilder oracleBuilder() {
@@ -40,13 +42,23 @@ public class OracleChatMemoryRepository extends JdbcChatMemoryRepository {
 
 		private JdbcTemplate jdbcTemplate;
 
+		private boolean appendOnly = false;
+
 		public OracleBuilder jdbcTemplate(JdbcTemplate jdbcTemplate) {
 			this.jdbcTemplate = jdbcTemplate;
 			return this;
 		}
 
+		/**
+		 * Only insert messages past the last persisted sequence on save
+		 */
+		public OracleBuilder appendOnly(boolean appendOnly) {
+			this.appendOnly = appendOnly;
+			return this;
+		}
+
 		public OracleChatMemoryRepository build() {
-			return new OracleChatMemoryRepository(this.jdbcTemplate);
+			return new OracleChatMemoryRepository(this.jdbcTemplate, this.appendOnly);
 		}
 
 	}
@@ -61,7 +73,7 @@ public class OracleChatMemoryRepository extends JdbcChatMemoryRepository {
 		return String.format(
 				"CREATE TABLE %s (id NUMBER(19) GENERATED ALWAYS AS IDENTITY PRIMARY KEY, "
 						+ "conversation_id VARCHAR2(256) NOT NULL, content CLOB NOT NULL, "
-						+ "type VARCHAR2(100) NOT NULL, timestamp TIMESTAMP NOT NULL, "
+						+ "type VARCHAR2(100) NOT NULL, timestamp TIMESTAMP NOT NULL, seq NUMBER(19), tool_payload CLOB, "
 						+ "CONSTRAINT chk_message_type CHECK (type IN ('USER', 'ASSISTANT', 'SYSTEM', 'TOOL')))",
 				tableName);
 	}
@@ -76,4 +88,15 @@ public class OracleChatMemoryRepository extends JdbcChatMemoryRepository {
 		return ORACLE_QUERY_GET;
 	}
 
+	@Override
+	protected List<String> addSequenceColumnsSql(String tableName) {
+		return List.of(String.format("ALTER TABLE %s ADD (seq NUMBER(19), tool_payload CLOB)", tableName));
+	}
+
+	@Override
+	protected String createSequenceIndexSql(String tableName) {
+		// Oracle enforces uniqueness on (conversation_id, NULL), which legacy rows would violate
+		return String.format("CREATE INDEX %s_seq_idx ON %s (conversation_id, seq)", tableName, tableName);
+	}
+
 }
@@ -19,12 +19,12 @@ import org.springframework.jdbc.core.JdbcTemplate;
 
 public class PostgresChatMemoryRepository extends JdbcChatMemoryRepository {
 
-	private static final String POSTGRES_QUERY_ADD = "INSERT INTO ai_chat_memory (conversation_id, content, type, timestamp) VALUES (?, ?, ?, ?)";
+	private static final String POSTGRES_QUERY_ADD = "INSERT INTO ai_chat_memory (conversation_id, content, type, timestamp, seq, tool_payload) VALUES (?, ?, ?, ?, ?, ?)";
 
-	private static final String POSTGRES_QUERY_GET = "SELECT content, type FROM ai_chat_memory WHERE conversation_id = ? ORDER BY timestamp";
+	private static final String POSTGRES_QUERY_GET = "SELECT content, type, tool_payload, seq FROM ai_chat_memory WHERE conversation_id = ? ORDER BY seq, timestamp";
 
-	private PostgresChatMemoryRepository(JdbcTemplate jdbcTemplate) {
-		super(jdbcTemplate);
+	private PostgresChatMemoryRepository(JdbcTemplate jdbcTemplate, boolean appendOnly) {
+		super(jdbcTemplate, appendOnly);
 	}
 
 	public static PostgresBuilder postgresBuilder() {
@@ -35,13 +35,23 @@ public class PostgresChatMemoryRepository extends JdbcChatMemoryRepository {
 
 		private JdbcTemplate jdbcTemplate;
 
+		private boolean appendOnly = false;
+
 		public PostgresBuilder jdbcTemplate(JdbcTemplate jdbcTemplate) {
 			this.jdbcTemplate = jdbcTemplate;
 			return this;
 		}
 
+		/**
+		 * Only insert messages past the last persisted sequence on save
+		 */
+		public PostgresBuilder appendOnly(boolean appendOnly) {
+			this.appendOnly = appendOnly;
+			return this;
+		}
+
 		public PostgresChatMemoryRepository build() {
-			return new PostgresChatMemoryRepository(this.jdbcTemplate);
+			return new PostgresChatMemoryRepository(this.jdbcTemplate, this.appendOnly);
 		}
 
 	}
@@ -57,7 +67,7 @@ public class PostgresChatMemoryRepository extends JdbcChatMemoryRepository {
 		return String.format(
 				"CREATE TABLE %s (id BIGSERIAL PRIMARY KEY, "
 						+ "conversation_id VARCHAR(256) NOT NULL, content TEXT NOT NULL, "
-						+ "type VARCHAR(100) NOT NULL, timestamp TIMESTAMP NOT NULL, "
+						+ "type VARCHAR(100) NOT NULL, timestamp TIMESTAMP NOT NULL, seq BIGINT, tool_payload TEXT, "
 						+ "CONSTRAINT chk_message_type CHECK (type IN ('USER', 'ASSISTANT', 'SYSTEM', 'TOOL')))",
 				tableName);
 	}
@@ -19,8 +19,8 @@ import org.springframework.jdbc.core.JdbcTemplate;
 
 public class SQLiteChatMemoryRepository extends JdbcChatMemoryRepository {
 
-	private SQLiteChatMemoryRepository(JdbcTemplate jdbcTemplate) {
-		super(jdbcTemplate);
+	private SQLiteChatMemoryRepository(JdbcTemplate jdbcTemplate, boolean appendOnly) {
+		super(jdbcTemplate, appendOnly);
 	}
 
 	public static SQLiteBuilder sqliteBuilder() {
@@ -31,13 +31,23 @@ public class SQLiteChatMemoryRepository extends JdbcChatMemoryRepository {
 
 		private JdbcTemplate jdbcTemplate;
 
+		private boolean appendOnly = false;
+
 		public SQLiteBuilder jdbcTemplate(JdbcTemplate jdbcTemplate) {
 			this.jdbcTemplate = jdbcTemplate;
 			return this;
 		}
 
+		/**
+		 * Only insert messages past the last persisted sequence on save
+		 */
+		public SQLiteBuilder appendOnly(boolean appendOnly) {
+			this.appendOnly = appendOnly;
+			return this;
+		}
+
 		public SQLiteChatMemoryRepository build() {
-			return new SQLiteChatMemoryRepository(this.jdbcTemplate);
+			return new SQLiteChatMemoryRepository(this.jdbcTemplate, this.appendOnly);
 		}
 
 	}
@@ -50,7 +60,7 @@ public class SQLiteChatMemoryRepository extends JdbcChatMemoryRepository {
 	@Override
 	protected String createTableSql(String tableName) {
 		return String.format("CREATE TABLE IF NOT EXISTS %s ( conversation_id TEXT NOT NULL,"
-				+ "    content TEXT NOT NULL, type TEXT NOT NULL, timestamp REAL NOT NULL,"
+				+ "    content TEXT NOT NULL, type TEXT NOT NULL, timestamp REAL NOT NULL, seq INTEGER, tool_payload TEXT,"
 				+ "    CHECK (type IN ('USER', 'ASSISTANT', 'SYSTEM', 'TOOL')));", tableName);
 	}
 
@@ -17,10 +17,12 @@ package com.alibaba.cloud.ai.memory.jdbc;
 
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.util.List;
+
 public class SqlServerChatMemoryRepository extends JdbcChatMemoryRepository {
 
-	private SqlServerChatMemoryRepository(JdbcTemplate jdbcTemplate) {
-		super(jdbcTemplate);
+	private SqlServerChatMemoryRepository(JdbcTemplate jdbcTemplate, boolean appendOnly) {
+		super(jdbcTemplate, appendOnly);
 	}
 
 	public static SqlServerBuilder sqlServerBuilder() {
@@ -31,13 +33,23 @@ public class SqlServerChatMemoryRepository extends JdbcChatMemoryRepository {
 
 		private JdbcTemplate jdbcTemplate;
 
+		private boolean appendOnly = false;
+
 		public SqlServerBuilder jdbcTemplate(JdbcTemplate jdbcTemplate) {
 			this.jdbcTemplate = jdbcTemplate;
 			return this;
 		}
 
+		/**
+		 * Only insert messages past the last persisted sequence on save
+		 */
+		public SqlServerBuilder appendOnly(boolean appendOnly) {
+			this.appendOnly = appendOnly;
+			return this;
+		}
+
 		public SqlServerChatMemoryRepository build() {
-			return new SqlServerChatMemoryRepository(this.jdbcTemplate);
+			return new SqlServerChatMemoryRepository(this.jdbcTemplate, this.appendOnly);
 		}
 
 	}
@@ -51,7 +63,21 @@ public class SqlServerChatMemoryRepository extends JdbcChatMemoryRepository {
 	protected String createTableSql(String tableName) {
 		return String.format("CREATE TABLE %s ( conversation_id NVARCHAR(256) NOT NULL,"
 				+ "    content NVARCHAR(MAX) NOT NULL, type VARCHAR(100) NOT NULL, timestamp DATETIME2 NOT NULL,"
+				+ "    seq BIGINT, tool_payload NVARCHAR(MAX),"
 				+ "    CHECK (type IN ('USER', 'ASSISTANT', 'SYSTEM', 'TOOL')));", tableName);
 	}
 
+	@Override
+	protected List<String> addSequenceColumnsSql(String tableName) {
+		return List
+			.of(String.format("ALTER TABLE %s ADD seq BIGINT NULL, tool_payload NVARCHAR(MAX) NULL", tableName));
+	}
+
+	@Override
+	protected String createSequenceIndexSql(String tableName) {
+		// SQL Server treats NULLs as equal in unique indexes, so only index sequenced rows
+		return String.format("CREATE UNIQUE INDEX %s_seq_idx ON %s (conversation_id, seq) WHERE seq IS NOT NULL",
+				tableName, tableName);
+	}
+
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.memory.jdbc;
+
+import com.alibaba.cloud.ai.memory.MessageOverlap;
+import com.alibaba.cloud.ai.memory.jdbc.JdbcChatMemoryRepository.StoredMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for row mapping and append-only save planning, no database required
+ */
+class JdbcChatMemoryRepositoryTest {
+
+	@Test
+	void toolCallsAndResponsesSurviveRoundTrip() {
+		Message toolCall = AssistantMessage.builder()
+			.content("")
+			.toolCalls(List.of(new AssistantMessage.ToolCall("call-1", "function", "weather", "{\"city\":\"Hangzhou\"}")))
+			.build();
+		Message toolResponse = ToolResponseMessage.builder()
+			.responses(List.of(new ToolResponseMessage.ToolResponse("call-1", "weather", "sunny")))
+			.build();
+
+		var restoredCall = (AssistantMessage) JdbcChatMemoryRepository
+			.toMessage(JdbcChatMemoryRepository.toStoredMessage(toolCall));
+		var restoredResponse = (ToolResponseMessage) JdbcChatMemoryRepository
+			.toMessage(JdbcChatMemoryRepository.toStoredMessage(toolResponse));
+
+		assertThat(restoredCall.getToolCalls()).isEqualTo(((AssistantMessage) toolCall).getToolCalls());
+		assertThat(restoredResponse.getResponses()).isEqualTo(((ToolResponseMessage) toolResponse).getResponses());
+	}
+
+	@Test
+	void overlapStartFindsAppendAndWindowEviction() {
+		List<StoredMessage> known = messages("a", "b", "c");
+
+		assertThat(MessageOverlap.overlapStart(known, messages("a", "b", "c", "d"))).isZero();
+		assertThat(MessageOverlap.overlapStart(known, messages("b", "c", "d", "e"))).isEqualTo(1);
+		assertThat(MessageOverlap.overlapStart(known, messages("c"))).isEqualTo(2);
+		assertThat(MessageOverlap.overlapStart(known, messages("x", "y"))).isEqualTo(3);
+	}
+
+	private static List<StoredMessage> messages(String... contents) {
+		return Stream.of(contents).map(content -> new StoredMessage(content, MessageType.USER, null)).toList();
+	}
+
+}
@@ -26,6 +26,8 @@ public class Mem0Client {
 
 	private boolean enableCache = true;
 
+	private int cacheTtlSeconds = 10;
+
 	private int timeoutSeconds = 30;
 
 	private int maxRetryAttempts = 3;
@@ -40,6 +42,7 @@ public class Mem0Client {
 	private Mem0Client(Builder builder) {
 		this.baseUrl = builder.baseUrl;
 		this.enableCache = builder.enableCache;
+		this.cacheTtlSeconds = builder.cacheTtlSeconds;
 		this.timeoutSeconds = builder.timeoutSeconds;
 		this.maxRetryAttempts = builder.maxRetryAttempts;
 		this.async = builder.async;
@@ -51,12 +54,19 @@ public class Mem0Client {
 
 		private int corePoolSize = 2;
 
+		// 后台批量写入时并发的 add 调用数
 		private int maxPoolSize = 4;
 
 		private int queueCapacity = 100;
 
 		private String threadNamePrefix = "mem0-async-";
 
+		// 单次 add 调用合并的最大消息数
+		private int maxBatchSize = 20;
+
+		// 后台批量写入的间隔
+		private long flushIntervalMillis = 200;
+
 		public boolean isEnabled() {
 			return enabled;
 		}
@@ -97,6 +107,22 @@ public class Mem0Client {
 			this.threadNamePrefix = threadNamePrefix;
 		}
 
+		public int getMaxBatchSize() {
+			return maxBatchSize;
+		}
+
+		public void setMaxBatchSize(int maxBatchSize) {
+			this.maxBatchSize = maxBatchSize;
+		}
+
+		public long getFlushIntervalMillis() {
+			return flushIntervalMillis;
+		}
+
+		public void setFlushIntervalMillis(long flushIntervalMillis) {
+			this.flushIntervalMillis = flushIntervalMillis;
+		}
+
 	}
 
 
@@ -128,6 +154,14 @@ public class Mem0Client {
 		this.enableCache = enableCache;
 	}
 
+	public int getCacheTtlSeconds() {
+		return cacheTtlSeconds;
+	}
+
+	public void setCacheTtlSeconds(int cacheTtlSeconds) {
+		this.cacheTtlSeconds = cacheTtlSeconds;
+	}
+
 	public int getTimeoutSeconds() {
 		return timeoutSeconds;
 	}
@@ -150,6 +184,8 @@ public class Mem0Client {
 
 		private boolean enableCache = true;
 
+		private int cacheTtlSeconds = 10;
+
 		private int timeoutSeconds = 30;
 
 		private int maxRetryAttempts = 3;
@@ -169,6 +205,11 @@ public class Mem0Client {
 			return this;
 		}
 
+		public Builder cacheTtlSeconds(int cacheTtlSeconds) {
+			this.cacheTtlSeconds = cacheTtlSeconds;
+			return this;
+		}
+
 		public Builder timeoutSeconds(int timeoutSeconds) {
 			this.timeoutSeconds = timeoutSeconds;
 			return this;
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.memory.mem0.core;
+
+import com.alibaba.cloud.ai.memory.mem0.model.Mem0ServerRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Bounded queue that moves Mem0 ingestion off the request path.
+ *
+ * Memories are queued without blocking and sent by a background flusher, either every
+ * flush interval or as soon as a full batch is waiting. Memories of the same user, agent
+ * and run are merged into one add call of up to {@code maxBatchSize} messages, sent over
+ * the non-blocking client. When the queue is full new memories are dropped rather than
+ * slowing down the chat turn.
+ */
+class Mem0IngestionQueue {
+
+	private static final Logger logger = LoggerFactory.getLogger(Mem0IngestionQueue.class);
+
+	private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+	private final BlockingQueue<Mem0ServerRequest.MemoryCreate> queue;
+
+	private final Function<Mem0ServerRequest.MemoryCreate, Mono<Void>> sender;
+
+	private final int maxBatchSize;
+
+	private final int concurrency;
+
+	private final ScheduledExecutorService flusher;
+
+	private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+	private final AtomicLong dropped = new AtomicLong();
+
+	private final ReentrantLock flushLock = new ReentrantLock();
+
+	Mem0IngestionQueue(Function<Mem0ServerRequest.MemoryCreate, Mono<Void>> sender, int capacity, int maxBatchSize,
+			Duration flushInterval, int concurrency, String threadName) {
+		this.queue = new ArrayBlockingQueue<>(capacity);
+		this.sender = sender;
+		this.maxBatchSize = Math.max(1, maxBatchSize);
+		this.concurrency = Math.max(1, concurrency);
+		this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, threadName);
+			t.setDaemon(true);
+			return t;
+		});
+		long interval = Math.max(1, flushInterval.toMillis());
+		this.flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Queue a memory without blocking
+	 * @return false if the queue is full and the memory was dropped
+	 */
+	boolean offer(Mem0ServerRequest.MemoryCreate memoryCreate) {
+		if (!queue.offer(memoryCreate)) {
+			long count = dropped.incrementAndGet();
+			logger.warn("Mem0 ingestion queue is full, dropped memory of user {} ({} dropped so far)",
+					memoryCreate.getUserId(), count);
+			return false;
+		}
+		if (queue.size() >= maxBatchSize && flushScheduled.compareAndSet(false, true)) {
+			try {
+				flusher.execute(() -> {
+					flushScheduled.set(false);
+					flush();
+				});
+			}
+			catch (RuntimeException e) {
+				// shutting down, the final flush picks it up
+				flushScheduled.set(false);
+			}
+		}
+		return true;
+	}
+
+	long getDroppedCount() {
+		return dropped.get();
+	}
+
+	int size() {
+		return queue.size();
+	}
+
+	/**
+	 * Send everything queued so far and wait for it, one flush at a time
+	 */
+	void flush() {
+		flushLock.lock();
+		try {
+			send();
+		}
+		finally {
+			flushLock.unlock();
+		}
+	}
+
+	private void send() {
+		List<Mem0ServerRequest.MemoryCreate> drained = new ArrayList<>();
+		queue.drainTo(drained);
+		if (drained.isEmpty()) {
+			return;
+		}
+		List<Mem0ServerRequest.MemoryCreate> batches = batch(drained, maxBatchSize);
+		Flux.fromIterable(batches)
+				.flatMap(batch -> sender.apply(batch).onErrorResume(e -> {
+					logger.error("Failed to add {} messages of user {} to Mem0: {}", batch.getMessages().size(),
+							batch.getUserId(), e.getMessage());
+					return Mono.empty();
+				}), concurrency)
+				.blockLast();
+		logger.debug("Sent {} queued memories to Mem0 in {} add calls", drained.size(), batches.size());
+	}
+
+	/**
+	 * Stop the flusher and send everything still queued. A flush still running on the
+	 * flusher thread is waited for, up to the shutdown timeout, before the final one
+	 */
+	void shutdown() {
+		flusher.shutdown();
+		try {
+			if (!flusher.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+				logger.warn("Mem0 ingestion flusher did not stop in time");
+			}
+			if (!flushLock.tryLock(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+				logger.warn("Mem0 ingestion flush is still running, {} queued memories were not sent", queue.size());
+				return;
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			logger.warn("Interrupted while stopping Mem0 ingestion, {} queued memories were not sent", queue.size());
+			return;
+		}
+		try {
+			send();
+		}
+		finally {
+			flushLock.unlock();
+		}
+	}
+
+	/**
+	 * Merge memories of the same user, agent and run, keeping their order, into add calls
+	 * of at most {@code maxBatchSize} messages
+	 */
+	static List<Mem0ServerRequest.MemoryCreate> batch(List<Mem0ServerRequest.MemoryCreate> memories,
+			int maxBatchSize) {
+		Map<List<String>, List<Mem0ServerRequest.MemoryCreate>> groups = new LinkedHashMap<>();
+		for (Mem0ServerRequest.MemoryCreate memory : memories) {
+			List<String> key = Arrays.asList(memory.getUserId(), memory.getAgentId(), memory.getRunId());
+			groups.computeIfAbsent(key, k -> new ArrayList<>()).add(memory);
+		}
+		List<Mem0ServerRequest.MemoryCreate> batches = new ArrayList<>();
+		for (List<Mem0ServerRequest.MemoryCreate> group : groups.values()) {
+			Mem0ServerRequest.MemoryCreate first = group.get(0);
+			List<Mem0ServerRequest.Message> messages = new ArrayList<>();
+			Map<String, Object> metadata = new HashMap<>();
+			for (Mem0ServerRequest.MemoryCreate memory : group) {
+				if (memory.getMessages() != null) {
+					memory.getMessages().stream().filter(Objects::nonNull).forEach(messages::add);
+				}
+				if (memory.getMetadata() != null) {
+					metadata.putAll(memory.getMetadata());
+				}
+			}
+			// the role belongs to each message, not to the merged memory
+			metadata.remove("role");
+			for (int from = 0; from < messages.size(); from += maxBatchSize) {
+				int to = Math.min(messages.size(), from + maxBatchSize);
+				batches.add(Mem0ServerRequest.MemoryCreate.builder()
+						.messages(new ArrayList<>(messages.subList(from, to)))
+						.metadata(metadata.isEmpty() ? null : metadata)
+						.userId(first.getUserId())
+						.agentId(first.getAgentId())
+						.runId(first.getRunId())
+						.build());
+			}
+		}
+		return batches;
+	}
+
+}
@@ -27,7 +27,9 @@ import org.springframework.ai.vectorstore.filter.Filter;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.util.StringUtils;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -70,22 +72,33 @@ public class Mem0MemoryStore implements InitializingBean, VectorStore {
 
 	@Override
 	public void add(List<Document> documents) {
-		// TODO 将role相同的message合并
-		List<Mem0ServerRequest.MemoryCreate> messages = documents.stream()
-				.map(doc -> Mem0ServerRequest.MemoryCreate.builder()
-						.messages(
-								List.of(new Mem0ServerRequest.Message(doc.getMetadata().get("role")
-										.toString(), doc.getText())))
-						.metadata(doc.getMetadata())
-						.agentId(doc.getMetadata().containsKey(AGENT_ID) ? doc.getMetadata().get(AGENT_ID)
-								.toString() : null)
-						.runId(doc.getMetadata().containsKey(RUN_ID) ? doc.getMetadata().get(RUN_ID).toString() : null)
-						.userId(doc.getMetadata().containsKey(USER_ID) ? doc.getMetadata().get(USER_ID)
-								.toString() : null)
-						.build())
-				.toList();
-		// TODO 增加异步方式
-		messages.forEach(mem0Client::addMemory);
+		// 同一 user/agent/run 的消息合并为一次 add 调用，异步模式下由 Mem0ServiceClient 排队批量发送
+		Map<List<String>, List<Document>> groups = documents.stream()
+				.collect(Collectors.groupingBy(doc -> Arrays.asList(metadataValue(doc, USER_ID),
+						metadataValue(doc, AGENT_ID), metadataValue(doc, RUN_ID)), LinkedHashMap::new,
+						Collectors.toList()));
+		groups.forEach((key, group) -> {
+			Map<String, Object> metadata = new HashMap<>();
+			group.forEach(doc -> metadata.putAll(doc.getMetadata()));
+			if (group.size() > 1) {
+				metadata.remove("role");
+			}
+			mem0Client.addMemory(Mem0ServerRequest.MemoryCreate.builder()
+					.messages(group.stream()
+							.map(doc -> new Mem0ServerRequest.Message(doc.getMetadata().get("role").toString(),
+									doc.getText()))
+							.toList())
+					.metadata(metadata)
+					.userId(key.get(0))
+					.agentId(key.get(1))
+					.runId(key.get(2))
+					.build());
+		});
+	}
+
+	private static String metadataValue(Document doc, String key) {
+		Object value = doc.getMetadata().get(key);
+		return value != null ? value.toString() : null;
 	}
 
 	@Override
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.memory.mem0.core;
+
+import com.alibaba.cloud.ai.memory.mem0.model.Mem0ServerResp;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache of Mem0 search results.
+ *
+ * Entries are keyed by the serialized search request and remember the user, agent and run
+ * they were filtered by, so that adding memories for any of them drops the affected
+ * results.
+ */
+class Mem0SearchCache {
+
+	private final long ttlNanos;
+
+	private final LongSupplier ticker;
+
+	private final Map<String, Entry> entries;
+
+	Mem0SearchCache(Duration ttl, int maxEntries) {
+		this(ttl, maxEntries, System::nanoTime);
+	}
+
+	Mem0SearchCache(Duration ttl, int maxEntries, LongSupplier ticker) {
+		this.ttlNanos = ttl.toNanos();
+		this.ticker = ticker;
+		this.entries = Collections.synchronizedMap(new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return size() > maxEntries;
+			}
+		});
+	}
+
+	Mem0ServerResp get(String key) {
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (ticker.getAsLong() - entry.cachedAtNanos() >= ttlNanos) {
+			entries.remove(key, entry);
+			return null;
+		}
+		return entry.response();
+	}
+
+	void put(String key, List<String> owners, Mem0ServerResp response) {
+		entries.put(key, new Entry(owners, response, ticker.getAsLong()));
+	}
+
+	/**
+	 * Drop the cached results filtered by any of the given users, agents or runs
+	 */
+	void invalidate(Collection<String> owners) {
+		synchronized (entries) {
+			entries.values().removeIf(entry -> !Collections.disjoint(entry.owners(), owners));
+		}
+	}
+
+	void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Every identity a request or memory belongs to: its user, agent and run, whichever
+	 * are set
+	 */
+	static List<String> owners(String userId, String agentId, String runId) {
+		List<String> owners = new ArrayList<>(3);
+		if (userId != null) {
+			owners.add("user:" + userId);
+		}
+		if (agentId != null) {
+			owners.add("agent:" + agentId);
+		}
+		if (runId != null) {
+			owners.add("run:" + runId);
+		}
+		return owners;
+	}
+
+	private record Entry(List<String> owners, Mem0ServerResp response, long cachedAtNanos) {
+	}
+
+}
@@ -34,10 +34,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -45,12 +41,18 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
 
 /**
  * Mem0 API Client Implementation
  *
  * Directly calls the Mem0 REST API interface. Reference documentation:
  * http://localhost:8888/docs
+ *
+ * With async enabled, {@link #addMemory} only queues the memory; a background flusher
+ * merges the memories of each user, agent and run into one add call. Search results are
+ * cached per user for {@code cacheTtlSeconds} when the cache is enabled, and dropped
+ * as soon as memories are added for that user. The {@code *Reactive} methods never block.
  */
 public class Mem0ServiceClient {
 
@@ -60,12 +62,14 @@ public class Mem0ServiceClient {
 	private static final String MEMORIES_ENDPOINT = "/memories";
 	private static final String SEARCH_ENDPOINT = "/search";
 	private static final String RESET_ENDPOINT = "/reset";
+	private static final int SEARCH_CACHE_MAX_ENTRIES = 1024;
 	private final WebClient webClient;
 	private final ObjectMapper objectMapper;
 	private final Mem0Client mem0Client;
 	private final Mem0Server mem0Server;
 	private final ResourceLoader resourceLoader;
-	private final Executor asyncExecutor;
+	private final Mem0IngestionQueue ingestionQueue;
+	private final Mem0SearchCache searchCache;
 
 	/**
 	 * Constructor
@@ -87,24 +91,16 @@ public class Mem0ServiceClient {
 				.defaultHeader("Content-Type", "application/json")
 				.build();
 
-		// Initialize async executor for memory operations
+		// Async operations run on the non-blocking client, only ingestion has its own flusher
 		Mem0Client.AsyncConfig async = mem0Client.getAsync();
-		if (async.isEnabled()) {
-			this.asyncExecutor = Executors.newFixedThreadPool(async.getMaxPoolSize(), new ThreadFactory() {
-				private final AtomicInteger threadNumber = new AtomicInteger(1);
-
-				@Override
-				public Thread newThread(Runnable r) {
-					Thread t = new Thread(r, async.getThreadNamePrefix() + threadNumber.getAndIncrement());
-					t.setDaemon(true);
-					return t;
-				}
-			});
-		}
-		else {
-			// If async is disabled, use a synchronous executor
-			this.asyncExecutor = Runnable::run;
-		}
+		this.ingestionQueue = async.isEnabled()
+				? new Mem0IngestionQueue(this::addMemoryReactive, async.getQueueCapacity(), async.getMaxBatchSize(),
+						Duration.ofMillis(async.getFlushIntervalMillis()), async.getMaxPoolSize(),
+						async.getThreadNamePrefix() + "ingestion")
+				: null;
+		this.searchCache = mem0Client.isEnableCache() && mem0Client.getCacheTtlSeconds() > 0
+				? new Mem0SearchCache(Duration.ofSeconds(mem0Client.getCacheTtlSeconds()), SEARCH_CACHE_MAX_ENTRIES)
+				: null;
 	}
 
 	/**
@@ -152,14 +148,12 @@ public class Mem0ServiceClient {
 	}
 
 	/**
-	 * Add memory - automatically chooses sync or async based on configuration
+	 * Add memory - automatically chooses sync or async based on configuration. Async adds
+	 * are queued and sent in batches, they never block the caller
 	 */
 	public void addMemory(Mem0ServerRequest.MemoryCreate memoryCreate) {
-		if (mem0Client.getAsync().isEnabled()) {
-			// Execute asynchronously
-			CompletableFuture.runAsync(() -> {
-				executeAddMemory(memoryCreate);
-			}, asyncExecutor);
+		if (ingestionQueue != null) {
+			ingestionQueue.offer(memoryCreate);
 		}
 		else {
 			// Execute synchronously
@@ -171,9 +165,30 @@ public class Mem0ServiceClient {
 	 * Add memory asynchronously - returns CompletableFuture for advanced usage
 	 */
 	public CompletableFuture<Void> addMemoryAsync(Mem0ServerRequest.MemoryCreate memoryCreate) {
-		return CompletableFuture.runAsync(() -> {
-			executeAddMemory(memoryCreate);
-		}, asyncExecutor);
+		return addMemoryReactive(memoryCreate).toFuture();
+	}
+
+	/**
+	 * Add memory without blocking, the memory is sent when the returned Mono is subscribed
+	 */
+	public Mono<Void> addMemoryReactive(Mem0ServerRequest.MemoryCreate memoryCreate) {
+		return Mono.fromCallable(() -> objectMapper.writeValueAsString(memoryCreate))
+				.flatMap(requestJson -> webClient.post()
+						.uri(MEMORIES_ENDPOINT)
+						.contentType(MediaType.APPLICATION_JSON)
+						.body(BodyInserters.fromValue(requestJson))
+						.retrieve()
+						.bodyToMono(String.class)
+						.timeout(Duration.ofSeconds(mem0Client.getTimeoutSeconds()))
+						.retry(mem0Client.getMaxRetryAttempts()))
+				.doOnNext(response -> {
+					if (searchCache != null) {
+						searchCache.invalidate(Mem0SearchCache.owners(memoryCreate.getUserId(),
+								memoryCreate.getAgentId(), memoryCreate.getRunId()));
+					}
+					logger.info("Successfully added memory with {} messages", memoryCreate.getMessages().size());
+				})
+				.then();
 	}
 
 	/**
@@ -181,24 +196,7 @@ public class Mem0ServiceClient {
 	 */
 	private void executeAddMemory(Mem0ServerRequest.MemoryCreate memoryCreate) {
 		try {
-			// Add debugging information
-			String requestJson = objectMapper.writeValueAsString(memoryCreate);
-
-			String response = webClient.post()
-					.uri(MEMORIES_ENDPOINT)
-					.contentType(MediaType.APPLICATION_JSON)
-					.body(BodyInserters.fromValue(requestJson))
-					.retrieve()
-					.bodyToMono(String.class)
-					.timeout(Duration.ofSeconds(mem0Client.getTimeoutSeconds()))
-					.retry(mem0Client.getMaxRetryAttempts())
-					.block();
-
-			if (response != null) {
-				objectMapper.readValue(response, new TypeReference<Map<String, Object>>() {
-				});
-				logger.info("Successfully added memory with {} messages", memoryCreate.getMessages().size());
-			}
+			addMemoryReactive(memoryCreate).block();
 		}
 		catch (WebClientResponseException e) {
 			String errorBody = e.getResponseBodyAsString();
@@ -217,34 +215,35 @@ public class Mem0ServiceClient {
 	 */
 	public Mem0ServerResp getAllMemories(String userId, String runId, String agentId) {
 		try {
-			String response = webClient.get().uri(uriBuilder -> {
-						uriBuilder.path(MEMORIES_ENDPOINT);
-						if (userId != null)
-							uriBuilder.queryParam("user_id", userId);
-						if (runId != null)
-							uriBuilder.queryParam("run_id", runId);
-						if (agentId != null)
-							uriBuilder.queryParam("agent_id", agentId);
-						return uriBuilder.build();
-					})
-					.retrieve()
-					.bodyToMono(String.class)
-					.timeout(Duration.ofSeconds(this.mem0Client.getTimeoutSeconds()))
-					.retry(this.mem0Client.getMaxRetryAttempts())
-					.block();
-
-			if (response != null) {
-				// Mem0 service returns data in the format {"results":[],"relations":[]}
-				return objectMapper.readValue(response, new TypeReference<Mem0ServerResp>() {
-				});
-			}
+			return getAllMemoriesReactive(userId, runId, agentId).block();
 		}
 		catch (Exception e) {
 			logger.error("Failed to get memories: {}", e.getMessage(), e);
 			throw new RuntimeException("Failed to get memories", e);
 		}
+	}
 
-		return new Mem0ServerResp();
+	/**
+	 * Get all memory without blocking
+	 */
+	public Mono<Mem0ServerResp> getAllMemoriesReactive(String userId, String runId, String agentId) {
+		return webClient.get().uri(uriBuilder -> {
+					uriBuilder.path(MEMORIES_ENDPOINT);
+					if (userId != null)
+						uriBuilder.queryParam("user_id", userId);
+					if (runId != null)
+						uriBuilder.queryParam("run_id", runId);
+					if (agentId != null)
+						uriBuilder.queryParam("agent_id", agentId);
+					return uriBuilder.build();
+				})
+				.retrieve()
+				.bodyToMono(String.class)
+				.timeout(Duration.ofSeconds(this.mem0Client.getTimeoutSeconds()))
+				.retry(this.mem0Client.getMaxRetryAttempts())
+				// Mem0 service returns data in the format {"results":[],"relations":[]}
+				.map(this::readServerResp)
+				.defaultIfEmpty(new Mem0ServerResp());
 	}
 
 	/**
@@ -279,17 +278,33 @@ public class Mem0ServiceClient {
 	 */
 	public Mem0ServerResp searchMemories(Mem0ServerRequest.SearchRequest searchRequest) {
 		try {
-			// The SEARCH_ENDPOINT requires the query field to have a value, so a fallback
-			// mechanism is implemented
-			if (!StringUtils.hasText(searchRequest.getQuery())) {
-				return getAllMemories(searchRequest.getUserId(), searchRequest.getRunId(), searchRequest.getAgentId());
-			}
-
-			// Add debug logging
-			String requestJson = objectMapper.writeValueAsString(searchRequest);
-			logger.info("Sending search request to Mem0: {}", requestJson);
+			return searchMemoriesReactive(searchRequest).block();
+		}
+		catch (Exception e) {
+			logger.error("Failed to search memories: {}", e.getMessage(), e);
+			throw new RuntimeException("Failed to search memories", e);
+		}
+	}
 
-			String response = webClient.post()
+	/**
+	 * Search memory without blocking, recent results of the same request are served from
+	 * the cache
+	 */
+	public Mono<Mem0ServerResp> searchMemoriesReactive(Mem0ServerRequest.SearchRequest searchRequest) {
+		// The SEARCH_ENDPOINT requires the query field to have a value, so a fallback
+		// mechanism is implemented
+		if (!StringUtils.hasText(searchRequest.getQuery())) {
+			return getAllMemoriesReactive(searchRequest.getUserId(), searchRequest.getRunId(),
+					searchRequest.getAgentId());
+		}
+		return Mono.fromCallable(() -> objectMapper.writeValueAsString(searchRequest)).flatMap(requestJson -> {
+			Mem0ServerResp cached = searchCache != null ? searchCache.get(requestJson) : null;
+			if (cached != null) {
+				logger.debug("Serving Mem0 search from cache: {}", requestJson);
+				return Mono.just(cached);
+			}
+			logger.debug("Sending search request to Mem0: {}", requestJson);
+			return webClient.post()
 					.uri(SEARCH_ENDPOINT)
 					.contentType(MediaType.APPLICATION_JSON)
 					.body(BodyInserters.fromValue(requestJson))
@@ -297,23 +312,27 @@ public class Mem0ServiceClient {
 					.bodyToMono(String.class)
 					.timeout(Duration.ofSeconds(this.mem0Client.getTimeoutSeconds()))
 					.retry(this.mem0Client.getMaxRetryAttempts())
-					.block();
-
-			if (response != null) {
-				logger.info("Received response from Mem0: " + response);
-				// The Mem0 service returns data in the format
-				// {"results":[],"relations":[]}
-				return objectMapper.readValue(response, new TypeReference<Mem0ServerResp>() {
-				});
+					// The Mem0 service returns data in the format
+					// {"results":[],"relations":[]}
+					.map(this::readServerResp)
+					.doOnNext(response -> {
+						if (searchCache != null) {
+							searchCache.put(requestJson, Mem0SearchCache.owners(searchRequest.getUserId(),
+									searchRequest.getAgentId(), searchRequest.getRunId()), response);
+						}
+					})
+					.defaultIfEmpty(new Mem0ServerResp());
+		});
+	}
 
-			}
+	private Mem0ServerResp readServerResp(String response) {
+		try {
+			return objectMapper.readValue(response, new TypeReference<Mem0ServerResp>() {
+			});
 		}
-		catch (Exception e) {
-			logger.error("Failed to search memories: {}", e.getMessage(), e);
-			throw new RuntimeException("Failed to search memories", e);
+		catch (JsonProcessingException e) {
+			throw new IllegalStateException("Failed to parse Mem0 response: " + response, e);
 		}
-
-		return new Mem0ServerResp();
 	}
 
 	/**
@@ -322,9 +341,8 @@ public class Mem0ServiceClient {
 	public Map<String, Object> updateMemory(String memoryId, Map<String, Object> updatedMemory) {
 		if (mem0Client.getAsync().isEnabled()) {
 			// Execute asynchronously and return empty result immediately
-			CompletableFuture.runAsync(() -> {
-				executeUpdateMemory(memoryId, updatedMemory);
-			}, asyncExecutor);
+			updateMemoryReactive(memoryId, updatedMemory).subscribe(result -> {
+			}, e -> logger.error("Failed to update memory {}: {}", memoryId, e.getMessage(), e));
 			return new HashMap<>();
 		}
 		else {
@@ -338,9 +356,31 @@ public class Mem0ServiceClient {
 	 */
 	public CompletableFuture<Map<String, Object>> updateMemoryAsync(String memoryId,
 																	Map<String, Object> updatedMemory) {
-		return CompletableFuture.supplyAsync(() -> {
-			return executeUpdateMemory(memoryId, updatedMemory);
-		}, asyncExecutor);
+		return updateMemoryReactive(memoryId, updatedMemory).toFuture();
+	}
+
+	/**
+	 * Update memory without blocking
+	 */
+	public Mono<Map<String, Object>> updateMemoryReactive(String memoryId, Map<String, Object> updatedMemory) {
+		return webClient.put()
+				.uri(MEMORIES_ENDPOINT + "/{memoryId}", memoryId)
+				.bodyValue(updatedMemory)
+				.retrieve()
+				.bodyToMono(String.class)
+				.timeout(Duration.ofSeconds(mem0Client.getTimeoutSeconds()))
+				.retry(mem0Client.getMaxRetryAttempts())
+				.<Map<String, Object>>handle((response, sink) -> {
+					try {
+						sink.next(objectMapper.readValue(response, new TypeReference<Map<String, Object>>() {
+						}));
+						logger.info("Successfully updated memory: " + memoryId);
+					}
+					catch (JsonProcessingException e) {
+						sink.error(e);
+					}
+				})
+				.defaultIfEmpty(new HashMap<>());
 	}
 
 	/**
@@ -348,28 +388,12 @@ public class Mem0ServiceClient {
 	 */
 	private Map<String, Object> executeUpdateMemory(String memoryId, Map<String, Object> updatedMemory) {
 		try {
-			String response = webClient.put()
-					.uri(MEMORIES_ENDPOINT + "/{memoryId}", memoryId)
-					.bodyValue(updatedMemory)
-					.retrieve()
-					.bodyToMono(String.class)
-					.timeout(Duration.ofSeconds(mem0Client.getTimeoutSeconds()))
-					.retry(mem0Client.getMaxRetryAttempts())
-					.block();
-
-			if (response != null) {
-				Map<String, Object> result = objectMapper.readValue(response, new TypeReference<Map<String, Object>>() {
-				});
-				logger.info("Successfully updated memory: " + memoryId);
-				return result;
-			}
+			return updateMemoryReactive(memoryId, updatedMemory).block();
 		}
 		catch (Exception e) {
 			logger.error("Failed to update memory {}: {}", memoryId, e.getMessage(), e);
 			throw new RuntimeException("Failed to update memory", e);
 		}
-
-		return new HashMap<>();
 	}
 
 
@@ -467,6 +491,9 @@ public class Mem0ServiceClient {
 					.timeout(Duration.ofSeconds(this.mem0Client.getTimeoutSeconds()))
 					.block();
 
+			if (searchCache != null) {
+				searchCache.invalidate(Mem0SearchCache.owners(userId, agentId, runId));
+			}
 			logger.info("Successfully deleted all memories");
 		}
 		catch (Exception e) {
@@ -487,6 +514,9 @@ public class Mem0ServiceClient {
 					.timeout(Duration.ofSeconds(this.mem0Client.getTimeoutSeconds()))
 					.block();
 
+			if (searchCache != null) {
+				searchCache.clear();
+			}
 			logger.info("Successfully reset all memories");
 		}
 		catch (Exception e) {
@@ -508,12 +538,12 @@ public class Mem0ServiceClient {
 	}
 
 	/**
-	 * Shutdown the async executor
+	 * Send memories that are still queued and stop the ingestion flusher
 	 */
 	public void shutdown() {
-		if (asyncExecutor instanceof java.util.concurrent.ExecutorService) {
-			((java.util.concurrent.ExecutorService) asyncExecutor).shutdown();
-			logger.info("Mem0ServiceClient async executor shutdown completed");
+		if (ingestionQueue != null) {
+			ingestionQueue.shutdown();
+			logger.info("Mem0ServiceClient ingestion queue shutdown completed");
 		}
 	}
 
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.memory.mem0.core;
+
+import com.alibaba.cloud.ai.memory.mem0.model.Mem0ServerRequest;
+import com.alibaba.cloud.ai.memory.mem0.model.Mem0ServerResp;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for Mem0IngestionQueue and Mem0SearchCache
+ */
+class Mem0IngestionQueueTest {
+
+	@Test
+	void testBatchMergesSameOwnerAndSplitsBySize() {
+		List<Mem0ServerRequest.MemoryCreate> batches = Mem0IngestionQueue
+			.batch(List.of(memory("u1", "a"), memory("u2", "b"), memory("u1", "c"), memory("u1", "d")), 2);
+
+		assertThat(batches).hasSize(3);
+		assertThat(batches.get(0).getUserId()).isEqualTo("u1");
+		assertThat(batches.get(0).getMessages()).extracting(Mem0ServerRequest.Message::getContent)
+			.containsExactly("a", "c");
+		assertThat(batches.get(1).getMessages()).extracting(Mem0ServerRequest.Message::getContent)
+			.containsExactly("d");
+		assertThat(batches.get(1).getMetadata()).doesNotContainKey("role");
+		assertThat(batches.get(2).getUserId()).isEqualTo("u2");
+	}
+
+	@Test
+	void testOfferDropsWhenFullAndShutdownFlushes() {
+		List<Mem0ServerRequest.MemoryCreate> sent = new CopyOnWriteArrayList<>();
+		Mem0IngestionQueue queue = new Mem0IngestionQueue(memory -> Mono.fromRunnable(() -> sent.add(memory)), 2,
+				10, Duration.ofHours(1), 1, "mem0-ingestion-test");
+
+		assertThat(queue.offer(memory("u1", "a"))).isTrue();
+		assertThat(queue.offer(memory("u1", "b"))).isTrue();
+		assertThat(queue.offer(memory("u1", "c"))).isFalse();
+		assertThat(queue.getDroppedCount()).isEqualTo(1);
+
+		queue.shutdown();
+		assertThat(sent).hasSize(1);
+		assertThat(sent.get(0).getMessages()).hasSize(2);
+	}
+
+	@Test
+	void testSearchCacheExpiresAndInvalidatesByOwner() {
+		AtomicLong now = new AtomicLong();
+		Mem0SearchCache cache = new Mem0SearchCache(Duration.ofSeconds(10), 16, now::get);
+		Mem0ServerResp first = new Mem0ServerResp();
+		Mem0ServerResp second = new Mem0ServerResp();
+		cache.put("q1", Mem0SearchCache.owners("u1", null, null), first);
+		cache.put("q2", Mem0SearchCache.owners("u2", null, null), second);
+
+		assertThat(cache.get("q1")).isSameAs(first);
+		cache.invalidate(List.of("user:u1"));
+		assertThat(cache.get("q1")).isNull();
+		assertThat(cache.get("q2")).isSameAs(second);
+
+		now.addAndGet(Duration.ofSeconds(11).toNanos());
+		assertThat(cache.get("q2")).isNull();
+	}
+
+	@Test
+	void testSearchCacheInvalidatesEveryOwnerOfAddedMemory() {
+		Mem0SearchCache cache = new Mem0SearchCache(Duration.ofSeconds(10), 16);
+		Mem0ServerResp byUser = new Mem0ServerResp();
+		Mem0ServerResp byAgent = new Mem0ServerResp();
+		Mem0ServerResp byRun = new Mem0ServerResp();
+		Mem0ServerResp other = new Mem0ServerResp();
+		cache.put("q1", Mem0SearchCache.owners("u1", null, null), byUser);
+		cache.put("q2", Mem0SearchCache.owners(null, "a1", null), byAgent);
+		cache.put("q3", Mem0SearchCache.owners(null, null, "r1"), byRun);
+		cache.put("q4", Mem0SearchCache.owners("u2", "a2", null), other);
+
+		// a memory of user u1 written by agent a1 in run r1
+		cache.invalidate(Mem0SearchCache.owners("u1", "a1", "r1"));
+
+		assertThat(cache.get("q1")).isNull();
+		assertThat(cache.get("q2")).isNull();
+		assertThat(cache.get("q3")).isNull();
+		assertThat(cache.get("q4")).isSameAs(other);
+	}
+
+	@Test
+	void testShutdownWaitsForRunningFlush() throws Exception {
+		List<Mem0ServerRequest.MemoryCreate> sent = new CopyOnWriteArrayList<>();
+		CountDownLatch sending = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Mem0IngestionQueue queue = new Mem0IngestionQueue(memory -> Mono.fromRunnable(() -> {
+			sending.countDown();
+			try {
+				release.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			sent.add(memory);
+		}), 10, 10, Duration.ofHours(1), 1, "mem0-ingestion-test");
+		queue.offer(memory("u1", "a"));
+		Thread flushing = new Thread(queue::flush);
+		flushing.start();
+		assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+		queue.offer(memory("u2", "b"));
+
+		Thread stopping = new Thread(queue::shutdown);
+		stopping.start();
+		stopping.join(200);
+		// the final flush must not run next to the one in progress
+		assertThat(stopping.isAlive()).isTrue();
+		assertThat(sent).isEmpty();
+
+		release.countDown();
+		stopping.join(5000);
+		flushing.join(5000);
+		assertThat(sent).extracting(Mem0ServerRequest.MemoryCreate::getUserId).containsExactly("u1", "u2");
+	}
+
+	private static Mem0ServerRequest.MemoryCreate memory(String userId, String content) {
+		return Mem0ServerRequest.MemoryCreate.builder()
+			.messages(List.of(new Mem0ServerRequest.Message("user", content)))
+			.metadata(Map.of("role", "user", "source", "test"))
+			.userId(userId)
+			.build();
+	}
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.memory.memcached;
+
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.memory.InMemoryChatMemoryRepository;
+import org.springframework.ai.chat.memory.MessageWindowChatMemory;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.util.Assert;
+
+import java.util.List;
+
+/**
+ * Message window ChatMemory that saves through
+ * {@link MemcachedChatMemoryRepository#saveAll(String, List, List)}.
+ * <p>
+ * {@link MessageWindowChatMemory} reads the conversation and saves the new window with
+ * {@code saveAll(conversationId, messages)}, so with
+ * {@link MemcachedChatMemoryRepository.Mode#SHARDED_CAS} the last of two concurrent turns
+ * still replaces the other's messages. This applies the same window but passes the
+ * messages it read as the base, so messages appended concurrently are kept.
+ */
+public class MemcachedChatMemory implements ChatMemory {
+
+	private static final int DEFAULT_MAX_MESSAGES = 20;
+
+	private final MemcachedChatMemoryRepository repository;
+
+	private final int maxMessages;
+
+	public MemcachedChatMemory(MemcachedChatMemoryRepository repository) {
+		this(repository, DEFAULT_MAX_MESSAGES);
+	}
+
+	public MemcachedChatMemory(MemcachedChatMemoryRepository repository, int maxMessages) {
+		Assert.notNull(repository, "repository cannot be null");
+		Assert.isTrue(maxMessages > 0, "maxMessages must be greater than 0");
+		this.repository = repository;
+		this.maxMessages = maxMessages;
+	}
+
+	@Override
+	public void add(String conversationId, List<Message> messages) {
+		Assert.hasText(conversationId, "conversationId cannot be null or empty");
+		Assert.notNull(messages, "messages cannot be null");
+		Assert.noNullElements(messages, "messages cannot contain null elements");
+		List<Message> base = repository.findByConversationId(conversationId);
+		// compute the window like MessageWindowChatMemory does, on a local copy
+		InMemoryChatMemoryRepository window = new InMemoryChatMemoryRepository();
+		window.saveAll(conversationId, base);
+		MessageWindowChatMemory.builder()
+			.chatMemoryRepository(window)
+			.maxMessages(maxMessages)
+			.build()
+			.add(conversationId, messages);
+		repository.saveAll(conversationId, base, window.findByConversationId(conversationId));
+	}
+
+	@Override
+	public List<Message> get(String conversationId) {
+		Assert.hasText(conversationId, "conversationId cannot be null or empty");
+		return repository.findByConversationId(conversationId);
+	}
+
+	@Override
+	public void clear(String conversationId) {
+		Assert.hasText(conversationId, "conversationId cannot be null or empty");
+		repository.deleteByConversationId(conversationId);
+	}
+
+}
@@ -28,6 +28,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.memory.ChatMemoryRepository;
 import org.springframework.ai.chat.messages.Message;
+import org.springframework.util.Assert;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -35,6 +36,12 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Memcached implementation of ChatMemoryRepository auth: dahua
+ *
+ * With {@link Mode#SHARDED_CAS} conversations are updated with {@code gets}/{@code cas}
+ * and retried on conflicts, so concurrent saves never tear a conversation, and long
+ * histories are spread across several items of bounded size. Turns that pass the messages
+ * they read to {@link #saveAll(String, List, List)} do not lose each other's messages,
+ * {@link MemcachedChatMemory} does so.
  */
 public class MemcachedChatMemoryRepository implements ChatMemoryRepository, AutoCloseable {
 
@@ -48,8 +55,33 @@ public class MemcachedChatMemoryRepository implements ChatMemoryRepository, Auto
 
 	private static final String DEFAULT_KEY_PREFIX = "spring_ai_alibaba_chat_memory:";
 
+	private static final String SHARDED_KEY_PREFIX = "spring_ai_alibaba_chat_memory_sharded:";
+
+	public static final int DEFAULT_MAX_SHARD_BYTES = 512 * 1024;
+
+	public static final int DEFAULT_MAX_RETRIES = 10;
+
+	private final ShardedConversationStore shardedStore;
+
 	public MemcachedChatMemoryRepository(MemcachedService memcachedService) {
+		this(memcachedService, Mode.SINGLE_VALUE, DEFAULT_MAX_SHARD_BYTES, DEFAULT_MAX_RETRIES);
+	}
+
+	/**
+	 * @param memcachedService memcached service
+	 * @param mode how conversations are stored
+	 * @param maxShardBytes most serialized message bytes per item with
+	 * {@link Mode#SHARDED_CAS}, a single larger message still gets an item of its own
+	 * @param maxRetries retries on concurrent modification with {@link Mode#SHARDED_CAS}
+	 */
+	public MemcachedChatMemoryRepository(MemcachedService memcachedService, Mode mode, int maxShardBytes,
+			int maxRetries) {
+		Assert.notNull(mode, "mode cannot be null");
+		Assert.isTrue(maxShardBytes > 0, "maxShardBytes must be positive");
+		Assert.isTrue(maxRetries >= 0, "maxRetries cannot be negative");
 		this.memcachedService = memcachedService;
+		this.shardedStore = mode == Mode.SHARDED_CAS ? new ShardedConversationStore(
+				memcachedService.getMemcachedClient(), SHARDED_KEY_PREFIX, maxShardBytes, maxRetries) : null;
 		this.objectMapper = JsonMapper.builder()
 			.configure(MapperFeature.AUTO_DETECT_GETTERS, false)
 			.configure(MapperFeature.AUTO_DETECT_IS_GETTERS, false)
@@ -73,45 +105,79 @@ public class MemcachedChatMemoryRepository implements ChatMemoryRepository, Auto
 
 	@Override
 	public List<Message> findByConversationId(String conversationId) {
+		if (shardedStore != null) {
+			return shardedStore.read(conversationId).stream().map(this::deserialize).toList();
+		}
 		Object apply = this.memcachedService.getter()
 			.apply(new MemcachedService.MemcachedServiceGetter.Request(DEFAULT_KEY_PREFIX + conversationId));
 		if (apply != null) {
 			List<String> messageList = (List<String>) apply;
-			return messageList.stream().map(messageStr -> {
-				try {
-					return objectMapper.readValue(messageStr, Message.class);
-				}
-				catch (JsonProcessingException e) {
-					throw new RuntimeException("Error deserializing message", e);
-				}
-			}).toList();
+			return messageList.stream().map(this::deserialize).toList();
 		}
 		return List.of();
 	}
 
+	/**
+	 * Replace the messages of a conversation. With {@link Mode#SHARDED_CAS} the save is
+	 * still atomic, but it cannot tell which stored messages the caller has seen, so the
+	 * last of two concurrent saves wins. Use {@link #saveAll(String, List, List)} to keep
+	 * them both.
+	 */
 	@Override
 	public void saveAll(String conversationId, List<Message> messages) {
+		if (shardedStore != null) {
+			saveSharded(conversationId, null, messages);
+			return;
+		}
 		List<String> conversationIds = findConversationIds() == null ? new ArrayList<>() : findConversationIds();
 		// 保障消息顺序
 		conversationIds.remove(conversationId);
 		conversationIds.add(conversationId);
 		this.memcachedService.setter()
 			.apply(new MemcachedService.MemcachedServiceSetter.Request(DEFAULT_CONVERSATION, conversationIds, 0));
-		List<String> serializingMessage = messages.stream().map(message -> {
-			try {
-				return this.objectMapper.writeValueAsString(message);
-			}
-			catch (JsonProcessingException e) {
-				throw new RuntimeException("Error serializing message", e);
-			}
-		}).toList();
+		List<String> serializingMessage = messages.stream().map(this::serialize).toList();
 		this.memcachedService.setter()
 			.apply(new MemcachedService.MemcachedServiceSetter.Request(DEFAULT_KEY_PREFIX + conversationId,
 					serializingMessage, 0));
 	}
 
+	/**
+	 * Save {@code messages} computed from {@code base}, the messages the caller read
+	 * before. With {@link Mode#SHARDED_CAS} messages other writers appended since
+	 * {@code base} was read are kept and the caller's new messages are added behind them,
+	 * and leading messages the caller dropped are dropped too. Otherwise, or when the
+	 * caller did not build on {@code base}, this is {@link #saveAll(String, List)}.
+	 * @param conversationId the conversation
+	 * @param base the messages read before, as returned by {@link #findByConversationId}
+	 * @param messages the messages to store
+	 */
+	public void saveAll(String conversationId, List<Message> base, List<Message> messages) {
+		if (shardedStore != null) {
+			saveSharded(conversationId, base, messages);
+			return;
+		}
+		saveAll(conversationId, messages);
+	}
+
+	private void saveSharded(String conversationId, List<Message> base, List<Message> messages) {
+		List<String> serializedBase = base == null ? null : base.stream().map(this::serialize).toList();
+		List<String> serialized = messages.stream().map(this::serialize).toList();
+		if (shardedStore.update(conversationId,
+				current -> ShardedConversationStore.rebase(serializedBase, current, serialized))) {
+			addConversationId(conversationId);
+		}
+	}
+
 	@Override
 	public void deleteByConversationId(String conversationId) {
+		if (shardedStore != null) {
+			shardedStore.delete(conversationId);
+			shardedStore.updateList(DEFAULT_CONVERSATION, ids -> {
+				ids.remove(conversationId);
+				return ids;
+			});
+			return;
+		}
 		List<String> conversationIds = findConversationIds();
 		conversationIds.remove(conversationId);
 		this.memcachedService.setter()
@@ -122,6 +188,12 @@ public class MemcachedChatMemoryRepository implements ChatMemoryRepository, Auto
 
 	public void clearOverLimit(String conversationId, int maxLimit, int deleteSize) {
 		final int finalDeleteSize = deleteSize > maxLimit ? maxLimit : deleteSize;
+		if (shardedStore != null) {
+			// trim the messages stored at the time of the update, not a copy read earlier
+			shardedStore.update(conversationId, current -> current.size() >= maxLimit
+					? current.subList(finalDeleteSize, current.size()) : current);
+			return;
+		}
 		List<Message> messages = findByConversationId(conversationId);
 		List<Message> lastMessages = new ArrayList<>();
 		AtomicInteger index = new AtomicInteger(0);
@@ -136,4 +208,55 @@ public class MemcachedChatMemoryRepository implements ChatMemoryRepository, Auto
 		saveAll(conversationId, lastMessages);
 	}
 
+	private void addConversationId(String conversationId) {
+		shardedStore.updateList(DEFAULT_CONVERSATION, ids -> {
+			if (!ids.contains(conversationId)) {
+				ids.add(conversationId);
+			}
+			return ids;
+		});
+	}
+
+	private String serialize(Message message) {
+		try {
+			return this.objectMapper.writeValueAsString(message);
+		}
+		catch (JsonProcessingException e) {
+			throw new RuntimeException("Error serializing message", e);
+		}
+	}
+
+	private Message deserialize(String message) {
+		try {
+			return this.objectMapper.readValue(message, Message.class);
+		}
+		catch (JsonProcessingException e) {
+			throw new RuntimeException("Error deserializing message", e);
+		}
+	}
+
+	/**
+	 * How conversations are stored in memcached
+	 */
+	public enum Mode {
+
+		/**
+		 * The whole conversation in one item, rewritten on every save. Concurrent saves
+		 * of a conversation overwrite each other.
+		 */
+		SINGLE_VALUE,
+
+		/**
+		 * A manifest item per conversation pointing at shard items of at most
+		 * {@code maxShardBytes}. Saves write only the shards that changed and swap the
+		 * manifest with {@code cas}, retrying on conflicts, so a save never tears another
+		 * one. {@link #saveAll(String, List)} replaces the conversation like any other
+		 * repository, use {@link #saveAll(String, List, List)} to keep messages appended
+		 * concurrently by other turns, as {@link MemcachedChatMemory} does. Reads fetch all
+		 * shards with one multi-get.
+		 */
+		SHARDED_CAS
+
+	}
+
 }
@@ -0,0 +1,381 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.memory.memcached;
+
+import com.alibaba.cloud.ai.memory.MessageOverlap;
+import com.alibaba.cloud.ai.memory.PersistedConversations;
+import net.spy.memcached.CASResponse;
+import net.spy.memcached.CASValue;
+import net.spy.memcached.MemcachedClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.UnaryOperator;
+
+/**
+ * Stores the serialized messages of a conversation across several memcached items.
+ *
+ * The head item {@code prefix + conversationId} holds a small manifest listing the shard
+ * items, each holding up to {@code maxShardBytes} of messages so no value gets near the
+ * item size limit. Shards are never modified: a write stores new shards under fresh keys
+ * and then swaps the manifest with {@code cas}, retrying when another writer got there
+ * first, so concurrent turns never overwrite each other. Only the shards touched by a
+ * save are written, the unchanged ones are referenced again by the new manifest. Reads
+ * fetch all shards with one multi-get.
+ */
+class ShardedConversationStore {
+
+	private static final Logger logger = LoggerFactory.getLogger(ShardedConversationStore.class);
+
+	private static final long TIMEOUT_SECONDS = 5;
+
+	private static final int MAX_BACKOFF_MILLIS = 50;
+
+	private final MemcachedClient client;
+
+	private final String keyPrefix;
+
+	private final int maxShardBytes;
+
+	private final int maxRetries;
+
+	/**
+	 * Last manifest seen per conversation with its messages, so unchanged conversations
+	 * are served and updated without reading their shards back
+	 */
+	private final PersistedConversations<Snapshot> snapshots = new PersistedConversations<>();
+
+	ShardedConversationStore(MemcachedClient client, String keyPrefix, int maxShardBytes, int maxRetries) {
+		this.client = client;
+		this.keyPrefix = keyPrefix;
+		this.maxShardBytes = maxShardBytes;
+		this.maxRetries = maxRetries;
+	}
+
+	List<String> read(String conversationId) {
+		for (int attempt = 0; attempt <= maxRetries; attempt++) {
+			Object manifest = client.get(keyPrefix + conversationId);
+			Snapshot snapshot = resolve(conversationId, (String) manifest);
+			if (snapshot != null) {
+				return snapshot.messages();
+			}
+			// a writer replaced the manifest and dropped its shards in between, read
+			// again
+			backoff(attempt);
+		}
+		throw new IllegalStateException("Conversation " + conversationId + " kept changing while being read");
+	}
+
+	/**
+	 * Apply {@code change} to the stored messages with optimistic concurrency
+	 * @return true if the conversation did not exist before
+	 */
+	boolean update(String conversationId, UnaryOperator<List<String>> change) {
+		String headKey = keyPrefix + conversationId;
+		for (int attempt = 0; attempt <= maxRetries; attempt++) {
+			CASValue<Object> head = client.gets(headKey);
+			Snapshot current = resolve(conversationId, head == null ? null : (String) head.getValue());
+			if (current == null) {
+				backoff(attempt);
+				continue;
+			}
+			List<String> messages = change.apply(current.messages());
+			if (head != null && messages.equals(current.messages())) {
+				return false;
+			}
+			Plan plan = plan(current, messages, maxShardBytes);
+			List<Future<Boolean>> writes = new ArrayList<>(plan.writes().size());
+			plan.writes().forEach((id, values) -> writes.add(client.set(shardKey(conversationId, id), 0, values)));
+			for (Future<Boolean> write : writes) {
+				if (!Boolean.TRUE.equals(await(write))) {
+					throw new IllegalStateException("Failed to store a shard of conversation " + conversationId);
+				}
+			}
+			String manifest = encode(plan.shards());
+			boolean stored = head == null ? Boolean.TRUE.equals(await(client.add(headKey, 0, manifest)))
+					: client.cas(headKey, head.getCas(), 0, manifest) == CASResponse.OK;
+			if (stored) {
+				snapshots.put(conversationId, new Snapshot(manifest, plan.shards(), List.copyOf(messages)));
+				plan.orphans().forEach(shard -> client.delete(shardKey(conversationId, shard.id())));
+				return head == null;
+			}
+			logger.debug("Conversation {} was modified concurrently, retrying ({}/{})", conversationId, attempt + 1,
+					maxRetries);
+			plan.writes().keySet().forEach(id -> client.delete(shardKey(conversationId, id)));
+			snapshots.remove(conversationId);
+			backoff(attempt);
+		}
+		throw new IllegalStateException("Failed to update conversation " + conversationId + " after " + (maxRetries + 1)
+				+ " attempts due to concurrent modifications");
+	}
+
+	void delete(String conversationId) {
+		String headKey = keyPrefix + conversationId;
+		Snapshot snapshot = snapshots.remove(conversationId);
+		Object manifest = client.get(headKey);
+		await(client.delete(headKey));
+		if (manifest != null) {
+			decode((String) manifest).forEach(shard -> client.delete(shardKey(conversationId, shard.id())));
+		}
+		else if (snapshot != null) {
+			snapshot.shards().forEach(shard -> client.delete(shardKey(conversationId, shard.id())));
+		}
+	}
+
+	/**
+	 * Update a plain list value, such as the conversation index, with gets and cas
+	 */
+	@SuppressWarnings("unchecked")
+	void updateList(String key, UnaryOperator<List<String>> change) {
+		for (int attempt = 0; attempt <= maxRetries; attempt++) {
+			CASValue<Object> current = client.gets(key);
+			List<String> values = current == null || current.getValue() == null ? new ArrayList<>()
+					: new ArrayList<>((List<String>) current.getValue());
+			ArrayList<String> updated = new ArrayList<>(change.apply(values));
+			if (current != null && updated.equals(current.getValue())) {
+				return;
+			}
+			boolean stored = current == null ? Boolean.TRUE.equals(await(client.add(key, 0, updated)))
+					: client.cas(key, current.getCas(), 0, updated) == CASResponse.OK;
+			if (stored) {
+				return;
+			}
+			backoff(attempt);
+		}
+		throw new IllegalStateException(
+				"Failed to update " + key + " after " + (maxRetries + 1) + " attempts due to concurrent modifications");
+	}
+
+	/**
+	 * The messages behind a manifest, or null if some shard has already been replaced. A
+	 * shard evicted while the manifest is still stored is lost data: the conversation is
+	 * treated as empty so that the next update replaces the manifest
+	 */
+	@SuppressWarnings("unchecked")
+	private Snapshot resolve(String conversationId, String manifest) {
+		if (manifest == null) {
+			return Snapshot.EMPTY;
+		}
+		Snapshot cached = snapshots.get(conversationId);
+		if (cached != null && manifest.equals(cached.manifest())) {
+			return cached;
+		}
+		List<Shard> shards = decode(manifest);
+		List<String> keys = new ArrayList<>(shards.size());
+		shards.forEach(shard -> keys.add(shardKey(conversationId, shard.id())));
+		Map<String, Object> values = keys.isEmpty() ? Map.of() : await(client.asyncGetBulk(keys));
+		List<String> messages = new ArrayList<>();
+		for (String key : keys) {
+			Object value = values.get(key);
+			if (value == null) {
+				return manifest.equals(client.get(keyPrefix + conversationId)) ? lost(conversationId, manifest, values)
+						: null;
+			}
+			messages.addAll((List<String>) value);
+		}
+		Snapshot snapshot = new Snapshot(manifest, shards, List.copyOf(messages));
+		snapshots.put(conversationId, snapshot);
+		return snapshot;
+	}
+
+	private Snapshot lost(String conversationId, String manifest, Map<String, Object> survivingShards) {
+		logger.warn("A shard of conversation {} was evicted from memcached, its messages are lost", conversationId);
+		// the manifest will be replaced without them, nothing would delete them later
+		survivingShards.keySet().forEach(client::delete);
+		Snapshot snapshot = new Snapshot(manifest, List.of(), List.of());
+		snapshots.put(conversationId, snapshot);
+		return snapshot;
+	}
+
+	private String shardKey(String conversationId, String shardId) {
+		return keyPrefix + conversationId + ":" + shardId;
+	}
+
+	/**
+	 * Lay out {@code messages} over shards, reusing every shard of {@code current} whose
+	 * messages are still there unchanged
+	 */
+	static Plan plan(Snapshot current, List<String> messages, int maxShardBytes) {
+		int dropped = MessageOverlap.overlapStart(current.messages(), messages);
+		List<Shard> shards = new ArrayList<>();
+		Map<String, ArrayList<String>> writes = new LinkedHashMap<>();
+		int next = 0;
+		// shards lying entirely after the dropped head are still valid
+		int start = 0;
+		for (Shard shard : current.shards()) {
+			if (start >= dropped) {
+				if (next < start - dropped) {
+					pack(messages.subList(next, start - dropped), maxShardBytes, shards, writes);
+				}
+				shards.add(shard);
+				next = start - dropped + shard.count();
+			}
+			start += shard.count();
+		}
+		// top up the last shard with the new messages instead of starting a small one
+		if (!shards.isEmpty() && next < messages.size() && last(shards).bytes() < maxShardBytes) {
+			next -= shards.remove(shards.size() - 1).count();
+		}
+		pack(messages.subList(next, messages.size()), maxShardBytes, shards, writes);
+		List<Shard> orphans = new ArrayList<>(current.shards());
+		orphans.removeAll(shards);
+		return new Plan(shards, writes, orphans);
+	}
+
+	private static void pack(List<String> messages, int maxShardBytes, List<Shard> shards,
+			Map<String, ArrayList<String>> writes) {
+		ArrayList<String> values = new ArrayList<>();
+		int bytes = 0;
+		for (String message : messages) {
+			int size = utf8Length(message);
+			if (!values.isEmpty() && bytes + size > maxShardBytes) {
+				addShard(values, bytes, shards, writes);
+				values = new ArrayList<>();
+				bytes = 0;
+			}
+			values.add(message);
+			bytes += size;
+		}
+		if (!values.isEmpty()) {
+			addShard(values, bytes, shards, writes);
+		}
+	}
+
+	private static void addShard(ArrayList<String> values, int bytes, List<Shard> shards,
+			Map<String, ArrayList<String>> writes) {
+		String id = Long.toHexString(UUID.randomUUID().getMostSignificantBits());
+		shards.add(new Shard(id, values.size(), bytes));
+		writes.put(id, values);
+	}
+
+	/**
+	 * Replay a save of {@code incoming}, computed by the caller from {@code base}, on top
+	 * of the currently {@code stored} messages. Messages appended by other writers since
+	 * {@code base} was read are kept, followed by the messages the caller added, and
+	 * leading messages the caller dropped are dropped too. Without a base, or when the
+	 * caller did not build on its base, the save replaces the stored messages.
+	 */
+	static List<String> rebase(List<String> base, List<String> stored, List<String> incoming) {
+		if (base == null || base.equals(stored)) {
+			return incoming;
+		}
+		int dropped = MessageOverlap.overlapStart(base, incoming);
+		if (!base.isEmpty() && dropped == base.size()) {
+			return incoming;
+		}
+		int keptFrom = stored.size() >= dropped && stored.subList(0, dropped).equals(base.subList(0, dropped)) ? dropped
+				: 0;
+		List<String> merged = new ArrayList<>(stored.subList(keptFrom, stored.size()));
+		merged.addAll(incoming.subList(base.size() - dropped, incoming.size()));
+		return merged;
+	}
+
+	static String encode(List<Shard> shards) {
+		StringBuilder manifest = new StringBuilder();
+		for (Shard shard : shards) {
+			if (!manifest.isEmpty()) {
+				manifest.append(',');
+			}
+			manifest.append(shard.id()).append(':').append(shard.count()).append(':').append(shard.bytes());
+		}
+		return manifest.toString();
+	}
+
+	static List<Shard> decode(String manifest) {
+		List<Shard> shards = new ArrayList<>();
+		if (manifest.isEmpty()) {
+			return shards;
+		}
+		for (String entry : manifest.split(",")) {
+			String[] parts = entry.split(":");
+			shards.add(new Shard(parts[0], Integer.parseInt(parts[1]), Integer.parseInt(parts[2])));
+		}
+		return shards;
+	}
+
+	private static int utf8Length(String value) {
+		int length = 0;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				length++;
+			}
+			else if (c < 0x800) {
+				length += 2;
+			}
+			else if (Character.isHighSurrogate(c)) {
+				length += 4;
+				i++;
+			}
+			else {
+				length += 3;
+			}
+		}
+		return length;
+	}
+
+	private static Shard last(List<Shard> shards) {
+		return shards.get(shards.size() - 1);
+	}
+
+	private static <T> T await(Future<T> future) {
+		try {
+			return future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for memcached", e);
+		}
+		catch (ExecutionException | TimeoutException e) {
+			throw new IllegalStateException("Memcached operation failed", e);
+		}
+	}
+
+	private static void backoff(int attempt) {
+		try {
+			// cap the shift, 2 << 31 and beyond would overflow
+			int bound = Math.min(MAX_BACKOFF_MILLIS, 2 << Math.min(attempt, 16));
+			Thread.sleep(ThreadLocalRandom.current().nextInt(1, bound + 1));
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while retrying", e);
+		}
+	}
+
+	record Shard(String id, int count, int bytes) {
+	}
+
+	record Snapshot(String manifest, List<Shard> shards, List<String> messages) {
+
+		static final Snapshot EMPTY = new Snapshot(null, List.of(), List.of());
+
+	}
+
+	record Plan(List<Shard> shards, Map<String, ArrayList<String>> writes, List<Shard> orphans) {
+	}
+
+}
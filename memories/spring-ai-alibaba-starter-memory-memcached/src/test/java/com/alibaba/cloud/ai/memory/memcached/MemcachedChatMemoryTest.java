@@ -0,0 +1,44 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.memory.memcached;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MemcachedChatMemoryTest {
+
+	@Test
+	void savesTheWindowWithTheMessagesItRead() {
+		MemcachedChatMemoryRepository repository = mock(MemcachedChatMemoryRepository.class);
+		Message first = new UserMessage("first");
+		Message second = new AssistantMessage("second");
+		Message third = new UserMessage("third");
+		when(repository.findByConversationId("c")).thenReturn(List.of(first, second));
+
+		new MemcachedChatMemory(repository, 2).add("c", List.of(third));
+
+		verify(repository).saveAll("c", List.of(first, second), List.of(second, third));
+	}
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.memory.memcached;
+
+import net.spy.memcached.CASResponse;
+import net.spy.memcached.CASValue;
+import net.spy.memcached.MemcachedClient;
+import net.spy.memcached.internal.BulkFuture;
+import net.spy.memcached.internal.OperationFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the sharded store against a mocked memcached client
+ */
+class ShardedConversationStoreTest {
+
+	private static final String MANIFEST = "a:1:5,b:1:5";
+
+	private MemcachedClient client;
+
+	private ShardedConversationStore store;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() throws Exception {
+		client = mock(MemcachedClient.class);
+		store = new ShardedConversationStore(client, "p:", 1024, 2);
+		// shard a survived, shard b was evicted while the manifest was kept
+		BulkFuture<Map<String, Object>> shards = mock(BulkFuture.class);
+		when(shards.get(anyLong(), any(TimeUnit.class))).thenReturn(Map.of("p:c:a", List.of("first")));
+		when(client.asyncGetBulk(anyCollection())).thenReturn(shards);
+		when(client.get("p:c")).thenReturn(MANIFEST);
+	}
+
+	@Test
+	void treatsConversationWithEvictedShardAsEmpty() {
+		assertThat(store.read("c")).isEmpty();
+		verify(client).delete("p:c:a");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void replacesManifestWithEvictedShard() throws Exception {
+		when(client.gets("p:c")).thenReturn(new CASValue<>(7L, MANIFEST));
+		OperationFuture<Boolean> stored = mock(OperationFuture.class);
+		when(stored.get(anyLong(), any(TimeUnit.class))).thenReturn(true);
+		when(client.set(anyString(), anyInt(), any())).thenReturn(stored);
+		when(client.cas(eq("p:c"), eq(7L), eq(0), anyString())).thenReturn(CASResponse.OK);
+
+		boolean created = store.update("c", messages -> List.of("second"));
+
+		assertThat(created).isFalse();
+		verify(client).set(anyString(), eq(0), eq(List.of("second")));
+		verify(client).cas(eq("p:c"), eq(7L), eq(0), anyString());
+	}
+
+}
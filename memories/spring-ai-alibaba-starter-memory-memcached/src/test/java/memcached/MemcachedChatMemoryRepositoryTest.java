@@ -35,8 +35,11 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -59,6 +62,9 @@ class MemcachedChatMemoryRepositoryTest {
 	@Autowired
 	private ChatMemoryRepository chatMemoryRepository;
 
+	@Autowired
+	private MemcachedService memcachedService;
+
 	/**
 	 * Dynamically configure memcached properties
 	 */
@@ -181,6 +187,56 @@ class MemcachedChatMemoryRepositoryTest {
 		assertThat(savedMessages.get(2).getText()).isEqualTo(messages.get(4).getText());
 	}
 
+	@Test
+	void shardedModeKeepsSlidingWindowAcrossShards() {
+		var repository = new MemcachedChatMemoryRepository(memcachedService,
+				MemcachedChatMemoryRepository.Mode.SHARDED_CAS, 256, 10);
+		var conversationId = UUID.randomUUID().toString();
+		var window = new ArrayList<Message>();
+		for (int i = 0; i < 20; i++) {
+			window.add(new UserMessage("Message " + i + " - " + conversationId));
+			if (window.size() > 8) {
+				window.remove(0);
+			}
+			repository.saveAll(conversationId, List.copyOf(window));
+		}
+
+		assertThat(repository.findByConversationId(conversationId)).isEqualTo(window);
+		assertThat(repository.findConversationIds()).contains(conversationId);
+
+		// under the limit nothing is trimmed
+		repository.clearOverLimit(conversationId, 9, 3);
+		assertThat(repository.findByConversationId(conversationId)).isEqualTo(window);
+
+		repository.clearOverLimit(conversationId, 8, 3);
+		assertThat(repository.findByConversationId(conversationId)).isEqualTo(window.subList(3, 8));
+
+		repository.deleteByConversationId(conversationId);
+		assertThat(repository.findByConversationId(conversationId)).isEmpty();
+		assertThat(repository.findConversationIds()).doesNotContain(conversationId);
+	}
+
+	@Test
+	void shardedModeDoesNotLoseConcurrentMessages() {
+		var conversationId = UUID.randomUUID().toString();
+		var futures = IntStream.range(0, 4).mapToObj(writer -> CompletableFuture.runAsync(() -> {
+			// every writer has its own repository, as if running on another instance
+			var repository = new MemcachedChatMemoryRepository(memcachedService,
+					MemcachedChatMemoryRepository.Mode.SHARDED_CAS, 256, 50);
+			for (int i = 0; i < 10; i++) {
+				var base = repository.findByConversationId(conversationId);
+				var messages = new ArrayList<>(base);
+				messages.add(new UserMessage("Writer " + writer + " message " + i));
+				repository.saveAll(conversationId, base, messages);
+			}
+		})).toArray(CompletableFuture[]::new);
+		CompletableFuture.allOf(futures).join();
+
+		var repository = new MemcachedChatMemoryRepository(memcachedService,
+				MemcachedChatMemoryRepository.Mode.SHARDED_CAS, 256, 10);
+		assertThat(repository.findByConversationId(conversationId)).hasSize(40);
+	}
+
 }
 
 @ContextConfiguration
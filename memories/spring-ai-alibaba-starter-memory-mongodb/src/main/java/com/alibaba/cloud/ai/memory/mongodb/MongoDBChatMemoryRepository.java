@@ -15,13 +15,20 @@
  */
 package com.alibaba.cloud.ai.memory.mongodb;
 
+import com.alibaba.cloud.ai.memory.MessageOverlap;
+import com.alibaba.cloud.ai.memory.PersistedConversations;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mongodb.MongoClientSettings;
 import com.mongodb.MongoCredential;
 import com.mongodb.ServerAddress;
 import com.mongodb.client.*;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
 import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.PushOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Updates;
 import io.micrometer.common.util.StringUtils;
 import org.bson.Document;
 import org.bson.conversions.Bson;
@@ -35,12 +42,20 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import static com.mongodb.client.model.Filters.and;
 import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Filters.exists;
 import static com.mongodb.client.model.Sorts.ascending;
+import static com.mongodb.client.model.Sorts.descending;
 import static com.mongodb.client.model.Sorts.orderBy;
 
 /**
- * MongoDB implementation of ChatMemoryRepository
+ * MongoDB implementation of ChatMemoryRepository.
+ * <p>
+ * Two layouts are supported, see {@link Layout}. With
+ * {@link Layout#CONVERSATION_DOCUMENT} every save is a single update: messages the
+ * repository has not stored yet are appended with {@code $push}/{@code $each} and the
+ * array is trimmed to the window with {@code $slice} in the same atomic operation.
  */
 public class MongoDBChatMemoryRepository implements ChatMemoryRepository, AutoCloseable {
 
@@ -56,6 +71,16 @@ public class MongoDBChatMemoryRepository implements ChatMemoryRepository, AutoCl
 
 	private static final String TIMESTAMP_FIELD = "timestamp";
 
+	private static final String CONVERSATION_COLLECTION_NAME = "chat_memory_conversation";
+
+	private static final String ID_FIELD = "_id";
+
+	private static final String MESSAGES_FIELD = "messages";
+
+	private static final String VERSION_FIELD = "version";
+
+	private static final String UPDATED_AT_FIELD = "updatedAt";
+
 	private final MongoClient mongoClient;
 
 	private final MongoCollection<Document> collection;
@@ -64,14 +89,36 @@ public class MongoDBChatMemoryRepository implements ChatMemoryRepository, AutoCl
 
 	private final String databaseName;
 
+	private final Layout layout;
+
+	private final int maxMessages;
+
+	private final PersistedConversations<PersistedConversation> persisted = new PersistedConversations<>();
+
 	public MongoDBChatMemoryRepository(MongoClient mongoClient, String databaseName) {
+		this(mongoClient, databaseName, Layout.MESSAGE_DOCUMENTS, 0);
+	}
+
+	/**
+	 * @param mongoClient the MongoDB client
+	 * @param databaseName the database to store chat memory in
+	 * @param layout how messages are stored
+	 * @param maxMessages the most messages kept per conversation with
+	 * {@link Layout#CONVERSATION_DOCUMENT}, 0 for no limit
+	 */
+	public MongoDBChatMemoryRepository(MongoClient mongoClient, String databaseName, Layout layout,
+			int maxMessages) {
+		Assert.notNull(layout, "layout cannot be null");
+		Assert.isTrue(maxMessages >= 0, "maxMessages cannot be negative");
+		this.layout = layout;
+		this.maxMessages = maxMessages;
 		this.databaseName = databaseName;
 		this.objectMapper = new ObjectMapper();
 		this.objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
 		try {
 			this.mongoClient = mongoClient;
 			MongoDatabase database = mongoClient.getDatabase(databaseName);
-			this.collection = database.getCollection(COLLECTION_NAME);
+			this.collection = database.getCollection(collectionName());
 			createIndexesIfNotExists();
 		}
 		catch (Exception e) {
@@ -83,23 +130,43 @@ public class MongoDBChatMemoryRepository implements ChatMemoryRepository, AutoCl
 		return new MongoDBBuilder();
 	}
 
+	private String collectionName() {
+		return layout == Layout.CONVERSATION_DOCUMENT ? CONVERSATION_COLLECTION_NAME : COLLECTION_NAME;
+	}
+
 	private void createIndexesIfNotExists() {
+		if (layout == Layout.CONVERSATION_DOCUMENT) {
+			// covers listing conversation ids, most recently updated first
+			collection
+				.createIndex(Indexes.compoundIndex(Indexes.descending(UPDATED_AT_FIELD), Indexes.ascending(ID_FIELD)));
+			return;
+		}
 		collection.createIndex(Indexes.ascending(CONVERSATION_ID_FIELD, TIMESTAMP_FIELD));
 		collection.createIndex(Indexes.ascending(CONVERSATION_ID_FIELD));
 	}
 
 	public void recreateCollection() {
 		MongoDatabase database = mongoClient.getDatabase(databaseName);
-		if (database.listCollectionNames().into(new ArrayList<>()).contains(COLLECTION_NAME)) {
+		if (database.listCollectionNames().into(new ArrayList<>()).contains(collectionName())) {
 			collection.drop();
 		}
-		database.createCollection(COLLECTION_NAME);
+		persisted.clear();
+		database.createCollection(collectionName());
 		createIndexesIfNotExists();
 	}
 
 	@Override
 	public List<String> findConversationIds() {
 		try {
+			if (layout == Layout.CONVERSATION_DOCUMENT) {
+				List<String> conversationIds = new ArrayList<>();
+				for (Document doc : collection.find()
+					.projection(Projections.include(ID_FIELD))
+					.sort(orderBy(descending(UPDATED_AT_FIELD), ascending(ID_FIELD)))) {
+					conversationIds.add(doc.getString(ID_FIELD));
+				}
+				return conversationIds;
+			}
 			DistinctIterable<String> distinctIds = collection.distinct(CONVERSATION_ID_FIELD, String.class);
 			return distinctIds.into(new ArrayList<>());
 		}
@@ -113,6 +180,9 @@ public class MongoDBChatMemoryRepository implements ChatMemoryRepository, AutoCl
 		Assert.hasText(conversationId, "conversationId cannot be null or empty");
 		try {
 			logger.info("Finding messages for conversation: {}", conversationId);
+			if (layout == Layout.CONVERSATION_DOCUMENT) {
+				return findConversationDocument(conversationId);
+			}
 			Bson filter = eq(CONVERSATION_ID_FIELD, conversationId);
 			FindIterable<Document> documents = collection.find(filter).sort(orderBy(ascending(TIMESTAMP_FIELD)));
 
@@ -138,6 +208,10 @@ public class MongoDBChatMemoryRepository implements ChatMemoryRepository, AutoCl
 		Assert.notNull(messages, "messages cannot be null");
 		Assert.noNullElements(messages, "messages cannot contain null elements");
 		try {
+			if (layout == Layout.CONVERSATION_DOCUMENT) {
+				saveConversationDocument(conversationId, messages);
+				return;
+			}
 			deleteByConversationId(conversationId);
 			List<Document> documents = messages.stream()
 				.map(message -> messageToDocument(conversationId, message))
@@ -157,6 +231,11 @@ public class MongoDBChatMemoryRepository implements ChatMemoryRepository, AutoCl
 	public void deleteByConversationId(String conversationId) {
 		Assert.hasText(conversationId, "conversationId cannot be null or empty");
 		try {
+			if (layout == Layout.CONVERSATION_DOCUMENT) {
+				collection.deleteOne(eq(ID_FIELD, conversationId));
+				persisted.remove(conversationId);
+				return;
+			}
 			Bson filter = eq(CONVERSATION_ID_FIELD, conversationId);
 			collection.deleteMany(filter);
 		}
@@ -168,6 +247,21 @@ public class MongoDBChatMemoryRepository implements ChatMemoryRepository, AutoCl
 	public void clearOverLimit(String conversationId, int maxLimit, int deleteSize) {
 		Assert.hasText(conversationId, "conversationId cannot be null or empty");
 		try {
+			if (layout == Layout.CONVERSATION_DOCUMENT) {
+				if (maxLimit > 0 && deleteSize > 0) {
+					// drop the oldest messages in place if the conversation reached the limit
+					Bson overLimit = and(eq(ID_FIELD, conversationId), exists(MESSAGES_FIELD + "." + (maxLimit - 1)));
+					collection.updateOne(overLimit,
+							List.of(new Document("$set",
+									new Document(MESSAGES_FIELD,
+											new Document("$slice",
+													List.of("$" + MESSAGES_FIELD, deleteSize, Integer.MAX_VALUE)))
+										.append(VERSION_FIELD, new Document("$add", List.of("$" + VERSION_FIELD, 1L)))
+										.append(UPDATED_AT_FIELD, "$$NOW"))));
+					persisted.remove(conversationId);
+				}
+				return;
+			}
 			Bson filter = eq(CONVERSATION_ID_FIELD, conversationId);
 			FindIterable<Document> documents = collection.find(filter).sort(orderBy(ascending(TIMESTAMP_FIELD)));
 			List<Document> messages = documents.into(new ArrayList<>());
@@ -186,6 +280,79 @@ public class MongoDBChatMemoryRepository implements ChatMemoryRepository, AutoCl
 		}
 	}
 
+	private List<Message> findConversationDocument(String conversationId) {
+		Document conversation = collection.find(eq(ID_FIELD, conversationId))
+			.projection(Projections.include(MESSAGES_FIELD, VERSION_FIELD))
+			.first();
+		if (conversation == null) {
+			persisted.remove(conversationId);
+			return new ArrayList<>();
+		}
+		List<Document> stored = conversation.getList(MESSAGES_FIELD, Document.class, List.of());
+		persisted.put(conversationId, new PersistedConversation(version(conversation), keys(stored)));
+
+		List<Message> messages = new ArrayList<>(stored.size());
+		for (Document doc : stored) {
+			Message message = documentToMessage(doc);
+			if (message != null) {
+				messages.add(message);
+			}
+		}
+		logger.info("Found {} messages for conversation: {}", messages.size(), conversationId);
+		return messages;
+	}
+
+	private void saveConversationDocument(String conversationId, List<Message> messages) {
+		if (messages.isEmpty()) {
+			deleteByConversationId(conversationId);
+			return;
+		}
+		List<Message> window = maxMessages > 0 && messages.size() > maxMessages
+				? messages.subList(messages.size() - maxMessages, messages.size()) : messages;
+		List<Document> incoming = window.stream().map(this::messageToElement).collect(Collectors.toList());
+		List<MessageKey> incomingKeys = keys(incoming);
+
+		PersistedConversation known = persisted.get(conversationId);
+		Document saved = null;
+		if (known != null) {
+			int kept = known.messages().size() - MessageOverlap.overlapStart(known.messages(), incomingKeys);
+			if (kept == known.messages().size() && kept == incoming.size()) {
+				logger.debug("Conversation {} is unchanged", conversationId);
+				return;
+			}
+			// append the new tail and trim to the window in one atomic update, as long as
+			// nobody else wrote the conversation since we last saw it
+			saved = collection.findOneAndUpdate(and(eq(ID_FIELD, conversationId), eq(VERSION_FIELD, known.version())),
+					Updates.combine(
+							Updates.pushEach(MESSAGES_FIELD, incoming.subList(kept, incoming.size()),
+									new PushOptions().slice(-incoming.size())),
+							Updates.inc(VERSION_FIELD, 1L), Updates.currentDate(UPDATED_AT_FIELD)),
+					new FindOneAndUpdateOptions().projection(Projections.include(VERSION_FIELD))
+						.returnDocument(ReturnDocument.AFTER));
+		}
+		if (saved == null) {
+			saved = collection.findOneAndUpdate(eq(ID_FIELD, conversationId),
+					Updates.combine(Updates.set(MESSAGES_FIELD, incoming), Updates.inc(VERSION_FIELD, 1L),
+							Updates.currentDate(UPDATED_AT_FIELD)),
+					new FindOneAndUpdateOptions().projection(Projections.include(VERSION_FIELD))
+						.returnDocument(ReturnDocument.AFTER)
+						.upsert(true));
+		}
+		persisted.put(conversationId, new PersistedConversation(version(saved), incomingKeys));
+		logger.info("Successfully saved {} messages for conversation {}", incoming.size(), conversationId);
+	}
+
+	private static List<MessageKey> keys(List<Document> messages) {
+		return messages.stream()
+			.map(doc -> new MessageKey(doc.getString(MESSAGE_TYPE_FIELD), doc.getString(MESSAGE_TEXT_FIELD)))
+			.collect(Collectors.toList());
+	}
+
+	private static long version(Document conversation) {
+		Object version = conversation.get(VERSION_FIELD);
+		return version instanceof Number number ? number.longValue() : 0;
+	}
+
 	@Override
 	public void close() {
 		if (mongoClient != null) {
@@ -218,6 +385,14 @@ public class MongoDBChatMemoryRepository implements ChatMemoryRepository, AutoCl
 		}
 	}
 
+	private Document messageToElement(Message message) {
+		Document doc = new Document();
+		doc.put(MESSAGE_TYPE_FIELD, message.getMessageType().toString());
+		doc.put(MESSAGE_TEXT_FIELD, message.getText());
+		doc.put(TIMESTAMP_FIELD, System.currentTimeMillis());
+		return doc;
+	}
+
 	private Document messageToDocument(String conversationId, Message message) {
 		Document doc = new Document();
 		doc.put(CONVERSATION_ID_FIELD, conversationId);
@@ -227,6 +402,36 @@ public class MongoDBChatMemoryRepository implements ChatMemoryRepository, AutoCl
 		return doc;
 	}
 
+	/**
+	 * How chat messages are laid out in MongoDB
+	 */
+	public enum Layout {
+
+		/**
+		 * One document per message in the {@code chat_memory} collection. Every save
+		 * rewrites the conversation.
+		 */
+		MESSAGE_DOCUMENTS,
+
+		/**
+		 * One document per conversation in the {@code chat_memory_conversation}
+		 * collection, holding the messages in an array. Every save is one update, and
+		 * bumps the {@code version} field so change stream consumers can order and
+		 * deduplicate the events of a conversation.
+		 */
+		CONVERSATION_DOCUMENT
+
+	}
+
+	/**
+	 * What identifies a stored message when comparing a save with the remembered state
+	 */
+	record MessageKey(String messageType, String messageText) {
+	}
+
+	private record PersistedConversation(long version, List<MessageKey> messages) {
+	}
+
 	public static class MongoDBBuilder {
 
 		private String host = "127.0.0.1";
@@ -241,6 +446,10 @@ public class MongoDBChatMemoryRepository implements ChatMemoryRepository, AutoCl
 
 		private String databaseName = "spring_ai";
 
+		private Layout layout = Layout.MESSAGE_DOCUMENTS;
+
+		private int maxMessages;
+
 		public MongoDBBuilder host(String host) {
 			this.host = host;
 			return this;
@@ -271,6 +480,16 @@ public class MongoDBChatMemoryRepository implements ChatMemoryRepository, AutoCl
 			return this;
 		}
 
+		public MongoDBBuilder layout(Layout layout) {
+			this.layout = layout;
+			return this;
+		}
+
+		public MongoDBBuilder maxMessages(int maxMessages) {
+			this.maxMessages = maxMessages;
+			return this;
+		}
+
 		public MongoDBChatMemoryRepository build() {
 			ServerAddress serverAddress = new ServerAddress(host, port);
 			MongoClientSettings.Builder build = MongoClientSettings.builder();
@@ -283,7 +502,7 @@ public class MongoDBChatMemoryRepository implements ChatMemoryRepository, AutoCl
 				.applyToClusterSettings(builder -> builder.hosts(List.of(serverAddress)))
 				.build();
 			MongoClient mongoClient = MongoClients.create(settings);
-			return new MongoDBChatMemoryRepository(mongoClient, databaseName);
+			return new MongoDBChatMemoryRepository(mongoClient, databaseName, layout, maxMessages);
 		}
 
 	}
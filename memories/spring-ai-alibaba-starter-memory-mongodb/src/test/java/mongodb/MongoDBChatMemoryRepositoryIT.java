@@ -176,6 +176,37 @@ class MongoDBChatMemoryRepositoryIT {
 		assertThat(savedMessages.get(2).getText()).isEqualTo(messages.get(4).getText());
 	}
 
+	@Test
+	void conversationDocumentLayout() {
+		var conversationId = UUID.randomUUID().toString();
+		var first = new UserMessage("first - " + conversationId);
+		var second = new AssistantMessage("second - " + conversationId);
+		var third = new UserMessage("third - " + conversationId);
+		var fourth = new AssistantMessage("fourth - " + conversationId);
+
+		try (var repository = MongoDBChatMemoryRepository.builder()
+			.host(mongoDBContainer.getHost())
+			.port(mongoDBContainer.getMappedPort(MongoDB_PORT))
+			.layout(MongoDBChatMemoryRepository.Layout.CONVERSATION_DOCUMENT)
+			.maxMessages(3)
+			.build()) {
+			repository.saveAll(conversationId, List.of(first, second));
+			repository.saveAll(conversationId, List.of(first, second, third));
+			repository.saveAll(conversationId, List.of(first, second, third, fourth));
+
+			assertThat(repository.findByConversationId(conversationId)).extracting(Message::getText)
+				.containsExactly(second.getText(), third.getText(), fourth.getText());
+			assertThat(repository.findConversationIds()).contains(conversationId);
+
+			repository.clearOverLimit(conversationId, 3, 2);
+			assertThat(repository.findByConversationId(conversationId)).extracting(Message::getText)
+				.containsExactly(fourth.getText());
+
+			repository.deleteByConversationId(conversationId);
+			assertThat(repository.findByConversationId(conversationId)).isEmpty();
+		}
+	}
+
 	@SpringBootConfiguration
 	static class TestConfiguration {
 
@@ -15,21 +15,39 @@
  */
 package com.alibaba.cloud.ai.memory.redis;
 
-import com.alibaba.cloud.ai.memory.redis.serializer.MessageDeserializer;
-import com.fasterxml.jackson.annotation.JsonAutoDetect;
-import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.alibaba.cloud.ai.memory.MessageOverlap;
+import com.alibaba.cloud.ai.memory.PersistedConversations;
+import com.alibaba.cloud.ai.memory.redis.serializer.JsonMessageCodec;
+import com.alibaba.cloud.ai.memory.redis.serializer.MessageCodec;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.json.JsonMapper;
-import com.fasterxml.jackson.databind.module.SimpleModule;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.memory.ChatMemoryRepository;
 import org.springframework.ai.chat.messages.Message;
+import org.springframework.util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
- * Base class for Redis-based chat memory repositories
+ * Base class for Redis-based chat memory repositories.
+ * <p>
+ * Every write is a single Lua script on the conversation list, so replacing or appending
+ * messages, trimming to {@code maxMessages} and refreshing the TTL happen atomically in
+ * one round trip. Conversation ids are tracked in a sorted set scored by last write time
+ * instead of being listed with {@code KEYS}; conversations written by earlier versions
+ * are added to it with a single {@code SCAN} the first time conversations are listed.
+ * <p>
+ * In append-only mode the repository remembers the last list it read or wrote for recent
+ * conversations, and {@link #saveAll} only sends the messages that were added (and the
+ * number of messages evicted from the head by a window). The script checks the stored
+ * length and last element first and the repository falls back to a full rewrite when
+ * another writer changed the list.
  *
  * @author benym
  * @since 2025/7/31 0:05
@@ -40,27 +58,267 @@ public abstract class BaseRedisChatMemoryRepository implements ChatMemoryReposit
 
 	protected static final String DEFAULT_KEY_PREFIX = "spring_ai_alibaba_chat_memory:";
 
+	/**
+	 * Sorted set of conversation ids scored by last write time in milliseconds. It does
+	 * not match {@link #DEFAULT_KEY_PREFIX} so it is never mistaken for a conversation.
+	 */
+	protected static final String DEFAULT_INDEX_KEY = "spring_ai_alibaba_chat_memory_index";
+
+	// Lua unpack() is limited by the C stack, push large lists in chunks
+	private static final String SCRIPT_FUNCTIONS = """
+			local function push(from)
+			  for i = from, #ARGV, 1000 do
+			    redis.call('RPUSH', KEYS[1], unpack(ARGV, i, math.min(i + 999, #ARGV)))
+			  end
+			end
+			local function finish()
+			  local max = tonumber(ARGV[1])
+			  local ttl = tonumber(ARGV[2])
+			  if max > 0 then redis.call('LTRIM', KEYS[1], -max, -1) end
+			  if ttl > 0 then redis.call('PEXPIRE', KEYS[1], ttl) end
+			  return redis.call('LLEN', KEYS[1])
+			end
+			""";
+
+	/**
+	 * ARGV: maxMessages, ttlMillis, messages...
+	 */
+	protected static final String REPLACE_SCRIPT = SCRIPT_FUNCTIONS + """
+			redis.call('DEL', KEYS[1])
+			push(3)
+			return finish()
+			""";
+
+	/**
+	 * ARGV: maxMessages, ttlMillis, expected length, expected last message, messages to
+	 * drop from the head, messages to append... Returns -1 without writing if the list
+	 * does not match the expectation.
+	 */
+	protected static final String APPEND_SCRIPT = SCRIPT_FUNCTIONS + """
+			local expected = tonumber(ARGV[3])
+			if redis.call('LLEN', KEYS[1]) ~= expected then return -1 end
+			if expected > 0 and redis.call('LINDEX', KEYS[1], -1) ~= ARGV[4] then return -1 end
+			local drop = tonumber(ARGV[5])
+			if drop >= expected then
+			  redis.call('DEL', KEYS[1])
+			elseif drop > 0 then
+			  redis.call('LTRIM', KEYS[1], drop, -1)
+			end
+			push(6)
+			return finish()
+			""";
+
+	/**
+	 * ARGV: maxLimit, deleteSize. Returns the size before trimming.
+	 */
+	protected static final String CLEAR_OVER_LIMIT_SCRIPT = """
+			local size = redis.call('LLEN', KEYS[1])
+			if size >= tonumber(ARGV[1]) then redis.call('LTRIM', KEYS[1], tonumber(ARGV[2]), -1) end
+			return size
+			""";
+
 	protected final ObjectMapper objectMapper;
 
+	protected final MessageCodec messageCodec;
+
+	private final boolean appendOnly;
+
+	private final int maxMessages;
+
+	private final Duration timeToLive;
+
+	private final PersistedConversations<List<byte[]>> persisted = new PersistedConversations<>();
+
+	private volatile boolean indexBackfilled;
+
 	public BaseRedisChatMemoryRepository() {
-		this.objectMapper = JsonMapper.builder()
-			.configure(MapperFeature.AUTO_DETECT_GETTERS, false)
-			.configure(MapperFeature.AUTO_DETECT_IS_GETTERS, false)
-			.visibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
-			.build();
-		SimpleModule module = new SimpleModule();
-		module.addDeserializer(Message.class, new MessageDeserializer());
-		this.objectMapper.registerModule(module);
+		this(null, false, 0, null);
 	}
 
-	protected Message deserializeMessage(String messageStr) {
-		try {
-			return objectMapper.readValue(messageStr, Message.class);
+	/**
+	 * @param messageCodec codec for stored messages, defaults to JSON
+	 * @param appendOnly only send added messages on save
+	 * @param maxMessages maximum number of messages kept per conversation, 0 for no limit
+	 * @param timeToLive expiry of a conversation after its last save, null for none
+	 */
+	protected BaseRedisChatMemoryRepository(MessageCodec messageCodec, boolean appendOnly, int maxMessages,
+			Duration timeToLive) {
+		Assert.isTrue(maxMessages >= 0, "maxMessages cannot be negative");
+		Assert.isTrue(timeToLive == null || !timeToLive.isNegative(), "timeToLive cannot be negative");
+		this.objectMapper = JsonMessageCodec.createObjectMapper();
+		this.messageCodec = messageCodec != null ? messageCodec : new JsonMessageCodec(this.objectMapper);
+		this.appendOnly = appendOnly;
+		this.maxMessages = maxMessages;
+		this.timeToLive = timeToLive == null || timeToLive.isZero() ? null : timeToLive;
+	}
+
+	/**
+	 * Run a script against a single conversation key
+	 * @param script the Lua script
+	 * @param key the conversation key, passed as KEYS[1]
+	 * @param args the script arguments
+	 * @return the integer result of the script
+	 */
+	protected abstract long executeScript(String script, String key, List<byte[]> args);
+
+	protected abstract List<byte[]> readMessages(String key);
+
+	protected abstract void deleteKey(String key);
+
+	protected abstract void indexConversation(String conversationId, double lastWriteMillis);
+
+	protected abstract void unindexConversation(String conversationId);
+
+	/**
+	 * Remove conversations last written before {@code minLastWriteMillis} from the
+	 * index and return the remaining ids
+	 */
+	protected abstract List<String> readIndex(double minLastWriteMillis);
+
+	/**
+	 * Ids of all conversations stored under {@link #DEFAULT_KEY_PREFIX}, found by
+	 * scanning the keyspace
+	 */
+	protected abstract List<String> scanConversationIds();
+
+	/**
+	 * Add conversations to the index with {@code lastWriteMillis}, keeping the score of
+	 * the ones already there
+	 */
+	protected abstract void indexConversationsIfAbsent(List<String> conversationIds, double lastWriteMillis);
+
+	@Override
+	public List<String> findConversationIds() {
+		if (!indexBackfilled) {
+			backfillIndex();
 		}
-		catch (JsonProcessingException e) {
-			logger.error("Deserialization error for message: {}", messageStr, e);
-			return null;
+		double min = timeToLive == null ? Double.NEGATIVE_INFINITY
+				: System.currentTimeMillis() - timeToLive.toMillis();
+		return readIndex(min);
+	}
+
+	/**
+	 * Conversations written before the index existed are not in it, add them with one
+	 * scan the first time conversations are listed
+	 */
+	private synchronized void backfillIndex() {
+		if (indexBackfilled) {
+			return;
+		}
+		List<String> conversationIds = scanConversationIds();
+		if (!conversationIds.isEmpty()) {
+			indexConversationsIfAbsent(conversationIds, System.currentTimeMillis());
 		}
+		logger.debug("Checked {} stored conversations against the conversation index", conversationIds.size());
+		indexBackfilled = true;
+	}
+
+	@Override
+	public List<Message> findByConversationId(String conversationId) {
+		Assert.hasText(conversationId, "conversationId cannot be null or empty");
+		List<byte[]> stored = readMessages(DEFAULT_KEY_PREFIX + conversationId);
+		if (stored == null || stored.isEmpty()) {
+			persisted.remove(conversationId);
+			return Collections.emptyList();
+		}
+		if (appendOnly) {
+			persisted.put(conversationId, List.copyOf(stored));
+		}
+		List<Message> messages = new ArrayList<>(stored.size());
+		for (int i = 0; i < stored.size(); i++) {
+			Message message = messageCodec.decode(stored.get(i));
+			if (message != null) {
+				messages.add(message);
+			}
+			else {
+				logger.warn("Skipping message {} of conversation {}, it cannot be decoded", i, conversationId);
+			}
+		}
+		return messages;
+	}
+
+	@Override
+	public void saveAll(String conversationId, List<Message> messages) {
+		Assert.hasText(conversationId, "conversationId cannot be null or empty");
+		Assert.notNull(messages, "messages cannot be null");
+		Assert.noNullElements(messages, "messages cannot contain null elements");
+		String key = DEFAULT_KEY_PREFIX + conversationId;
+		int from = maxMessages > 0 ? Math.max(0, messages.size() - maxMessages) : 0;
+		List<byte[]> encoded = new ArrayList<>(messages.size() - from);
+		for (Message message : messages.subList(from, messages.size())) {
+			encoded.add(messageCodec.encode(message));
+		}
+
+		List<byte[]> known = appendOnly ? persisted.get(conversationId) : null;
+		boolean appended = known != null && append(key, known, encoded);
+		if (!appended) {
+			List<byte[]> args = new ArrayList<>(encoded.size() + 2);
+			args.add(number(maxMessages));
+			args.add(number(ttlMillis()));
+			args.addAll(encoded);
+			executeScript(REPLACE_SCRIPT, key, args);
+		}
+		if (appendOnly) {
+			persisted.put(conversationId, List.copyOf(encoded));
+		}
+
+		if (encoded.isEmpty()) {
+			unindexConversation(conversationId);
+		}
+		else if (!appended || known.isEmpty() || timeToLive != null) {
+			// the index only needs a write for new conversations, or to track expiry
+			indexConversation(conversationId, System.currentTimeMillis());
+		}
+	}
+
+	private boolean append(String key, List<byte[]> known, List<byte[]> incoming) {
+		int drop = MessageOverlap.overlapStart(known, incoming, Arrays::equals);
+		int kept = known.size() - drop;
+		List<byte[]> args = new ArrayList<>(incoming.size() - kept + 5);
+		args.add(number(maxMessages));
+		args.add(number(ttlMillis()));
+		args.add(number(known.size()));
+		args.add(known.isEmpty() ? new byte[0] : known.get(known.size() - 1));
+		args.add(number(drop));
+		args.addAll(incoming.subList(kept, incoming.size()));
+		if (executeScript(APPEND_SCRIPT, key, args) < 0) {
+			logger.debug("Conversation {} was changed by another writer, rewriting it", key);
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public void deleteByConversationId(String conversationId) {
+		Assert.hasText(conversationId, "conversationId cannot be null or empty");
+		deleteKey(DEFAULT_KEY_PREFIX + conversationId);
+		unindexConversation(conversationId);
+		persisted.remove(conversationId);
+	}
+
+	/**
+	 * Clear messages over the limit for a conversation
+	 * @param conversationId the conversation ID
+	 * @param maxLimit maximum number of messages to keep
+	 * @param deleteSize number of messages to delete when over limit
+	 */
+	public void clearOverLimit(String conversationId, int maxLimit, int deleteSize) {
+		Assert.hasText(conversationId, "conversationId cannot be null or empty");
+		executeScript(CLEAR_OVER_LIMIT_SCRIPT, DEFAULT_KEY_PREFIX + conversationId,
+				List.of(number(maxLimit), number(deleteSize)));
+		persisted.remove(conversationId);
+	}
+
+	private long ttlMillis() {
+		return timeToLive == null ? 0 : timeToLive.toMillis();
+	}
+
+	private static byte[] number(long value) {
+		return Long.toString(value).getBytes(StandardCharsets.UTF_8);
+	}
+
+	protected Message deserializeMessage(String messageStr) {
+		return messageCodec.decode(messageStr.getBytes(StandardCharsets.UTF_8));
 	}
 
 	protected String serializeMessage(Message message) {
@@ -16,30 +16,41 @@
 package com.alibaba.cloud.ai.memory.redis;
 
 import com.alibaba.cloud.ai.memory.redis.builder.RedisChatMemoryBuilder;
+import com.alibaba.cloud.ai.memory.redis.serializer.MessageCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.context.properties.PropertyMapper;
 import org.springframework.boot.ssl.SslBundle;
 import org.springframework.boot.ssl.SslOptions;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.redis.connection.*;
 import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
 import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
-import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 import redis.clients.jedis.JedisPoolConfig;
 
-import org.springframework.ai.chat.messages.Message;
 import org.springframework.util.Assert;
 
 import javax.net.ssl.SSLParameters;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Redis implementation of ChatMemoryRepository using Jedis
@@ -51,12 +62,19 @@ public class JedisRedisChatMemoryRepository extends BaseRedisChatMemoryRepositor
 
 	private static final Logger logger = LoggerFactory.getLogger(JedisRedisChatMemoryRepository.class);
 
+	private static final RedisSerializer<Long> RESULT_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+	private static final int SCAN_COUNT = 1000;
+
 	private final RedisConnectionFactory connectionFactory;
 
 	private final RedisTemplate<String, String> redisTemplate;
 
-	private JedisRedisChatMemoryRepository(RedisConnectionFactory connectionFactory) {
-		super();
+	private final Map<String, RedisScript<Long>> scripts = new ConcurrentHashMap<>();
+
+	private JedisRedisChatMemoryRepository(RedisConnectionFactory connectionFactory, MessageCodec messageCodec,
+			boolean appendOnly, int maxMessages, Duration timeToLive) {
+		super(messageCodec, appendOnly, maxMessages, timeToLive);
 		Assert.notNull(connectionFactory, "ConnectionFactory cannot be null");
 		this.connectionFactory = connectionFactory;
 		this.redisTemplate = createRedisTemplate(connectionFactory);
@@ -106,7 +124,8 @@ public class JedisRedisChatMemoryRepository extends BaseRedisChatMemoryRepositor
 				jedisConnectionFactory = new JedisConnectionFactory(standaloneConfig, applyConfiguration());
 			}
 			jedisConnectionFactory.afterPropertiesSet();
-			return new JedisRedisChatMemoryRepository(jedisConnectionFactory);
+			return new JedisRedisChatMemoryRepository(jedisConnectionFactory, messageCodec, appendOnly,
+					maxMessages, timeToLive);
 		}
 
 		private JedisPoolConfig getPoolConfigWithDefault() {
@@ -141,61 +160,69 @@ public class JedisRedisChatMemoryRepository extends BaseRedisChatMemoryRepositor
 	}
 
 	@Override
-	public List<String> findConversationIds() {
-		Set<String> keys = redisTemplate.keys(DEFAULT_KEY_PREFIX + "*");
-		return keys.stream().map(key -> key.substring(DEFAULT_KEY_PREFIX.length())).collect(Collectors.toList());
+	protected long executeScript(String script, String key, List<byte[]> args) {
+		RedisScript<Long> redisScript = scripts.computeIfAbsent(script, text -> RedisScript.of(text, Long.class));
+		Long result = redisTemplate.execute(redisScript, RedisSerializer.byteArray(), RESULT_SERIALIZER, List.of(key),
+				args.toArray());
+		return result == null ? 0 : result;
 	}
 
 	@Override
-	public List<Message> findByConversationId(String conversationId) {
-		Assert.hasText(conversationId, "conversationId cannot be null or empty");
-		String key = DEFAULT_KEY_PREFIX + conversationId;
-		List<String> messageStrings = redisTemplate.opsForList().range(key, 0, -1);
-		if (CollectionUtils.isEmpty(messageStrings)) {
-			return Collections.emptyList();
-		}
-		return messageStrings.stream().map(this::deserializeMessage).collect(Collectors.toList());
+	protected List<byte[]> readMessages(String key) {
+		byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+		return redisTemplate.execute((RedisCallback<List<byte[]>>) connection -> connection.listCommands()
+			.lRange(rawKey, 0, -1));
 	}
 
 	@Override
-	public void saveAll(String conversationId, List<Message> messages) {
-		Assert.hasText(conversationId, "conversationId cannot be null or empty");
-		Assert.notNull(messages, "messages cannot be null");
-		Assert.noNullElements(messages, "messages cannot contain null elements");
-		String key = DEFAULT_KEY_PREFIX + conversationId;
-		List<String> messageJsons = messages.stream().map(this::serializeMessage).toList();
-		try (RedisConnection connection = redisTemplate.getConnectionFactory().getConnection()) {
-			connection.keyCommands().del(key.getBytes());
-			if (!messageJsons.isEmpty()) {
-				byte[][] values = new byte[messageJsons.size()][];
-				for (int i = 0; i < messageJsons.size(); i++) {
-					values[i] = messageJsons.get(i).getBytes();
-				}
-				connection.listCommands().rPush(key.getBytes(), values);
-			}
-		}
+	protected void deleteKey(String key) {
+		redisTemplate.delete(key);
+	}
+
+	@Override
+	protected void indexConversation(String conversationId, double lastWriteMillis) {
+		redisTemplate.opsForZSet().add(DEFAULT_INDEX_KEY, conversationId, lastWriteMillis);
 	}
 
 	@Override
-	public void deleteByConversationId(String conversationId) {
-		Assert.hasText(conversationId, "conversationId cannot be null or empty");
-		redisTemplate.delete(DEFAULT_KEY_PREFIX + conversationId);
+	protected void unindexConversation(String conversationId) {
+		redisTemplate.opsForZSet().remove(DEFAULT_INDEX_KEY, conversationId);
 	}
 
-	/**
-	 * Clear messages over the limit for a conversation
-	 * @param conversationId the conversation ID
-	 * @param maxLimit maximum number of messages to keep
-	 * @param deleteSize number of messages to delete when over limit
-	 */
-	public void clearOverLimit(String conversationId, int maxLimit, int deleteSize) {
-		Assert.hasText(conversationId, "conversationId cannot be null or empty");
-		String key = DEFAULT_KEY_PREFIX + conversationId;
-		Long size = redisTemplate.opsForList().size(key);
-		if (size < maxLimit) {
-			return;
+	@Override
+	protected List<String> readIndex(double minLastWriteMillis) {
+		if (minLastWriteMillis > Double.NEGATIVE_INFINITY) {
+			redisTemplate.opsForZSet()
+				.removeRangeByScore(DEFAULT_INDEX_KEY, Double.NEGATIVE_INFINITY, minLastWriteMillis);
+		}
+		Set<String> ids = redisTemplate.opsForZSet().range(DEFAULT_INDEX_KEY, 0, -1);
+		return ids == null ? Collections.emptyList() : new ArrayList<>(ids);
+	}
+
+	@Override
+	protected List<String> scanConversationIds() {
+		String pattern = DEFAULT_KEY_PREFIX + "*";
+		Set<String> keys = new HashSet<>();
+		try (Cursor<String> cursor = redisTemplate
+			.scan(ScanOptions.scanOptions().match(pattern).count(SCAN_COUNT).build())) {
+			cursor.forEachRemaining(keys::add);
 		}
-		redisTemplate.opsForList().trim(key, deleteSize, -1);
+		catch (InvalidDataAccessApiUsageException e) {
+			// a cluster cannot be scanned through one connection, KEYS runs on every node
+			keys = redisTemplate.keys(pattern);
+		}
+		List<String> ids = new ArrayList<>();
+		if (keys != null) {
+			keys.forEach(key -> ids.add(key.substring(DEFAULT_KEY_PREFIX.length())));
+		}
+		return ids;
+	}
+
+	@Override
+	protected void indexConversationsIfAbsent(List<String> conversationIds, double lastWriteMillis) {
+		Set<ZSetOperations.TypedTuple<String>> tuples = new HashSet<>();
+		conversationIds.forEach(id -> tuples.add(ZSetOperations.TypedTuple.of(id, lastWriteMillis)));
+		redisTemplate.opsForZSet().addIfAbsent(DEFAULT_INDEX_KEY, tuples);
 	}
 
 	@Override
@@ -16,25 +16,25 @@
 package com.alibaba.cloud.ai.memory.redis;
 
 import com.alibaba.cloud.ai.memory.redis.builder.RedisChatMemoryBuilder;
+import com.alibaba.cloud.ai.memory.redis.serializer.MessageCodec;
 import org.redisson.Redisson;
-import org.redisson.api.RKeys;
 import org.redisson.api.RList;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RScript;
 import org.redisson.api.RedissonClient;
-import org.redisson.api.options.KeysScanOptions;
+import org.redisson.client.codec.ByteArrayCodec;
 import org.redisson.client.codec.StringCodec;
 import org.redisson.config.Config;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.ai.chat.messages.Message;
 import org.springframework.boot.ssl.SslBundle;
 import org.springframework.boot.ssl.SslManagerBundle;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 /**
  * Redis implementation of ChatMemoryRepository using Redisson
@@ -46,10 +46,13 @@ public class RedissonRedisChatMemoryRepository extends BaseRedisChatMemoryReposi
 
 	private static final Logger logger = LoggerFactory.getLogger(RedissonRedisChatMemoryRepository.class);
 
+	private static final int SCAN_COUNT = 1000;
+
 	private final RedissonClient redissonClient;
 
-	private RedissonRedisChatMemoryRepository(RedissonClient redissonClient) {
-		super();
+	private RedissonRedisChatMemoryRepository(RedissonClient redissonClient, MessageCodec messageCodec,
+			boolean appendOnly, int maxMessages, Duration timeToLive) {
+		super(messageCodec, appendOnly, maxMessages, timeToLive);
 		Assert.notNull(redissonClient, "redissonClient cannot be null");
 		this.redissonClient = redissonClient;
 	}
@@ -86,7 +89,8 @@ public class RedissonRedisChatMemoryRepository extends BaseRedisChatMemoryReposi
 				if (redissonConfig.getCodec() == null) {
 					redissonConfig.setCodec(new StringCodec());
 				}
-				return new RedissonRedisChatMemoryRepository(Redisson.create(redissonConfig));
+				return new RedissonRedisChatMemoryRepository(Redisson.create(redissonConfig), messageCodec, appendOnly,
+						maxMessages, timeToLive);
 			}
 			Config config = new Config();
 			config.setCodec(new StringCodec());
@@ -134,66 +138,68 @@ public class RedissonRedisChatMemoryRepository extends BaseRedisChatMemoryReposi
 					config.useSingleServer().setPassword(password);
 				}
 			}
-			return new RedissonRedisChatMemoryRepository(Redisson.create(config));
+			return new RedissonRedisChatMemoryRepository(Redisson.create(config), messageCodec, appendOnly,
+					maxMessages, timeToLive);
 
 		}
 
 	}
 
 	@Override
-	public List<String> findConversationIds() {
-		RKeys keys = redissonClient.getKeys();
-		KeysScanOptions scanOptions = KeysScanOptions.defaults().pattern(DEFAULT_KEY_PREFIX + "*");
-		Iterable<String> keysIter = keys.getKeys(scanOptions);
-		return StreamSupport.stream(keysIter.spliterator(), false)
-			.map(key -> key.substring(DEFAULT_KEY_PREFIX.length()))
-			.collect(Collectors.toList());
+	protected long executeScript(String script, String key, List<byte[]> args) {
+		Long result = redissonClient.getScript(ByteArrayCodec.INSTANCE)
+			.eval(key, RScript.Mode.READ_WRITE, script, RScript.ReturnType.INTEGER, List.<Object>of(key),
+					args.toArray());
+		return result == null ? 0 : result;
+	}
+
+	@Override
+	protected List<byte[]> readMessages(String key) {
+		RList<byte[]> redisList = redissonClient.getList(key, ByteArrayCodec.INSTANCE);
+		return redisList.readAll();
 	}
 
 	@Override
-	public List<Message> findByConversationId(String conversationId) {
-		Assert.hasText(conversationId, "conversationId cannot be null or empty");
-		RList<String> redisList = redissonClient.getList(DEFAULT_KEY_PREFIX + conversationId);
-		return redisList.readAll()
-			.parallelStream()
-			.map(this::deserializeMessage)
-			.filter(Objects::nonNull)
-			.collect(Collectors.toList());
+	protected void deleteKey(String key) {
+		redissonClient.getKeys().delete(key);
 	}
 
 	@Override
-	public void saveAll(String conversationId, List<Message> messages) {
-		Assert.hasText(conversationId, "conversationId cannot be null or empty");
-		Assert.notNull(messages, "messages cannot be null");
-		Assert.noNullElements(messages, "messages cannot contain null elements");
-		RList<String> redisList = redissonClient.getList(DEFAULT_KEY_PREFIX + conversationId);
-		redisList.delete();
-		List<String> serializedMessages = messages.stream().map(this::serializeMessage).toList();
-		redisList.addAll(serializedMessages);
+	protected void indexConversation(String conversationId, double lastWriteMillis) {
+		index().add(lastWriteMillis, conversationId);
 	}
 
 	@Override
-	public void deleteByConversationId(String conversationId) {
-		Assert.hasText(conversationId, "conversationId cannot be null or empty");
-		RList<String> redisList = redissonClient.getList(DEFAULT_KEY_PREFIX + conversationId);
-		redisList.delete();
+	protected void unindexConversation(String conversationId) {
+		index().remove(conversationId);
 	}
 
-	/**
-	 * Clear messages over the limit for a conversation
-	 * @param conversationId the conversation ID
-	 * @param maxLimit maximum number of messages to keep
-	 * @param deleteSize number of messages to delete when over limit
-	 */
-	public void clearOverLimit(String conversationId, int maxLimit, int deleteSize) {
-		Assert.hasText(conversationId, "conversationId cannot be null or empty");
-		String key = DEFAULT_KEY_PREFIX + conversationId;
-		RList<Object> list = redissonClient.getList(key);
-		int size = list.size();
-		if (size < maxLimit) {
-			return;
+	@Override
+	protected List<String> readIndex(double minLastWriteMillis) {
+		RScoredSortedSet<String> index = index();
+		if (minLastWriteMillis > Double.NEGATIVE_INFINITY) {
+			index.removeRangeByScore(Double.NEGATIVE_INFINITY, true, minLastWriteMillis, true);
 		}
-		list.trim(deleteSize, -1);
+		return new ArrayList<>(index.readAll());
+	}
+
+	@Override
+	protected List<String> scanConversationIds() {
+		List<String> ids = new ArrayList<>();
+		redissonClient.getKeys()
+			.getKeysByPattern(DEFAULT_KEY_PREFIX + "*", SCAN_COUNT)
+			.forEach(key -> ids.add(key.substring(DEFAULT_KEY_PREFIX.length())));
+		return ids;
+	}
+
+	@Override
+	protected void indexConversationsIfAbsent(List<String> conversationIds, double lastWriteMillis) {
+		RScoredSortedSet<String> index = index();
+		conversationIds.forEach(id -> index.tryAdd(lastWriteMillis, id));
+	}
+
+	private RScoredSortedSet<String> index() {
+		return redissonClient.getScoredSortedSet(DEFAULT_INDEX_KEY, StringCodec.INSTANCE);
 	}
 
 	@Override
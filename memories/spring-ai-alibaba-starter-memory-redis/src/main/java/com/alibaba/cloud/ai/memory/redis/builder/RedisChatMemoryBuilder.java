@@ -15,8 +15,10 @@
  */
 package com.alibaba.cloud.ai.memory.redis.builder;
 
+import com.alibaba.cloud.ai.memory.redis.serializer.MessageCodec;
 import org.springframework.boot.ssl.SslBundles;
 
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -50,6 +52,17 @@ public abstract class RedisChatMemoryBuilder<T extends RedisChatMemoryBuilder<T>
 
 	protected SslBundles sslBundles;
 
+	protected MessageCodec messageCodec;
+
+	protected boolean appendOnly = false;
+
+	/**
+	 * maximum number of messages kept per conversation, 0 for no limit
+	 */
+	protected int maxMessages = 0;
+
+	protected Duration timeToLive;
+
 	protected abstract T self();
 
 	public T host(String host) {
@@ -98,4 +111,33 @@ public abstract class RedisChatMemoryBuilder<T extends RedisChatMemoryBuilder<T>
 		return self();
 	}
 
+	/**
+	 * Codec for stored messages, defaults to {@link MessageCodec#json()}
+	 */
+	public T messageCodec(MessageCodec messageCodec) {
+		this.messageCodec = messageCodec;
+		return self();
+	}
+
+	/**
+	 * Only send the messages added since the last read or write of a conversation
+	 */
+	public T appendOnly(boolean appendOnly) {
+		this.appendOnly = appendOnly;
+		return self();
+	}
+
+	public T maxMessages(int maxMessages) {
+		this.maxMessages = maxMessages;
+		return self();
+	}
+
+	/**
+	 * Expire conversations this long after their last save
+	 */
+	public T timeToLive(Duration timeToLive) {
+		this.timeToLive = timeToLive;
+		return self();
+	}
+
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.memory.redis.serializer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.Message;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stores messages as raw-deflate compressed JSON behind a one byte header. JSON always
+ * starts with '{', so values without the header are decoded as plain JSON and lists
+ * written by {@link JsonMessageCodec} stay readable.
+ *
+ * @author benym
+ */
+public class CompactMessageCodec implements MessageCodec {
+
+	private static final Logger logger = LoggerFactory.getLogger(CompactMessageCodec.class);
+
+	static final byte HEADER = 0x01;
+
+	private final JsonMessageCodec jsonCodec;
+
+	public CompactMessageCodec() {
+		this(new JsonMessageCodec());
+	}
+
+	public CompactMessageCodec(JsonMessageCodec jsonCodec) {
+		this.jsonCodec = jsonCodec;
+	}
+
+	@Override
+	public byte[] encode(Message message) {
+		byte[] json = jsonCodec.encode(message);
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+		try {
+			deflater.setInput(json);
+			deflater.finish();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 2 + 16);
+			out.write(HEADER);
+			byte[] buffer = new byte[512];
+			while (!deflater.finished()) {
+				out.write(buffer, 0, deflater.deflate(buffer));
+			}
+			return out.toByteArray();
+		}
+		finally {
+			deflater.end();
+		}
+	}
+
+	@Override
+	public Message decode(byte[] bytes) {
+		if (bytes.length == 0 || bytes[0] != HEADER) {
+			return jsonCodec.decode(bytes);
+		}
+		Inflater inflater = new Inflater(true);
+		try {
+			// nowrap inflater expects a trailing dummy byte
+			inflater.setInput(Arrays.copyOfRange(bytes, 1, bytes.length + 1));
+			ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 3);
+			byte[] buffer = new byte[512];
+			while (!inflater.finished()) {
+				int n = inflater.inflate(buffer);
+				if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new DataFormatException("Truncated message");
+				}
+				out.write(buffer, 0, n);
+			}
+			return jsonCodec.decode(out.toByteArray());
+		}
+		catch (DataFormatException e) {
+			logger.error("Failed to inflate stored message of {} bytes, it is corrupt and will be skipped",
+					bytes.length, e);
+			return null;
+		}
+		finally {
+			inflater.end();
+		}
+	}
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.memory.redis.serializer;
+
+import org.springframework.ai.chat.messages.Message;
+
+/**
+ * Encodes chat messages to the bytes stored in a Redis list and back.
+ *
+ * @author benym
+ */
+public interface MessageCodec {
+
+	byte[] encode(Message message);
+
+	/**
+	 * Decode a stored message
+	 * @param bytes the stored bytes
+	 * @return the message, or {@code null} if the bytes cannot be decoded
+	 */
+	Message decode(byte[] bytes);
+
+	/**
+	 * The default codec, storing messages as UTF-8 JSON
+	 */
+	static MessageCodec json() {
+		return new JsonMessageCodec();
+	}
+
+	/**
+	 * A codec storing messages as deflate-compressed JSON, which still reads messages
+	 * written by {@link #json()}
+	 */
+	static MessageCodec compact() {
+		return new CompactMessageCodec();
+	}
+
+}
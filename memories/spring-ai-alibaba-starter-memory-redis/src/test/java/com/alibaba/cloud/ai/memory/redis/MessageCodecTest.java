@@ -0,0 +1,59 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.memory.redis;
+
+import com.alibaba.cloud.ai.memory.redis.serializer.MessageCodec;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for message codecs, no Redis required
+ */
+class MessageCodecTest {
+
+	@Test
+	void compactCodecRoundTripAndReadsJson() {
+		MessageCodec compact = MessageCodec.compact();
+		Message message = UserMessage.builder()
+			.text("hello ".repeat(50))
+			.metadata(Map.of("source", "test"))
+			.build();
+
+		byte[] encoded = compact.encode(message);
+		byte[] json = MessageCodec.json().encode(message);
+
+		assertThat(encoded.length).isLessThan(json.length);
+		assertThat(compact.decode(encoded).getText()).isEqualTo(message.getText());
+		assertThat(compact.decode(encoded).getMetadata()).containsEntry("source", "test");
+		assertThat(compact.decode(json).getText()).isEqualTo(message.getText());
+		assertThat(MessageCodec.json().decode(json)).isInstanceOf(UserMessage.class);
+	}
+
+	@Test
+	void jsonCodecKeepsAssistantMessages() {
+		Message decoded = MessageCodec.json().decode(MessageCodec.json().encode(new AssistantMessage("answer")));
+
+		assertThat(decoded).isInstanceOf(AssistantMessage.class);
+		assertThat(decoded.getText()).isEqualTo("answer");
+	}
+
+}
@@ -19,6 +19,7 @@ import org.springframework.ai.document.Document;
 
 import java.io.InputStream;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * @author HeYQ
@@ -39,4 +40,20 @@ public interface DocumentParser {
 	 */
 	List<Document> parse(InputStream inputStream);
 
+	/**
+	 * Parses a given {@link InputStream} into {@link Document}s that are produced lazily,
+	 * in document order, as the stream is consumed. Implementations that hold resources
+	 * while parsing release them when the returned stream is closed, so callers should
+	 * use it in a try-with-resources block.
+	 * <p>
+	 * The default implementation parses eagerly with {@link #parse(InputStream)}. As with
+	 * {@link #parse(InputStream)}, the provided {@link InputStream} is not closed.
+	 * @param inputStream The {@link InputStream} that contains the content of the
+	 * {@link Document}s.
+	 * @return The parsed {@link Document}s.
+	 */
+	default Stream<Document> parseAsStream(InputStream inputStream) {
+		return parse(inputStream).stream();
+	}
+
 }
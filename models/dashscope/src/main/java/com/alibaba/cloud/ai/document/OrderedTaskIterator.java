@@ -0,0 +1,253 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.document;
+
+import org.springframework.util.Assert;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Runs the tasks of a parser, such as page ranges or files, on a private pool and returns
+ * their results in task order as they are requested. At most two tasks per worker are
+ * submitted ahead of the consumer, so memory stays bounded however many tasks there are.
+ * With a parallelism of one the tasks run on the consuming thread instead.
+ * <p>
+ * A result counts as consumed once the next one is requested or the iterator is
+ * exhausted, and the {@link #onConsumed(Consumer) consumed action} then runs for it. The
+ * iterator closes itself after the last result or on the first failure. Closing cancels
+ * the queued tasks, waits for the running ones and then runs the
+ * {@link #onClose(Runnable) close actions} in order.
+ *
+ * @param <R> the result of a task, must not be null
+ */
+public final class OrderedTaskIterator<R> implements Iterator<R>, AutoCloseable {
+
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+	private static final long TERMINATION_TIMEOUT_SECONDS = 30;
+
+	private final Iterator<? extends Callable<R>> tasks;
+
+	private final int maxPending;
+
+	private final ThreadPoolExecutor executor;
+
+	private final Deque<Future<R>> pending = new ArrayDeque<>();
+
+	private final List<Runnable> closeActions = new ArrayList<>();
+
+	private Consumer<? super R> consumedAction = result -> {
+	};
+
+	private R next;
+
+	private R current;
+
+	private boolean closed;
+
+	/**
+	 * @param threadNamePrefix the name prefix of the worker threads
+	 * @param parallelism the number of tasks run concurrently, {@code 1} runs them on the
+	 * consuming thread
+	 * @param tasks the tasks, only iterated on the consuming thread
+	 */
+	public OrderedTaskIterator(String threadNamePrefix, int parallelism, Iterator<? extends Callable<R>> tasks) {
+		Assert.hasText(threadNamePrefix, "threadNamePrefix must not be empty");
+		Assert.isTrue(parallelism > 0, "parallelism must be greater than 0");
+		Assert.notNull(tasks, "tasks must not be null");
+		this.tasks = tasks;
+		this.maxPending = parallelism * 2;
+		if (parallelism == 1) {
+			this.executor = null;
+		}
+		else {
+			this.executor = new ThreadPoolExecutor(parallelism, parallelism, 1, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(), runnable -> {
+						Thread thread = new Thread(runnable, threadNamePrefix + "-" + THREAD_COUNTER.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					});
+			this.executor.allowCoreThreadTimeOut(true);
+		}
+	}
+
+	/**
+	 * Runs the action on the consuming thread for every result once the consumer has
+	 * moved past it. Results that are still unconsumed when the iterator is closed early
+	 * are not passed to it.
+	 */
+	public OrderedTaskIterator<R> onConsumed(Consumer<? super R> action) {
+		Assert.notNull(action, "action must not be null");
+		this.consumedAction = action;
+		return this;
+	}
+
+	/**
+	 * Adds an action that runs when the iterator is closed, after all tasks have stopped.
+	 */
+	public OrderedTaskIterator<R> onClose(Runnable action) {
+		Assert.notNull(action, "action must not be null");
+		this.closeActions.add(action);
+		return this;
+	}
+
+	/**
+	 * @return a sequential stream of the results that closes this iterator when closed
+	 */
+	public Stream<R> stream() {
+		return StreamSupport
+			.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+			.onClose(this::close);
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (this.next != null) {
+			return true;
+		}
+		if (this.closed) {
+			return false;
+		}
+		try {
+			if (this.current != null) {
+				R consumed = this.current;
+				this.current = null;
+				this.consumedAction.accept(consumed);
+			}
+			this.next = fetch();
+		}
+		catch (RuntimeException e) {
+			close();
+			throw e;
+		}
+		if (this.next == null) {
+			close();
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public R next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		this.current = this.next;
+		this.next = null;
+		return this.current;
+	}
+
+	/**
+	 * Returns the result of the next task, or {@code null} if there are no tasks left.
+	 */
+	private R fetch() {
+		if (this.executor == null) {
+			return this.tasks.hasNext() ? requireResult(call(this.tasks.next())) : null;
+		}
+		while (this.pending.size() < this.maxPending && this.tasks.hasNext()) {
+			this.pending.add(this.executor.submit(this.tasks.next()));
+		}
+		return this.pending.isEmpty() ? null : requireResult(await(this.pending.poll()));
+	}
+
+	private R call(Callable<R> task) {
+		try {
+			return task.call();
+		}
+		catch (RuntimeException e) {
+			throw e;
+		}
+		catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private R await(Future<R> future) {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			throw cause instanceof RuntimeException runtimeException ? runtimeException : new RuntimeException(cause);
+		}
+	}
+
+	private R requireResult(R result) {
+		Assert.state(result != null, "task returned null");
+		return result;
+	}
+
+	@Override
+	public void close() {
+		if (this.closed) {
+			return;
+		}
+		this.closed = true;
+		this.next = null;
+		this.current = null;
+		this.pending.forEach(future -> future.cancel(true));
+		this.pending.clear();
+		if (this.executor != null) {
+			this.executor.shutdownNow();
+			try {
+				// running tasks may still use what the close actions release
+				this.executor.awaitTermination(TERMINATION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		RuntimeException failure = null;
+		for (Runnable action : this.closeActions) {
+			try {
+				action.run();
+			}
+			catch (RuntimeException e) {
+				if (failure == null) {
+					failure = e;
+				}
+				else {
+					failure.addSuppressed(e);
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+}
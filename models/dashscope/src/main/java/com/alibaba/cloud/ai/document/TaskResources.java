@@ -0,0 +1,83 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.document;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Lends the tasks of an {@link OrderedTaskIterator} a resource that is expensive to open,
+ * such as a loaded document, that no other task is using at the same time. Resources are
+ * opened on demand and reused, so there are never more of them than concurrent tasks.
+ * Close it from an {@link OrderedTaskIterator#onClose(Runnable) close action} to close
+ * every resource it opened.
+ *
+ * @param <T> the resource
+ */
+public final class TaskResources<T extends AutoCloseable> implements AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(TaskResources.class);
+
+	private final Callable<T> factory;
+
+	private final Queue<T> idle = new ConcurrentLinkedQueue<>();
+
+	private final Queue<T> opened = new ConcurrentLinkedQueue<>();
+
+	public TaskResources(Callable<T> factory) {
+		Assert.notNull(factory, "factory must not be null");
+		this.factory = factory;
+	}
+
+	/**
+	 * @return an idle resource, or a newly opened one if all are in use
+	 */
+	public T borrow() throws Exception {
+		T resource = this.idle.poll();
+		if (resource == null) {
+			resource = this.factory.call();
+			this.opened.add(resource);
+		}
+		return resource;
+	}
+
+	public void release(T resource) {
+		this.idle.add(resource);
+	}
+
+	/**
+	 * Closes every opened resource, logging the ones that fail to close.
+	 */
+	@Override
+	public void close() {
+		this.idle.clear();
+		T resource;
+		while ((resource = this.opened.poll()) != null) {
+			try {
+				resource.close();
+			}
+			catch (Exception e) {
+				logger.warn("Failed to close {}", resource, e);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.document;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Test cases for OrderedTaskIterator
+ */
+class OrderedTaskIteratorTests {
+
+	@Test
+	void returnsResultsInTaskOrder() {
+		List<Callable<Integer>> tasks = IntStream.range(0, 50).<Callable<Integer>>mapToObj(i -> () -> {
+			Thread.sleep((50 - i) % 7);
+			return i;
+		}).toList();
+
+		try (Stream<Integer> results = new OrderedTaskIterator<>("test", 4, tasks.iterator()).stream()) {
+			assertThat(results).containsExactlyElementsOf(IntStream.range(0, 50).boxed().toList());
+		}
+	}
+
+	@Test
+	void runsTasksOnTheConsumingThreadWithParallelismOne() {
+		Thread consumer = Thread.currentThread();
+		List<Callable<Boolean>> tasks = List.of(() -> Thread.currentThread() == consumer,
+				() -> Thread.currentThread() == consumer);
+
+		try (Stream<Boolean> results = new OrderedTaskIterator<>("test", 1, tasks.iterator()).stream()) {
+			assertThat(results).containsExactly(true, true);
+		}
+	}
+
+	@Test
+	void keepsAtMostTwoTasksPerWorkerAhead() {
+		CountingTasks tasks = new CountingTasks();
+
+		try (OrderedTaskIterator<Integer> results = new OrderedTaskIterator<>("test", 2, tasks)) {
+			assertThat(results.next()).isZero();
+			assertThat(tasks.taken).isEqualTo(4);
+		}
+	}
+
+	@Test
+	void reportsAResultAsConsumedOnceTheNextOneIsRequested() {
+		List<Integer> consumed = new ArrayList<>();
+		List<Callable<Integer>> tasks = List.of(() -> 1, () -> 2);
+
+		try (OrderedTaskIterator<Integer> results = new OrderedTaskIterator<>("test", 2, tasks.iterator())) {
+			results.onConsumed(consumed::add);
+			assertThat(results.next()).isEqualTo(1);
+			assertThat(consumed).isEmpty();
+			assertThat(results.next()).isEqualTo(2);
+			assertThat(consumed).containsExactly(1);
+			assertThat(results.hasNext()).isFalse();
+			assertThat(consumed).containsExactly(1, 2);
+		}
+	}
+
+	@Test
+	void closesOnFailure() {
+		List<String> closed = new ArrayList<>();
+		List<Callable<Integer>> tasks = List.of(() -> 1, () -> {
+			throw new IllegalStateException("broken");
+		}, () -> 3);
+
+		OrderedTaskIterator<Integer> results = new OrderedTaskIterator<>("test", 3, tasks.iterator())
+			.onClose(() -> closed.add("first"))
+			.onClose(() -> closed.add("second"));
+
+		assertThat(results.next()).isEqualTo(1);
+		assertThatThrownBy(results::next).isInstanceOf(IllegalStateException.class).hasMessage("broken");
+		assertThat(closed).containsExactly("first", "second");
+		assertThat(results.hasNext()).isFalse();
+	}
+
+	/**
+	 * An endless sequence of tasks that counts how many were taken.
+	 */
+	private static final class CountingTasks implements Iterator<Callable<Integer>> {
+
+		private int taken;
+
+		@Override
+		public boolean hasNext() {
+			return true;
+		}
+
+		@Override
+		public Callable<Integer> next() {
+			int index = taken++;
+			return () -> index;
+		}
+
+	}
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.document;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test cases for TaskResources
+ */
+class TaskResourcesTests {
+
+	@Test
+	void reusesReleasedResourcesAndClosesAllOfThem() throws Exception {
+		List<Resource> resources = new ArrayList<>();
+		TaskResources<Resource> taskResources = new TaskResources<>(() -> {
+			Resource resource = new Resource();
+			resources.add(resource);
+			return resource;
+		});
+
+		Resource first = taskResources.borrow();
+		Resource second = taskResources.borrow();
+		taskResources.release(first);
+
+		assertThat(second).isNotSameAs(first);
+		assertThat(taskResources.borrow()).isSameAs(first);
+		assertThat(resources).hasSize(2);
+
+		taskResources.close();
+		assertThat(resources).allMatch(resource -> resource.closed);
+	}
+
+	private static final class Resource implements AutoCloseable {
+
+		private boolean closed;
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+
+	}
+
+}
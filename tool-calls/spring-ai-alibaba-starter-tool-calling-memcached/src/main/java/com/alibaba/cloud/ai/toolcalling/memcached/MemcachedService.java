@@ -175,6 +175,10 @@ public class MemcachedService {
 		return appender;
 	}
 
+	public MemcachedClient getMemcachedClient() {
+		return memcachedClient;
+	}
+
 	public void close() {
 		if (this.memcachedClient != null) {
 			this.memcachedClient.shutdown();
@@ -15,14 +15,17 @@
  */
 package com.alibaba.cloud.ai.vectorstore.analyticdb;
 
+import java.io.IOException;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.RandomAccess;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
+import com.alibaba.cloud.ai.vectorstore.ConcurrentBatchWriter;
 import com.aliyun.gpdb20160503.Client;
 import com.aliyun.gpdb20160503.models.CreateCollectionRequest;
 import com.aliyun.gpdb20160503.models.CreateNamespaceRequest;
@@ -81,6 +84,12 @@ public class AnalyticDbVectorStore extends AbstractObservationVectorStore implem
 
 	private static final Double DEFAULT_SIMILARITY_THRESHOLD = 0.0;
 
+	public static final int DEFAULT_BATCH_SIZE = 500;
+
+	public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 4;
+
+	public static final int DEFAULT_MAX_RETRIES = 3;
+
 	public final FilterExpressionConverter filterExpressionConverter = new AdVectorFilterExpressionConverter();
 
 	// private final boolean initializeSchema;
@@ -97,6 +106,10 @@ public class AnalyticDbVectorStore extends AbstractObservationVectorStore implem
 
 	private final Double defaultSimilarityThreshold;
 
+	private final int batchSize;
+
+	private final ConcurrentBatchWriter batchWriter;
+
 	protected AnalyticDbVectorStore(Builder builder) throws Exception {
 		super(builder);
 		// collection_name must be updated every time
@@ -106,6 +119,9 @@ public class AnalyticDbVectorStore extends AbstractObservationVectorStore implem
 		this.objectMapper = JsonMapper.builder().addModules(JacksonUtils.instantiateAvailableModules()).build();
 		this.defaultSimilarityThreshold = builder.defaultSimilarityThreshold;
 		this.defaultTopK = builder.defaultTopK;
+		this.batchSize = builder.batchSize;
+		this.batchWriter = new ConcurrentBatchWriter("analyticdb-write", builder.maxConcurrentRequests,
+				builder.maxRetries, AnalyticDbVectorStore::isTransient);
 	}
 
 	public static Builder builder(String collectionName, AnalyticDbConfig config, Client client,
@@ -209,10 +225,10 @@ public class AnalyticDbVectorStore extends AbstractObservationVectorStore implem
 		List<float[]> embeddings = this.embeddingModel.embed(documents, EmbeddingOptions.builder().build(),
 				this.batchingStrategy);
 
-		List<UpsertCollectionDataRequest.UpsertCollectionDataRequestRows> rows = new ArrayList<>(10);
+		List<UpsertCollectionDataRequest.UpsertCollectionDataRequestRows> rows = new ArrayList<>(documents.size());
 		for (int i = 0; i < documents.size(); i++) {
 			Document doc = documents.get(i);
-			logger.info("Processing document id = {}", doc.getId());
+			logger.debug("Processing document id = {}", doc.getId());
 
 			Map<String, String> metadata = new HashMap<>();
 			String refDocId;
@@ -228,48 +244,101 @@ public class AnalyticDbVectorStore extends AbstractObservationVectorStore implem
 				throw new RuntimeException("Failed to serialize metadata for document id = " + doc.getId(), e);
 			}
 
-			float[] floatEmbeddings = embeddings.get(i);
-			List<Double> embedding = IntStream.range(0, floatEmbeddings.length)
-				.mapToObj(j -> (double) floatEmbeddings[j])
-				.toList();
-
-			rows.add(new UpsertCollectionDataRequest.UpsertCollectionDataRequestRows().setVector(embedding)
+			rows.add(new UpsertCollectionDataRequest.UpsertCollectionDataRequestRows()
+				.setVector(new FloatVector(embeddings.get(i)))
 				.setMetadata(metadata));
 		}
-		UpsertCollectionDataRequest request = new UpsertCollectionDataRequest()
-			.setDBInstanceId(this.config.getDbInstanceId())
-			.setRegionId(this.config.getRegionId())
-			.setNamespace(this.config.getNamespace())
-			.setNamespacePassword(this.config.getNamespacePassword())
-			.setCollection(this.collectionName)
-			.setRows(rows);
 		try {
-			this.client.upsertCollectionData(request);
+			this.batchWriter.writeAll(ConcurrentBatchWriter.chunks(rows, this.batchSize), chunk -> {
+				UpsertCollectionDataRequest request = new UpsertCollectionDataRequest()
+					.setDBInstanceId(this.config.getDbInstanceId())
+					.setRegionId(this.config.getRegionId())
+					.setNamespace(this.config.getNamespace())
+					.setNamespacePassword(this.config.getNamespacePassword())
+					.setCollection(this.collectionName)
+					.setRows(chunk);
+				this.client.upsertCollectionData(request);
+				return List.of();
+			});
 		}
-		catch (Exception e) {
+		catch (RuntimeException e) {
 			throw new RuntimeException("Failed to add collection data by IDs: " + e.getMessage(), e);
 		}
 	}
 
+	/**
+	 * Whether a failed request is worth sending again: throttling, server errors and I/O
+	 * failures. Other client errors, such as a bad request or a missing collection, fail
+	 * right away.
+	 */
+	static boolean isTransient(Exception e) {
+		if (e instanceof TeaException teaException) {
+			Integer status = teaException.getStatusCode();
+			if (status != null && (status == 429 || status >= 500)) {
+				return true;
+			}
+			String code = teaException.getCode();
+			if (code != null && code.startsWith("Throttling")) {
+				return true;
+			}
+		}
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof IOException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * A read-only {@code List<Double>} view of an embedding, which is the vector type the
+	 * AnalyticDB SDK expects. Values are widened when the request is serialized instead
+	 * of being copied into a boxed list up front.
+	 */
+	static final class FloatVector extends AbstractList<Double> implements RandomAccess {
+
+		private final float[] values;
+
+		FloatVector(float[] values) {
+			this.values = values;
+		}
+
+		@Override
+		public Double get(int index) {
+			return (double) this.values[index];
+		}
+
+		@Override
+		public int size() {
+			return this.values.length;
+		}
+
+	}
+
 	@Override
 	public void doDelete(List<String> ids) {
 		if (ids.isEmpty()) {
 			return;
 		}
-		String idsStr = ids.stream().map(id -> "'" + id + "'").collect(Collectors.joining(", ", "(", ")"));
-		DeleteCollectionDataRequest request = new DeleteCollectionDataRequest()
-			.setDBInstanceId(this.config.getDbInstanceId())
-			.setRegionId(this.config.getRegionId())
-			.setNamespace(this.config.getNamespace())
-			.setNamespacePassword(this.config.getNamespacePassword())
-			.setCollection(this.collectionName)
-			.setCollectionData(null)
-			.setCollectionDataFilter("refDocId IN " + idsStr);
 		try {
-			DeleteCollectionDataResponse deleteCollectionDataResponse = this.client.deleteCollectionData(request);
-			logger.debug("delete collection data response:{}", deleteCollectionDataResponse.getBody());
+			this.batchWriter.writeAll(ConcurrentBatchWriter.chunks(ids, this.batchSize), chunk -> {
+				String idsStr = chunk.stream()
+					.map(id -> "'" + id.replace("'", "''") + "'")
+					.collect(Collectors.joining(", ", "(", ")"));
+				DeleteCollectionDataRequest request = new DeleteCollectionDataRequest()
+					.setDBInstanceId(this.config.getDbInstanceId())
+					.setRegionId(this.config.getRegionId())
+					.setNamespace(this.config.getNamespace())
+					.setNamespacePassword(this.config.getNamespacePassword())
+					.setCollection(this.collectionName)
+					.setCollectionData(null)
+					.setCollectionDataFilter("refDocId IN " + idsStr);
+				DeleteCollectionDataResponse deleteCollectionDataResponse = this.client.deleteCollectionData(request);
+				logger.debug("delete collection data response:{}", deleteCollectionDataResponse.getBody());
+				return List.of();
+			});
 		}
-		catch (Exception e) {
+		catch (RuntimeException e) {
 			throw new RuntimeException("Failed to delete collection data by IDs: " + e.getMessage(), e);
 		}
 	}
@@ -384,6 +453,12 @@ public class AnalyticDbVectorStore extends AbstractObservationVectorStore implem
 
 		private Double defaultSimilarityThreshold = DEFAULT_SIMILARITY_THRESHOLD;
 
+		private int batchSize = DEFAULT_BATCH_SIZE;
+
+		private int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+
+		private int maxRetries = DEFAULT_MAX_RETRIES;
+
 		private Builder(String collectionName, AnalyticDbConfig config, Client client, EmbeddingModel embeddingModel) {
 			super(embeddingModel);
 			Assert.notNull(client, "Client must not be null");
@@ -420,6 +495,43 @@ public class AnalyticDbVectorStore extends AbstractObservationVectorStore implem
 			return this;
 		}
 
+		/**
+		 * Sets the maximum number of rows sent in one upsert or delete request.
+		 * @param batchSize the number of rows per request
+		 * @return the builder instance
+		 * @throws IllegalArgumentException if batchSize is not positive
+		 */
+		public Builder batchSize(int batchSize) {
+			Assert.isTrue(batchSize > 0, "The batchSize should be positive value.");
+			this.batchSize = batchSize;
+			return this;
+		}
+
+		/**
+		 * Sets how many upsert or delete requests the store keeps in flight at once, shared
+		 * by all of its calls.
+		 * @param maxConcurrentRequests the maximum number of requests in flight
+		 * @return the builder instance
+		 * @throws IllegalArgumentException if maxConcurrentRequests is not positive
+		 */
+		public Builder maxConcurrentRequests(int maxConcurrentRequests) {
+			Assert.isTrue(maxConcurrentRequests > 0, "The maxConcurrentRequests should be positive value.");
+			this.maxConcurrentRequests = maxConcurrentRequests;
+			return this;
+		}
+
+		/**
+		 * Sets how many times a request that failed transiently is retried.
+		 * @param maxRetries the maximum number of retries, 0 to disable retries
+		 * @return the builder instance
+		 * @throws IllegalArgumentException if maxRetries is negative
+		 */
+		public Builder maxRetries(int maxRetries) {
+			Assert.isTrue(maxRetries >= 0, "The maxRetries should not be negative.");
+			this.maxRetries = maxRetries;
+			return this;
+		}
+
 		@Override
 		public AnalyticDbVectorStore build() {
 			try {
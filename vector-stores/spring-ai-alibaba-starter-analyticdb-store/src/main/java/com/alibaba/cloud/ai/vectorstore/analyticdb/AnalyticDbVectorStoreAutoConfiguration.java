@@ -89,6 +89,15 @@ public class AnalyticDbVectorStoreAutoConfiguration {
 		if (properties.getDefaultSimilarityThreshold() >= 0.0) {
 			builder.defaultSimilarityThreshold(properties.getDefaultSimilarityThreshold());
 		}
+		if (properties.getBatchSize() != null) {
+			builder.batchSize(properties.getBatchSize());
+		}
+		if (properties.getMaxConcurrentRequests() != null) {
+			builder.maxConcurrentRequests(properties.getMaxConcurrentRequests());
+		}
+		if (properties.getMaxRetries() != null) {
+			builder.maxRetries(properties.getMaxRetries());
+		}
 		return builder.build();
 	}
 
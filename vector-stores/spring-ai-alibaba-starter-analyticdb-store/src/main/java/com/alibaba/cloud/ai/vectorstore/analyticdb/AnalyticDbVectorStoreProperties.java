@@ -57,6 +57,12 @@ public class AnalyticDbVectorStoreProperties extends CommonVectorStoreProperties
 
 	private Double defaultSimilarityThreshold = -1.0;
 
+	private Integer batchSize;
+
+	private Integer maxConcurrentRequests;
+
+	private Integer maxRetries;
+
 	public String getCollectName() {
 		return collectName;
 	}
@@ -169,6 +175,30 @@ public class AnalyticDbVectorStoreProperties extends CommonVectorStoreProperties
 		this.defaultSimilarityThreshold = defaultSimilarityThreshold;
 	}
 
+	public Integer getBatchSize() {
+		return batchSize;
+	}
+
+	public void setBatchSize(Integer batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public Integer getMaxConcurrentRequests() {
+		return maxConcurrentRequests;
+	}
+
+	public void setMaxConcurrentRequests(Integer maxConcurrentRequests) {
+		this.maxConcurrentRequests = maxConcurrentRequests;
+	}
+
+	public Integer getMaxRetries() {
+		return maxRetries;
+	}
+
+	public void setMaxRetries(Integer maxRetries) {
+		this.maxRetries = maxRetries;
+	}
+
 	public Map<String, Object> toAnalyticDbClientParams() {
 		Map<String, Object> params = new HashMap<>();
 		params.put("accessKeyId", this.accessKeyId);
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.vectorstore.analyticdb;
+
+import com.aliyun.gpdb20160503.Client;
+import com.aliyun.gpdb20160503.models.DeleteCollectionDataRequest;
+import com.aliyun.gpdb20160503.models.DeleteCollectionDataResponse;
+import com.aliyun.gpdb20160503.models.UpsertCollectionDataRequest;
+import com.aliyun.tea.TeaException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for how {@link AnalyticDbVectorStore} chunks and retries its writes, run
+ * against a mocked client.
+ */
+class AnalyticDbVectorStoreTest {
+
+	private Client client;
+
+	private EmbeddingModel embeddingModel;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		client = mock(Client.class);
+		embeddingModel = mock(EmbeddingModel.class);
+		when(embeddingModel.embed(anyList(), any(), any())).thenAnswer(invocation -> {
+			List<float[]> embeddings = new ArrayList<>();
+			for (int i = 0; i < invocation.<List<?>>getArgument(0).size(); i++) {
+				embeddings.add(new float[] { i, 0.5f });
+			}
+			return embeddings;
+		});
+		when(client.deleteCollectionData(any())).thenReturn(mock(DeleteCollectionDataResponse.class));
+	}
+
+	private AnalyticDbVectorStore store(int batchSize, int maxRetries) {
+		return AnalyticDbVectorStore.builder("docs", new AnalyticDbConfig(), client, embeddingModel)
+			.batchSize(batchSize)
+			.maxConcurrentRequests(2)
+			.maxRetries(maxRetries)
+			.build();
+	}
+
+	private static List<Document> documents(int count) {
+		List<Document> documents = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			documents.add(new Document("doc-" + i, "text " + i, Map.of()));
+		}
+		return documents;
+	}
+
+	private static TeaException teaException(Integer statusCode, String code) {
+		TeaException e = mock(TeaException.class);
+		when(e.getStatusCode()).thenReturn(statusCode);
+		when(e.getCode()).thenReturn(code);
+		return e;
+	}
+
+	@Test
+	void addUpsertsInChunksOfBatchSize() throws Exception {
+		store(2, 0).add(documents(5));
+
+		ArgumentCaptor<UpsertCollectionDataRequest> requests = ArgumentCaptor
+			.forClass(UpsertCollectionDataRequest.class);
+		verify(client, times(3)).upsertCollectionData(requests.capture());
+		assertThat(requests.getAllValues()).extracting(request -> request.getRows().size())
+			.containsExactlyInAnyOrder(2, 2, 1);
+	}
+
+	@Test
+	void deleteEscapesIdsInEachChunkFilter() throws Exception {
+		store(2, 0).delete(List.of("a", "b", "it's"));
+
+		ArgumentCaptor<DeleteCollectionDataRequest> requests = ArgumentCaptor
+			.forClass(DeleteCollectionDataRequest.class);
+		verify(client, times(2)).deleteCollectionData(requests.capture());
+		assertThat(requests.getAllValues()).extracting(DeleteCollectionDataRequest::getCollectionDataFilter)
+			.containsExactlyInAnyOrder("refDocId IN ('a', 'b')", "refDocId IN ('it''s')");
+	}
+
+	@Test
+	void retriesThrottledUpsert() throws Exception {
+		TeaException throttled = teaException(429, "Throttling.User");
+		when(client.upsertCollectionData(any())).thenThrow(throttled).thenReturn(null);
+
+		store(10, 3).add(documents(3));
+
+		verify(client, times(2)).upsertCollectionData(any());
+	}
+
+	@Test
+	void doesNotRetryClientErrors() throws Exception {
+		TeaException badRequest = teaException(400, "InvalidParameter");
+		when(client.upsertCollectionData(any())).thenThrow(badRequest);
+
+		assertThatThrownBy(() -> store(10, 3).add(documents(3))).isInstanceOf(RuntimeException.class)
+			.hasRootCauseInstanceOf(TeaException.class);
+		verify(client, times(1)).upsertCollectionData(any());
+	}
+
+	@Test
+	void onlyThrottlingServerErrorsAndIoFailuresAreTransient() {
+		assertThat(AnalyticDbVectorStore.isTransient(teaException(429, null))).isTrue();
+		assertThat(AnalyticDbVectorStore.isTransient(teaException(503, null))).isTrue();
+		assertThat(AnalyticDbVectorStore.isTransient(teaException(400, "Throttling"))).isTrue();
+		assertThat(AnalyticDbVectorStore.isTransient(teaException(404, "NotFound"))).isFalse();
+		assertThat(AnalyticDbVectorStore.isTransient(teaException(null, null))).isFalse();
+		assertThat(AnalyticDbVectorStore.isTransient(new RuntimeException(new SocketTimeoutException()))).isTrue();
+		assertThat(AnalyticDbVectorStore.isTransient(new IOException("reset"))).isTrue();
+		assertThat(AnalyticDbVectorStore.isTransient(new IllegalArgumentException("bad vector"))).isFalse();
+	}
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.vectorstore.local;
+
+/**
+ * Quantizes float vectors to one bit per dimension, the sign of the component, which cuts
+ * the memory of a vector by 32. Bits are compared by Hamming distance, which approximates
+ * the angle between vectors whose components are centred on zero, as those of most
+ * embedding models are. The approximation is coarse: candidates found this way should be
+ * rescored against the full-precision vectors.
+ */
+public final class BinaryQuantizer {
+
+	private BinaryQuantizer() {
+	}
+
+	/**
+	 * Returns the number of {@code long} words holding the bits of one vector.
+	 */
+	public static int words(int dimensions) {
+		return (dimensions + Long.SIZE - 1) / Long.SIZE;
+	}
+
+	public static long[] encode(float[] vector) {
+		long[] bits = new long[words(vector.length)];
+		encode(vector, bits, 0);
+		return bits;
+	}
+
+	/**
+	 * Writes the bits of {@code vector} to {@code bits} starting at word {@code offset}.
+	 */
+	public static void encode(float[] vector, long[] bits, int offset) {
+		int words = words(vector.length);
+		for (int w = 0; w < words; w++) {
+			long word = 0;
+			for (int i = w * Long.SIZE, end = Math.min(vector.length, i + Long.SIZE); i < end; i++) {
+				if (vector[i] > 0) {
+					word |= 1L << (i & (Long.SIZE - 1));
+				}
+			}
+			bits[offset + w] = word;
+		}
+	}
+
+	/**
+	 * Scores the bits starting at word {@code offset} against the bits of a query: the
+	 * number of dimensions whose signs differ, negated, so that higher is more similar.
+	 */
+	public static int score(long[] query, long[] bits, int offset) {
+		int distance = 0;
+		for (int w = 0; w < query.length; w++) {
+			distance += Long.bitCount(query[w] ^ bits[offset + w]);
+		}
+		return -distance;
+	}
+
+}
@@ -0,0 +1,500 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.vectorstore.local;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntPredicate;
+
+import org.springframework.util.Assert;
+
+/**
+ * A Hierarchical Navigable Small World graph (Malkov and Yashunin) over vectors stored
+ * back to back in one {@code float[]}, scored by dot product.
+ * <p>
+ * {@link #insert(int, int)} and {@link #search(float[], int, IntPredicate)} may run
+ * concurrently: every adjacency list is read and written while holding one of a fixed set
+ * of striped monitors, and the entry point is published together with its level as one
+ * immutable {@link EntryPoint}, so a search never pairs a node with a level it does not
+ * reach. Adding nodes with {@link #set(int, float[])} and growing the storage with
+ * {@link #grow(int)} must not overlap with either and are left to the caller to exclude.
+ */
+final class HnswIndex {
+
+	private static final int LOCK_STRIPES = 512;
+
+	private final Object[] locks = new Object[LOCK_STRIPES];
+
+	private final Object entryLock = new Object();
+
+	private final ThreadLocal<Visited> visited = ThreadLocal.withInitial(Visited::new);
+
+	private final int dimensions;
+
+	private final int m;
+
+	private final int efConstruction;
+
+	private final double levelMultiplier;
+
+	private float[] vectors;
+
+	private int[] levels;
+
+	/**
+	 * Adjacency lists per node and level; element 0 of each list holds its length.
+	 */
+	private int[][][] links;
+
+	/**
+	 * The top node and its level, {@code null} while the graph is empty. Replaced as a
+	 * whole under {@link #entryLock}.
+	 */
+	private volatile EntryPoint entryPoint;
+
+	HnswIndex(int dimensions, int m, int efConstruction, int capacity) {
+		Assert.isTrue(m >= 2, "m must be at least 2");
+		this.dimensions = dimensions;
+		this.m = m;
+		this.efConstruction = efConstruction;
+		this.levelMultiplier = 1 / Math.log(m);
+		this.vectors = new float[Math.multiplyExact(capacity, dimensions)];
+		this.levels = new int[capacity];
+		this.links = new int[capacity][][];
+		for (int i = 0; i < LOCK_STRIPES; i++) {
+			this.locks[i] = new Object();
+		}
+	}
+
+	int dimensions() {
+		return this.dimensions;
+	}
+
+	int capacity() {
+		return this.levels.length;
+	}
+
+	void grow(int capacity) {
+		if (capacity > this.levels.length) {
+			this.vectors = Arrays.copyOf(this.vectors, Math.multiplyExact(capacity, this.dimensions));
+			this.levels = Arrays.copyOf(this.levels, capacity);
+			this.links = Arrays.copyOf(this.links, capacity);
+		}
+	}
+
+	/**
+	 * Stores the vector of a node that has not been inserted yet.
+	 */
+	void set(int node, float[] vector) {
+		System.arraycopy(vector, 0, this.vectors, node * this.dimensions, this.dimensions);
+	}
+
+	/**
+	 * Copies a node's vector into {@code target}.
+	 */
+	void copy(int node, HnswIndex target, int targetNode) {
+		System.arraycopy(this.vectors, node * this.dimensions, target.vectors, targetNode * this.dimensions,
+				this.dimensions);
+	}
+
+	/**
+	 * Draws a level from the exponentially decaying distribution of the paper.
+	 */
+	int randomLevel() {
+		return (int) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * this.levelMultiplier);
+	}
+
+	/**
+	 * Links a node whose vector has been {@link #set(int, float[]) set} into the graph.
+	 */
+	void insert(int node, int level) {
+		int[][] nodeLinks = new int[level + 1][];
+		for (int lc = 0; lc <= level; lc++) {
+			nodeLinks[lc] = new int[maxConnections(lc) + 1];
+		}
+		this.levels[node] = level;
+		this.links[node] = nodeLinks;
+
+		EntryPoint current;
+		synchronized (this.entryLock) {
+			current = this.entryPoint;
+			if (current == null) {
+				this.entryPoint = new EntryPoint(node, level);
+				return;
+			}
+		}
+		int entry = current.node();
+		int top = current.level();
+
+		int offset = node * this.dimensions;
+		for (int lc = top; lc > level; lc--) {
+			entry = greedy(this.vectors, offset, entry, lc);
+		}
+		for (int lc = Math.min(top, level); lc >= 0; lc--) {
+			TopK candidates = searchLayer(this.vectors, offset, entry, this.efConstruction, lc, n -> n != node);
+			int count = candidates.sortDescending();
+			if (count == 0) {
+				continue;
+			}
+			int[] nodes = new int[count];
+			float[] scores = new float[count];
+			for (int i = 0; i < count; i++) {
+				nodes[i] = candidates.slot(i);
+				scores[i] = candidates.score(i);
+			}
+			int[] selected = selectNeighbors(nodes, scores, count, this.m);
+			synchronized (lock(node)) {
+				// concurrent inserts may already have linked to this node on this level
+				merge(nodeLinks[lc], selected);
+			}
+			for (int neighbor : selected) {
+				link(neighbor, node, lc);
+			}
+			entry = nodes[0];
+		}
+
+		if (level > top) {
+			synchronized (this.entryLock) {
+				if (level > this.entryPoint.level()) {
+					this.entryPoint = new EntryPoint(node, level);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds approximately the {@code ef} nearest nodes that pass {@code accept}. Nodes
+	 * that are rejected are still traversed, so they keep the graph connected.
+	 * @return the best matches, at most {@code ef}
+	 */
+	TopK search(float[] query, int ef, IntPredicate accept) {
+		EntryPoint current = this.entryPoint;
+		if (current == null) {
+			return new TopK(0);
+		}
+		int entry = current.node();
+		for (int lc = current.level(); lc > 0; lc--) {
+			entry = greedy(query, 0, entry, lc);
+		}
+		return searchLayer(query, 0, entry, ef, 0, accept);
+	}
+
+	void write(SnapshotFile file, int nodeCount) throws IOException {
+		EntryPoint current = this.entryPoint;
+		file.writeInts(this.dimensions, this.m, this.efConstruction, current != null ? current.node() : -1,
+				current != null ? current.level() : -1);
+		file.writeFloats(this.vectors, nodeCount * this.dimensions);
+		file.writeInts(this.levels, nodeCount);
+		int[] flat = new int[nodeCount * (maxConnections(0) + 1)];
+		int length = 0;
+		for (int node = 0; node < nodeCount; node++) {
+			for (int lc = 0; lc <= this.levels[node]; lc++) {
+				int[] list = neighbors(node, lc);
+				if (length + list.length > flat.length) {
+					flat = Arrays.copyOf(flat, Math.max(flat.length * 2, length + list.length));
+				}
+				System.arraycopy(list, 0, flat, length, list.length);
+				length += list.length;
+			}
+		}
+		file.writeInts(length);
+		file.writeInts(flat, length);
+	}
+
+	static HnswIndex read(SnapshotFile file, int nodeCount) throws IOException {
+		int[] header = file.readInts(5);
+		HnswIndex index = new HnswIndex(header[0], header[1], header[2], nodeCount);
+		index.vectors = file.readFloats(nodeCount * index.dimensions);
+		index.levels = file.readInts(nodeCount);
+		int[] flat = file.readInts(file.readInts(1)[0]);
+		int position = 0;
+		for (int node = 0; node < nodeCount; node++) {
+			int[][] nodeLinks = new int[index.levels[node] + 1][];
+			for (int lc = 0; lc < nodeLinks.length; lc++) {
+				int count = flat[position];
+				nodeLinks[lc] = new int[index.maxConnections(lc) + 1];
+				System.arraycopy(flat, position, nodeLinks[lc], 0, count + 1);
+				position += count + 1;
+			}
+			index.links[node] = nodeLinks;
+		}
+		index.entryPoint = header[3] >= 0 ? new EntryPoint(header[3], header[4]) : null;
+		return index;
+	}
+
+	private int maxConnections(int level) {
+		return level == 0 ? 2 * this.m : this.m;
+	}
+
+	private Object lock(int node) {
+		return this.locks[node & (LOCK_STRIPES - 1)];
+	}
+
+	/**
+	 * Copies a node's adjacency list, length first, under its lock.
+	 */
+	private int[] neighbors(int node, int level) {
+		synchronized (lock(node)) {
+			int[] list = this.links[node][level];
+			return Arrays.copyOf(list, list[0] + 1);
+		}
+	}
+
+	private float score(float[] query, int queryOffset, int node) {
+		return VectorMath.dot(query, queryOffset, this.vectors, node * this.dimensions, this.dimensions);
+	}
+
+	private int greedy(float[] query, int queryOffset, int entry, int level) {
+		int current = entry;
+		float best = score(query, queryOffset, current);
+		boolean improved = true;
+		while (improved) {
+			improved = false;
+			int[] list = neighbors(current, level);
+			for (int i = 1; i <= list[0]; i++) {
+				float score = score(query, queryOffset, list[i]);
+				if (score > best) {
+					best = score;
+					current = list[i];
+					improved = true;
+				}
+			}
+		}
+		return current;
+	}
+
+	private TopK searchLayer(float[] query, int queryOffset, int entry, int ef, int level, IntPredicate accept) {
+		Visited visited = this.visited.get();
+		visited.reset(this.levels.length);
+		TopK results = new TopK(ef);
+		Candidates candidates = new Candidates();
+
+		float entryScore = score(query, queryOffset, entry);
+		visited.add(entry);
+		candidates.push(entryScore, entry);
+		if (accept.test(entry)) {
+			results.offer(entryScore, entry);
+		}
+		while (!candidates.isEmpty()) {
+			if (candidates.peekScore() < results.threshold()) {
+				break;
+			}
+			int[] list = neighbors(candidates.pop(), level);
+			for (int i = 1; i <= list[0]; i++) {
+				int neighbor = list[i];
+				if (!visited.add(neighbor)) {
+					continue;
+				}
+				float score = score(query, queryOffset, neighbor);
+				if (score > results.threshold()) {
+					candidates.push(score, neighbor);
+					if (accept.test(neighbor)) {
+						results.offer(score, neighbor);
+					}
+				}
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * The neighbour selection heuristic of the paper: walking the candidates from the
+	 * closest, keep one only if it is closer to the base node than to every neighbour
+	 * kept so far, which favours links in diverse directions.
+	 * @param nodes candidates ordered by descending score against the base node
+	 * @param scores the scores matching {@code nodes}
+	 */
+	private int[] selectNeighbors(int[] nodes, float[] scores, int count, int max) {
+		int[] selected = new int[Math.min(count, max)];
+		int size = 0;
+		for (int i = 0; i < count && size < selected.length; i++) {
+			int candidate = nodes[i];
+			boolean diverse = true;
+			for (int j = 0; j < size && diverse; j++) {
+				diverse = VectorMath.dot(this.vectors, candidate * this.dimensions, this.vectors,
+						selected[j] * this.dimensions, this.dimensions) <= scores[i];
+			}
+			if (diverse) {
+				selected[size++] = candidate;
+			}
+		}
+		return size == selected.length ? selected : Arrays.copyOf(selected, size);
+	}
+
+	/**
+	 * Adds {@code node} to the adjacency list of {@code neighbor}, pruning the list with
+	 * the selection heuristic when it is full.
+	 */
+	private void link(int neighbor, int node, int level) {
+		synchronized (lock(neighbor)) {
+			int[] list = this.links[neighbor][level];
+			int count = list[0];
+			if (count < list.length - 1) {
+				list[++count] = node;
+				list[0] = count;
+				return;
+			}
+			int[] nodes = Arrays.copyOfRange(list, 1, count + 2);
+			nodes[count] = node;
+			float[] scores = new float[nodes.length];
+			for (int i = 0; i < nodes.length; i++) {
+				scores[i] = VectorMath.dot(this.vectors, neighbor * this.dimensions, this.vectors,
+						nodes[i] * this.dimensions, this.dimensions);
+			}
+			sortDescending(nodes, scores);
+			int[] selected = selectNeighbors(nodes, scores, nodes.length, count);
+			System.arraycopy(selected, 0, list, 1, selected.length);
+			list[0] = selected.length;
+		}
+	}
+
+	private static void merge(int[] list, int[] selected) {
+		for (int candidate : selected) {
+			int count = list[0];
+			if (count == list.length - 1) {
+				return;
+			}
+			boolean present = false;
+			for (int i = 1; i <= count && !present; i++) {
+				present = list[i] == candidate;
+			}
+			if (!present) {
+				list[++count] = candidate;
+				list[0] = count;
+			}
+		}
+	}
+
+	private static void sortDescending(int[] nodes, float[] scores) {
+		// adjacency lists are short, insertion sort is enough
+		for (int i = 1; i < nodes.length; i++) {
+			int node = nodes[i];
+			float score = scores[i];
+			int j = i - 1;
+			while (j >= 0 && scores[j] < score) {
+				nodes[j + 1] = nodes[j];
+				scores[j + 1] = scores[j];
+				j--;
+			}
+			nodes[j + 1] = node;
+			scores[j + 1] = score;
+		}
+	}
+
+	private record EntryPoint(int node, int level) {
+	}
+
+	/**
+	 * Growable max-heap of candidates to expand, highest score first.
+	 */
+	private static final class Candidates {
+
+		private float[] scores = new float[64];
+
+		private int[] nodes = new int[64];
+
+		private int size;
+
+		boolean isEmpty() {
+			return this.size == 0;
+		}
+
+		float peekScore() {
+			return this.scores[0];
+		}
+
+		void push(float score, int node) {
+			if (this.size == this.scores.length) {
+				this.scores = Arrays.copyOf(this.scores, this.size * 2);
+				this.nodes = Arrays.copyOf(this.nodes, this.size * 2);
+			}
+			int i = this.size++;
+			while (i > 0) {
+				int parent = (i - 1) >>> 1;
+				if (this.scores[parent] >= score) {
+					break;
+				}
+				this.scores[i] = this.scores[parent];
+				this.nodes[i] = this.nodes[parent];
+				i = parent;
+			}
+			this.scores[i] = score;
+			this.nodes[i] = node;
+		}
+
+		int pop() {
+			int top = this.nodes[0];
+			int last = --this.size;
+			float score = this.scores[last];
+			int node = this.nodes[last];
+			int i = 0;
+			while (true) {
+				int child = 2 * i + 1;
+				if (child >= last) {
+					break;
+				}
+				if (child + 1 < last && this.scores[child + 1] > this.scores[child]) {
+					child++;
+				}
+				if (score >= this.scores[child]) {
+					break;
+				}
+				this.scores[i] = this.scores[child];
+				this.nodes[i] = this.nodes[child];
+				i = child;
+			}
+			this.scores[i] = score;
+			this.nodes[i] = node;
+			return top;
+		}
+
+	}
+
+	/**
+	 * Per-thread visited marks, cleared in O(1) by bumping a generation counter.
+	 */
+	private static final class Visited {
+
+		private int[] marks = new int[0];
+
+		private int generation;
+
+		void reset(int capacity) {
+			if (this.marks.length < capacity) {
+				this.marks = new int[capacity];
+				this.generation = 0;
+			}
+			if (++this.generation == 0) {
+				Arrays.fill(this.marks, 0);
+				this.generation = 1;
+			}
+		}
+
+		/**
+		 * Marks the node, returning {@code false} if it was already marked.
+		 */
+		boolean add(int node) {
+			if (this.marks[node] == this.generation) {
+				return false;
+			}
+			this.marks[node] = this.generation;
+			return true;
+		}
+
+	}
+
+}
@@ -0,0 +1,642 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.vectorstore.local;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.vectorstore.AbstractVectorStoreBuilder;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.observation.AbstractObservationVectorStore;
+import org.springframework.ai.vectorstore.observation.VectorStoreObservationContext;
+import org.springframework.util.Assert;
+
+/**
+ * An in-process vector store backed by an HNSW graph, for collections too large for the
+ * exhaustive scan of {@link LocalVectorStore}. Search cost grows roughly with the
+ * logarithm of the collection size, at the price of approximate results; {@code m},
+ * {@code efConstruction} and {@code efSearch} trade memory, build time and latency
+ * against recall.
+ * <p>
+ * The nodes of a batch, and of batches added from different threads, are linked into the
+ * graph concurrently without blocking searches. Deletes and upserts only mark the old
+ * node as deleted; once the share of deleted nodes reaches the compaction threshold the
+ * graph is rebuilt from the live nodes in the background, on a thread owned by the store
+ * that {@link #close()} stops. The store can be written to and read back from a
+ * memory-mapped snapshot with {@link #save(Path)} and {@link #load(Path)}.
+ */
+public class HnswVectorStore extends AbstractObservationVectorStore implements AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(HnswVectorStore.class);
+
+	private static final int SNAPSHOT_MAGIC = 0x4C564831;
+
+	private static final int SNAPSHOT_VERSION = 1;
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	/**
+	 * Guards the node bookkeeping. Inserts and searches hold the read lock while they
+	 * walk the graph, allocating nodes, deleting, compacting and loading hold the write
+	 * lock.
+	 */
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final LocalVectorStore.Metric metric;
+
+	private final int m;
+
+	private final int efConstruction;
+
+	private final int efSearch;
+
+	private final double compactionThreshold;
+
+	private final String collectionName;
+
+	private final Map<String, Integer> nodes = new HashMap<>();
+
+	private HnswIndex index;
+
+	/**
+	 * The document of every allocated node, {@code null} once the node is deleted.
+	 */
+	private Document[] documents = new Document[0];
+
+	private int nodeCount;
+
+	private int deletedCount;
+
+	/**
+	 * Bumped whenever the nodes are renumbered, so a compaction that was rebuilding
+	 * meanwhile does not swap in a stale graph.
+	 */
+	private long generation;
+
+	private final ReentrantLock compactionLock = new ReentrantLock();
+
+	private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+
+	/**
+	 * Runs the background compactions. They block on the store locks, so they get a
+	 * thread of their own rather than one of the shared pool; it exits when idle.
+	 */
+	private final ThreadPoolExecutor compactionExecutor;
+
+	/**
+	 * Initializes a new instance of the {@link HnswVectorStore} class.
+	 * @param builder The builder containing the store configuration.
+	 */
+	protected HnswVectorStore(Builder builder) {
+		super(builder);
+		this.metric = builder.metric;
+		this.m = builder.m;
+		this.efConstruction = builder.efConstruction;
+		this.efSearch = builder.efSearch;
+		this.compactionThreshold = builder.compactionThreshold;
+		this.collectionName = builder.collectionName;
+		this.compactionExecutor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+				runnable -> {
+					Thread thread = new Thread(runnable, "hnsw-compaction");
+					thread.setDaemon(true);
+					return thread;
+				});
+		this.compactionExecutor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Creates a new builder for the {@link HnswVectorStore} class.
+	 * @param embeddingModel The EmbeddingModel instance to be used.
+	 * @return A new builder instance.
+	 */
+	public static Builder builder(EmbeddingModel embeddingModel) {
+		return new Builder(embeddingModel);
+	}
+
+	@Override
+	public void doAdd(List<Document> documents) {
+		Objects.requireNonNull(documents, "Documents list cannot be null");
+		if (documents.isEmpty()) {
+			return;
+		}
+		List<float[]> embeddings = this.embeddingModel.embed(documents, EmbeddingOptions.builder().build(),
+				this.batchingStrategy);
+
+		int first;
+		this.lock.writeLock().lock();
+		try {
+			if (this.index == null) {
+				this.index = new HnswIndex(embeddings.get(0).length, this.m, this.efConstruction, INITIAL_CAPACITY);
+			}
+			ensureCapacity(this.nodeCount + documents.size());
+			first = this.nodeCount;
+			for (int i = 0; i < documents.size(); i++) {
+				Document document = documents.get(i);
+				float[] embedding = embeddings.get(i);
+				Assert.isTrue(embedding.length == this.index.dimensions(), () -> "Document " + document.getId()
+						+ " has " + embedding.length + " dimensions but the store holds " + this.index.dimensions());
+				if (this.metric == LocalVectorStore.Metric.COSINE) {
+					VectorMath.normalize(embedding);
+				}
+				int node = this.nodeCount++;
+				this.index.set(node, embedding);
+				this.documents[node] = document;
+				markDeleted(this.nodes.put(document.getId(), node));
+			}
+			// downgrade so that other inserts and searches run while this batch is linked
+			this.lock.readLock().lock();
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+		try {
+			HnswIndex index = this.index;
+			IntStream.range(first, first + documents.size())
+				.parallel()
+				.forEach(node -> index.insert(node, index.randomLevel()));
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+		compactIfNeeded();
+	}
+
+	@Override
+	public void doDelete(List<String> idList) {
+		this.lock.writeLock().lock();
+		try {
+			for (String id : idList) {
+				markDeleted(this.nodes.remove(id));
+			}
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+		compactIfNeeded();
+	}
+
+	@Override
+	protected void doDelete(Filter.Expression filterExpression) {
+		Assert.notNull(filterExpression, "Filter expression must not be null");
+		this.lock.writeLock().lock();
+		try {
+			for (int node = 0; node < this.nodeCount; node++) {
+				Document document = this.documents[node];
+				if (document != null && MetadataFilter.matches(filterExpression, document.getMetadata())) {
+					this.nodes.remove(document.getId());
+					markDeleted(node);
+				}
+			}
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+		compactIfNeeded();
+	}
+
+	@Override
+	public List<Document> doSimilaritySearch(SearchRequest request) {
+		if (request.getTopK() <= 0) {
+			return List.of();
+		}
+		float[] query = this.embeddingModel.embed(request.getQuery());
+		if (this.metric == LocalVectorStore.Metric.COSINE) {
+			VectorMath.normalize(query);
+		}
+		Filter.Expression filter = request.getFilterExpression();
+
+		this.lock.readLock().lock();
+		try {
+			if (this.index == null) {
+				return List.of();
+			}
+			Assert.isTrue(query.length == this.index.dimensions(), () -> "Query embedding has " + query.length
+					+ " dimensions but the store holds " + this.index.dimensions());
+			Document[] documents = this.documents;
+			IntPredicate accept = node -> documents[node] != null
+					&& (filter == null || MetadataFilter.matches(filter, documents[node].getMetadata()));
+			TopK candidates = this.index.search(query, Math.max(this.efSearch, request.getTopK()), accept);
+			int count = Math.min(candidates.sortDescending(), request.getTopK());
+			List<Document> results = new ArrayList<>(count);
+			for (int i = 0; i < count && candidates.score(i) >= request.getSimilarityThreshold(); i++) {
+				results.add(LocalVectorStore.withScore(documents[candidates.slot(i)], candidates.score(i)));
+			}
+			return results;
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of live documents in the store.
+	 * @return the document count
+	 */
+	public int size() {
+		this.lock.readLock().lock();
+		try {
+			return this.nodes.size();
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Rebuilds the graph from the live nodes, dropping the nodes left behind by deletes
+	 * and upserts. Runs in the background once their share reaches the compaction
+	 * threshold. The graph is rebuilt while adds, deletes and searches go on against the
+	 * current one, the write lock is only taken to replay the changes made meanwhile and
+	 * swap the graphs.
+	 */
+	public void compact() {
+		this.compactionLock.lock();
+		try {
+			HnswIndex compacted;
+			Document[] liveDocuments;
+			int[] remap;
+			int snapshotCount;
+			int live;
+			long generation;
+			this.lock.readLock().lock();
+			try {
+				if (this.deletedCount == 0) {
+					return;
+				}
+				generation = this.generation;
+				snapshotCount = this.nodeCount;
+				compacted = new HnswIndex(this.index.dimensions(), this.m, this.efConstruction,
+						Math.max(this.nodes.size(), INITIAL_CAPACITY));
+				liveDocuments = new Document[compacted.capacity()];
+				remap = new int[snapshotCount];
+				live = 0;
+				for (int node = 0; node < snapshotCount; node++) {
+					Document document = this.documents[node];
+					remap[node] = -1;
+					if (document != null) {
+						this.index.copy(node, compacted, live);
+						liveDocuments[live] = document;
+						remap[node] = live++;
+					}
+				}
+			}
+			finally {
+				this.lock.readLock().unlock();
+			}
+
+			// the graph supports concurrent inserts, so rebuild it on all cores
+			IntStream.range(0, live).parallel().forEach(node -> compacted.insert(node, compacted.randomLevel()));
+
+			this.lock.writeLock().lock();
+			try {
+				if (generation != this.generation) {
+					// a snapshot was loaded meanwhile
+					return;
+				}
+				int deleted = 0;
+				for (int node = 0; node < snapshotCount; node++) {
+					if (remap[node] >= 0 && this.documents[node] == null) {
+						liveDocuments[remap[node]] = null;
+						deleted++;
+					}
+				}
+				int added = this.nodeCount - snapshotCount;
+				if (live + added > compacted.capacity()) {
+					compacted.grow(Math.max(live + added, compacted.capacity() * 2));
+					liveDocuments = Arrays.copyOf(liveDocuments, compacted.capacity());
+				}
+				remap = Arrays.copyOf(remap, this.nodeCount);
+				int next = live;
+				for (int node = snapshotCount; node < this.nodeCount; node++) {
+					remap[node] = -1;
+					if (this.documents[node] != null) {
+						this.index.copy(node, compacted, next);
+						liveDocuments[next] = this.documents[node];
+						remap[node] = next++;
+					}
+				}
+				for (int node = live; node < next; node++) {
+					compacted.insert(node, compacted.randomLevel());
+				}
+				int[] finalRemap = remap;
+				this.nodes.replaceAll((id, node) -> finalRemap[node]);
+				this.index = compacted;
+				this.documents = liveDocuments;
+				this.nodeCount = next;
+				this.deletedCount = deleted;
+				this.generation++;
+			}
+			finally {
+				this.lock.writeLock().unlock();
+			}
+		}
+		finally {
+			this.compactionLock.unlock();
+		}
+	}
+
+	/**
+	 * Writes the graph and the documents to a snapshot file, replacing the file if it
+	 * exists. Vectors and adjacency lists are bulk copied through a memory mapping, so a
+	 * loaded snapshot is searchable without rebuilding the graph.
+	 * @param path the snapshot file
+	 */
+	public void save(Path path) {
+		// exclusive, so no insert is halfway through linking its node
+		this.lock.writeLock().lock();
+		try (SnapshotFile file = SnapshotFile.create(path)) {
+			int count = this.index != null ? this.nodeCount : 0;
+			file.writeInts(SNAPSHOT_MAGIC, SNAPSHOT_VERSION, this.metric.ordinal(), count);
+			if (count > 0) {
+				this.index.write(file, count);
+				file.writeDocuments(this.documents, count);
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Failed to write vector store snapshot to " + path, e);
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Replaces the contents of the store with a snapshot written by {@link #save(Path)}.
+	 * The graph keeps the {@code m} and {@code efConstruction} it was built with.
+	 * @param path the snapshot file
+	 * @throws IllegalStateException if the snapshot was written with a different metric
+	 * or is not a snapshot at all
+	 */
+	public void load(Path path) {
+		try (SnapshotFile file = SnapshotFile.open(path)) {
+			int[] header = file.readInts(4);
+			Assert.state(header[0] == SNAPSHOT_MAGIC, () -> path + " is not an HNSW vector store snapshot");
+			Assert.state(header[1] == SNAPSHOT_VERSION, () -> "Unsupported snapshot version " + header[1]);
+			LocalVectorStore.Metric snapshotMetric = LocalVectorStore.Metric.values()[header[2]];
+			Assert.state(snapshotMetric == this.metric,
+					() -> "Snapshot uses " + snapshotMetric + " but the store is configured for " + this.metric);
+			int count = header[3];
+			HnswIndex snapshotIndex = count > 0 ? HnswIndex.read(file, count) : null;
+			Document[] snapshotDocuments = count > 0 ? file.readDocuments(count) : new Document[0];
+			Map<String, Integer> snapshotNodes = new HashMap<>(count * 2);
+			int deleted = 0;
+			for (int node = 0; node < count; node++) {
+				if (snapshotDocuments[node] != null) {
+					snapshotNodes.put(snapshotDocuments[node].getId(), node);
+				}
+				else {
+					deleted++;
+				}
+			}
+
+			this.lock.writeLock().lock();
+			try {
+				this.generation++;
+				this.index = snapshotIndex;
+				this.documents = snapshotDocuments;
+				this.nodes.clear();
+				this.nodes.putAll(snapshotNodes);
+				this.nodeCount = count;
+				this.deletedCount = deleted;
+			}
+			finally {
+				this.lock.writeLock().unlock();
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Failed to read vector store snapshot from " + path, e);
+		}
+	}
+
+	/**
+	 * Creates a VectorStoreObservationContext.Builder for HNSW vector operations.
+	 * @param operationName The operation name (e.g., "add", "search", "delete")
+	 * @return A configured VectorStoreObservationContext.Builder instance
+	 */
+	@Override
+	public VectorStoreObservationContext.Builder createObservationContextBuilder(String operationName) {
+		HnswIndex index = this.index;
+		return VectorStoreObservationContext.builder("local", operationName)
+			.collectionName(this.collectionName)
+			.dimensions(index != null ? index.dimensions() : null)
+			.similarityMetric(this.metric.name());
+	}
+
+	private void markDeleted(Integer node) {
+		if (node != null && this.documents[node] != null) {
+			this.documents[node] = null;
+			this.deletedCount++;
+		}
+	}
+
+	private void compactIfNeeded() {
+		boolean needed;
+		this.lock.readLock().lock();
+		try {
+			needed = this.deletedCount > 0 && this.deletedCount >= this.compactionThreshold * this.nodeCount;
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+		if (needed && this.compactionScheduled.compareAndSet(false, true)) {
+			try {
+				this.compactionExecutor.execute(() -> {
+					this.compactionScheduled.set(false);
+					try {
+						compact();
+					}
+					catch (RuntimeException e) {
+						logger.warn("Background compaction of the HNSW graph failed", e);
+					}
+				});
+			}
+			catch (RejectedExecutionException e) {
+				// closed, compact() can still be called directly
+				this.compactionScheduled.set(false);
+			}
+		}
+	}
+
+	/**
+	 * Stops the background compaction, waiting for a running one to finish. The store
+	 * stays usable, but no longer compacts by itself.
+	 */
+	@Override
+	public void close() {
+		this.compactionExecutor.shutdown();
+		try {
+			this.compactionExecutor.awaitTermination(30, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Returns the number of allocated nodes, including the deleted ones a compaction has
+	 * not dropped yet.
+	 */
+	int nodeCount() {
+		this.lock.readLock().lock();
+		try {
+			return this.nodeCount;
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	private void ensureCapacity(int required) {
+		int capacity = this.index.capacity();
+		if (required > capacity) {
+			while (capacity < required) {
+				capacity *= 2;
+			}
+			this.index.grow(capacity);
+		}
+		if (this.documents.length < this.index.capacity()) {
+			this.documents = Arrays.copyOf(this.documents, this.index.capacity());
+		}
+	}
+
+	/**
+	 * Builder class for constructing {@link HnswVectorStore} instances.
+	 */
+	public static class Builder extends AbstractVectorStoreBuilder<Builder> {
+
+		private LocalVectorStore.Metric metric = LocalVectorStore.Metric.COSINE;
+
+		private int m = 16;
+
+		private int efConstruction = 200;
+
+		private int efSearch = 64;
+
+		private double compactionThreshold = 0.2;
+
+		private String collectionName = "default";
+
+		/**
+		 * Initializes a new instance of the {@link Builder} class.
+		 * @param embeddingModel The EmbeddingModel instance to be used.
+		 */
+		public Builder(EmbeddingModel embeddingModel) {
+			super(embeddingModel);
+		}
+
+		/**
+		 * Sets how embeddings are scored.
+		 * @param metric the similarity metric, {@link LocalVectorStore.Metric#COSINE} by
+		 * default
+		 * @return The builder instance.
+		 */
+		public Builder metric(LocalVectorStore.Metric metric) {
+			Assert.notNull(metric, "metric must not be null");
+			this.metric = metric;
+			return this;
+		}
+
+		/**
+		 * Sets the number of links per node on the upper levels; the bottom level keeps
+		 * twice as many.
+		 * @param m the link count, 16 by default
+		 * @return The builder instance.
+		 */
+		public Builder m(int m) {
+			Assert.isTrue(m >= 2, "m must be at least 2");
+			this.m = m;
+			return this;
+		}
+
+		/**
+		 * Sets the size of the candidate list used while linking a new node.
+		 * @param efConstruction the candidate list size, 200 by default
+		 * @return The builder instance.
+		 */
+		public Builder efConstruction(int efConstruction) {
+			Assert.isTrue(efConstruction > 0, "efConstruction must be positive");
+			this.efConstruction = efConstruction;
+			return this;
+		}
+
+		/**
+		 * Sets the size of the candidate list used by searches. Searches with a larger
+		 * {@code topK} use {@code topK} instead.
+		 * @param efSearch the candidate list size, 64 by default
+		 * @return The builder instance.
+		 */
+		public Builder efSearch(int efSearch) {
+			Assert.isTrue(efSearch > 0, "efSearch must be positive");
+			this.efSearch = efSearch;
+			return this;
+		}
+
+		/**
+		 * Sets the share of deleted nodes at which the graph is rebuilt.
+		 * @param compactionThreshold a fraction in (0, 1], 0.2 by default
+		 * @return The builder instance.
+		 */
+		public Builder compactionThreshold(double compactionThreshold) {
+			Assert.isTrue(compactionThreshold > 0 && compactionThreshold <= 1, "compactionThreshold must be in (0, 1]");
+			this.compactionThreshold = compactionThreshold;
+			return this;
+		}
+
+		/**
+		 * Sets the collection name reported in observations.
+		 * @param collectionName the collection name
+		 * @return The builder instance.
+		 */
+		public Builder collectionName(String collectionName) {
+			Assert.hasText(collectionName, "collectionName must not be empty");
+			this.collectionName = collectionName;
+			return this;
+		}
+
+		/**
+		 * Builds the HnswVectorStore instance.
+		 * @return A new HnswVectorStore instance.
+		 */
+		@Override
+		public HnswVectorStore build() {
+			return new HnswVectorStore(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,614 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.vectorstore.local;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.document.DocumentMetadata;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.vectorstore.AbstractVectorStoreBuilder;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.ai.vectorstore.observation.AbstractObservationVectorStore;
+import org.springframework.ai.vectorstore.observation.VectorStoreObservationContext;
+import org.springframework.util.Assert;
+
+/**
+ * A vector store that keeps every embedding in the JVM and answers queries with an
+ * exhaustive scan. Embeddings live back to back in a single {@code float[]}, the dot
+ * products are computed with the JDK Vector API when it is available, and the best
+ * {@code topK} matches are kept in a bounded primitive heap, so a query over a few
+ * hundred thousand vectors needs no network round trip and allocates almost nothing.
+ * <p>
+ * Metadata filter expressions are evaluated inside the scan. The contents can be written
+ * to and read back from a memory-mapped snapshot with {@link #save(Path)} and
+ * {@link #load(Path)}.
+ * <p>
+ * With {@link Quantization#INT8} or {@link Quantization#BINARY} the heap only holds
+ * quantized codes, a quarter or a thirty-second of the float size; the scan ranks them
+ * with integer arithmetic and rescores the best {@code topK * rescoreMultiplier}
+ * candidates against the full-precision vectors, which are kept in a memory-mapped
+ * temporary file. {@link #close()} releases that file.
+ */
+public class LocalVectorStore extends AbstractObservationVectorStore implements AutoCloseable {
+
+	private static final int SNAPSHOT_MAGIC = 0x4C565331;
+
+	private static final int SNAPSHOT_VERSION = 1;
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * Vectors copied at a time between a snapshot and quantized storage.
+	 */
+	private static final int SNAPSHOT_CHUNK = 4096;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final Metric metric;
+
+	private final String collectionName;
+
+	private final Quantization quantization;
+
+	private final int rescoreMultiplier;
+
+	/**
+	 * The embeddings when they are not quantized.
+	 */
+	private float[] vectors = new float[0];
+
+	/**
+	 * The embeddings when they are quantized, created with the first one.
+	 */
+	private QuantizedVectors quantized;
+
+	private Document[] documents = new Document[0];
+
+	private final Map<String, Integer> slots = new HashMap<>();
+
+	private int dimensions;
+
+	private int size;
+
+	/**
+	 * Initializes a new instance of the {@link LocalVectorStore} class.
+	 * @param builder The builder containing the store configuration.
+	 */
+	protected LocalVectorStore(Builder builder) {
+		super(builder);
+		this.metric = builder.metric;
+		this.collectionName = builder.collectionName;
+		this.quantization = builder.quantization;
+		this.rescoreMultiplier = builder.rescoreMultiplier != null ? builder.rescoreMultiplier
+				: builder.quantization.defaultRescoreMultiplier;
+	}
+
+	/**
+	 * Creates a new builder for the {@link LocalVectorStore} class.
+	 * @param embeddingModel The EmbeddingModel instance to be used.
+	 * @return A new builder instance.
+	 */
+	public static Builder builder(EmbeddingModel embeddingModel) {
+		return new Builder(embeddingModel);
+	}
+
+	@Override
+	public void doAdd(List<Document> documents) {
+		Objects.requireNonNull(documents, "Documents list cannot be null");
+		if (documents.isEmpty()) {
+			return;
+		}
+		// embed outside the lock so searches keep running while the model is called
+		List<float[]> embeddings = this.embeddingModel.embed(documents, EmbeddingOptions.builder().build(),
+				this.batchingStrategy);
+		this.lock.writeLock().lock();
+		try {
+			for (int i = 0; i < documents.size(); i++) {
+				put(documents.get(i), embeddings.get(i));
+			}
+			if (this.quantized != null) {
+				this.quantized.refresh(this.size);
+			}
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void doDelete(List<String> idList) {
+		this.lock.writeLock().lock();
+		try {
+			for (String id : idList) {
+				Integer slot = this.slots.remove(id);
+				if (slot != null) {
+					removeSlot(slot);
+				}
+			}
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	protected void doDelete(Filter.Expression filterExpression) {
+		Assert.notNull(filterExpression, "Filter expression must not be null");
+		this.lock.writeLock().lock();
+		try {
+			List<String> ids = new ArrayList<>();
+			for (int slot = 0; slot < this.size; slot++) {
+				if (MetadataFilter.matches(filterExpression, this.documents[slot].getMetadata())) {
+					ids.add(this.documents[slot].getId());
+				}
+			}
+			doDelete(ids);
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public List<Document> doSimilaritySearch(SearchRequest request) {
+		if (request.getTopK() <= 0) {
+			return List.of();
+		}
+		float[] query = this.embeddingModel.embed(request.getQuery());
+		if (this.metric == Metric.COSINE) {
+			VectorMath.normalize(query);
+		}
+		Filter.Expression filter = request.getFilterExpression();
+		float threshold = (float) request.getSimilarityThreshold();
+
+		this.lock.readLock().lock();
+		try {
+			if (this.size == 0) {
+				return List.of();
+			}
+			Assert.isTrue(query.length == this.dimensions,
+					() -> "Query embedding has " + query.length + " dimensions but the store holds " + this.dimensions);
+			TopK topK = this.quantized != null ? searchQuantized(query, request.getTopK(), threshold, filter)
+					: search(query, request.getTopK(), threshold, filter);
+			int count = topK.sortDescending();
+			List<Document> results = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				results.add(withScore(this.documents[topK.slot(i)], topK.score(i)));
+			}
+			return results;
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Returns the number of documents in the store.
+	 * @return the document count
+	 */
+	public int size() {
+		this.lock.readLock().lock();
+		try {
+			return this.size;
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Writes the contents of the store to a snapshot file, replacing the file if it
+	 * exists. The embeddings are bulk copied through a memory mapping, so saving and
+	 * loading cost little more than the page cache copy.
+	 * @param path the snapshot file
+	 */
+	public void save(Path path) {
+		this.lock.readLock().lock();
+		try (SnapshotFile file = SnapshotFile.create(path)) {
+			file.writeInts(SNAPSHOT_MAGIC, SNAPSHOT_VERSION, this.metric.ordinal(), this.dimensions, this.size);
+			if (this.quantized == null) {
+				file.writeFloats(this.vectors, this.size * this.dimensions);
+			}
+			else {
+				float[] chunk = new float[SNAPSHOT_CHUNK * this.dimensions];
+				float[] vector = new float[this.dimensions];
+				for (int from = 0; from < this.size; from += SNAPSHOT_CHUNK) {
+					int count = Math.min(SNAPSHOT_CHUNK, this.size - from);
+					for (int i = 0; i < count; i++) {
+						this.quantized.get(from + i, vector);
+						System.arraycopy(vector, 0, chunk, i * this.dimensions, this.dimensions);
+					}
+					file.writeFloats(chunk, count * this.dimensions);
+				}
+			}
+			file.writeDocuments(this.documents, this.size);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Failed to write vector store snapshot to " + path, e);
+		}
+		finally {
+			this.lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Replaces the contents of the store with a snapshot written by {@link #save(Path)}.
+	 * Snapshots hold full-precision vectors, so they can be loaded with any quantization.
+	 * @param path the snapshot file
+	 * @throws IllegalStateException if the snapshot was written with a different metric
+	 * or is not a snapshot at all
+	 */
+	public void load(Path path) {
+		try (SnapshotFile file = SnapshotFile.open(path)) {
+			int[] header = file.readInts(5);
+			Assert.state(header[0] == SNAPSHOT_MAGIC, () -> path + " is not a vector store snapshot");
+			Assert.state(header[1] == SNAPSHOT_VERSION, () -> "Unsupported snapshot version " + header[1]);
+			Metric snapshotMetric = Metric.values()[header[2]];
+			Assert.state(snapshotMetric == this.metric,
+					() -> "Snapshot uses " + snapshotMetric + " but the store is configured for " + this.metric);
+			int snapshotDimensions = header[3];
+			int snapshotSize = header[4];
+			float[] snapshotVectors = null;
+			QuantizedVectors snapshotQuantized = null;
+			if (this.quantization == Quantization.NONE) {
+				snapshotVectors = file.readFloats(Math.multiplyExact(snapshotSize, snapshotDimensions));
+			}
+			else {
+				snapshotQuantized = new QuantizedVectors(this.quantization, snapshotDimensions);
+				snapshotQuantized.ensureCapacity(snapshotSize);
+				float[] vector = new float[snapshotDimensions];
+				for (int from = 0; from < snapshotSize; from += SNAPSHOT_CHUNK) {
+					int count = Math.min(SNAPSHOT_CHUNK, snapshotSize - from);
+					float[] chunk = file.readFloats(count * snapshotDimensions);
+					for (int i = 0; i < count; i++) {
+						System.arraycopy(chunk, i * snapshotDimensions, vector, 0, snapshotDimensions);
+						snapshotQuantized.set(from + i, vector);
+					}
+				}
+				snapshotQuantized.refresh(snapshotSize);
+			}
+			Document[] snapshotDocuments = file.readDocuments(snapshotSize);
+			Map<String, Integer> snapshotSlots = new HashMap<>(snapshotSize * 2);
+			for (int slot = 0; slot < snapshotSize; slot++) {
+				snapshotSlots.put(snapshotDocuments[slot].getId(), slot);
+			}
+
+			QuantizedVectors previous;
+			this.lock.writeLock().lock();
+			try {
+				previous = this.quantized;
+				this.vectors = snapshotVectors != null ? snapshotVectors : new float[0];
+				this.quantized = snapshotQuantized;
+				this.documents = snapshotDocuments;
+				this.slots.clear();
+				this.slots.putAll(snapshotSlots);
+				this.dimensions = snapshotDimensions;
+				this.size = snapshotSize;
+			}
+			finally {
+				this.lock.writeLock().unlock();
+			}
+			if (previous != null) {
+				previous.close();
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Failed to read vector store snapshot from " + path, e);
+		}
+	}
+
+	/**
+	 * Releases the memory-mapped file holding the full-precision vectors of a quantized
+	 * store. The store must not be used afterwards.
+	 */
+	@Override
+	public void close() {
+		this.lock.writeLock().lock();
+		try {
+			if (this.quantized != null) {
+				this.quantized.close();
+				this.quantized = null;
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException("Failed to release quantized vectors", e);
+		}
+		finally {
+			this.lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Creates a VectorStoreObservationContext.Builder for local vector operations.
+	 * @param operationName The operation name (e.g., "add", "search", "delete")
+	 * @return A configured VectorStoreObservationContext.Builder instance
+	 */
+	@Override
+	public VectorStoreObservationContext.Builder createObservationContextBuilder(String operationName) {
+		return VectorStoreObservationContext.builder("local", operationName)
+			.collectionName(this.collectionName)
+			.dimensions(this.dimensions)
+			.similarityMetric(this.metric.name());
+	}
+
+	/**
+	 * Copies a stored document into a search result carrying its score and distance.
+	 */
+	static Document withScore(Document document, float score) {
+		Map<String, Object> metadata = new HashMap<>(document.getMetadata());
+		metadata.put(DocumentMetadata.DISTANCE.value(), 1 - score);
+		return document.mutate().metadata(metadata).score((double) score).build();
+	}
+
+	private TopK search(float[] query, int k, float threshold, Filter.Expression filter) {
+		TopK topK = new TopK(Math.min(k, this.size));
+		for (int slot = 0, offset = 0; slot < this.size; slot++, offset += this.dimensions) {
+			float score = VectorMath.dot(query, this.vectors, offset);
+			if (score < threshold || score <= topK.threshold()) {
+				continue;
+			}
+			// the filter is only evaluated for candidates that would make the cut
+			if (filter != null && !MetadataFilter.matches(filter, this.documents[slot].getMetadata())) {
+				continue;
+			}
+			topK.offer(score, slot);
+		}
+		return topK;
+	}
+
+	private TopK searchQuantized(float[] query, int k, float threshold, Filter.Expression filter) {
+		TopK candidates = new TopK((int) Math.min(this.size, (long) k * this.rescoreMultiplier));
+		this.quantized.scan(query, this.size, candidates,
+				slot -> filter == null || MetadataFilter.matches(filter, this.documents[slot].getMetadata()));
+		TopK topK = new TopK(Math.min(k, this.size));
+		float[] buffer = new float[this.dimensions];
+		for (int i = 0, count = candidates.sortDescending(); i < count; i++) {
+			int slot = candidates.slot(i);
+			float score = this.quantized.score(slot, query, buffer);
+			if (score >= threshold) {
+				topK.offer(score, slot);
+			}
+		}
+		return topK;
+	}
+
+	private void put(Document document, float[] embedding) {
+		if (this.size == 0 && embedding.length != this.dimensions) {
+			this.dimensions = embedding.length;
+			if (this.quantization == Quantization.NONE) {
+				this.vectors = new float[Math.multiplyExact(this.documents.length, this.dimensions)];
+			}
+			else {
+				try {
+					if (this.quantized != null) {
+						this.quantized.close();
+					}
+					this.quantized = new QuantizedVectors(this.quantization, this.dimensions);
+					this.quantized.ensureCapacity(this.documents.length);
+				}
+				catch (IOException e) {
+					throw new UncheckedIOException("Failed to allocate quantized vectors", e);
+				}
+			}
+		}
+		Assert.isTrue(embedding.length == this.dimensions, () -> "Document " + document.getId() + " has "
+				+ embedding.length + " dimensions but the store holds " + this.dimensions);
+		Integer existing = this.slots.get(document.getId());
+		int slot;
+		if (existing != null) {
+			slot = existing;
+		}
+		else {
+			ensureCapacity(this.size + 1);
+			slot = this.size++;
+			this.slots.put(document.getId(), slot);
+		}
+		if (this.metric == Metric.COSINE) {
+			VectorMath.normalize(embedding);
+		}
+		if (this.quantized == null) {
+			System.arraycopy(embedding, 0, this.vectors, slot * this.dimensions, this.dimensions);
+		}
+		else {
+			this.quantized.set(slot, embedding);
+		}
+		this.documents[slot] = document;
+	}
+
+	/**
+	 * Moves the last entry into the freed slot so the storage stays dense.
+	 */
+	private void removeSlot(int slot) {
+		int last = --this.size;
+		if (slot != last) {
+			if (this.quantized == null) {
+				System.arraycopy(this.vectors, last * this.dimensions, this.vectors, slot * this.dimensions,
+						this.dimensions);
+			}
+			else {
+				this.quantized.move(last, slot);
+			}
+			this.documents[slot] = this.documents[last];
+			this.slots.put(this.documents[slot].getId(), slot);
+		}
+		this.documents[last] = null;
+	}
+
+	private void ensureCapacity(int required) {
+		if (required <= this.documents.length) {
+			return;
+		}
+		int capacity = Math.max(INITIAL_CAPACITY, this.documents.length * 2);
+		while (capacity < required) {
+			capacity *= 2;
+		}
+		this.documents = Arrays.copyOf(this.documents, capacity);
+		if (this.quantized == null) {
+			this.vectors = Arrays.copyOf(this.vectors, Math.multiplyExact(capacity, this.dimensions));
+		}
+		else {
+			try {
+				this.quantized.ensureCapacity(capacity);
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException("Failed to grow quantized vectors", e);
+			}
+		}
+	}
+
+	/**
+	 * How query and document embeddings are scored.
+	 */
+	public enum Metric {
+
+		/**
+		 * Cosine similarity. Embeddings are normalized when they are added, so scoring is
+		 * a single dot product.
+		 */
+		COSINE,
+
+		/**
+		 * Raw dot product, for models that already produce normalized embeddings or where
+		 * magnitude is meaningful.
+		 */
+		DOT_PRODUCT
+
+	}
+
+	/**
+	 * How embeddings are held in memory for the scan.
+	 */
+	public enum Quantization {
+
+		/**
+		 * Full-precision floats on the heap; the scan is exact.
+		 */
+		NONE(1),
+
+		/**
+		 * One byte per dimension with per-dimension ranges, see {@link ScalarQuantizer}.
+		 * Typically loses little recall with a rescore multiplier of 4.
+		 */
+		INT8(4),
+
+		/**
+		 * One bit per dimension, see {@link BinaryQuantizer}. Needs a larger rescore
+		 * multiplier, 10 by default, and works best with a few hundred dimensions or
+		 * more.
+		 */
+		BINARY(10);
+
+		private final int defaultRescoreMultiplier;
+
+		Quantization(int defaultRescoreMultiplier) {
+			this.defaultRescoreMultiplier = defaultRescoreMultiplier;
+		}
+
+	}
+
+	/**
+	 * Builder class for constructing {@link LocalVectorStore} instances.
+	 */
+	public static class Builder extends AbstractVectorStoreBuilder<Builder> {
+
+		private Metric metric = Metric.COSINE;
+
+		private String collectionName = "default";
+
+		private Quantization quantization = Quantization.NONE;
+
+		private Integer rescoreMultiplier;
+
+		/**
+		 * Initializes a new instance of the {@link Builder} class.
+		 * @param embeddingModel The EmbeddingModel instance to be used.
+		 */
+		public Builder(EmbeddingModel embeddingModel) {
+			super(embeddingModel);
+		}
+
+		/**
+		 * Sets how embeddings are scored.
+		 * @param metric the similarity metric, {@link Metric#COSINE} by default
+		 * @return The builder instance.
+		 */
+		public Builder metric(Metric metric) {
+			Assert.notNull(metric, "metric must not be null");
+			this.metric = metric;
+			return this;
+		}
+
+		/**
+		 * Sets how embeddings are held in memory.
+		 * @param quantization the quantization, {@link Quantization#NONE} by default
+		 * @return The builder instance.
+		 */
+		public Builder quantization(Quantization quantization) {
+			Assert.notNull(quantization, "quantization must not be null");
+			this.quantization = quantization;
+			return this;
+		}
+
+		/**
+		 * Sets how many candidates per requested result a quantized scan passes on to
+		 * full-precision rescoring. Higher values recover more recall at the cost of
+		 * reading more full-precision vectors.
+		 * @param rescoreMultiplier the multiplier, defaults to the one of the
+		 * quantization
+		 * @return The builder instance.
+		 */
+		public Builder rescoreMultiplier(int rescoreMultiplier) {
+			Assert.isTrue(rescoreMultiplier >= 1, "rescoreMultiplier must be at least 1");
+			this.rescoreMultiplier = rescoreMultiplier;
+			return this;
+		}
+
+		/**
+		 * Sets the collection name reported in observations.
+		 * @param collectionName the collection name
+		 * @return The builder instance.
+		 */
+		public Builder collectionName(String collectionName) {
+			Assert.hasText(collectionName, "collectionName must not be empty");
+			this.collectionName = collectionName;
+			return this;
+		}
+
+		/**
+		 * Builds the LocalVectorStore instance.
+		 * @return A new LocalVectorStore instance.
+		 */
+		@Override
+		public LocalVectorStore build() {
+			return new LocalVectorStore(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.vectorstore.local;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Full-precision vectors kept outside the Java heap, in a memory-mapped temporary file
+ * that is deleted on {@link #close()}. The operating system pages vectors in as they are
+ * read, so only the ones actually rescored need to be resident.
+ * <p>
+ * Reads may run concurrently; writes and {@link #ensureCapacity(int)} must be excluded by
+ * the caller.
+ */
+final class MappedVectors implements Closeable {
+
+	private static final int SEGMENT_BYTES = 64 << 20;
+
+	private final int dimensions;
+
+	private final int vectorsPerSegment;
+
+	private final FileChannel channel;
+
+	private final List<FloatBuffer> segments = new ArrayList<>();
+
+	MappedVectors(int dimensions) throws IOException {
+		this.dimensions = dimensions;
+		this.vectorsPerSegment = Math.max(1, SEGMENT_BYTES / (dimensions * Float.BYTES));
+		Path file = Files.createTempFile("local-vector-store-", ".vectors");
+		this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+				StandardOpenOption.DELETE_ON_CLOSE);
+	}
+
+	void ensureCapacity(int vectors) throws IOException {
+		long segmentBytes = (long) this.vectorsPerSegment * this.dimensions * Float.BYTES;
+		while ((long) this.segments.size() * this.vectorsPerSegment < vectors) {
+			this.segments
+				.add(this.channel.map(FileChannel.MapMode.READ_WRITE, this.segments.size() * segmentBytes, segmentBytes)
+					.order(ByteOrder.nativeOrder())
+					.asFloatBuffer());
+		}
+	}
+
+	void set(int index, float[] vector) {
+		segment(index).put(position(index), vector, 0, this.dimensions);
+	}
+
+	void get(int index, float[] target) {
+		segment(index).get(position(index), target, 0, this.dimensions);
+	}
+
+	void move(int from, int to, float[] scratch) {
+		get(from, scratch);
+		set(to, scratch);
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.segments.clear();
+		this.channel.close();
+	}
+
+	private FloatBuffer segment(int index) {
+		return this.segments.get(index / this.vectorsPerSegment);
+	}
+
+	private int position(int index) {
+		return (index % this.vectorsPerSegment) * this.dimensions;
+	}
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.vectorstore.local;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+import org.springframework.ai.vectorstore.filter.Filter;
+
+/**
+ * Evaluates a portable {@link Filter.Expression} against the metadata of a single
+ * document, so filtering happens inside the scan instead of after it.
+ */
+final class MetadataFilter {
+
+	private MetadataFilter() {
+	}
+
+	static boolean matches(Filter.Operand operand, Map<String, Object> metadata) {
+		if (operand instanceof Filter.Group group) {
+			return matches(group.content(), metadata);
+		}
+		if (!(operand instanceof Filter.Expression expression)) {
+			throw new IllegalArgumentException("Unsupported filter operand: " + operand);
+		}
+		return switch (expression.type()) {
+			case AND -> matches(expression.left(), metadata) && matches(expression.right(), metadata);
+			case OR -> matches(expression.left(), metadata) || matches(expression.right(), metadata);
+			case NOT -> !matches(expression.left(), metadata);
+			case EQ -> equal(value(expression, metadata), operand(expression));
+			case NE -> !equal(value(expression, metadata), operand(expression));
+			case GT -> compare(value(expression, metadata), operand(expression), c -> c > 0);
+			case GTE -> compare(value(expression, metadata), operand(expression), c -> c >= 0);
+			case LT -> compare(value(expression, metadata), operand(expression), c -> c < 0);
+			case LTE -> compare(value(expression, metadata), operand(expression), c -> c <= 0);
+			case IN -> in(value(expression, metadata), operand(expression));
+			case NIN -> !in(value(expression, metadata), operand(expression));
+		};
+	}
+
+	private static Object value(Filter.Expression expression, Map<String, Object> metadata) {
+		if (!(expression.left() instanceof Filter.Key key)) {
+			throw new IllegalArgumentException("Expected a key on the left of " + expression);
+		}
+		String name = key.key();
+		if (name.length() > 1
+				&& (name.startsWith("\"") && name.endsWith("\"") || name.startsWith("'") && name.endsWith("'"))) {
+			name = name.substring(1, name.length() - 1);
+		}
+		return metadata.get(name);
+	}
+
+	private static Object operand(Filter.Expression expression) {
+		if (!(expression.right() instanceof Filter.Value value)) {
+			throw new IllegalArgumentException("Expected a value on the right of " + expression);
+		}
+		return value.value();
+	}
+
+	private static boolean equal(Object actual, Object expected) {
+		if (actual instanceof Number a && expected instanceof Number e) {
+			return a.doubleValue() == e.doubleValue();
+		}
+		return Objects.equals(actual, expected);
+	}
+
+	private static boolean in(Object actual, Object expected) {
+		if (!(expected instanceof Collection<?> values)) {
+			return equal(actual, expected);
+		}
+		for (Object value : values) {
+			if (equal(actual, value)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Values of different types never satisfy an ordering comparison; numbers of any type
+	 * are compared as doubles.
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static boolean compare(Object actual, Object expected, IntPredicate test) {
+		if (actual instanceof Number a && expected instanceof Number e) {
+			return test.test(Double.compare(a.doubleValue(), e.doubleValue()));
+		}
+		if (actual instanceof Comparable a && expected != null && actual.getClass() == expected.getClass()) {
+			return test.test(a.compareTo(expected));
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.vectorstore.local;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Quantized codes on the heap for the first pass of a search, with the full-precision
+ * vectors kept off heap in {@link MappedVectors} for rescoring the best candidates.
+ * <p>
+ * Scans may run concurrently; every other method must be excluded by the caller.
+ */
+final class QuantizedVectors implements Closeable {
+
+	private final LocalVectorStore.Quantization quantization;
+
+	private final int dimensions;
+
+	private final int words;
+
+	private final MappedVectors originals;
+
+	private final float[] scratch;
+
+	private byte[] codes = new byte[0];
+
+	private long[] bits = new long[0];
+
+	private ScalarQuantizer quantizer;
+
+	/**
+	 * Set when the quantizer range grew, so codes encoded earlier are out of date.
+	 */
+	private boolean stale;
+
+	QuantizedVectors(LocalVectorStore.Quantization quantization, int dimensions) throws IOException {
+		this.quantization = quantization;
+		this.dimensions = dimensions;
+		this.words = BinaryQuantizer.words(dimensions);
+		this.originals = new MappedVectors(dimensions);
+		this.scratch = new float[dimensions];
+	}
+
+	void ensureCapacity(int capacity) throws IOException {
+		this.originals.ensureCapacity(capacity);
+		if (this.quantization == LocalVectorStore.Quantization.INT8) {
+			this.codes = Arrays.copyOf(this.codes, Math.multiplyExact(capacity, this.dimensions));
+		}
+		else {
+			this.bits = Arrays.copyOf(this.bits, Math.multiplyExact(capacity, this.words));
+		}
+	}
+
+	void set(int slot, float[] vector) {
+		this.originals.set(slot, vector);
+		if (this.quantization == LocalVectorStore.Quantization.BINARY) {
+			BinaryQuantizer.encode(vector, this.bits, slot * this.words);
+			return;
+		}
+		ScalarQuantizer extended = this.quantizer == null ? ScalarQuantizer.fit(vector) : this.quantizer.extend(vector);
+		if (extended != this.quantizer) {
+			this.stale |= this.quantizer != null;
+			this.quantizer = extended;
+		}
+		this.quantizer.encode(vector, this.codes, slot * this.dimensions);
+	}
+
+	/**
+	 * Re-encodes the first {@code size} vectors if the quantizer range grew since they
+	 * were encoded.
+	 */
+	void refresh(int size) {
+		if (!this.stale) {
+			return;
+		}
+		for (int slot = 0; slot < size; slot++) {
+			this.originals.get(slot, this.scratch);
+			this.quantizer.encode(this.scratch, this.codes, slot * this.dimensions);
+		}
+		this.stale = false;
+	}
+
+	void move(int from, int to) {
+		this.originals.move(from, to, this.scratch);
+		if (this.quantization == LocalVectorStore.Quantization.INT8) {
+			System.arraycopy(this.codes, from * this.dimensions, this.codes, to * this.dimensions, this.dimensions);
+		}
+		else {
+			System.arraycopy(this.bits, from * this.words, this.bits, to * this.words, this.words);
+		}
+	}
+
+	void get(int slot, float[] target) {
+		this.originals.get(slot, target);
+	}
+
+	/**
+	 * Scores the first {@code size} slots by their codes and offers those passing
+	 * {@code accept} to {@code candidates}. The filter is only evaluated for slots that
+	 * would make the cut.
+	 */
+	void scan(float[] query, int size, TopK candidates, IntPredicate accept) {
+		if (this.quantization == LocalVectorStore.Quantization.INT8) {
+			byte[] codedQuery = this.quantizer.quantizeQuery(query);
+			for (int slot = 0; slot < size; slot++) {
+				int score = ScalarQuantizer.score(codedQuery, this.codes, slot * this.dimensions);
+				if (score > candidates.threshold() && accept.test(slot)) {
+					candidates.offer(score, slot);
+				}
+			}
+		}
+		else {
+			long[] codedQuery = BinaryQuantizer.encode(query);
+			for (int slot = 0; slot < size; slot++) {
+				int score = BinaryQuantizer.score(codedQuery, this.bits, slot * this.words);
+				if (score > candidates.threshold() && accept.test(slot)) {
+					candidates.offer(score, slot);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Computes the exact dot product of the query with a stored vector.
+	 * @param buffer scratch space of the vector's length
+	 */
+	float score(int slot, float[] query, float[] buffer) {
+		this.originals.get(slot, buffer);
+		return VectorMath.dot(query, buffer, 0);
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.originals.close();
+	}
+
+}
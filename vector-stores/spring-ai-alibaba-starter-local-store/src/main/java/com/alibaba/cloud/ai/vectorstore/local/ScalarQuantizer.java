@@ -0,0 +1,176 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.vectorstore.local;
+
+import org.springframework.util.Assert;
+
+/**
+ * Quantizes float vectors to one signed byte per dimension, mapping each dimension's
+ * {@code [min, max]} range linearly onto 256 levels, which cuts the memory of a vector by
+ * four.
+ * <p>
+ * Codes can be compared against a query without decoding them: {@link #quantizeQuery}
+ * folds the per-dimension scales into the query and quantizes the result to bytes too, so
+ * that {@link #score} is a plain integer dot product that ranks codes the same way the
+ * dot product with the decoded vectors does, up to quantization error. Scores of
+ * different queries are not comparable, so candidates found this way are meant to be
+ * rescored against the full-precision vectors.
+ * <p>
+ * Instances are immutable; values outside the range are clamped, and
+ * {@link #extend(float[])} returns a quantizer with a wider range.
+ */
+public final class ScalarQuantizer {
+
+	private static final int LEVELS = 255;
+
+	/**
+	 * Share of a dimension's range added on the side it had to grow, so that a slowly
+	 * drifting range does not invalidate all codes on every insert.
+	 */
+	private static final float HEADROOM = 0.1f;
+
+	private final float[] min;
+
+	private final float[] step;
+
+	private ScalarQuantizer(float[] min, float[] max) {
+		this.min = min;
+		this.step = new float[min.length];
+		for (int i = 0; i < min.length; i++) {
+			this.step[i] = max[i] > min[i] ? (max[i] - min[i]) / LEVELS : 0;
+		}
+	}
+
+	/**
+	 * Creates a quantizer covering exactly the given vectors.
+	 * @param vectors the vectors, all of the same length
+	 * @return the quantizer
+	 */
+	public static ScalarQuantizer fit(float[]... vectors) {
+		Assert.notEmpty(vectors, "vectors must not be empty");
+		float[] min = vectors[0].clone();
+		float[] max = vectors[0].clone();
+		for (float[] vector : vectors) {
+			Assert.isTrue(vector.length == min.length, "vectors must have the same length");
+			for (int i = 0; i < vector.length; i++) {
+				min[i] = Math.min(min[i], vector[i]);
+				max[i] = Math.max(max[i], vector[i]);
+			}
+		}
+		return new ScalarQuantizer(min, max);
+	}
+
+	public int dimensions() {
+		return this.min.length;
+	}
+
+	/**
+	 * Whether every component of the vector lies within the quantizer's range.
+	 */
+	public boolean covers(float[] vector) {
+		for (int i = 0; i < vector.length; i++) {
+			float offset = vector[i] - this.min[i];
+			if (offset < 0 || offset > this.step[i] * LEVELS) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns a quantizer whose range also covers {@code vector}, with some headroom on
+	 * the dimensions that had to grow, or this quantizer if it already does.
+	 */
+	public ScalarQuantizer extend(float[] vector) {
+		if (covers(vector)) {
+			return this;
+		}
+		float[] min = this.min.clone();
+		float[] max = new float[min.length];
+		for (int i = 0; i < min.length; i++) {
+			max[i] = min[i] + this.step[i] * LEVELS;
+			float headroom = Math.max(max[i], vector[i]) - Math.min(min[i], vector[i]);
+			if (vector[i] < min[i]) {
+				min[i] = vector[i] - headroom * HEADROOM;
+			}
+			else if (vector[i] > max[i]) {
+				max[i] = vector[i] + headroom * HEADROOM;
+			}
+		}
+		return new ScalarQuantizer(min, max);
+	}
+
+	public byte[] encode(float[] vector) {
+		byte[] codes = new byte[this.min.length];
+		encode(vector, codes, 0);
+		return codes;
+	}
+
+	/**
+	 * Writes the codes of {@code vector} to {@code codes} starting at {@code offset}.
+	 */
+	public void encode(float[] vector, byte[] codes, int offset) {
+		for (int i = 0; i < this.min.length; i++) {
+			int level = this.step[i] > 0 ? Math.round((vector[i] - this.min[i]) / this.step[i]) : 0;
+			codes[offset + i] = (byte) (Math.max(0, Math.min(LEVELS, level)) - 128);
+		}
+	}
+
+	public float[] decode(byte[] codes) {
+		return decode(codes, 0);
+	}
+
+	/**
+	 * Reconstructs the vector whose codes start at {@code offset}.
+	 */
+	public float[] decode(byte[] codes, int offset) {
+		float[] vector = new float[this.min.length];
+		for (int i = 0; i < vector.length; i++) {
+			vector[i] = this.min[i] + this.step[i] * (codes[offset + i] + 128);
+		}
+		return vector;
+	}
+
+	/**
+	 * Prepares a query for {@link #score}: each component is multiplied by its
+	 * dimension's step and the result is scaled onto {@code [-127, 127]}.
+	 */
+	public byte[] quantizeQuery(float[] query) {
+		float[] weighted = new float[query.length];
+		float largest = 0;
+		for (int i = 0; i < query.length; i++) {
+			weighted[i] = query[i] * this.step[i];
+			largest = Math.max(largest, Math.abs(weighted[i]));
+		}
+		byte[] codes = new byte[query.length];
+		if (largest > 0) {
+			float scale = 127 / largest;
+			for (int i = 0; i < query.length; i++) {
+				codes[i] = (byte) Math.round(weighted[i] * scale);
+			}
+		}
+		return codes;
+	}
+
+	/**
+	 * Scores the codes starting at {@code offset} against a query prepared by
+	 * {@link #quantizeQuery}. Higher is more similar.
+	 */
+	public static int score(byte[] query, byte[] codes, int offset) {
+		return VectorMath.dot(query, 0, codes, offset, query.length);
+	}
+
+}
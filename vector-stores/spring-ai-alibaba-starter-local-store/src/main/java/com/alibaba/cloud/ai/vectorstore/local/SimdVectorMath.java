@@ -0,0 +1,83 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.vectorstore.local;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API kernels. Only loaded by {@link VectorMath} once it has checked that the
+ * incubator module is present.
+ */
+final class SimdVectorMath {
+
+	private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+	private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_PREFERRED;
+
+	/**
+	 * Bytes are widened to ints before multiplying, so load as many bytes as the int
+	 * species has lanes. Byte vectors are at least 64 bits wide, with a narrower int
+	 * species (128 bits or less) each load is widened in several parts.
+	 */
+	private static final VectorSpecies<Byte> BYTE_SPECIES = INT_SPECIES.length() * Byte.SIZE >= 64
+			? VectorSpecies.of(byte.class, VectorShape.forBitSize(INT_SPECIES.length() * Byte.SIZE))
+			: ByteVector.SPECIES_64;
+
+	private static final int PARTS = BYTE_SPECIES.length() / INT_SPECIES.length();
+
+	private SimdVectorMath() {
+	}
+
+	static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+		FloatVector sum = FloatVector.zero(SPECIES);
+		int i = 0;
+		for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+			FloatVector va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+			FloatVector vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+			sum = va.fma(vb, sum);
+		}
+		float result = sum.reduceLanes(VectorOperators.ADD);
+		for (; i < length; i++) {
+			result += a[aOffset + i] * b[bOffset + i];
+		}
+		return result;
+	}
+
+	static int dot(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+		IntVector sum = IntVector.zero(INT_SPECIES);
+		int i = 0;
+		for (int bound = BYTE_SPECIES.loopBound(length); i < bound; i += BYTE_SPECIES.length()) {
+			ByteVector ba = ByteVector.fromArray(BYTE_SPECIES, a, aOffset + i);
+			ByteVector bb = ByteVector.fromArray(BYTE_SPECIES, b, bOffset + i);
+			for (int part = 0; part < PARTS; part++) {
+				IntVector va = (IntVector) ba.convertShape(VectorOperators.B2I, INT_SPECIES, part);
+				IntVector vb = (IntVector) bb.convertShape(VectorOperators.B2I, INT_SPECIES, part);
+				sum = sum.add(va.mul(vb));
+			}
+		}
+		int result = sum.reduceLanes(VectorOperators.ADD);
+		for (; i < length; i++) {
+			result += a[aOffset + i] * b[bOffset + i];
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.vectorstore.local;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.springframework.ai.document.Document;
+import org.springframework.util.Assert;
+
+/**
+ * Sequential reader and writer for the snapshot files of the in-process stores. Each
+ * section is bulk copied through a memory mapping of the file in little-endian order;
+ * arrays are mapped in windows so that stores larger than 2 GB still fit.
+ */
+final class SnapshotFile implements Closeable {
+
+	private static final int WINDOW_BYTES = 1 << 30;
+
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	private final FileChannel channel;
+
+	private final FileChannel.MapMode mode;
+
+	private long position;
+
+	private SnapshotFile(FileChannel channel, FileChannel.MapMode mode) {
+		this.channel = channel;
+		this.mode = mode;
+	}
+
+	/**
+	 * Creates the file for writing, replacing any existing content.
+	 */
+	static SnapshotFile create(Path path) throws IOException {
+		return new SnapshotFile(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), FileChannel.MapMode.READ_WRITE);
+	}
+
+	/**
+	 * Opens an existing file for reading.
+	 */
+	static SnapshotFile open(Path path) throws IOException {
+		return new SnapshotFile(FileChannel.open(path, StandardOpenOption.READ), FileChannel.MapMode.READ_ONLY);
+	}
+
+	void writeInts(int... values) throws IOException {
+		writeInts(values, values.length);
+	}
+
+	void writeInts(int[] values, int length) throws IOException {
+		for (int from = 0; from < length; from += WINDOW_BYTES / Integer.BYTES) {
+			int count = Math.min(WINDOW_BYTES / Integer.BYTES, length - from);
+			next((long) count * Integer.BYTES).asIntBuffer().put(values, from, count);
+		}
+	}
+
+	int[] readInts(int length) throws IOException {
+		int[] values = new int[length];
+		for (int from = 0; from < length; from += WINDOW_BYTES / Integer.BYTES) {
+			int count = Math.min(WINDOW_BYTES / Integer.BYTES, length - from);
+			next((long) count * Integer.BYTES).asIntBuffer().get(values, from, count);
+		}
+		return values;
+	}
+
+	void writeFloats(float[] values, int length) throws IOException {
+		for (int from = 0; from < length; from += WINDOW_BYTES / Float.BYTES) {
+			int count = Math.min(WINDOW_BYTES / Float.BYTES, length - from);
+			next((long) count * Float.BYTES).asFloatBuffer().put(values, from, count);
+		}
+	}
+
+	float[] readFloats(int length) throws IOException {
+		float[] values = new float[length];
+		for (int from = 0; from < length; from += WINDOW_BYTES / Float.BYTES) {
+			int count = Math.min(WINDOW_BYTES / Float.BYTES, length - from);
+			next((long) count * Float.BYTES).asFloatBuffer().get(values, from, count);
+		}
+		return values;
+	}
+
+	/**
+	 * Writes the id, text and metadata of the first {@code length} documents as JSON.
+	 * Null documents are written as null entries.
+	 */
+	void writeDocuments(Document[] documents, int length) throws IOException {
+		List<Entry> entries = new ArrayList<>(length);
+		for (int i = 0; i < length; i++) {
+			Document document = documents[i];
+			entries.add(document == null ? null
+					: new Entry(document.getId(), document.getText(), new LinkedHashMap<>(document.getMetadata())));
+		}
+		byte[] json = OBJECT_MAPPER.writeValueAsBytes(entries);
+		next(Long.BYTES).putLong(json.length);
+		next(json.length).put(json);
+	}
+
+	Document[] readDocuments(int length) throws IOException {
+		byte[] json = new byte[Math.toIntExact(next(Long.BYTES).getLong())];
+		next(json.length).get(json);
+		List<Entry> entries = OBJECT_MAPPER.readValue(json, new TypeReference<>() {
+		});
+		Assert.state(entries.size() == length, "Snapshot document count does not match its vectors");
+		Document[] documents = new Document[length];
+		for (int i = 0; i < length; i++) {
+			Entry entry = entries.get(i);
+			if (entry != null) {
+				documents[i] = Document.builder()
+					.id(entry.id())
+					.text(entry.text())
+					.metadata(entry.metadata() != null ? entry.metadata() : Map.of())
+					.build();
+			}
+		}
+		return documents;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+	}
+
+	private MappedByteBuffer next(long size) throws IOException {
+		MappedByteBuffer buffer = this.channel.map(this.mode, this.position, size);
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		this.position += size;
+		return buffer;
+	}
+
+	private record Entry(String id, String text, Map<String, Object> metadata) {
+	}
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.vectorstore.local;
+
+/**
+ * Keeps the {@code k} highest scores seen so far in a min-heap of primitive arrays, so a
+ * scan does not allocate per candidate and never sorts more than {@code k} entries.
+ */
+final class TopK {
+
+	private final float[] scores;
+
+	private final int[] slots;
+
+	private int size;
+
+	TopK(int k) {
+		this.scores = new float[k];
+		this.slots = new int[k];
+	}
+
+	/**
+	 * The lowest score a new candidate has to beat once the heap is full.
+	 */
+	float threshold() {
+		return this.size < this.scores.length ? Float.NEGATIVE_INFINITY : this.scores[0];
+	}
+
+	void offer(float score, int slot) {
+		if (this.size < this.scores.length) {
+			int i = this.size++;
+			// sift up
+			while (i > 0) {
+				int parent = (i - 1) >>> 1;
+				if (this.scores[parent] <= score) {
+					break;
+				}
+				this.scores[i] = this.scores[parent];
+				this.slots[i] = this.slots[parent];
+				i = parent;
+			}
+			this.scores[i] = score;
+			this.slots[i] = slot;
+		}
+		else if (this.scores.length > 0 && score > this.scores[0]) {
+			siftDown(score, slot, this.size);
+		}
+	}
+
+	/**
+	 * Sorts the kept entries by descending score in place; afterwards {@link #score(int)}
+	 * and {@link #slot(int)} return them in that order.
+	 * @return the number of entries
+	 */
+	int sortDescending() {
+		for (int end = this.size - 1; end > 0; end--) {
+			float score = this.scores[end];
+			int slot = this.slots[end];
+			this.scores[end] = this.scores[0];
+			this.slots[end] = this.slots[0];
+			siftDown(score, slot, end);
+		}
+		return this.size;
+	}
+
+	float score(int i) {
+		return this.scores[i];
+	}
+
+	int slot(int i) {
+		return this.slots[i];
+	}
+
+	private void siftDown(float score, int slot, int size) {
+		int i = 0;
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && this.scores[child + 1] < this.scores[child]) {
+				child++;
+			}
+			if (score <= this.scores[child]) {
+				break;
+			}
+			this.scores[i] = this.scores[child];
+			this.slots[i] = this.slots[child];
+			i = child;
+		}
+		this.scores[i] = score;
+		this.slots[i] = slot;
+	}
+
+}
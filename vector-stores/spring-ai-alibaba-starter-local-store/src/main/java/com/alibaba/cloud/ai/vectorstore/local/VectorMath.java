@@ -0,0 +1,124 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.vectorstore.local;
+
+/**
+ * Dot product kernels over vectors stored back to back in one array. The JDK Vector API
+ * is used when the {@code jdk.incubator.vector} module is available at runtime (start the
+ * JVM with {@code --add-modules jdk.incubator.vector}); otherwise an unrolled scalar loop
+ * is used.
+ */
+final class VectorMath {
+
+	private static final boolean SIMD = simdAvailable();
+
+	private VectorMath() {
+	}
+
+	/**
+	 * Whether the SIMD kernels are in use.
+	 */
+	static boolean isSimd() {
+		return SIMD;
+	}
+
+	/**
+	 * Computes the dot product of {@code query} and the vector of the same length that
+	 * starts at {@code offset} in {@code vectors}.
+	 */
+	static float dot(float[] query, float[] vectors, int offset) {
+		return dot(query, 0, vectors, offset, query.length);
+	}
+
+	/**
+	 * Computes the dot product of the {@code length} floats starting at {@code aOffset}
+	 * in {@code a} and at {@code bOffset} in {@code b}.
+	 */
+	static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+		return SIMD ? SimdVectorMath.dot(a, aOffset, b, bOffset, length) : scalarDot(a, aOffset, b, bOffset, length);
+	}
+
+	static float scalarDot(float[] query, float[] vectors, int offset) {
+		return scalarDot(query, 0, vectors, offset, query.length);
+	}
+
+	static float scalarDot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+		// independent accumulators let the CPU overlap the multiply-adds
+		float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = 0;
+		for (int bound = length & ~3; i < bound; i += 4) {
+			s0 += a[aOffset + i] * b[bOffset + i];
+			s1 += a[aOffset + i + 1] * b[bOffset + i + 1];
+			s2 += a[aOffset + i + 2] * b[bOffset + i + 2];
+			s3 += a[aOffset + i + 3] * b[bOffset + i + 3];
+		}
+		for (; i < length; i++) {
+			s0 += a[aOffset + i] * b[bOffset + i];
+		}
+		return (s0 + s1) + (s2 + s3);
+	}
+
+	/**
+	 * Computes the integer dot product of the {@code length} signed bytes starting at
+	 * {@code aOffset} in {@code a} and at {@code bOffset} in {@code b}.
+	 */
+	static int dot(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+		return SIMD ? SimdVectorMath.dot(a, aOffset, b, bOffset, length) : scalarDot(a, aOffset, b, bOffset, length);
+	}
+
+	static int scalarDot(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+		int s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+		int i = 0;
+		for (int bound = length & ~3; i < bound; i += 4) {
+			s0 += a[aOffset + i] * b[bOffset + i];
+			s1 += a[aOffset + i + 1] * b[bOffset + i + 1];
+			s2 += a[aOffset + i + 2] * b[bOffset + i + 2];
+			s3 += a[aOffset + i + 3] * b[bOffset + i + 3];
+		}
+		for (; i < length; i++) {
+			s0 += a[aOffset + i] * b[bOffset + i];
+		}
+		return s0 + s1 + s2 + s3;
+	}
+
+	/**
+	 * Scales the vector to unit length in place, so that cosine similarity becomes a dot
+	 * product. Zero vectors are left unchanged.
+	 */
+	static void normalize(float[] vector) {
+		float norm = (float) Math.sqrt(scalarDot(vector, vector, 0));
+		if (norm > 0) {
+			for (int i = 0; i < vector.length; i++) {
+				vector[i] /= norm;
+			}
+		}
+	}
+
+	private static boolean simdAvailable() {
+		if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+			return false;
+		}
+		try {
+			SimdVectorMath.dot(new float[1], 0, new float[1], 0, 1);
+			SimdVectorMath.dot(new byte[1], 0, new byte[1], 0, 1);
+			return true;
+		}
+		catch (LinkageError e) {
+			return false;
+		}
+	}
+
+}
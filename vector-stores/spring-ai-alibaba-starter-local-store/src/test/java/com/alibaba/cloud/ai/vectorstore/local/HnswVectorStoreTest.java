@@ -0,0 +1,234 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.vectorstore.local;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class HnswVectorStoreTest {
+
+	private final SyntheticEmbeddingModel embeddingModel = new SyntheticEmbeddingModel(4000, 32, 7);
+
+	@Test
+	void matchesExactSearchClosely() {
+		HnswVectorStore hnsw = HnswVectorStore.builder(embeddingModel).build();
+		LocalVectorStore exact = LocalVectorStore.builder(embeddingModel).build();
+		hnsw.add(SyntheticEmbeddingModel.documents(0, 3900));
+		exact.add(SyntheticEmbeddingModel.documents(0, 3900));
+
+		assertThat(SyntheticEmbeddingModel.recall(hnsw, exact, 3900, 4000, null)).isGreaterThanOrEqualTo(0.95);
+	}
+
+	@Test
+	void appliesMetadataFilter() {
+		HnswVectorStore hnsw = HnswVectorStore.builder(embeddingModel).build();
+		LocalVectorStore exact = LocalVectorStore.builder(embeddingModel).build();
+		hnsw.add(SyntheticEmbeddingModel.documents(0, 2000));
+		exact.add(SyntheticEmbeddingModel.documents(0, 2000));
+
+		Filter.Expression odd = new Filter.Expression(Filter.ExpressionType.EQ, new Filter.Key("parity"),
+				new Filter.Value(1));
+		List<Document> results = hnsw
+			.similaritySearch(SearchRequest.builder().query("3900").topK(10).filterExpression(odd).build());
+		assertThat(results).hasSize(10).allSatisfy(d -> assertThat(d.getMetadata()).containsEntry("parity", 1));
+		assertThat(SyntheticEmbeddingModel.recall(hnsw, exact, 3900, 4000, odd)).isGreaterThanOrEqualTo(0.9);
+	}
+
+	@Test
+	void linksConcurrentInserts() throws Exception {
+		HnswVectorStore hnsw = HnswVectorStore.builder(embeddingModel).build();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				int from = t * 1000;
+				futures.add(executor.submit(() -> {
+					for (int i = from; i < from + 1000; i += 50) {
+						hnsw.add(SyntheticEmbeddingModel.documents(i, i + 50));
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(hnsw.size()).isEqualTo(4000);
+		int found = 0;
+		for (int i = 0; i < 4000; i += 7) {
+			List<Document> results = hnsw
+				.similaritySearch(SearchRequest.builder().query(String.valueOf(i)).topK(1).build());
+			if (results.get(0).getId().equals("doc-" + i)) {
+				found++;
+			}
+		}
+		assertThat(found).isGreaterThanOrEqualTo((int) (0.98 * (4000 / 7 + 1)));
+	}
+
+	@Test
+	void hidesDeletedAndReplacedDocuments() {
+		HnswVectorStore hnsw = HnswVectorStore.builder(embeddingModel).compactionThreshold(1).build();
+		hnsw.add(SyntheticEmbeddingModel.documents(0, 1000));
+		hnsw.delete(List.of("doc-10", "doc-11"));
+		hnsw.delete(new Filter.Expression(Filter.ExpressionType.EQ, new Filter.Key("parity"), new Filter.Value(1)));
+		hnsw.add(List.of(new Document("doc-20", "21", Map.of("parity", 0))));
+
+		assertThat(hnsw.size()).isEqualTo(499);
+		assertThat(ids(hnsw, "10", 5)).doesNotContain("doc-10", "doc-11");
+		assertThat(ids(hnsw, "21", 1)).containsExactly("doc-20");
+
+		hnsw.compact();
+		assertThat(hnsw.size()).isEqualTo(499);
+		assertThat(ids(hnsw, "10", 5)).doesNotContain("doc-10", "doc-11");
+		assertThat(ids(hnsw, "21", 1)).containsExactly("doc-20");
+		assertThat(ids(hnsw, "500", 1)).containsExactly("doc-500");
+	}
+
+	@Test
+	void compactsOnceEnoughNodesAreDeleted() {
+		HnswVectorStore hnsw = HnswVectorStore.builder(embeddingModel).compactionThreshold(0.25).build();
+		hnsw.add(SyntheticEmbeddingModel.documents(0, 1000));
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < 400; i++) {
+			ids.add("doc-" + i);
+		}
+		hnsw.delete(ids);
+
+		assertThat(hnsw.size()).isEqualTo(600);
+		assertThat(ids(hnsw, "100", 10))
+			.allSatisfy(id -> assertThat(Integer.parseInt(id.substring(4))).isGreaterThanOrEqualTo(400));
+		assertThat(ids(hnsw, "700", 1)).containsExactly("doc-700");
+		await().atMost(Duration.ofSeconds(30)).until(() -> hnsw.nodeCount() == 600);
+		assertThat(ids(hnsw, "700", 1)).containsExactly("doc-700");
+	}
+
+	@Test
+	void stopsCompactingInTheBackgroundOnceClosed() {
+		HnswVectorStore hnsw = HnswVectorStore.builder(embeddingModel).compactionThreshold(0.25).build();
+		hnsw.add(SyntheticEmbeddingModel.documents(0, 100));
+		hnsw.close();
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			ids.add("doc-" + i);
+		}
+		hnsw.delete(ids);
+
+		assertThat(hnsw.nodeCount()).isEqualTo(100);
+		hnsw.compact();
+		assertThat(hnsw.nodeCount()).isEqualTo(50);
+		assertThat(ids(hnsw, "70", 1)).containsExactly("doc-70");
+	}
+
+	@Test
+	void keepsWritesMadeWhileCompacting() {
+		HnswVectorStore hnsw = HnswVectorStore.builder(embeddingModel).compactionThreshold(0.25).build();
+		hnsw.add(SyntheticEmbeddingModel.documents(0, 2000));
+		List<String> ids = new ArrayList<>();
+		for (int i = 0; i < 600; i++) {
+			ids.add("doc-" + i);
+		}
+		// schedules a compaction, the writes below race with its rebuild
+		hnsw.delete(ids);
+		hnsw.add(SyntheticEmbeddingModel.documents(2000, 2200));
+		hnsw.delete(List.of("doc-1000", "doc-2100"));
+		hnsw.compact();
+
+		assertThat(hnsw.size()).isEqualTo(1598);
+		await().atMost(Duration.ofSeconds(30)).until(() -> hnsw.nodeCount() == 1598);
+		assertThat(ids(hnsw, "2150", 1)).containsExactly("doc-2150");
+		assertThat(ids(hnsw, "1500", 1)).containsExactly("doc-1500");
+		assertThat(ids(hnsw, "1000", 5)).doesNotContain("doc-1000");
+		assertThat(ids(hnsw, "2100", 5)).doesNotContain("doc-2100");
+		assertThat(ids(hnsw, "300", 5))
+			.allSatisfy(id -> assertThat(Integer.parseInt(id.substring(4))).isGreaterThanOrEqualTo(600));
+	}
+
+	@Test
+	void searchesWhileTheGraphGrows() throws Exception {
+		HnswVectorStore hnsw = HnswVectorStore.builder(embeddingModel).m(4).build();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			AtomicBoolean done = new AtomicBoolean();
+			List<Future<?>> searches = new ArrayList<>();
+			for (int t = 0; t < 3; t++) {
+				searches.add(executor.submit(() -> {
+					while (!done.get()) {
+						hnsw.similaritySearch(SearchRequest.builder().query("17").topK(3).build());
+					}
+				}));
+			}
+			for (int i = 0; i < 2000; i += 5) {
+				hnsw.add(SyntheticEmbeddingModel.documents(i, i + 5));
+			}
+			done.set(true);
+			for (Future<?> search : searches) {
+				search.get();
+			}
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		assertThat(ids(hnsw, "17", 1)).containsExactly("doc-17");
+	}
+
+	@Test
+	void restoresSnapshot(@TempDir Path dir) {
+		HnswVectorStore hnsw = HnswVectorStore.builder(embeddingModel).compactionThreshold(1).build();
+		hnsw.add(SyntheticEmbeddingModel.documents(0, 2000));
+		hnsw.delete(List.of("doc-5"));
+		Path snapshot = dir.resolve("store.hnsw");
+		hnsw.save(snapshot);
+
+		HnswVectorStore restored = HnswVectorStore.builder(embeddingModel).build();
+		restored.load(snapshot);
+
+		assertThat(restored.size()).isEqualTo(1999);
+		for (int i = 0; i < 2000; i += 97) {
+			assertThat(ids(restored, String.valueOf(i), 10)).isEqualTo(ids(hnsw, String.valueOf(i), 10));
+		}
+		assertThat(ids(restored, "5", 3)).doesNotContain("doc-5");
+		restored.add(SyntheticEmbeddingModel.documents(2000, 2100));
+		assertThat(ids(restored, "2050", 1)).containsExactly("doc-2050");
+	}
+
+	private static List<String> ids(HnswVectorStore store, String query, int topK) {
+		return ids(store.similaritySearch(SearchRequest.builder().query(query).topK(topK).build()));
+	}
+
+	private static List<String> ids(List<Document> documents) {
+		return documents.stream().map(Document::getId).toList();
+	}
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.vectorstore.local;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.ai.vectorstore.SearchRequest;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Recall and latency of {@link HnswVectorStore} and of quantized {@link LocalVectorStore}
+ * scans against the exact scan on clustered synthetic data. Too slow for every build, run
+ * it with {@code -Dlocal-store.benchmark=true}; {@code local-store.benchmark.size} and
+ * {@code local-store.benchmark.dimensions} change the data set.
+ */
+@EnabledIfSystemProperty(named = "local-store.benchmark", matches = "true")
+class LocalVectorStoreBenchmarkTest {
+
+	private static final int QUERIES = 500;
+
+	private static final int TOP_K = 10;
+
+	@Test
+	void recallAndLatencyAgainstExactSearch() {
+		int size = Integer.getInteger("local-store.benchmark.size", 100_000);
+		int dimensions = Integer.getInteger("local-store.benchmark.dimensions", 128);
+		SyntheticEmbeddingModel embeddingModel = new SyntheticEmbeddingModel(size + QUERIES, dimensions, 42);
+
+		LocalVectorStore exact = LocalVectorStore.builder(embeddingModel).build();
+		long start = System.nanoTime();
+		exact.add(SyntheticEmbeddingModel.documents(0, size));
+		System.out.printf("exact: %,d x %d vectors loaded in %,d ms (SIMD %s)%n", size, dimensions,
+				(System.nanoTime() - start) / 1_000_000, VectorMath.isSimd());
+		System.out.println("exact: " + latency(q -> exact.similaritySearch(request(q)), size));
+
+		for (LocalVectorStore.Quantization quantization : new LocalVectorStore.Quantization[] {
+				LocalVectorStore.Quantization.INT8, LocalVectorStore.Quantization.BINARY }) {
+			try (LocalVectorStore quantized = LocalVectorStore.builder(embeddingModel)
+				.quantization(quantization)
+				.build()) {
+				quantized.add(SyntheticEmbeddingModel.documents(0, size));
+				double recall = SyntheticEmbeddingModel.recall(quantized, exact, size, size + QUERIES, null);
+				long heapBytes = quantization == LocalVectorStore.Quantization.INT8 ? (long) size * dimensions
+						: (long) size * BinaryQuantizer.words(dimensions) * Long.BYTES;
+				System.out.printf("%s: %,d vector bytes on heap instead of %,d, recall@%d %.3f, %s%n", quantization,
+						heapBytes, (long) size * dimensions * Float.BYTES, TOP_K, recall,
+						latency(q -> quantized.similaritySearch(request(q)), size));
+				if (quantization == LocalVectorStore.Quantization.INT8) {
+					assertThat(recall).isGreaterThanOrEqualTo(0.95);
+				}
+			}
+		}
+
+		for (int efSearch : new int[] { 16, 64, 256 }) {
+			HnswVectorStore hnsw = HnswVectorStore.builder(embeddingModel).efSearch(efSearch).build();
+			start = System.nanoTime();
+			hnsw.add(SyntheticEmbeddingModel.documents(0, size));
+			long buildMillis = (System.nanoTime() - start) / 1_000_000;
+			double recall = SyntheticEmbeddingModel.recall(hnsw, exact, size, size + QUERIES, null);
+			System.out.printf("hnsw efSearch=%d: built in %,d ms, recall@%d %.3f, %s%n", efSearch, buildMillis, TOP_K,
+					recall, latency(q -> hnsw.similaritySearch(request(q)), size));
+			if (efSearch >= 64) {
+				assertThat(recall).isGreaterThanOrEqualTo(0.9);
+			}
+		}
+	}
+
+	private static SearchRequest request(int query) {
+		return SearchRequest.builder().query(String.valueOf(query)).topK(TOP_K).build();
+	}
+
+	private static String latency(Consumer<Integer> search, int firstQuery) {
+		for (int q = firstQuery; q < firstQuery + QUERIES; q++) {
+			search.accept(q);
+		}
+		long[] nanos = new long[QUERIES];
+		for (int i = 0; i < QUERIES; i++) {
+			long start = System.nanoTime();
+			search.accept(firstQuery + i);
+			nanos[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(nanos);
+		return String.format("p50 %.3f ms, p99 %.3f ms", nanos[QUERIES / 2] / 1e6, nanos[QUERIES * 99 / 100] / 1e6);
+	}
+
+}
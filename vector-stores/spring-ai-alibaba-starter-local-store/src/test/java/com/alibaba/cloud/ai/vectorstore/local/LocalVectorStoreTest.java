@@ -0,0 +1,249 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.vectorstore.local;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.document.DocumentMetadata;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LocalVectorStoreTest {
+
+	private final EmbeddingModel embeddingModel = new FixedEmbeddingModel(Map.of("north", new float[] { 0, 1, 0 },
+			"east", new float[] { 1, 0, 0 }, "north-east", new float[] { 1, 1, 0 }, "up", new float[] { 0, 0, 1 },
+			"mostly-north", new float[] { 0.2f, 1, 0 }));
+
+	private final LocalVectorStore store = LocalVectorStore.builder(embeddingModel).build();
+
+	@Test
+	void returnsBestMatchesFirst() {
+		store.add(List.of(document("east", 1), document("north", 2), document("north-east", 3), document("up", 4)));
+
+		List<Document> results = store.similaritySearch(SearchRequest.builder().query("mostly-north").topK(2).build());
+
+		assertThat(results).extracting(Document::getId).containsExactly("north", "north-east");
+		assertThat(results.get(0).getScore()).isCloseTo(0.98, within(0.01));
+		assertThat((float) results.get(0).getMetadata().get(DocumentMetadata.DISTANCE.value())).isCloseTo(0.02f,
+				within(0.01f));
+
+		List<Document> aboveThreshold = store
+			.similaritySearch(SearchRequest.builder().query("mostly-north").topK(10).similarityThreshold(0.5).build());
+		assertThat(aboveThreshold).extracting(Document::getId).containsExactly("north", "north-east");
+	}
+
+	@Test
+	void appliesMetadataFilterDuringScan() {
+		store.add(List.of(document("east", 1), document("north", 2), document("north-east", 3), document("up", 4)));
+
+		Filter.Expression rankAtLeastThree = new Filter.Expression(Filter.ExpressionType.GTE, new Filter.Key("rank"),
+				new Filter.Value(3));
+		assertThat(search("mostly-north", rankAtLeastThree)).containsExactly("north-east", "up");
+
+		Filter.Expression eastOrUp = new Filter.Expression(Filter.ExpressionType.IN, new Filter.Key("name"),
+				new Filter.Value(List.of("east", "up")));
+		Filter.Expression notEast = new Filter.Expression(Filter.ExpressionType.NOT,
+				new Filter.Expression(Filter.ExpressionType.EQ, new Filter.Key("name"), new Filter.Value("east")));
+		assertThat(search("mostly-north",
+				new Filter.Expression(Filter.ExpressionType.AND, new Filter.Group(eastOrUp), notEast)))
+			.containsExactly("up");
+	}
+
+	@Test
+	void upsertsAndDeletesById() {
+		store.add(List.of(document("east", 1), document("north", 2), document("up", 3)));
+		store.add(List.of(new Document("north", "north-east", Map.of("name", "moved", "rank", 9))));
+
+		assertThat(store.size()).isEqualTo(3);
+		List<Document> results = store.similaritySearch(SearchRequest.builder().query("north-east").topK(1).build());
+		assertThat(results.get(0).getMetadata()).containsEntry("name", "moved");
+
+		store.delete(List.of("east", "missing"));
+		assertThat(store.size()).isEqualTo(2);
+		assertThat(search("east", null)).containsExactly("north", "up");
+
+		store.delete(new Filter.Expression(Filter.ExpressionType.EQ, new Filter.Key("name"), new Filter.Value("up")));
+		assertThat(search("east", null)).containsExactly("north");
+	}
+
+	@Test
+	void restoresSnapshot(@TempDir Path dir) {
+		store.add(List.of(document("east", 1), document("north", 2), document("north-east", 3)));
+		Path snapshot = dir.resolve("store.lvs");
+		store.save(snapshot);
+
+		LocalVectorStore restored = LocalVectorStore.builder(embeddingModel).build();
+		restored.load(snapshot);
+
+		assertThat(restored.size()).isEqualTo(3);
+		List<Document> results = restored
+			.similaritySearch(SearchRequest.builder().query("mostly-north").topK(3).build());
+		assertThat(results).extracting(Document::getId).containsExactly("north", "north-east", "east");
+		assertThat(results.get(1).getText()).isEqualTo("north-east");
+		assertThat(results.get(1).getMetadata()).containsEntry("rank", 3);
+
+		restored.add(List.of(document("up", 4)));
+		assertThat(search(restored, "up", null)).first().isEqualTo("up");
+	}
+
+	@Test
+	void quantizedScanRescoresToNearlyExactResults(@TempDir Path dir) {
+		SyntheticEmbeddingModel synthetic = new SyntheticEmbeddingModel(3100, 64, 3);
+		LocalVectorStore exact = LocalVectorStore.builder(synthetic).build();
+		exact.add(SyntheticEmbeddingModel.documents(0, 3000));
+
+		for (LocalVectorStore.Quantization quantization : new LocalVectorStore.Quantization[] {
+				LocalVectorStore.Quantization.INT8, LocalVectorStore.Quantization.BINARY }) {
+			try (LocalVectorStore quantized = LocalVectorStore.builder(synthetic).quantization(quantization).build()) {
+				// small batches, so the int8 ranges keep growing and codes are re-encoded
+				for (int i = 0; i < 3000; i += 250) {
+					quantized.add(SyntheticEmbeddingModel.documents(i, i + 250));
+				}
+				assertThat(SyntheticEmbeddingModel.recall(quantized, exact, 3000, 3100, null)).as(quantization.name())
+					.isGreaterThanOrEqualTo(quantization == LocalVectorStore.Quantization.INT8 ? 0.97 : 0.8);
+
+				List<Document> results = quantized
+					.similaritySearch(SearchRequest.builder().query("3050").topK(3).build());
+				List<Document> expected = exact
+					.similaritySearch(SearchRequest.builder().query("3050").topK(10).build());
+				// rescored results carry exact scores
+				assertThat(results)
+					.allSatisfy(result -> assertThat(expected).filteredOn(d -> d.getId().equals(result.getId()))
+						.singleElement()
+						.satisfies(d -> assertThat(d.getScore()).isCloseTo(result.getScore(), within(1e-5))));
+				if (quantization == LocalVectorStore.Quantization.INT8) {
+					assertThat(results.get(0).getId()).isEqualTo(expected.get(0).getId());
+				}
+
+				Document best = results.get(0);
+				quantized.delete(List.of(best.getId()));
+				assertThat(quantized.size()).isEqualTo(2999);
+				assertThat(ids(quantized, "3050", 3)).doesNotContain(best.getId());
+
+				Path snapshot = dir.resolve(quantization.name());
+				quantized.save(snapshot);
+				exact.load(snapshot);
+				assertThat(exact.size()).isEqualTo(2999);
+				assertThat(ids(exact, "3050", 1)).containsExactly(expected.stream()
+					.map(Document::getId)
+					.filter(id -> !id.equals(best.getId()))
+					.findFirst()
+					.orElseThrow());
+				exact.add(List.of(new Document(best.getId(), best.getText(), Map.of())));
+			}
+		}
+	}
+
+	@Test
+	void kernelsAgreeOnOddLengths() {
+		Random random = new Random(42);
+		for (int length : new int[] { 1, 3, 7, 16, 17, 33, 1536 }) {
+			float[] query = randomVector(random, length);
+			float[] vectors = randomVector(random, length * 3 + 5);
+			int offset = length + 5;
+			double expected = 0;
+			for (int i = 0; i < length; i++) {
+				expected += (double) query[i] * vectors[offset + i];
+			}
+			assertThat((double) VectorMath.scalarDot(query, vectors, offset)).isCloseTo(expected, within(1e-3));
+			assertThat((double) VectorMath.dot(query, vectors, offset)).isCloseTo(expected, within(1e-3));
+		}
+	}
+
+	@Test
+	void keepsHighestScores() {
+		TopK topK = new TopK(3);
+		float[] scores = { 0.1f, 0.9f, 0.4f, 0.7f, 0.2f, 0.8f };
+		for (int slot = 0; slot < scores.length; slot++) {
+			topK.offer(scores[slot], slot);
+		}
+
+		assertThat(topK.sortDescending()).isEqualTo(3);
+		assertThat(new int[] { topK.slot(0), topK.slot(1), topK.slot(2) }).containsExactly(1, 5, 3);
+	}
+
+	private List<String> search(String query, Filter.Expression filter) {
+		return search(store, query, filter);
+	}
+
+	private static List<String> search(LocalVectorStore store, String query, Filter.Expression filter) {
+		return store.similaritySearch(SearchRequest.builder().query(query).topK(10).filterExpression(filter).build())
+			.stream()
+			.map(Document::getId)
+			.toList();
+	}
+
+	private static List<String> ids(LocalVectorStore store, String query, int topK) {
+		return store.similaritySearch(SearchRequest.builder().query(query).topK(topK).build())
+			.stream()
+			.map(Document::getId)
+			.toList();
+	}
+
+	private static Document document(String name, int rank) {
+		return new Document(name, name, Map.of("name", name, "rank", rank));
+	}
+
+	private static float[] randomVector(Random random, int length) {
+		float[] vector = new float[length];
+		for (int i = 0; i < length; i++) {
+			vector[i] = random.nextFloat() * 2 - 1;
+		}
+		return vector;
+	}
+
+	/**
+	 * Embeds each text with a fixed vector, so expected rankings are easy to work out
+	 */
+	private static class FixedEmbeddingModel implements EmbeddingModel {
+
+		private final Map<String, float[]> vectors;
+
+		FixedEmbeddingModel(Map<String, float[]> vectors) {
+			this.vectors = vectors;
+		}
+
+		@Override
+		public EmbeddingResponse call(EmbeddingRequest request) {
+			List<Embedding> embeddings = new ArrayList<>();
+			for (String text : request.getInstructions()) {
+				embeddings.add(new Embedding(vectors.get(text).clone(), embeddings.size()));
+			}
+			return new EmbeddingResponse(embeddings);
+		}
+
+		@Override
+		public float[] embed(Document document) {
+			return vectors.get(document.getText()).clone();
+		}
+
+	}
+
+}
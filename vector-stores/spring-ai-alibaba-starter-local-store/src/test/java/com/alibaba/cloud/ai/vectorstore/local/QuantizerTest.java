@@ -0,0 +1,120 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.vectorstore.local;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class QuantizerTest {
+
+	private final Random random = new Random(11);
+
+	@Test
+	void scalarCodesDecodeWithinHalfAStep() {
+		float[][] vectors = randomVectors(200, 48);
+		ScalarQuantizer quantizer = ScalarQuantizer.fit(vectors);
+
+		for (float[] vector : vectors) {
+			float[] decoded = quantizer.decode(quantizer.encode(vector));
+			for (int i = 0; i < vector.length; i++) {
+				// components here lie in [-1, 1), so a step is at most 2 / 255
+				assertThat(decoded[i]).isCloseTo(vector[i], within(1.01f / 255));
+			}
+		}
+	}
+
+	@Test
+	void extendsRangeOnlyWhenNeeded() {
+		ScalarQuantizer quantizer = ScalarQuantizer.fit(new float[] { 0, 0 }, new float[] { 1, 1 });
+
+		assertThat(quantizer.extend(new float[] { 0.5f, 1 })).isSameAs(quantizer);
+		ScalarQuantizer extended = quantizer.extend(new float[] { 2, 0.5f });
+		assertThat(extended.covers(new float[] { 2, 0.5f })).isTrue();
+		assertThat(extended.covers(new float[] { 2.1f, 0.5f })).isTrue();
+		assertThat(extended.covers(new float[] { 0.5f, 1.1f })).isFalse();
+	}
+
+	@Test
+	void integerScoresRankLikeExactDotProducts() {
+		float[][] vectors = randomVectors(500, 64);
+		ScalarQuantizer quantizer = ScalarQuantizer.fit(vectors);
+		byte[] codes = new byte[vectors.length * 64];
+		for (int i = 0; i < vectors.length; i++) {
+			quantizer.encode(vectors[i], codes, i * 64);
+		}
+		float[] query = randomVectors(1, 64)[0];
+		byte[] codedQuery = quantizer.quantizeQuery(query);
+
+		int best = 0;
+		int bestExact = 0;
+		for (int i = 1; i < vectors.length; i++) {
+			if (ScalarQuantizer.score(codedQuery, codes, i * 64) > ScalarQuantizer.score(codedQuery, codes,
+					best * 64)) {
+				best = i;
+			}
+			if (VectorMath.dot(query, vectors[i], 0) > VectorMath.dot(query, vectors[bestExact], 0)) {
+				bestExact = i;
+			}
+		}
+		assertThat(VectorMath.dot(query, vectors[best], 0)).isCloseTo(VectorMath.dot(query, vectors[bestExact], 0),
+				within(0.2f));
+	}
+
+	@Test
+	void integerKernelsAgreeOnOddLengths() {
+		for (int length : new int[] { 1, 5, 15, 16, 17, 63, 300 }) {
+			byte[] a = new byte[length + 3];
+			byte[] b = new byte[length + 7];
+			random.nextBytes(a);
+			random.nextBytes(b);
+			int expected = 0;
+			for (int i = 0; i < length; i++) {
+				expected += a[3 + i] * b[7 + i];
+			}
+			assertThat(VectorMath.scalarDot(a, 3, b, 7, length)).isEqualTo(expected);
+			assertThat(VectorMath.dot(a, 3, b, 7, length)).isEqualTo(expected);
+		}
+	}
+
+	@Test
+	void binaryScoreCountsMatchingSigns() {
+		float[] a = new float[70];
+		float[] b = new float[70];
+		for (int i = 0; i < 70; i++) {
+			a[i] = i % 2 == 0 ? 1 : -1;
+			b[i] = i < 10 ? -a[i] : a[i];
+		}
+
+		assertThat(BinaryQuantizer.words(70)).isEqualTo(2);
+		assertThat(BinaryQuantizer.score(BinaryQuantizer.encode(a), BinaryQuantizer.encode(a), 0)).isZero();
+		assertThat(BinaryQuantizer.score(BinaryQuantizer.encode(a), BinaryQuantizer.encode(b), 0)).isEqualTo(-10);
+	}
+
+	private float[][] randomVectors(int count, int dimensions) {
+		float[][] vectors = new float[count][dimensions];
+		for (float[] vector : vectors) {
+			for (int i = 0; i < dimensions; i++) {
+				vector[i] = random.nextFloat() * 2 - 1;
+			}
+		}
+		return vectors;
+	}
+
+}
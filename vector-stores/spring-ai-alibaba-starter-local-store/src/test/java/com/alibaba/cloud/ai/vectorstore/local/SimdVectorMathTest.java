@@ -0,0 +1,85 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.vectorstore.local;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the SIMD kernels in a forked JVM whose vectors are capped at a small size, since
+ * the species are fixed once per JVM by the hardware it runs on.
+ */
+class SimdVectorMathTest {
+
+	@ParameterizedTest
+	@ValueSource(ints = { 8, 16 })
+	void matchesScalarKernelsWithNarrowVectors(int maxVectorBytes) throws Exception {
+		Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+				"--add-modules", "jdk.incubator.vector", "-XX:MaxVectorSize=" + maxVectorBytes, "-cp",
+				System.getProperty("java.class.path"), Check.class.getName())
+			.redirectErrorStream(true)
+			.start();
+		assertThat(process.waitFor(60, TimeUnit.SECONDS)).isTrue();
+		String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+
+		assertThat(process.exitValue()).as(output).isZero();
+		assertThat(output).contains("S_" + maxVectorBytes * 8 + "_BIT");
+	}
+
+	/**
+	 * Compares the SIMD and scalar kernels on lengths around every vector width.
+	 */
+	static final class Check {
+
+		public static void main(String[] args) throws IOException {
+			if (!VectorMath.isSimd()) {
+				throw new IllegalStateException("SIMD kernels are not in use");
+			}
+			System.out.println(jdk.incubator.vector.IntVector.SPECIES_PREFERRED);
+			Random random = new Random(5);
+			for (int length = 0; length <= 130; length++) {
+				byte[] a = new byte[length + 3];
+				byte[] b = new byte[length + 3];
+				random.nextBytes(a);
+				random.nextBytes(b);
+				float[] x = new float[length + 3];
+				float[] y = new float[length + 3];
+				for (int i = 0; i < x.length; i++) {
+					x[i] = random.nextInt(17) - 8;
+					y[i] = random.nextInt(17) - 8;
+				}
+				int bytes = VectorMath.dot(a, 3, b, 1, length);
+				int expectedBytes = VectorMath.scalarDot(a, 3, b, 1, length);
+				float floats = VectorMath.dot(x, 2, y, 3, length);
+				float expectedFloats = VectorMath.scalarDot(x, 2, y, 3, length);
+				if (bytes != expectedBytes || floats != expectedFloats) {
+					throw new IllegalStateException("Length " + length + ": " + bytes + " != " + expectedBytes + " or "
+							+ floats + " != " + expectedFloats);
+				}
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.vectorstore.local;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Embeds the text {@code "42"} as row 42 of a table of clustered random vectors, so
+ * stores can be filled and queried with synthetic data of any size
+ */
+class SyntheticEmbeddingModel implements EmbeddingModel {
+
+	private final float[][] vectors;
+
+	SyntheticEmbeddingModel(int count, int dimensions, long seed) {
+		Random random = new Random(seed);
+		float[][] centroids = new float[Math.max(1, count / 100)][dimensions];
+		for (float[] centroid : centroids) {
+			for (int i = 0; i < dimensions; i++) {
+				centroid[i] = (float) random.nextGaussian();
+			}
+		}
+		this.vectors = new float[count][dimensions];
+		for (float[] vector : this.vectors) {
+			float[] centroid = centroids[random.nextInt(centroids.length)];
+			for (int i = 0; i < dimensions; i++) {
+				vector[i] = centroid[i] + 0.5f * (float) random.nextGaussian();
+			}
+		}
+	}
+
+	int size() {
+		return this.vectors.length;
+	}
+
+	@Override
+	public EmbeddingResponse call(EmbeddingRequest request) {
+		List<Embedding> embeddings = new ArrayList<>();
+		for (String text : request.getInstructions()) {
+			embeddings.add(new Embedding(vector(text), embeddings.size()));
+		}
+		return new EmbeddingResponse(embeddings);
+	}
+
+	@Override
+	public float[] embed(Document document) {
+		return vector(document.getText());
+	}
+
+	private float[] vector(String text) {
+		return this.vectors[Integer.parseInt(text)].clone();
+	}
+
+	static List<Document> documents(int from, int to) {
+		List<Document> documents = new ArrayList<>(to - from);
+		for (int i = from; i < to; i++) {
+			documents.add(new Document("doc-" + i, String.valueOf(i), Map.of("parity", i % 2)));
+		}
+		return documents;
+	}
+
+	/**
+	 * Share of the exact top 10 that the approximate store also returns, over the queries
+	 * {@code from} to {@code to}
+	 */
+	static double recall(VectorStore approximate, VectorStore exact, int from, int to, Filter.Expression filter) {
+		int hits = 0;
+		int total = 0;
+		for (int q = from; q < to; q++) {
+			SearchRequest request = SearchRequest.builder()
+				.query(String.valueOf(q))
+				.topK(10)
+				.filterExpression(filter)
+				.build();
+			Set<String> expected = new HashSet<>();
+			exact.similaritySearch(request).forEach(d -> expected.add(d.getId()));
+			for (Document document : approximate.similaritySearch(request)) {
+				if (expected.contains(document.getId())) {
+					hits++;
+				}
+			}
+			total += expected.size();
+		}
+		return (double) hits / total;
+	}
+
+}
@@ -43,7 +43,6 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
-import java.util.stream.IntStream;
 
 import static org.springframework.ai.vectorstore.SearchRequest.DEFAULT_TOP_K;
 
@@ -63,6 +62,8 @@ public class OceanBaseVectorStore extends AbstractObservationVectorStore impleme
 
 	private static final Double DEFAULT_SIMILARITY_THRESHOLD = 0.0;
 
+	public static final int DEFAULT_BATCH_SIZE = 500;
+
 	private static final String CREATE_TABLE_SQL_TEMPLATE = "CREATE TABLE IF NOT EXISTS %s ("
 			+ "id varchar(100) PRIMARY KEY, " + "vector VECTOR(384) NOT NULL, " + "description text, "
 			+ "metadata text)";
@@ -73,8 +74,10 @@ public class OceanBaseVectorStore extends AbstractObservationVectorStore impleme
 
 	private static final String DELETE_DOC_BY_FILTER_SQL_TEMPLATE = "DELETE FROM %s WHERE %s";
 
-	private static final String SIMILARITY_SEARCH_SQL_TEMPLATE = "SELECT id, vector, description, metadata, l2_distance(vector,?) as distance FROM %s "
-			+ "ORDER BY vector_distance(vector, ?) ASC LIMIT ?";
+	// the distance is computed once and ordered by its alias, so the query vector is
+	// bound once and the stored vectors are not sent back
+	private static final String SIMILARITY_SEARCH_SQL_TEMPLATE = "SELECT id, description, metadata, l2_distance(vector, ?) AS distance FROM %s "
+			+ "ORDER BY distance ASC LIMIT ?";
 
 	public final FilterExpressionConverter filterExpressionConverter = new OceanBaseVectorFilterExpressionConverter();
 
@@ -88,9 +91,15 @@ public class OceanBaseVectorStore extends AbstractObservationVectorStore impleme
 
 	private final ObjectMapper objectMapper;
 
+	private final int batchSize;
+
+	private final boolean compactMetadata;
+
 	protected OceanBaseVectorStore(Builder builder) {
 		super(builder);
 		this.tableName = builder.tableName;
+		this.batchSize = builder.batchSize;
+		this.compactMetadata = builder.compactMetadata;
 		this.dataSource = builder.dataSource;
 		this.objectMapper = JsonMapper.builder().addModules(JacksonUtils.instantiateAvailableModules()).build();
 		this.defaultSimilarityThreshold = builder.defaultSimilarityThreshold;
@@ -124,15 +133,19 @@ public class OceanBaseVectorStore extends AbstractObservationVectorStore impleme
 				PreparedStatement pstmt = connection.prepareStatement(sql)) {
 			for (int i = 0; i < documents.size(); i++) {
 				Document doc = documents.get(i);
-				Map<String, String> metadata = createMetadata(doc);
-				String vectorString = convertEmbeddingToString(embeddings.get(i));
 				pstmt.setString(1, doc.getId());
-				pstmt.setString(2, vectorString);
+				pstmt.setString(2, convertEmbeddingToString(embeddings.get(i)));
 				pstmt.setString(3, doc.getText());
-				pstmt.setString(4, objectMapper.writeValueAsString(metadata));
+				pstmt.setString(4, this.compactMetadata ? objectMapper.writeValueAsString(doc.getMetadata())
+						: objectMapper.writeValueAsString(createMetadata(doc)));
 				pstmt.addBatch();
+				if ((i + 1) % this.batchSize == 0) {
+					pstmt.executeBatch();
+				}
+			}
+			if (documents.size() % this.batchSize != 0) {
+				pstmt.executeBatch();
 			}
-			pstmt.executeBatch();
 		}
 		catch (Exception e) {
 			logger.error("Failed to add documents", e);
@@ -151,8 +164,19 @@ public class OceanBaseVectorStore extends AbstractObservationVectorStore impleme
 		return metadata;
 	}
 
-	private String convertEmbeddingToString(float[] embedding) {
-		return Arrays.toString(IntStream.range(0, embedding.length).mapToObj(i -> embedding[i]).toArray());
+	/**
+	 * Writes an embedding in OceanBase's vector literal form, such as {@code [0.1,0.2]},
+	 * straight from the primitive array.
+	 */
+	static String convertEmbeddingToString(float[] embedding) {
+		StringBuilder sb = new StringBuilder(embedding.length * 12 + 2).append('[');
+		for (int i = 0; i < embedding.length; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append(embedding[i]);
+		}
+		return sb.append(']').toString();
 	}
 
 	@Override
@@ -184,10 +208,8 @@ public class OceanBaseVectorStore extends AbstractObservationVectorStore impleme
 		List<Document> similarDocuments = new ArrayList<>();
 		try (Connection connection = dataSource.getConnection();
 				PreparedStatement pstmt = connection.prepareStatement(sql)) {
-			String vector = convertQueryToVectorBytes(searchRequest.getQuery());
-			pstmt.setString(1, vector);
-			pstmt.setString(2, vector);
-			pstmt.setInt(3, searchRequest.getTopK());
+			pstmt.setString(1, convertQueryToVectorBytes(searchRequest.getQuery()));
+			pstmt.setInt(2, searchRequest.getTopK());
 			ResultSet rs = pstmt.executeQuery();
 			while (rs.next()) {
 				Document doc = extractDocumentFromResultSet(rs);
@@ -205,6 +227,13 @@ public class OceanBaseVectorStore extends AbstractObservationVectorStore impleme
 		String id = rs.getString("id");
 		String vectorMetadata = rs.getString("metadata");
 		String distance = rs.getString("distance");
+		if (this.compactMetadata) {
+			Map<String, Object> metadataJson = vectorMetadata == null ? new HashMap<>()
+					: objectMapper.readValue(vectorMetadata, new TypeReference<Map<String, Object>>() {
+					});
+			metadataJson.put("distance", distance);
+			return new Document(id, rs.getString("description"), metadataJson);
+		}
 		Map<String, String> metadata = extractMetadata(vectorMetadata);
 		String pageContent = metadata.get(CONTENT_FIELD_NAME);
 		Map<String, Object> metadataJson = objectMapper.readValue(metadata.get(METADATA_FIELD_NAME),
@@ -219,7 +248,7 @@ public class OceanBaseVectorStore extends AbstractObservationVectorStore impleme
 	}
 
 	private String convertQueryToVectorBytes(String query) {
-		return Arrays.toString(this.embeddingModel.embed(query));
+		return convertEmbeddingToString(this.embeddingModel.embed(query));
 	}
 
 	private void executeUpdate(String sql) {
@@ -236,11 +265,16 @@ public class OceanBaseVectorStore extends AbstractObservationVectorStore impleme
 	private void executeBatchUpdate(String sql, List<String> params) {
 		try (Connection connection = dataSource.getConnection();
 				PreparedStatement pstmt = connection.prepareStatement(sql)) {
-			for (String param : params) {
-				pstmt.setLong(1, Long.parseLong(param));
+			for (int i = 0; i < params.size(); i++) {
+				pstmt.setString(1, params.get(i));
 				pstmt.addBatch();
+				if ((i + 1) % this.batchSize == 0) {
+					pstmt.executeBatch();
+				}
+			}
+			if (params.size() % this.batchSize != 0) {
+				pstmt.executeBatch();
 			}
-			pstmt.executeBatch();
 		}
 		catch (SQLException e) {
 			logger.error("Batch SQL execution failed", e);
@@ -265,6 +299,10 @@ public class OceanBaseVectorStore extends AbstractObservationVectorStore impleme
 
 		private Double defaultSimilarityThreshold = DEFAULT_SIMILARITY_THRESHOLD;
 
+		private int batchSize = DEFAULT_BATCH_SIZE;
+
+		private boolean compactMetadata = false;
+
 		private Builder(String tableName, DataSource dataSource, EmbeddingModel embeddingModel) {
 			super(embeddingModel);
 			Assert.notNull(tableName, "Table name must not be null");
@@ -286,6 +324,33 @@ public class OceanBaseVectorStore extends AbstractObservationVectorStore impleme
 			return this;
 		}
 
+		/**
+		 * Sets how many rows are sent in one JDBC batch on add and delete. Without
+		 * {@code rewriteBatchedStatements=true} on the JDBC url the driver still sends
+		 * one statement per row, the auto-configuration appends it only when
+		 * {@code spring.ai.vectorstore.oceanbase.rewrite-batched-statements} is enabled.
+		 * @param batchSize the number of rows per batch
+		 * @return the builder
+		 */
+		public Builder batchSize(int batchSize) {
+			Assert.isTrue(batchSize > 0, "The batchSize should be positive value.");
+			this.batchSize = batchSize;
+			return this;
+		}
+
+		/**
+		 * Stores the document metadata as plain JSON in the metadata column and reads the
+		 * content from the description column, instead of the legacy layout that nests
+		 * the metadata as a JSON string next to a copy of the content. Tables written in
+		 * the legacy layout must keep this off.
+		 * @param compactMetadata whether to use the compact layout
+		 * @return the builder
+		 */
+		public Builder compactMetadata(boolean compactMetadata) {
+			this.compactMetadata = compactMetadata;
+			return this;
+		}
+
 		@Override
 		public OceanBaseVectorStore build() {
 			try {
@@ -48,12 +48,20 @@ public class OceanBaseVectorStoreAutoConfiguration {
 	@ConditionalOnMissingBean
 	public DataSource oceanbaseDataSource(OceanBaseVectorStoreProperties properties) {
 		DriverManagerDataSource dataSource = new DriverManagerDataSource();
-		dataSource.setUrl(properties.getUrl());
+		dataSource.setUrl(jdbcUrl(properties));
 		dataSource.setUsername(properties.getUsername());
 		dataSource.setPassword(properties.getPassword());
 		return dataSource;
 	}
 
+	static String jdbcUrl(OceanBaseVectorStoreProperties properties) {
+		String url = properties.getUrl();
+		if (url == null || !properties.isRewriteBatchedStatements() || url.contains("rewriteBatchedStatements")) {
+			return url;
+		}
+		return url + (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+	}
+
 	@Bean
 	@ConditionalOnMissingBean(BatchingStrategy.class)
 	public BatchingStrategy oceanbaseBatchingStrategy() {
@@ -69,6 +77,8 @@ public class OceanBaseVectorStoreAutoConfiguration {
 
 		var builder = OceanBaseVectorStore.builder(properties.getTableName(), dataSource, embeddingModel)
 			.batchingStrategy(batchingStrategy)
+			.batchSize(properties.getBatchSize())
+			.compactMetadata(properties.isCompactMetadata())
 			.observationRegistry(observationRegistry.getIfUnique(() -> ObservationRegistry.NOOP))
 			.customObservationConvention(customObservationConvention.getIfAvailable(() -> null));
 		if (properties.getDefaultTopK() >= 0) {
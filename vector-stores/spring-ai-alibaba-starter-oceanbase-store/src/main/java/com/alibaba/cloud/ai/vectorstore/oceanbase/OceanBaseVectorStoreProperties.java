@@ -42,13 +42,30 @@ public class OceanBaseVectorStoreProperties {
 
 	private Double defaultSimilarityThreshold = -1.0;
 
-	@ConstructorBinding
+	private final int batchSize; // Rows per JDBC batch on add and delete
+
+	// Append rewriteBatchedStatements=true to the url so each batch is sent as one
+	// multi-row statement, off by default because it changes the driver's batch results
+	private final boolean rewriteBatchedStatements;
+
+	private final boolean compactMetadata; // Store metadata as plain JSON
+
 	public OceanBaseVectorStoreProperties(String url, String username, String password, String tableName,
 			Integer vectordimnum, boolean enabled) {
+		this(url, username, password, tableName, vectordimnum, enabled, null, null, null);
+	}
+
+	@ConstructorBinding
+	public OceanBaseVectorStoreProperties(String url, String username, String password, String tableName,
+			Integer vectordimnum, boolean enabled, Integer batchSize, Boolean rewriteBatchedStatements,
+			Boolean compactMetadata) {
 		this.url = url;
 		this.username = username;
 		this.password = password;
 		this.tableName = tableName;
+		this.batchSize = batchSize != null ? batchSize : OceanBaseVectorStore.DEFAULT_BATCH_SIZE;
+		this.rewriteBatchedStatements = rewriteBatchedStatements != null && rewriteBatchedStatements;
+		this.compactMetadata = compactMetadata != null && compactMetadata;
 	}
 
 	// Getters
@@ -76,4 +93,16 @@ public class OceanBaseVectorStoreProperties {
 		return defaultSimilarityThreshold;
 	}
 
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	public boolean isRewriteBatchedStatements() {
+		return rewriteBatchedStatements;
+	}
+
+	public boolean isCompactMetadata() {
+		return compactMetadata;
+	}
+
 }
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.vectorstore.oceanbase;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the statements {@link OceanBaseVectorStore} sends, run against a mocked
+ * JDBC driver.
+ */
+class OceanBaseVectorStoreTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	private DataSource dataSource;
+
+	private PreparedStatement statement;
+
+	private EmbeddingModel embeddingModel;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		dataSource = mock(DataSource.class);
+		Connection connection = mock(Connection.class);
+		statement = mock(PreparedStatement.class);
+		embeddingModel = mock(EmbeddingModel.class);
+		when(dataSource.getConnection()).thenReturn(connection);
+		when(connection.prepareStatement(anyString())).thenReturn(statement);
+		when(embeddingModel.embed(anyList(), any(), any())).thenAnswer(invocation -> {
+			List<float[]> embeddings = new ArrayList<>();
+			for (int i = 0; i < invocation.<List<?>>getArgument(0).size(); i++) {
+				embeddings.add(new float[] { i, 0.5f });
+			}
+			return embeddings;
+		});
+		when(embeddingModel.embed(anyString())).thenReturn(new float[] { 0.25f, 1.0f });
+	}
+
+	private OceanBaseVectorStore store(int batchSize, boolean compactMetadata) {
+		return OceanBaseVectorStore.builder("Docs", dataSource, embeddingModel)
+			.batchSize(batchSize)
+			.compactMetadata(compactMetadata)
+			.build();
+	}
+
+	private static List<Document> documents(int count) {
+		List<Document> documents = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			documents.add(new Document("doc-" + i, "text " + i, Map.of("n", i)));
+		}
+		return documents;
+	}
+
+	@Test
+	void addSendsRowsInBatchesOfBatchSize() throws Exception {
+		store(2, false).add(documents(5));
+
+		verify(statement, times(5)).addBatch();
+		verify(statement, times(3)).executeBatch();
+		verify(statement).setString(2, "[0.0,0.5]");
+		verify(statement).setString(2, "[4.0,0.5]");
+	}
+
+	@Test
+	void addExecutesOnceWhenDocumentsFillTheLastBatch() throws Exception {
+		store(2, false).add(documents(4));
+
+		verify(statement, times(4)).addBatch();
+		verify(statement, times(2)).executeBatch();
+	}
+
+	@Test
+	void deleteBindsIdsAsStrings() throws Exception {
+		store(2, false).delete(List.of("doc-a", "doc-b", "doc-c"));
+
+		verify(statement).setString(1, "doc-a");
+		verify(statement).setString(1, "doc-b");
+		verify(statement).setString(1, "doc-c");
+		verify(statement, never()).setLong(eq(1), any(Long.class));
+		verify(statement, times(2)).executeBatch();
+	}
+
+	@Test
+	void searchOrdersByComputedDistanceAndBindsQueryOnce() throws Exception {
+		Connection connection = dataSource.getConnection();
+		ResultSet resultSet = mock(ResultSet.class);
+		when(statement.executeQuery()).thenReturn(resultSet);
+		when(resultSet.next()).thenReturn(false);
+
+		store(2, false).similaritySearch(SearchRequest.builder().query("q").topK(3).build());
+
+		ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+		verify(connection).prepareStatement(sql.capture());
+		assertThat(sql.getValue()).isEqualTo("SELECT id, description, metadata, l2_distance(vector, ?) AS distance "
+				+ "FROM docs ORDER BY distance ASC LIMIT ?");
+		verify(statement).setString(1, "[0.25,1.0]");
+		verify(statement).setInt(2, 3);
+	}
+
+	@Test
+	void compactMetadataIsWrittenAsPlainJsonAndReadBack() throws Exception {
+		OceanBaseVectorStore store = store(10, true);
+		store.add(List.of(new Document("doc-1", "hello", Map.of("source", "a.txt"))));
+
+		ArgumentCaptor<String> metadata = ArgumentCaptor.forClass(String.class);
+		verify(statement).setString(eq(4), metadata.capture());
+		assertThat(objectMapper.readValue(metadata.getValue(), Map.class))
+			.containsExactly(Map.entry("source", "a.txt"));
+
+		ResultSet resultSet = mock(ResultSet.class);
+		when(statement.executeQuery()).thenReturn(resultSet);
+		when(resultSet.next()).thenReturn(true, false);
+		when(resultSet.getString("id")).thenReturn("doc-1");
+		when(resultSet.getString("description")).thenReturn("hello");
+		when(resultSet.getString("metadata")).thenReturn(metadata.getValue());
+		when(resultSet.getString("distance")).thenReturn("0.5");
+
+		List<Document> found = store.similaritySearch(SearchRequest.builder().query("q").build());
+
+		assertThat(found).singleElement().satisfies(doc -> {
+			assertThat(doc.getId()).isEqualTo("doc-1");
+			assertThat(doc.getText()).isEqualTo("hello");
+			assertThat(doc.getMetadata()).containsEntry("source", "a.txt").containsEntry("distance", "0.5");
+		});
+	}
+
+	@Test
+	void legacyMetadataNestsMetadataNextToContent() throws Exception {
+		store(10, false).add(List.of(new Document("doc-1", "hello", Map.of("source", "a.txt"))));
+
+		ArgumentCaptor<String> metadata = ArgumentCaptor.forClass(String.class);
+		verify(statement).setString(eq(4), metadata.capture());
+		Map<String, Object> stored = objectMapper.readValue(metadata.getValue(), new TypeReference<>() {
+		});
+		assertThat(stored).containsEntry("content", "hello").containsEntry("refDocId", "doc-1");
+		assertThat(objectMapper.readValue((String) stored.get("metadata"), Map.class))
+			.containsExactly(Map.entry("source", "a.txt"));
+	}
+
+	@Test
+	void rewriteBatchedStatementsIsOnlyAppendedWhenEnabled() {
+		String url = "jdbc:oceanbase://localhost:2881/test";
+		assertThat(OceanBaseVectorStoreAutoConfiguration.jdbcUrl(properties(url, null))).isEqualTo(url);
+		assertThat(OceanBaseVectorStoreAutoConfiguration.jdbcUrl(properties(url, true)))
+			.isEqualTo(url + "?rewriteBatchedStatements=true");
+		assertThat(OceanBaseVectorStoreAutoConfiguration.jdbcUrl(properties(url + "?useSSL=false", true)))
+			.isEqualTo(url + "?useSSL=false&rewriteBatchedStatements=true");
+	}
+
+	private static OceanBaseVectorStoreProperties properties(String url, Boolean rewriteBatchedStatements) {
+		return new OceanBaseVectorStoreProperties(url, "root", "", "docs", 384, true, null, rewriteBatchedStatements,
+				null);
+	}
+
+}
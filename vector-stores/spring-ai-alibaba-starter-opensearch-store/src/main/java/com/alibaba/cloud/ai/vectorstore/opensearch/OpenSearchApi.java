@@ -155,6 +155,53 @@ public class OpenSearchApi {
 		}
 	}
 
+	/**
+	 * Pushes a batch of add and delete commands to the specified OpenSearch table in a
+	 * single request. The push API applies a request as a whole.
+	 * @param tableName The name of the OpenSearch table.
+	 * @param pKField The primary key field of the documents.
+	 * @param documents The commands to push, each a map with a {@code cmd} and its
+	 * {@code fields}.
+	 * @throws ThrottledException If the instance throttled the push, it may succeed when
+	 * sent again later.
+	 * @throws RuntimeException If the push fails for any other reason.
+	 */
+	public void pushDocuments(String tableName, String pKField, List<Map<String, ?>> documents) {
+		PushDocumentsRequest request = new PushDocumentsRequest();
+		request.setBody(documents);
+
+		ResponseBody responseBody;
+		try {
+			PushDocumentsResponse response = client.pushDocuments(getFullTableName(tableName), pKField, request);
+			responseBody = new ResponseBody(response.getBody());
+		}
+		catch (Exception e) {
+			String error = "OpenSearch push Documents failed. Error message:" + e.getMessage();
+			throw isThrottled(e.getMessage()) ? new ThrottledException(error, e) : new RuntimeException(error, e);
+		}
+		if (!responseBody.isSuccess()) {
+			String error = String.format("OpenSearch push Documents failed. Error code: %s. Error message: %s",
+					responseBody.errorCode,
+					Optional.ofNullable(responseBody.errorMessage).orElse("No error message provided"));
+			throw responseBody.isThrottled() ? new ThrottledException(error, null) : new RuntimeException(error);
+		}
+	}
+
+	private static boolean isThrottled(String message) {
+		return message != null && (message.contains("429") || message.contains("Throttling"));
+	}
+
+	/**
+	 * Thrown when the instance throttles a push, which may succeed when sent again later.
+	 */
+	public static class ThrottledException extends RuntimeException {
+
+		public ThrottledException(String message, Throwable cause) {
+			super(message, cause);
+		}
+
+	}
+
 	/**
 	 * Executes a search query and returns a list of objects of the specified type.
 	 * @param queryRequest The query request containing the search parameters.
@@ -232,6 +279,8 @@ public class OpenSearchApi {
 
 		private static final Integer SUCCESS_CODE = 200;
 
+		private static final Integer THROTTLED_CODE = 429;
+
 		/**
 		 * Constructs a ResponseBody instance from a JSON string.
 		 * @param pushDocumentsResponseBodyString The JSON string representing the
@@ -266,6 +315,14 @@ public class OpenSearchApi {
 		public boolean isSuccess() {
 			return SUCCESS_CODE.equals(code);
 		}
+
+		/**
+		 * Checks if the request was rejected because the instance is throttling writes.
+		 * @return true if the request may succeed when retried later.
+		 */
+		public boolean isThrottled() {
+			return THROTTLED_CODE.equals(code) || OpenSearchApi.isThrottled(errorCode);
+		}
 	}
 
 	/**
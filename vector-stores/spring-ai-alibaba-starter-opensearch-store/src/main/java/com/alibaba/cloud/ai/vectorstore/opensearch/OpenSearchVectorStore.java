@@ -15,6 +15,7 @@
  */
 package com.alibaba.cloud.ai.vectorstore.opensearch;
 
+import com.alibaba.cloud.ai.vectorstore.ConcurrentBatchWriter;
 import com.aliyun.ha3engine.vector.models.QueryRequest;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -25,6 +26,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.embedding.BatchingStrategy;
 import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
 import org.springframework.ai.embedding.TokenCountBatchingStrategy;
 import org.springframework.ai.observation.conventions.VectorStoreProvider;
 import org.springframework.ai.observation.conventions.VectorStoreSimilarityMetric;
@@ -36,7 +38,9 @@ import org.springframework.ai.vectorstore.observation.VectorStoreObservationConv
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -67,6 +71,11 @@ public class OpenSearchVectorStore extends AbstractObservationVectorStore implem
 	 */
 	private static final String METADATA_FIELD_NAME = "metadata";
 
+	/**
+	 * Estimated size of the JSON around the fields of one pushed command.
+	 */
+	private static final int COMMAND_OVERHEAD_BYTES = 64;
+
 	/**
 	 * The API client used to interact with OpenSearch.
 	 */
@@ -95,6 +104,11 @@ public class OpenSearchVectorStore extends AbstractObservationVectorStore implem
 
 	private final ObjectMapper objectMapper = new ObjectMapper();
 
+	/**
+	 * Sends the push requests of all adds and deletes, retrying throttled ones.
+	 */
+	private final ConcurrentBatchWriter batchWriter;
+
 	/**
 	 * Constructs a new instance of OpenSearchVectorStore with the specified parameters.
 	 * @param openSearchApi The API client used to interact with OpenSearch.
@@ -137,6 +151,8 @@ public class OpenSearchVectorStore extends AbstractObservationVectorStore implem
 		this.openSearchApi = builder.openSearchApi;
 		this.embeddingModel = builder.getEmbeddingModel();
 		this.batchingStrategy = builder.batchingStrategy;
+		this.batchWriter = new ConcurrentBatchWriter("opensearch-push", this.options.getBulkConcurrency(),
+				this.options.getBulkMaxRetries(), e -> e instanceof OpenSearchApi.ThrottledException);
 	}
 
 	/**
@@ -151,35 +167,40 @@ public class OpenSearchVectorStore extends AbstractObservationVectorStore implem
 
 	@Override
 	public void doAdd(List<Document> documents) {
-		for (Document document : documents) {
-			/*
-			 * Document push outer structure, can add document operation structures. The
-			 * structure supports one or more document operations.
-			 */
-			List<Map<String, ?>> documentToAdd = new ArrayList<>();
-			Map<String, Object> documentMap = new HashMap<>();
-			Map<String, Object> documentFields = new HashMap<>();
-
+		String vectorField = this.options.getVectorField();
+		List<float[]> embeddings = StringUtils.hasText(vectorField)
+				? this.embeddingModel.embed(documents, EmbeddingOptions.builder().build(), this.batchingStrategy)
+				: null;
+
+		List<Map<String, ?>> documentsToAdd = new ArrayList<>(documents.size());
+		int[] sizes = new int[documents.size()];
+		for (int i = 0; i < documents.size(); i++) {
+			Document document = documents.get(i);
 			// Insert document content information, key-value pairs matching.
 			// The field_pk field must be consistent with the pkField configuration.
+			Map<String, Object> documentFields = new HashMap<>();
 			documentFields.put(ID_FIELD_NAME, document.getId());
 			documentFields.put(CONTENT_FIELD_NAME, document.getText());
 			// Convert metadata to JSON
+			String metadata;
 			try {
-				documentFields.put(METADATA_FIELD_NAME, objectMapper.writeValueAsString(document.getMetadata()));
+				metadata = objectMapper.writeValueAsString(document.getMetadata());
 			}
 			catch (JsonProcessingException e) {
 				throw new RuntimeException("Failed to serialize JSON", e);
 			}
+			documentFields.put(METADATA_FIELD_NAME, metadata);
+			int vectorSize = 0;
+			if (embeddings != null) {
+				documentFields.put(vectorField, embeddings.get(i));
+				vectorSize = embeddings.get(i).length * 12;
+			}
 
-			// Add document content to documentEntry structure.
-			documentMap.put("fields", documentFields);
-			// New document command: add
-			documentMap.put("cmd", "add");
-			documentToAdd.add(documentMap);
-
-			openSearchApi.uploadDocument(this.options.getTableName(), this.options.getPrimaryKeyField(), documentToAdd);
+			documentsToAdd.add(Map.of("fields", documentFields, "cmd", "add"));
+			sizes[i] = COMMAND_OVERHEAD_BYTES + utf8Length(document.getId()) + utf8Length(document.getText())
+					+ utf8Length(metadata) + vectorSize;
 		}
+		push(documentsToAdd, sizes);
 	}
 
 	/**
@@ -187,19 +208,48 @@ public class OpenSearchVectorStore extends AbstractObservationVectorStore implem
 	 */
 	@Override
 	public void doDelete(List<String> idList) {
-		for (String id : idList) {
-			List<Map<String, ?>> documentToDelete = new ArrayList<>();
-			Map<String, Object> documentMap = new HashMap<>();
-			Map<String, Object> documentFields = new HashMap<>();
-
-			documentFields.put(this.options.getPrimaryKeyField(), id);
-			documentMap.put("fields", documentFields);
-			documentMap.put("cmd", "delete");
-			documentToDelete.add(documentMap);
+		List<Map<String, ?>> documentsToDelete = new ArrayList<>(idList.size());
+		int[] sizes = new int[idList.size()];
+		for (int i = 0; i < idList.size(); i++) {
+			String id = idList.get(i);
+			documentsToDelete.add(Map.of("fields", Map.of(this.options.getPrimaryKeyField(), id), "cmd", "delete"));
+			sizes[i] = COMMAND_OVERHEAD_BYTES + utf8Length(id);
+		}
+		push(documentsToDelete, sizes);
+	}
 
-			openSearchApi.deleteDocument(this.options.getTableName(), this.options.getPrimaryKeyField(),
-					documentToDelete);
+	/**
+	 * Pushes the commands in chunks bounded by document count and estimated body size,
+	 * keeping up to {@code bulkConcurrency} push requests of the store in flight. A
+	 * throttled push is sent again, up to {@code bulkMaxRetries} times.
+	 * @param commands the add or delete commands
+	 * @param sizes the estimated serialized size of each command
+	 */
+	private void push(List<Map<String, ?>> commands, int[] sizes) {
+		List<List<Map<String, ?>>> chunks = new ArrayList<>();
+		int from = 0;
+		long bytes = 0;
+		for (int i = 0; i < commands.size(); i++) {
+			if (i > from && (i - from >= this.options.getBulkMaxDocuments()
+					|| bytes + sizes[i] > this.options.getBulkMaxBytes())) {
+				chunks.add(commands.subList(from, i));
+				from = i;
+				bytes = 0;
+			}
+			bytes += sizes[i];
+		}
+		if (from < commands.size()) {
+			chunks.add(commands.subList(from, commands.size()));
 		}
+
+		this.batchWriter.writeAll(chunks, chunk -> {
+			openSearchApi.pushDocuments(this.options.getTableName(), this.options.getPrimaryKeyField(), chunk);
+			return List.of();
+		});
+	}
+
+	private static int utf8Length(String text) {
+		return text == null ? 0 : text.getBytes(StandardCharsets.UTF_8).length;
 	}
 
 	/**
@@ -218,8 +268,21 @@ public class OpenSearchVectorStore extends AbstractObservationVectorStore implem
 		queryRequest.setTableName(this.options.getTableName()); // Required, the name of
 		// the table to
 		// query
-		queryRequest.setContent(request.getQuery());
-		queryRequest.setModal("text"); // Required, used for vectorizing the query term
+		if (StringUtils.hasText(this.options.getVectorField())) {
+			// documents were embedded client side, so the query has to be as well
+			float[] embedding = this.embeddingModel.embed(request.getQuery());
+			List<Float> vector = new ArrayList<>(embedding.length);
+			for (float value : embedding) {
+				vector.add(value);
+			}
+			queryRequest.setIndexName(this.options.getIndex());
+			queryRequest.setVector(vector);
+		}
+		else {
+			queryRequest.setContent(request.getQuery());
+			queryRequest.setModal("text"); // Required, used for vectorizing the query
+											// term
+		}
 		queryRequest.setTopK(request.getTopK()); // number of results to return
 		queryRequest.setOutputFields(this.options.getOutputFields());
 
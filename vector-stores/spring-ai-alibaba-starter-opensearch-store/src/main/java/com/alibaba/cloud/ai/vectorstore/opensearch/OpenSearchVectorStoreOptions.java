@@ -33,6 +33,14 @@ public class OpenSearchVectorStoreOptions {
 
 	public static final List<String> DEFAULT_OUTPUT_FIELDS = List.of("content", "metadata");
 
+	public static final int DEFAULT_BULK_MAX_DOCUMENTS = 500;
+
+	public static final int DEFAULT_BULK_MAX_BYTES = 2 * 1024 * 1024;
+
+	public static final int DEFAULT_BULK_CONCURRENCY = 4;
+
+	public static final int DEFAULT_BULK_MAX_RETRIES = 3;
+
 	public String getMappingJson() {
 		return mappingJson;
 	}
@@ -106,6 +114,34 @@ public class OpenSearchVectorStoreOptions {
 	 */
 	private int dimensions = 1536;
 
+	/**
+	 * The vector field written on add. When set, documents are embedded client side with
+	 * the configured embedding model and searched by vector; when empty, the instance
+	 * vectorizes the content field itself.
+	 */
+	private String vectorField;
+
+	/**
+	 * The maximum number of documents in one push request.
+	 */
+	private int bulkMaxDocuments = DEFAULT_BULK_MAX_DOCUMENTS;
+
+	/**
+	 * The approximate maximum body size of one push request, in bytes.
+	 */
+	private int bulkMaxBytes = DEFAULT_BULK_MAX_BYTES;
+
+	/**
+	 * The maximum number of push requests the store has in flight, shared by concurrent
+	 * adds and deletes.
+	 */
+	private int bulkConcurrency = DEFAULT_BULK_CONCURRENCY;
+
+	/**
+	 * How many times a throttled push request is retried, with exponential backoff.
+	 */
+	private int bulkMaxRetries = DEFAULT_BULK_MAX_RETRIES;
+
 	public boolean isInitializeSchema() {
 		return initializeSchema;
 	}
@@ -156,4 +192,44 @@ public class OpenSearchVectorStoreOptions {
 		this.dimensions = dims;
 	}
 
+	public String getVectorField() {
+		return vectorField;
+	}
+
+	public void setVectorField(String vectorField) {
+		this.vectorField = vectorField;
+	}
+
+	public int getBulkMaxDocuments() {
+		return bulkMaxDocuments;
+	}
+
+	public void setBulkMaxDocuments(int bulkMaxDocuments) {
+		this.bulkMaxDocuments = bulkMaxDocuments;
+	}
+
+	public int getBulkMaxBytes() {
+		return bulkMaxBytes;
+	}
+
+	public void setBulkMaxBytes(int bulkMaxBytes) {
+		this.bulkMaxBytes = bulkMaxBytes;
+	}
+
+	public int getBulkConcurrency() {
+		return bulkConcurrency;
+	}
+
+	public void setBulkConcurrency(int bulkConcurrency) {
+		this.bulkConcurrency = bulkConcurrency;
+	}
+
+	public int getBulkMaxRetries() {
+		return bulkMaxRetries;
+	}
+
+	public void setBulkMaxRetries(int bulkMaxRetries) {
+		this.bulkMaxRetries = bulkMaxRetries;
+	}
+
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.vectorstore.opensearch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class OpenSearchVectorStoreTest {
+
+	private final OpenSearchApi openSearchApi = mock(OpenSearchApi.class);
+
+	private final List<List<String>> pushedIds = new CopyOnWriteArrayList<>();
+
+	private final OpenSearchVectorStoreOptions options = new OpenSearchVectorStoreOptions();
+
+	@BeforeEach
+	void setUp() {
+		options.setTableName("table");
+		options.setPrimaryKeyField("id");
+	}
+
+	@Test
+	void pushesChunksBoundedByDocumentCount() {
+		options.setBulkMaxDocuments(2);
+		recordPushes(chunk -> {
+		});
+
+		store().add(documents(5));
+
+		assertThat(pushedIds).hasSize(3);
+		assertThat(pushedIds).flatExtracting(ids -> ids)
+			.containsExactlyInAnyOrder("doc-0", "doc-1", "doc-2", "doc-3", "doc-4");
+		assertThat(pushedIds).allMatch(ids -> ids.size() <= 2);
+	}
+
+	@Test
+	void pushesChunksBoundedByEstimatedBytes() {
+		options.setBulkMaxBytes(300);
+		recordPushes(chunk -> {
+		});
+
+		store().add(documents(4));
+
+		// every command is estimated at 89 bytes, so three fit in one push
+		assertThat(pushedIds).extracting(List::size).containsExactlyInAnyOrder(3, 1);
+	}
+
+	@Test
+	void retriesThrottledPushes() {
+		AtomicInteger calls = new AtomicInteger();
+		recordPushes(chunk -> {
+			if (calls.incrementAndGet() == 1) {
+				throw new OpenSearchApi.ThrottledException("Throttling", null);
+			}
+		});
+
+		store().delete(List.of("doc-0", "doc-1"));
+
+		assertThat(calls).hasValue(2);
+		assertThat(pushedIds).containsExactly(List.of("doc-0", "doc-1"), List.of("doc-0", "doc-1"));
+	}
+
+	@Test
+	void failsOnOtherErrorsAfterPushingTheRemainingChunks() {
+		options.setBulkMaxDocuments(1);
+		AtomicInteger calls = new AtomicInteger();
+		recordPushes(chunk -> {
+			calls.incrementAndGet();
+			if (chunk.contains("doc-1")) {
+				throw new RuntimeException("OpenSearch push Documents failed. Error code: InvalidParameter");
+			}
+		});
+
+		assertThatThrownBy(() -> store().delete(List.of("doc-0", "doc-1", "doc-2")))
+			.hasMessageContaining("InvalidParameter");
+		// a permanent failure is not retried, the other chunks are still pushed
+		assertThat(calls).hasValue(3);
+	}
+
+	private OpenSearchVectorStore store() {
+		return OpenSearchVectorStore.builder(openSearchApi, mock(EmbeddingModel.class)).options(options).build();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void recordPushes(PushHandler handler) {
+		doAnswer(invocation -> {
+			List<Map<String, ?>> commands = invocation.getArgument(2);
+			List<String> ids = commands.stream()
+				.map(command -> (String) ((Map<String, Object>) command.get("fields")).get("id"))
+				.toList();
+			pushedIds.add(ids);
+			handler.push(ids);
+			return null;
+		}).when(openSearchApi).pushDocuments(eq("table"), eq("id"), anyList());
+	}
+
+	private static List<Document> documents(int count) {
+		return IntStream.range(0, count)
+			.mapToObj(i -> new Document("doc-" + i, "content " + i, Map.of("index", i)))
+			.toList();
+	}
+
+	private interface PushHandler {
+
+		void push(List<String> ids);
+
+	}
+
+}
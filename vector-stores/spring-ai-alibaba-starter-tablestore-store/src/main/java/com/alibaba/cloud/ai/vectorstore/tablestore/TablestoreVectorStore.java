@@ -15,6 +15,13 @@
  */
 package com.alibaba.cloud.ai.vectorstore.tablestore;
 
+import com.alibaba.cloud.ai.vectorstore.ConcurrentBatchWriter;
+import com.alicloud.openservices.tablestore.ClientException;
+import com.alicloud.openservices.tablestore.TableStoreException;
+import com.alicloud.openservices.tablestore.model.BatchWriteRowRequest;
+import com.alicloud.openservices.tablestore.model.BatchWriteRowResponse;
+import com.alicloud.openservices.tablestore.model.Error;
+import com.alicloud.openservices.tablestore.model.RowChange;
 import com.aliyun.openservices.tablestore.agent.knowledge.KnowledgeStoreImpl;
 import com.aliyun.openservices.tablestore.agent.model.DocumentHit;
 import com.aliyun.openservices.tablestore.agent.model.Response;
@@ -41,14 +48,34 @@ import java.util.Set;
  */
 public class TablestoreVectorStore extends AbstractObservationVectorStore implements InitializingBean {
 
+	public static final int DEFAULT_MAX_CONCURRENT_WRITES = 8;
+
+	public static final int DEFAULT_MAX_RETRIES = 3;
+
+	/**
+	 * The most rows Tablestore accepts in one BatchWriteRow request.
+	 */
+	public static final int MAX_ROWS_PER_BATCH = 200;
+
+	/**
+	 * Tablestore error codes that are worth retrying.
+	 */
+	private static final Set<String> RETRYABLE_ERROR_CODES = Set.of("OTSServerBusy", "OTSQuotaExhausted", "OTSTimeout",
+			"OTSInternalServerError", "OTSServerUnavailable", "OTSPartitionUnavailable", "OTSTableNotReady",
+			"OTSRowOperationConflict", "OTSNotEnoughCapacityUnit", "OTSCapacityUnitExhausted");
+
 	private final KnowledgeStoreImpl knowledgeStore;
 
 	private final boolean initializeTable;
 
+	private final ConcurrentBatchWriter batchWriter;
+
 	protected TablestoreVectorStore(Builder builder) {
 		super(builder);
 		this.knowledgeStore = builder.knowledgeStore;
 		this.initializeTable = builder.initializeTable;
+		this.batchWriter = new ConcurrentBatchWriter("tablestore-write", builder.maxConcurrentWrites,
+				builder.maxRetries, TablestoreVectorStore::isRetryable);
 	}
 
 	@Override
@@ -56,19 +83,68 @@ public class TablestoreVectorStore extends AbstractObservationVectorStore implem
 		List<float[]> embeddings = this.embeddingModel.embed(documents, EmbeddingOptions.builder().build(),
 				this.batchingStrategy);
 
+		// convert everything first, so an invalid document fails the call before any
+		// write
+		List<RowChange> rows = new ArrayList<>(documents.size());
 		for (int i = 0; i < documents.size(); i++) {
-			Document document = documents.get(i);
-			float[] embedding = embeddings.get(i);
-			knowledgeStore
-				.putDocument(Utils.toTablestoreDocument(knowledgeStore.enableMultiTenant(), embedding, document));
+			rows.add(Utils.toRowPutChange(knowledgeStore, Utils.toTablestoreDocument(knowledgeStore.enableMultiTenant(),
+					embeddings.get(i), documents.get(i))));
 		}
+		writeRows(rows);
 	}
 
 	@Override
 	public void doDelete(List<String> idList) {
+		if (knowledgeStore.enableMultiTenant()) {
+			// the tenants of the documents are not known, let the knowledge store look
+			// them up
+			idList.forEach(knowledgeStore::deleteDocument);
+			return;
+		}
+		List<RowChange> rows = new ArrayList<>(idList.size());
 		for (String id : idList) {
-			knowledgeStore.deleteDocument(id);
+			rows.add(Utils.toRowDeleteChange(knowledgeStore, id));
+		}
+		writeRows(rows);
+	}
+
+	private void writeRows(List<RowChange> rows) {
+		if (rows.isEmpty()) {
+			return;
+		}
+		this.batchWriter.writeAll(ConcurrentBatchWriter.chunks(rows, MAX_ROWS_PER_BATCH), this::batchWriteRow);
+	}
+
+	/**
+	 * Sends the rows in one BatchWriteRow request.
+	 * @return the rows that failed with a transient error, a row that failed otherwise
+	 * fails the call
+	 */
+	private List<RowChange> batchWriteRow(List<RowChange> rows) {
+		BatchWriteRowRequest request = new BatchWriteRowRequest();
+		rows.forEach(request::addRowChange);
+		BatchWriteRowResponse response = this.knowledgeStore.getClient().batchWriteRow(request);
+		if (response.isAllSucceed()) {
+			return List.of();
+		}
+		List<RowChange> retryable = new ArrayList<>();
+		for (BatchWriteRowResponse.RowResult failed : response.getFailedRows()) {
+			Error error = failed.getError();
+			if (!RETRYABLE_ERROR_CODES.contains(error.getCode())) {
+				throw new IllegalStateException("Failed to write row " + failed.getIndex() + " of " + rows.size()
+						+ " to Tablestore: " + error.getCode() + " " + error.getMessage());
+			}
+			retryable.add(rows.get(failed.getIndex()));
 		}
+		return retryable;
+	}
+
+	private static boolean isRetryable(Exception e) {
+		if (e instanceof ClientException) {
+			return true;
+		}
+		return e instanceof TableStoreException tableStoreException
+				&& RETRYABLE_ERROR_CODES.contains(tableStoreException.getErrorCode());
 	}
 
 	@Override
@@ -131,6 +207,10 @@ public class TablestoreVectorStore extends AbstractObservationVectorStore implem
 
 		private boolean initializeTable = false;
 
+		private int maxConcurrentWrites = DEFAULT_MAX_CONCURRENT_WRITES;
+
+		private int maxRetries = DEFAULT_MAX_RETRIES;
+
 		public Builder(KnowledgeStoreImpl knowledgeStore, EmbeddingModel embeddingModel) {
 			super(embeddingModel);
 			this.knowledgeStore = knowledgeStore;
@@ -141,6 +221,26 @@ public class TablestoreVectorStore extends AbstractObservationVectorStore implem
 			return this;
 		}
 
+		/**
+		 * Sets how many BatchWriteRow requests the store keeps in flight at once, shared
+		 * by all of its adds and deletes.
+		 */
+		public Builder maxConcurrentWrites(int maxConcurrentWrites) {
+			Assert.isTrue(maxConcurrentWrites > 0, "maxConcurrentWrites must be positive");
+			this.maxConcurrentWrites = maxConcurrentWrites;
+			return this;
+		}
+
+		/**
+		 * Sets how many times the rows of a batch that failed with a transient error are
+		 * sent again, the rows that were written are not.
+		 */
+		public Builder maxRetries(int maxRetries) {
+			Assert.isTrue(maxRetries >= 0, "maxRetries must not be negative");
+			this.maxRetries = maxRetries;
+			return this;
+		}
+
 		@Override
 		public TablestoreVectorStore build() {
 			return new TablestoreVectorStore(this);
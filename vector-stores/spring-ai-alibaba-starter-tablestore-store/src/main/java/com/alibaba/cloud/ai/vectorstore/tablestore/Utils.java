@@ -15,14 +15,30 @@
  */
 package com.alibaba.cloud.ai.vectorstore.tablestore;
 
+import com.alicloud.openservices.tablestore.model.Column;
+import com.alicloud.openservices.tablestore.model.ColumnValue;
+import com.alicloud.openservices.tablestore.model.PrimaryKey;
+import com.alicloud.openservices.tablestore.model.PrimaryKeyBuilder;
+import com.alicloud.openservices.tablestore.model.PrimaryKeyValue;
+import com.alicloud.openservices.tablestore.model.RowDeleteChange;
+import com.alicloud.openservices.tablestore.model.RowPutChange;
+import com.aliyun.openservices.tablestore.agent.knowledge.KnowledgeStoreImpl;
 import com.aliyun.openservices.tablestore.agent.model.Document;
 import com.aliyun.openservices.tablestore.agent.model.DocumentHit;
 import com.aliyun.openservices.tablestore.agent.model.Metadata;
+import com.aliyun.openservices.tablestore.agent.util.TablestoreHelper;
 
+import java.util.List;
 import java.util.Map;
 
 class Utils {
 
+	/**
+	 * First primary key column of the knowledge store table, the second one is
+	 * {@link Document#DOCUMENT_TENANT_ID}.
+	 */
+	static final String DOCUMENT_ID_COLUMN = "document_id";
+
 	static Document toTablestoreDocument(boolean enableMultiTenant, float[] embedding,
 			org.springframework.ai.document.Document springAiDocument) {
 		if (springAiDocument.getMedia() != null) {
@@ -61,4 +77,64 @@ class Utils {
 
 	}
 
+	/**
+	 * Encodes and validates the document as {@link KnowledgeStoreImpl#putDocument} does,
+	 * so that it can be sent in a batch.
+	 */
+	static RowPutChange toRowPutChange(KnowledgeStoreImpl knowledgeStore, Document document) {
+		if (document.getDocumentId() == null) {
+			throw new IllegalArgumentException("documentId cannot be null");
+		}
+		checkDimension(knowledgeStore, document);
+		checkTenantId(knowledgeStore, document);
+		RowPutChange change = new RowPutChange(knowledgeStore.getTableName(),
+				primaryKey(document.getDocumentId(), document.getTenantId()));
+		List<Column> columns = TablestoreHelper.metadataToColumns(document.getMetadata());
+		if (document.getText() != null) {
+			columns.add(new Column(knowledgeStore.getTextField(), ColumnValue.fromString(document.getText())));
+		}
+		if (document.getEmbedding() != null) {
+			columns.add(new Column(knowledgeStore.getEmbeddingField(),
+					ColumnValue.fromString(TablestoreHelper.encodeEmbedding(document.getEmbedding()))));
+		}
+		change.addColumns(columns);
+		return change;
+	}
+
+	private static void checkDimension(KnowledgeStoreImpl knowledgeStore, Document document) {
+		Integer dimension = knowledgeStore.getEmbeddingDimension();
+		if (dimension != null && document.getEmbedding() != null && document.getEmbedding().length != dimension) {
+			throw new IllegalArgumentException("The embedding length " + document.getEmbedding().length
+					+ " of document " + document.getDocumentId() + " is not the knowledge store dimension " + dimension
+					+ ".");
+		}
+	}
+
+	private static void checkTenantId(KnowledgeStoreImpl knowledgeStore, Document document) {
+		boolean defaultTenant = document.getTenantId() == null
+				|| Document.DOCUMENT_DEFAULT_TENANT_ID.equals(document.getTenantId());
+		if (knowledgeStore.enableMultiTenant() && defaultTenant) {
+			throw new IllegalArgumentException("Multi-tenant is enabled but `tenantId` is not set.");
+		}
+		if (!knowledgeStore.enableMultiTenant() && !defaultTenant) {
+			throw new IllegalArgumentException("Multi-tenant is not enabled but `tenantId` is set.");
+		}
+	}
+
+	/**
+	 * The row {@link KnowledgeStoreImpl#deleteDocument(String)} deletes when multi-tenant
+	 * is not enabled.
+	 */
+	static RowDeleteChange toRowDeleteChange(KnowledgeStoreImpl knowledgeStore, String documentId) {
+		return new RowDeleteChange(knowledgeStore.getTableName(),
+				primaryKey(documentId, Document.DOCUMENT_DEFAULT_TENANT_ID));
+	}
+
+	private static PrimaryKey primaryKey(String documentId, String tenantId) {
+		return PrimaryKeyBuilder.createPrimaryKeyBuilder()
+			.addPrimaryKeyColumn(DOCUMENT_ID_COLUMN, PrimaryKeyValue.fromString(documentId))
+			.addPrimaryKeyColumn(Document.DOCUMENT_TENANT_ID, PrimaryKeyValue.fromString(tenantId))
+			.build();
+	}
+
 }
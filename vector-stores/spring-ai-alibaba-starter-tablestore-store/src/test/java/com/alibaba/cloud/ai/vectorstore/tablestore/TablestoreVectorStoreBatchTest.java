@@ -0,0 +1,198 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.vectorstore.tablestore;
+
+import com.alicloud.openservices.tablestore.SyncClient;
+import com.alicloud.openservices.tablestore.model.BatchWriteRowRequest;
+import com.alicloud.openservices.tablestore.model.BatchWriteRowResponse;
+import com.alicloud.openservices.tablestore.model.Column;
+import com.alicloud.openservices.tablestore.model.Error;
+import com.alicloud.openservices.tablestore.model.RowChange;
+import com.alicloud.openservices.tablestore.model.RowDeleteChange;
+import com.alicloud.openservices.tablestore.model.RowPutChange;
+import com.alicloud.openservices.tablestore.model.search.vector.VectorMetricType;
+import com.aliyun.openservices.tablestore.agent.knowledge.KnowledgeStoreImpl;
+import com.aliyun.openservices.tablestore.agent.util.TablestoreHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for how {@link TablestoreVectorStore} batches its row writes, run against a
+ * mocked client.
+ */
+class TablestoreVectorStoreBatchTest {
+
+	private SyncClient client;
+
+	private KnowledgeStoreImpl knowledgeStore;
+
+	private EmbeddingModel embeddingModel;
+
+	@BeforeEach
+	void setUp() {
+		client = mock(SyncClient.class);
+		knowledgeStore = mock(KnowledgeStoreImpl.class);
+		embeddingModel = mock(EmbeddingModel.class);
+		when(knowledgeStore.getClient()).thenReturn(client);
+		when(knowledgeStore.getTableName()).thenReturn("knowledge");
+		when(knowledgeStore.getTextField()).thenReturn("text");
+		when(knowledgeStore.getEmbeddingField()).thenReturn("embedding");
+		when(knowledgeStore.getEmbeddingMetricType()).thenReturn(VectorMetricType.COSINE);
+		when(knowledgeStore.getEmbeddingDimension()).thenReturn(2);
+		when(embeddingModel.embed(anyList(), any(), any())).thenAnswer(invocation -> {
+			List<float[]> embeddings = new ArrayList<>();
+			for (int i = 0; i < invocation.<List<?>>getArgument(0).size(); i++) {
+				embeddings.add(new float[] { i, 0.5f });
+			}
+			return embeddings;
+		});
+		BatchWriteRowResponse succeeded = succeeded();
+		when(client.batchWriteRow(any())).thenReturn(succeeded);
+	}
+
+	private TablestoreVectorStore store(int maxRetries) {
+		return TablestoreVectorStore.builder(knowledgeStore, embeddingModel)
+			.maxConcurrentWrites(2)
+			.maxRetries(maxRetries)
+			.build();
+	}
+
+	private static List<Document> documents(int count) {
+		List<Document> documents = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			documents.add(new Document("doc-" + i, "text " + i, new HashMap<>(Map.of("year", 2020 + i))));
+		}
+		return documents;
+	}
+
+	private static BatchWriteRowResponse succeeded() {
+		BatchWriteRowResponse response = mock(BatchWriteRowResponse.class);
+		when(response.isAllSucceed()).thenReturn(true);
+		return response;
+	}
+
+	private static BatchWriteRowResponse failed(int index, String code) {
+		BatchWriteRowResponse.RowResult row = mock(BatchWriteRowResponse.RowResult.class);
+		when(row.getIndex()).thenReturn(index);
+		when(row.getError()).thenReturn(new Error(code, "failed"));
+		BatchWriteRowResponse response = mock(BatchWriteRowResponse.class);
+		when(response.isAllSucceed()).thenReturn(false);
+		when(response.getFailedRows()).thenReturn(List.of(row));
+		return response;
+	}
+
+	private static List<RowChange> rows(BatchWriteRowRequest request) {
+		return request.getRowChange().get("knowledge");
+	}
+
+	private static String documentId(RowChange row) {
+		return row.getPrimaryKey().getPrimaryKeyColumn(Utils.DOCUMENT_ID_COLUMN).getValue().asString();
+	}
+
+	@Test
+	void addSendsAtMostTwoHundredRowsPerBatch() {
+		store(0).add(documents(450));
+
+		ArgumentCaptor<BatchWriteRowRequest> requests = ArgumentCaptor.forClass(BatchWriteRowRequest.class);
+		verify(client, times(3)).batchWriteRow(requests.capture());
+		assertThat(requests.getAllValues()).extracting(request -> rows(request).size())
+			.containsExactlyInAnyOrder(200, 200, 50);
+	}
+
+	@Test
+	void addEncodesDocumentsAsKnowledgeStoreRows() {
+		store(0).add(documents(1));
+
+		ArgumentCaptor<BatchWriteRowRequest> request = ArgumentCaptor.forClass(BatchWriteRowRequest.class);
+		verify(client).batchWriteRow(request.capture());
+		RowPutChange row = (RowPutChange) rows(request.getValue()).get(0);
+		assertThat(documentId(row)).isEqualTo("doc-0");
+		assertThat(row.getPrimaryKey()
+			.getPrimaryKeyColumn(com.aliyun.openservices.tablestore.agent.model.Document.DOCUMENT_TENANT_ID)
+			.getValue()
+			.asString()).isEqualTo(com.aliyun.openservices.tablestore.agent.model.Document.DOCUMENT_DEFAULT_TENANT_ID);
+		assertThat(row.getColumnsToPut()).extracting(Column::getName)
+			.containsExactlyInAnyOrder("text", "embedding", "year");
+		assertThat(row.getColumnsToPut()).filteredOn(column -> column.getName().equals("embedding"))
+			.singleElement()
+			.satisfies(column -> assertThat(column.getValue().asString()).isEqualTo(TablestoreHelper.encodeEmbedding(new float[] { 0, 0.5f })));
+		assertThat(row.getColumnsToPut()).filteredOn(column -> column.getName().equals("year"))
+			.singleElement()
+			.satisfies(column -> assertThat(column.getValue().asLong()).isEqualTo(2020L));
+	}
+
+	@Test
+	void addValidatesEveryDocumentBeforeWriting() {
+		when(knowledgeStore.getEmbeddingDimension()).thenReturn(3);
+
+		assertThatThrownBy(() -> store(0).add(documents(3))).isInstanceOf(IllegalArgumentException.class)
+			.hasMessageContaining("dimension 3");
+		verify(client, never()).batchWriteRow(any());
+	}
+
+	@Test
+	void retriesOnlyTheRowsThatFailedTransiently() {
+		BatchWriteRowResponse busy = failed(1, "OTSServerBusy");
+		BatchWriteRowResponse succeeded = succeeded();
+		when(client.batchWriteRow(any())).thenReturn(busy).thenReturn(succeeded);
+
+		store(3).add(documents(3));
+
+		ArgumentCaptor<BatchWriteRowRequest> requests = ArgumentCaptor.forClass(BatchWriteRowRequest.class);
+		verify(client, times(2)).batchWriteRow(requests.capture());
+		assertThat(rows(requests.getAllValues().get(1))).extracting(TablestoreVectorStoreBatchTest::documentId)
+			.containsExactly("doc-1");
+	}
+
+	@Test
+	void rowFailingPermanentlyFailsTheCallWithoutRetry() {
+		BatchWriteRowResponse invalid = failed(0, "OTSParameterInvalid");
+		when(client.batchWriteRow(any())).thenReturn(invalid);
+
+		assertThatThrownBy(() -> store(3).add(documents(3))).hasMessageContaining("OTSParameterInvalid");
+		verify(client, times(1)).batchWriteRow(any());
+	}
+
+	@Test
+	void deleteSendsDeleteRowsInBatches() {
+		store(0).delete(List.of("a", "b"));
+
+		ArgumentCaptor<BatchWriteRowRequest> request = ArgumentCaptor.forClass(BatchWriteRowRequest.class);
+		verify(client).batchWriteRow(request.capture());
+		assertThat(rows(request.getValue())).allMatch(RowDeleteChange.class::isInstance)
+			.extracting(TablestoreVectorStoreBatchTest::documentId)
+			.containsExactly("a", "b");
+	}
+
+}
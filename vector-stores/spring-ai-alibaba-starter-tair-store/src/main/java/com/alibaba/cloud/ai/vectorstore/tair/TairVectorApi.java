@@ -15,9 +15,16 @@
  */
 package com.alibaba.cloud.ai.vectorstore.tair;
 
+import com.aliyun.tair.ModuleCommand;
 import com.aliyun.tair.tairvector.TairVector;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * Provides an API for interacting with Tair Vector, extending the functionality of the
@@ -37,6 +44,12 @@ import redis.clients.jedis.JedisPool;
  */
 public class TairVectorApi extends TairVector {
 
+	private static final String VECTOR_KEYWORD = "VECTOR";
+
+	private final Jedis jedis;
+
+	private final JedisPool jedisPool;
+
 	/**
 	 * Constructs a new instance of the {@link TairVectorApi} class using a single Jedis
 	 * instance.
@@ -44,6 +57,8 @@ public class TairVectorApi extends TairVector {
 	 */
 	public TairVectorApi(Jedis jedis) {
 		super(jedis);
+		this.jedis = jedis;
+		this.jedisPool = null;
 	}
 
 	/**
@@ -54,6 +69,93 @@ public class TairVectorApi extends TairVector {
 	 */
 	public TairVectorApi(JedisPool jedisPool) {
 		super(jedisPool);
+		this.jedis = null;
+		this.jedisPool = jedisPool;
+	}
+
+	/**
+	 * Writes several entries to an index with {@code TVS.HSET}, sent as one pipeline over
+	 * a single connection so the whole batch costs one round trip.
+	 * @param index the index name
+	 * @param entries the entries to write
+	 * @throws redis.clients.jedis.exceptions.JedisDataException if Tair rejected an entry
+	 */
+	public void tvshsetPipelined(String index, List<HsetEntry> entries) {
+		if (entries.isEmpty()) {
+			return;
+		}
+		withJedis(connection -> {
+			Pipeline pipeline = connection.pipelined();
+			List<Response<Object>> responses = new ArrayList<>(entries.size());
+			for (HsetEntry entry : entries) {
+				String[] args = new String[4 + entry.params().length];
+				args[0] = index;
+				args[1] = entry.key();
+				args[2] = VECTOR_KEYWORD;
+				args[3] = entry.vector();
+				System.arraycopy(entry.params(), 0, args, 4, entry.params().length);
+				responses.add(pipeline.sendCommand(ModuleCommand.TVSHSET, args));
+			}
+			pipeline.sync();
+			// surfaces the first rejected entry
+			responses.forEach(Response::get);
+			return null;
+		});
+	}
+
+	/**
+	 * Deletes keys from an index, one {@code TVS.DEL} per batch of keys, all sent as one
+	 * pipeline.
+	 * @param index the index name
+	 * @param keys the keys to delete
+	 * @param batchSize most keys per {@code TVS.DEL} command
+	 * @return the number of keys deleted
+	 */
+	public long tvsdelPipelined(String index, List<String> keys, int batchSize) {
+		if (keys.isEmpty()) {
+			return 0;
+		}
+		return withJedis(connection -> {
+			Pipeline pipeline = connection.pipelined();
+			List<Response<Object>> responses = new ArrayList<>();
+			for (int from = 0; from < keys.size(); from += batchSize) {
+				List<String> batch = keys.subList(from, Math.min(keys.size(), from + batchSize));
+				String[] args = new String[batch.size() + 1];
+				args[0] = index;
+				for (int i = 0; i < batch.size(); i++) {
+					args[i + 1] = batch.get(i);
+				}
+				responses.add(pipeline.sendCommand(ModuleCommand.TVSDEL, args));
+			}
+			pipeline.sync();
+			long deleted = 0;
+			for (Response<Object> response : responses) {
+				deleted += (Long) response.get();
+			}
+			return deleted;
+		});
+	}
+
+	private <T> T withJedis(Function<Jedis, T> action) {
+		if (jedisPool != null) {
+			try (Jedis connection = jedisPool.getResource()) {
+				return action.apply(connection);
+			}
+		}
+		// a single Jedis connection must not be shared by concurrent pipelines
+		synchronized (jedis) {
+			return action.apply(jedis);
+		}
+	}
+
+	/**
+	 * An entry written with {@code TVS.HSET}.
+	 * 
+	 * @param key the key of the entry in the index
+	 * @param vector the vector in Tair's text form, such as {@code [1.0,2.5]}
+	 * @param params attribute names and values, alternating
+	 */
+	public record HsetEntry(String key, String vector, String... params) {
 	}
 
 }
@@ -26,6 +26,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.embedding.BatchingStrategy;
 import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
 import org.springframework.ai.embedding.TokenCountBatchingStrategy;
 import org.springframework.ai.vectorstore.AbstractVectorStoreBuilder;
 import org.springframework.ai.vectorstore.SearchRequest;
@@ -140,44 +141,41 @@ public class TairVectorStore extends AbstractObservationVectorStore {
 			throw new IllegalArgumentException("Documents list cannot be empty");
 		}
 
-		for (Document document : documents) {
-			logger.info("Calling EmbeddingModel for document id = {}", document.getId());
-			float[] embedding = this.embeddingModel.embed(document);
-			String embeddingString = null;
+		logger.debug("Calling EmbeddingModel for {} documents", documents.size());
+		List<float[]> embeddings = this.embeddingModel.embed(documents, EmbeddingOptions.builder().build(),
+				this.batchingStrategy);
+
+		int batchSize = options.getBatchSize();
+		List<TairVectorApi.HsetEntry> batch = new ArrayList<>(Math.min(batchSize, documents.size()));
+		for (int i = 0; i < documents.size(); i++) {
+			Document document = documents.get(i);
+			String metadata;
 			try {
-				embeddingString = objectMapper.writeValueAsString(embedding);
-
-				List<String> params = new ArrayList<>();
-				params.add(ID_FIELD_NAME);
-				params.add(document.getId());
-				params.add(CONTENT_FIELD_NAME);
-				params.add(document.getText());
-				params.add(METADATA_FIELD_NAME);
-				params.add(objectMapper.writeValueAsString(document.getMetadata()));
-				this.tairVectorApi.tvshset(options.getIndexName(), document.getId(), embeddingString,
-						params.toArray(new String[0]));
+				metadata = objectMapper.writeValueAsString(document.getMetadata());
 			}
 			catch (JsonProcessingException e) {
 				throw new RuntimeException("Error serializing message", e);
 			}
+			batch.add(new TairVectorApi.HsetEntry(document.getId(), toVectorString(embeddings.get(i)), ID_FIELD_NAME,
+					document.getId(), CONTENT_FIELD_NAME, document.getText(), METADATA_FIELD_NAME, metadata));
+			if (batch.size() == batchSize || i == documents.size() - 1) {
+				this.tairVectorApi.tvshsetPipelined(options.getIndexName(), List.copyOf(batch));
+				batch.clear();
+			}
 		}
 	}
 
 	@Override
 	public void doDelete(List<String> idList) {
-		throw new UnsupportedOperationException("delete is not supported");
+		Objects.requireNonNull(idList, "Document id list cannot be null");
+		long deleted = this.tairVectorApi.tvsdelPipelined(options.getIndexName(), idList, options.getBatchSize());
+		logger.debug("Deleted {} of {} documents", deleted, idList.size());
 	}
 
 	@Override
 	public List<Document> doSimilaritySearch(SearchRequest request) {
 		float[] userQueryEmbedding = getUserQueryEmbedding(request.getQuery());
-		String embeddingString = null;
-		try {
-			embeddingString = objectMapper.writeValueAsString(userQueryEmbedding);
-		}
-		catch (JsonProcessingException e) {
-			throw new RuntimeException("Failed to serialize JSON", e);
-		}
+		String embeddingString = toVectorString(userQueryEmbedding);
 		VectorBuilderFactory.Knn<String> result = this.tairVectorApi.tvsknnsearch(options.getIndexName(),
 				(long) request.getTopK(), embeddingString);
 
@@ -189,6 +187,23 @@ public class TairVectorStore extends AbstractObservationVectorStore {
 			.toList();
 	}
 
+	/**
+	 * Writes a vector in the text form Tair expects for FLOAT32 vectors, such as
+	 * {@code [0.1,0.2]}.
+	 * @param vector the vector
+	 * @return the text form of the vector
+	 */
+	static String toVectorString(float[] vector) {
+		StringBuilder sb = new StringBuilder(vector.length * 12 + 2).append('[');
+		for (int i = 0; i < vector.length; i++) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append(vector[i]);
+		}
+		return sb.append(']').toString();
+	}
+
 	/**
 	 * Retrieves a document from the vector store based on a KnnItem.
 	 * @param item The KnnItem containing the document ID.
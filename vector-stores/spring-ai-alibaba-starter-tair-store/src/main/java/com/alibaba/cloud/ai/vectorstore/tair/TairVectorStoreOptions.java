@@ -17,6 +17,7 @@ package com.alibaba.cloud.ai.vectorstore.tair;
 
 import com.aliyun.tair.tairvector.params.DistanceMethod;
 import com.aliyun.tair.tairvector.params.IndexAlgorithm;
+import org.springframework.util.Assert;
 
 import java.util.Arrays;
 import java.util.List;
@@ -39,6 +40,11 @@ public class TairVectorStoreOptions {
 	 */
 	public static final String DEFAULT_INDEX_NAME = "spring_ai_tair_vector_store";
 
+	/**
+	 * Default number of commands sent per pipeline.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 500;
+
 	/**
 	 * The name of the index in the vector store.
 	 */
@@ -76,6 +82,11 @@ public class TairVectorStoreOptions {
 	 */
 	private Integer expireSeconds = 600;
 
+	/**
+	 * The number of commands sent per pipeline when adding or deleting documents.
+	 */
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
 	/**
 	 * The expiration time for the index, in seconds.
 	 */
@@ -171,4 +182,21 @@ public class TairVectorStoreOptions {
 		this.expireSeconds = expireSeconds;
 	}
 
+	/**
+	 * Gets the number of commands sent per pipeline when adding or deleting documents.
+	 * @return the batch size
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Sets the number of commands sent per pipeline when adding or deleting documents.
+	 * @param batchSize the batch size to set
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "batchSize must be positive");
+		this.batchSize = batchSize;
+	}
+
 }
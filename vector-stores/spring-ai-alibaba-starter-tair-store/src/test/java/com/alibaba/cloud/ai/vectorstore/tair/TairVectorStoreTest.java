@@ -16,11 +16,24 @@
 package com.alibaba.cloud.ai.vectorstore.tair;
 
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.BatchingStrategy;
 import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
 import org.springframework.ai.vectorstore.observation.VectorStoreObservationContext;
 
+import java.util.List;
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * Test class for TairVectorStore to verify the fix for createObservationContextBuilder
@@ -88,4 +101,42 @@ class TairVectorStoreTest {
 		assertThat(context.getSimilarityMetric()).isEqualTo("IP");
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	void testAddEmbedsOnceAndPipelinesInBatches() {
+		TairVectorApi mockTairVectorApi = mock(TairVectorApi.class);
+		EmbeddingModel mockEmbeddingModel = mock(EmbeddingModel.class);
+		when(mockEmbeddingModel.embed(anyList(), any(EmbeddingOptions.class), any(BatchingStrategy.class)))
+			.thenReturn(List.of(new float[] { 1f, 2f }, new float[] { 3f, 4f }, new float[] { 5f, 6f }));
+		TairVectorStoreOptions options = new TairVectorStoreOptions();
+		options.setBatchSize(2);
+		TairVectorStore vectorStore = TairVectorStore.builder(mockTairVectorApi, mockEmbeddingModel)
+			.options(options)
+			.build();
+
+		vectorStore.add(List.of(new Document("1", "a", Map.of()), new Document("2", "b", Map.of()),
+				new Document("3", "c", Map.of())));
+
+		verify(mockEmbeddingModel, times(1)).embed(anyList(), any(EmbeddingOptions.class), any(BatchingStrategy.class));
+		ArgumentCaptor<List<TairVectorApi.HsetEntry>> batches = ArgumentCaptor.forClass(List.class);
+		verify(mockTairVectorApi, times(2)).tvshsetPipelined(eq(options.getIndexName()), batches.capture());
+		assertThat(batches.getAllValues()).extracting(List::size).containsExactly(2, 1);
+		TairVectorApi.HsetEntry last = batches.getAllValues().get(1).get(0);
+		assertThat(last.key()).isEqualTo("3");
+		assertThat(last.vector()).isEqualTo("[5.0,6.0]");
+		assertThat(last.params()).containsExactly("id", "3", "content", "c", "metadata", "{}");
+	}
+
+	@Test
+	void testDeleteIsPipelined() {
+		TairVectorApi mockTairVectorApi = mock(TairVectorApi.class);
+		EmbeddingModel mockEmbeddingModel = mock(EmbeddingModel.class);
+		TairVectorStore vectorStore = TairVectorStore.builder(mockTairVectorApi, mockEmbeddingModel).build();
+
+		vectorStore.delete(List.of("1", "2"));
+
+		verify(mockTairVectorApi).tvsdelPipelined(TairVectorStoreOptions.DEFAULT_INDEX_NAME, List.of("1", "2"),
+				TairVectorStoreOptions.DEFAULT_BATCH_SIZE);
+	}
+
 }
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.vectorstore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Writes the chunks of a vector store add or delete concurrently, retrying transient
+ * failures with jittered exponential backoff.
+ * <p>
+ * A store keeps one writer, so all of its calls share the same pool and
+ * {@code maxConcurrency} bounds the requests the store has in flight. Idle threads exit
+ * on their own, closing the writer only stops them sooner. A {@link ChunkWriter} may
+ * report the items of a chunk that failed transiently, only those are sent again.
+ */
+public class ConcurrentBatchWriter implements AutoCloseable {
+
+	private static final long INITIAL_BACKOFF_MILLIS = 100;
+
+	private static final long MAX_BACKOFF_MILLIS = 5000;
+
+	private static final long KEEP_ALIVE_SECONDS = 60;
+
+	private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+	private final int maxConcurrency;
+
+	private final int maxRetries;
+
+	private final Predicate<Exception> transientFailure;
+
+	private final long initialBackoffMillis;
+
+	private final ThreadPoolExecutor executor;
+
+	/**
+	 * @param name prefix of the pool thread names
+	 * @param maxConcurrency the most chunks written at once
+	 * @param maxRetries how many times a chunk that failed transiently is sent again
+	 * @param transientFailure whether a failure is worth retrying
+	 */
+	public ConcurrentBatchWriter(String name, int maxConcurrency, int maxRetries,
+			Predicate<Exception> transientFailure) {
+		this(name, maxConcurrency, maxRetries, transientFailure, INITIAL_BACKOFF_MILLIS);
+	}
+
+	ConcurrentBatchWriter(String name, int maxConcurrency, int maxRetries, Predicate<Exception> transientFailure,
+			long initialBackoffMillis) {
+		if (maxConcurrency <= 0) {
+			throw new IllegalArgumentException("maxConcurrency must be positive");
+		}
+		if (maxRetries < 0) {
+			throw new IllegalArgumentException("maxRetries must not be negative");
+		}
+		this.maxConcurrency = maxConcurrency;
+		this.maxRetries = maxRetries;
+		this.transientFailure = transientFailure;
+		this.initialBackoffMillis = initialBackoffMillis;
+		this.executor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), runnable -> {
+					Thread thread = new Thread(runnable, name + "-" + THREAD_COUNTER.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Split the items into consecutive chunks of at most {@code chunkSize} items.
+	 */
+	public static <T> List<List<T>> chunks(List<T> items, int chunkSize) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("chunkSize must be positive");
+		}
+		List<List<T>> chunks = new ArrayList<>((items.size() + chunkSize - 1) / chunkSize);
+		for (int from = 0; from < items.size(); from += chunkSize) {
+			chunks.add(items.subList(from, Math.min(items.size(), from + chunkSize)));
+		}
+		return chunks;
+	}
+
+	/**
+	 * Write every chunk and wait for all of them.
+	 * @throws RuntimeException the first chunk failure, the failures of other chunks are
+	 * attached as suppressed exceptions. Chunks that did not fail are written.
+	 */
+	public <T> void writeAll(List<List<T>> chunks, ChunkWriter<T> writer) {
+		if (chunks.size() <= 1 || this.maxConcurrency == 1) {
+			chunks.forEach(chunk -> write(chunk, writer));
+			return;
+		}
+		List<CompletableFuture<Void>> futures = new ArrayList<>(chunks.size());
+		for (List<T> chunk : chunks) {
+			futures.add(CompletableFuture.runAsync(() -> write(chunk, writer), this.executor));
+		}
+		RuntimeException failure = null;
+		for (CompletableFuture<Void> future : futures) {
+			try {
+				future.join();
+			}
+			catch (CompletionException e) {
+				RuntimeException cause = asRuntimeException(e.getCause());
+				if (failure == null) {
+					failure = cause;
+				}
+				else {
+					failure.addSuppressed(cause);
+				}
+			}
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	private <T> void write(List<T> chunk, ChunkWriter<T> writer) {
+		List<T> pending = chunk;
+		for (int attempt = 0;; attempt++) {
+			try {
+				pending = writer.write(pending);
+				if (pending.isEmpty()) {
+					return;
+				}
+			}
+			catch (Exception e) {
+				if (attempt >= this.maxRetries || !this.transientFailure.test(e)) {
+					throw asRuntimeException(e);
+				}
+			}
+			if (attempt >= this.maxRetries) {
+				throw new IllegalStateException(
+						pending.size() + " of " + chunk.size() + " items still failed after " + attempt + " retries");
+			}
+			sleepBeforeRetry(attempt);
+		}
+	}
+
+	private void sleepBeforeRetry(int attempt) {
+		long backoff = Math.min(MAX_BACKOFF_MILLIS, this.initialBackoffMillis << Math.min(attempt, 16));
+		try {
+			Thread.sleep(backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1));
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while retrying a batch write", e);
+		}
+	}
+
+	private static RuntimeException asRuntimeException(Throwable e) {
+		if (e instanceof RuntimeException runtimeException) {
+			return runtimeException;
+		}
+		if (e instanceof Error error) {
+			throw error;
+		}
+		return new RuntimeException(e.getMessage(), e);
+	}
+
+	/**
+	 * Stop the pool threads, calls still running are interrupted.
+	 */
+	@Override
+	public void close() {
+		this.executor.shutdownNow();
+	}
+
+	/**
+	 * Writes one chunk.
+	 *
+	 * @param <T> the chunk items
+	 */
+	@FunctionalInterface
+	public interface ChunkWriter<T> {
+
+		/**
+		 * @param chunk the items to write
+		 * @return the items that failed transiently and are sent again, empty when every
+		 * item was written
+		 * @throws Exception when the whole chunk failed, it is sent again if the failure
+		 * is transient
+		 */
+		List<T> write(List<T> chunk) throws Exception;
+
+	}
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2024-2025 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.cloud.ai.vectorstore;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrentBatchWriterTest {
+
+	private final ConcurrentBatchWriter writer = new ConcurrentBatchWriter("batch-writer-test", 4, 2,
+			e -> e instanceof IOException, 1);
+
+	@AfterEach
+	void close() {
+		writer.close();
+	}
+
+	@Test
+	void chunksKeepOrderAndBound() {
+		assertThat(ConcurrentBatchWriter.chunks(List.of(1, 2, 3, 4, 5), 2)).containsExactly(List.of(1, 2),
+				List.of(3, 4), List.of(5));
+		assertThat(ConcurrentBatchWriter.chunks(List.of(), 2)).isEmpty();
+	}
+
+	@Test
+	void writesEveryChunkOnPoolThreads() {
+		List<Integer> written = new CopyOnWriteArrayList<>();
+		Set<String> threads = ConcurrentHashMap.newKeySet();
+		writer.writeAll(ConcurrentBatchWriter.chunks(List.of(1, 2, 3, 4, 5, 6, 7), 2), chunk -> {
+			threads.add(Thread.currentThread().getName());
+			written.addAll(chunk);
+			return List.of();
+		});
+
+		assertThat(written).containsExactlyInAnyOrder(1, 2, 3, 4, 5, 6, 7);
+		assertThat(threads).allMatch(name -> name.startsWith("batch-writer-test-"));
+	}
+
+	@Test
+	void retriesOnlyTheItemsReportedAsFailed() {
+		Map<Integer, AtomicInteger> attempts = new ConcurrentHashMap<>();
+		writer.writeAll(List.of(List.of(1, 2, 3)), chunk -> {
+			chunk.forEach(item -> attempts.computeIfAbsent(item, k -> new AtomicInteger()).incrementAndGet());
+			// item 2 fails once
+			return attempts.get(2).get() == 1 && chunk.contains(2) ? List.of(2) : List.of();
+		});
+
+		assertThat(attempts.get(1)).hasValue(1);
+		assertThat(attempts.get(2)).hasValue(2);
+		assertThat(attempts.get(3)).hasValue(1);
+	}
+
+	@Test
+	void retriesTransientChunkFailuresUntilMaxRetries() {
+		AtomicInteger calls = new AtomicInteger();
+		writer.writeAll(List.of(List.of(1)), chunk -> {
+			if (calls.incrementAndGet() < 3) {
+				throw new IOException("throttled");
+			}
+			return List.of();
+		});
+		assertThat(calls).hasValue(3);
+
+		calls.set(0);
+		assertThatThrownBy(() -> writer.writeAll(List.of(List.of(1)), chunk -> {
+			calls.incrementAndGet();
+			throw new IOException("throttled");
+		})).hasCauseInstanceOf(IOException.class);
+		assertThat(calls).hasValue(3);
+
+		assertThatThrownBy(() -> writer.writeAll(List.of(List.of(1)), chunk -> List.of(1)))
+			.isInstanceOf(IllegalStateException.class)
+			.hasMessageContaining("1 of 1 items");
+	}
+
+	@Test
+	void reportsEveryChunkFailureAndWritesTheOthers() {
+		List<Integer> written = new CopyOnWriteArrayList<>();
+		assertThatThrownBy(() -> writer.writeAll(ConcurrentBatchWriter.chunks(List.of(1, 2, 3, 4), 1), chunk -> {
+			if (chunk.get(0) % 2 == 0) {
+				throw new IllegalArgumentException("bad item " + chunk.get(0));
+			}
+			written.addAll(chunk);
+			return List.of();
+		})).isInstanceOf(IllegalArgumentException.class).satisfies(e -> assertThat(e.getSuppressed()).hasSize(1));
+
+		assertThat(written).containsExactlyInAnyOrder(1, 3);
+	}
+
+}